@@ -1,48 +1,120 @@
 package com.loiane.product.cache;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Cache configuration for the Product Service.
  * Provides Caffeine-based caching with statistics enabled for monitoring.
+ * <p>
+ * Each cache gets its own {@link CachePolicy} from {@code product.cache.policies.<name>}:
+ * a memory budget its entries are weighed against by estimated size, and write and idle expiry.
+ * <p>
+ * Every cache is a {@link SingleFlightCache}: concurrent misses on one key wait for a single load.
+ * The caches in {@link #REFRESHED_CACHES} are also refreshed after write when their policy sets
+ * {@code refresh-after-write}: a hot entry is reloaded in the background by {@link CacheReloader}
+ * while reads keep getting the current value, instead of expiring under all of them at once.
+ * <p>
+ * The caching advice is ordered outside the transaction advice, so {@code @CachePut} and
+ * {@code @CacheEvict} on transactional writes apply after the commit, and never for a
+ * write that rolled back.
+ * <p>
+ * {@code productById} tracks which categories its products embed in {@link ProductCacheDependencies},
+ * so category writes can evict just the affected products.
  *
  * @author Loiane Groner
  * @since 1.0.0
  */
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @EnableAsync
 @EnableScheduling
 public class CacheConfig {
 
+    static final String PRODUCT_BY_ID = "productById";
+    static final String CATEGORIES = "categories";
+    static final List<String> CACHE_NAMES = List.of("products", PRODUCT_BY_ID, CATEGORIES, "categoryById");
+
+    /** Caches {@link ServiceCacheReloader} can reload; {@code refresh-after-write} is ignored for others. */
+    static final Set<String> REFRESHED_CACHES = Set.of(PRODUCT_BY_ID, CATEGORIES);
+
+    /** Used when {@code product.cache.default} is not configured. */
+    private static final CachePolicy FALLBACK_POLICY =
+            new CachePolicy(DataSize.ofMegabytes(4), Duration.ofMinutes(5), null, null);
+
     /**
-     * Configures the cache manager with Caffeine implementation.
+     * Configures the cache manager with one Caffeine cache per name, each built from its policy.
      * Enables statistics recording for monitoring cache performance.
      *
      * @return configured cache manager
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(Duration.ofSeconds(300)) // 5 minutes
-                .recordStats() // Enable statistics for monitoring
-        );
-
-        // Pre-define cache names for better management
-        cacheManager.setCacheNames(java.util.Arrays.asList(
-            "products", "productById", "categories", "categoryById"
-        ));
+    public CacheManager cacheManager(Environment environment, ProductCacheDependencies productCacheDependencies,
+                                     CacheReloader cacheReloader) {
+        Binder binder = Binder.get(environment);
+        CachePolicy defaults = binder.bind("product.cache.default", CachePolicy.class)
+                .map(policy -> policy.orElse(FALLBACK_POLICY))
+                .orElse(FALLBACK_POLICY);
+        Map<String, CachePolicy> policies = binder
+                .bind("product.cache.policies", Bindable.mapOf(String.class, CachePolicy.class))
+                .orElse(Map.of());
+
+        Map<String, RefreshLoader> refreshLoaders = new HashMap<>();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name,
+                                                                         AsyncCache<Object, Object> cache) {
+                RefreshLoader refreshLoader = refreshLoaders.get(name);
+                return PRODUCT_BY_ID.equals(name)
+                        ? new DependencyTrackingCache(name, cache, isAllowNullValues(), refreshLoader,
+                                productCacheDependencies)
+                        : new SingleFlightCache(name, cache, isAllowNullValues(), refreshLoader);
+            }
+        };
+        // Refreshed products may have changed categories through another instance
+        CacheReloader trackingReloader = (name, key) -> {
+            Object value = cacheReloader.reload(name, key);
+            DependencyTrackingCache.track(productCacheDependencies, key, value);
+            return value;
+        };
+        for (String name : CACHE_NAMES) {
+            CachePolicy policy = policies.getOrDefault(name, defaults).orElse(defaults);
+            Caffeine<Object, Object> builder = policy.toCaffeine();
+            if (PRODUCT_BY_ID.equals(name)) {
+                builder.evictionListener((key, _, _) -> productCacheDependencies.untrack((UUID) key));
+            }
+            AsyncCache<Object, Object> cache;
+            if (policy.refreshAfterWrite() != null && REFRESHED_CACHES.contains(name)) {
+                RefreshLoader refreshLoader = new RefreshLoader(name,
+                        PRODUCT_BY_ID.equals(name) ? trackingReloader : cacheReloader);
+                refreshLoaders.put(name, refreshLoader);
+                cache = builder.refreshAfterWrite(policy.refreshAfterWrite()).buildAsync(refreshLoader);
+            } else {
+                cache = builder.buildAsync();
+            }
+            cacheManager.registerCustomCache(name, cache);
+        }
+        // Only the caches above and those registered programmatically; no caches on demand
+        cacheManager.setCacheNames(List.of());
 
         return cacheManager;
     }
@@ -10,7 +10,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -42,7 +41,7 @@ public class CacheManagementController {
     @Operation(summary = "Get cache statistics",
                description = "Retrieve detailed statistics for all configured caches")
     public ResponseEntity<Map<String, CacheStatistics>> getCacheStatistics() {
-        var statistics = List.of("products", "productById", "categories", "categoryById")
+        var statistics = cacheMetricsService.getCacheNames()
             .stream()
             .collect(Collectors.toMap(
                 cacheName -> cacheName,
@@ -108,7 +107,7 @@ class CacheMetricsEndpoint {
     @ReadOperation
     public Map<String, Object> cacheMetrics() {
         var healthSummary = cacheMetricsService.getCacheHealthSummary();
-        var statistics = List.of("products", "productById", "categories", "categoryById")
+        var statistics = cacheMetricsService.getCacheNames()
             .stream()
             .collect(Collectors.toMap(
                 cacheName -> cacheName,
@@ -1,7 +1,11 @@
 package com.loiane.product.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -9,17 +13,26 @@ import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service for monitoring cache statistics and performance.
  * Provides detailed metrics about cache usage, hit rates, and performance.
+ * <p>
+ * Also publishes the single-flight counts of every {@link SingleFlightCache} to Micrometer:
+ * {@value #LOADS_METRIC}, tagged {@code result=loaded} for loads a caller ran and {@code coalesced}
+ * for callers that waited for one, and {@value #REFRESHES_METRIC}, tagged {@code success} or
+ * {@code failure} for background refreshes.
  *
  * @author Loiane Groner
  * @since 1.0.0
  */
 @Component
-public class CacheMetricsService {
+public class CacheMetricsService implements MeterBinder {
+
+    public static final String LOADS_METRIC = "product.cache.loads";
+    public static final String REFRESHES_METRIC = "product.cache.refreshes";
 
     private static final Logger logger = LoggerFactory.getLogger(CacheMetricsService.class);
 
@@ -29,6 +42,28 @@ public class CacheMetricsService {
         this.cacheManager = cacheManager;
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(cacheName) instanceof SingleFlightCache cache) {
+                FunctionCounter.builder(LOADS_METRIC, cache, SingleFlightCache::loads)
+                        .tags("cache", cacheName, "result", "loaded")
+                        .register(registry);
+                FunctionCounter.builder(LOADS_METRIC, cache, SingleFlightCache::coalescedLoads)
+                        .tags("cache", cacheName, "result", "coalesced")
+                        .register(registry);
+                if (cache.isRefreshed()) {
+                    FunctionCounter.builder(REFRESHES_METRIC, cache, SingleFlightCache::refreshes)
+                            .tags("cache", cacheName, "result", "success")
+                            .register(registry);
+                    FunctionCounter.builder(REFRESHES_METRIC, cache, SingleFlightCache::failedRefreshes)
+                            .tags("cache", cacheName, "result", "failure")
+                            .register(registry);
+                }
+            }
+        }
+    }
+
     /**
      * Logs cache statistics periodically for monitoring.
      * Runs every 5 minutes to track cache performance.
@@ -52,25 +87,38 @@ public class CacheMetricsService {
         if (cache instanceof CaffeineCache caffeineCache) {
             Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
             CacheStats stats = nativeCache.stats();
+            SingleFlightCache singleFlight = caffeineCache instanceof SingleFlightCache flight ? flight : null;
 
             long totalRequests = stats.requestCount();
             long hits = stats.hitCount();
             long misses = stats.missCount();
             double hitRate = totalRequests > 0 ? (double) hits / totalRequests * 100 : 0.0;
 
-            logger.info("Cache '{}': Size={}, Hits={}, Misses={}, Hit Rate={:.2f}%, " +
-                       "Avg Load Time={:.2f}ms, Evictions={}",
+            logger.info("Cache '{}': Size={}, Estimated Bytes={}/{}, Hits={}, Misses={}, Hit Rate={:.2f}%, " +
+                       "Avg Load Time={:.2f}ms, Evictions={}, Coalesced Loads={}, Refreshes={}",
                 cacheName,
                 nativeCache.estimatedSize(),
+                estimatedBytes(nativeCache),
+                maximumBytes(nativeCache),
                 hits,
                 misses,
                 hitRate,
                 stats.averageLoadPenalty() / 1_000_000.0, // Convert nanoseconds to milliseconds
-                stats.evictionCount()
+                stats.evictionCount(),
+                singleFlight != null ? singleFlight.coalescedLoads() : null,
+                singleFlight != null ? singleFlight.refreshes() : null
             );
         }
     }
 
+    /**
+     * Names of every cache managed by the cache manager, including caches registered
+     * programmatically such as {@link SearchResultCache#CACHE_NAME}.
+     */
+    public Collection<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+
     /**
      * Gets cache statistics for a specific cache.
      *
@@ -82,6 +130,7 @@ public class CacheMetricsService {
         if (cache instanceof CaffeineCache caffeineCache) {
             Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
             CacheStats stats = nativeCache.stats();
+            SingleFlightCache singleFlight = caffeineCache instanceof SingleFlightCache flight ? flight : null;
 
             return new CacheStatistics(
                 cacheName,
@@ -91,12 +140,38 @@ public class CacheMetricsService {
                 stats.requestCount(),
                 stats.hitRate(),
                 stats.averageLoadPenalty() / 1_000_000.0, // Convert to milliseconds
-                stats.evictionCount()
+                stats.evictionCount(),
+                estimatedBytes(nativeCache),
+                maximumBytes(nativeCache),
+                singleFlight != null ? singleFlight.coalescedLoads() : null,
+                singleFlight != null ? singleFlight.refreshes() : null,
+                singleFlight != null ? singleFlight.failedRefreshes() : null
             );
         }
         return null;
     }
 
+    /**
+     * Estimated bytes held by a cache bounded by weight, see {@link PayloadWeigher}; null for
+     * caches bounded by entry count.
+     */
+    private static Long estimatedBytes(Cache<Object, Object> cache) {
+        return cache.policy().eviction()
+            .filter(Policy.Eviction::isWeighted)
+            .map(eviction -> eviction.weightedSize().orElse(0))
+            .orElse(null);
+    }
+
+    /**
+     * Memory budget of a cache bounded by weight; null for caches bounded by entry count.
+     */
+    private static Long maximumBytes(Cache<Object, Object> cache) {
+        return cache.policy().eviction()
+            .filter(Policy.Eviction::isWeighted)
+            .map(Policy.Eviction::getMaximum)
+            .orElse(null);
+    }
+
     /**
      * Gets overall cache health summary.
      *
@@ -104,6 +179,7 @@ public class CacheMetricsService {
      */
     public CacheHealthSummary getCacheHealthSummary() {
         long totalSize = 0;
+        long totalEstimatedBytes = 0;
         long totalHits = 0;
         long totalMisses = 0;
         double averageHitRate = 0.0;
@@ -113,6 +189,9 @@ public class CacheMetricsService {
             CacheStatistics stats = getCacheStatistics(cacheName);
             if (stats != null) {
                 totalSize += stats.size();
+                if (stats.estimatedBytes() != null) {
+                    totalEstimatedBytes += stats.estimatedBytes();
+                }
                 totalHits += stats.hitCount();
                 totalMisses += stats.missCount();
                 averageHitRate += stats.hitRate();
@@ -127,6 +206,7 @@ public class CacheMetricsService {
         return new CacheHealthSummary(
             cacheCount,
             totalSize,
+            totalEstimatedBytes,
             totalHits,
             totalMisses,
             averageHitRate,
@@ -142,7 +222,8 @@ public class CacheMetricsService {
     }
 
     /**
-     * Cache statistics data class.
+     * Cache statistics data class. {@code estimatedBytes} and {@code maximumBytes} are set for
+     * caches bounded by weight only, the load and refresh counts for {@link SingleFlightCache}s only.
      */
     public record CacheStatistics(
         String cacheName,
@@ -152,7 +233,12 @@ public class CacheMetricsService {
         long requestCount,
         double hitRate,
         double averageLoadTimeMs,
-        long evictionCount
+        long evictionCount,
+        Long estimatedBytes,
+        Long maximumBytes,
+        Long coalescedLoadCount,
+        Long refreshCount,
+        Long failedRefreshCount
     ) {}
 
     /**
@@ -161,6 +247,7 @@ public class CacheMetricsService {
     public record CacheHealthSummary(
         int cacheCount,
         long totalSize,
+        long totalEstimatedBytes,
         long totalHits,
         long totalMisses,
         double averageHitRate,
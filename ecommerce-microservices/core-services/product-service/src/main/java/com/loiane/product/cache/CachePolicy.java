@@ -0,0 +1,51 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Eviction and expiry of one annotation-driven cache, bound from {@code product.cache.policies.<name>}.
+ * Properties left unset fall back to {@code product.cache.default}.
+ *
+ * @param maximumWeight    memory budget; entries are weighed by their {@link PayloadWeigher estimated size}
+ * @param expireAfterWrite time an entry lives after it was cached, null for no limit
+ * @param expireAfterAccess time an entry lives after it was last read, null for no limit
+ * @param refreshAfterWrite time after which the next read of an entry reloads it in the background,
+ *                          null for none; applied by {@link CacheConfig} to the caches it can reload
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public record CachePolicy(DataSize maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess,
+                          Duration refreshAfterWrite) {
+
+    /**
+     * This policy with its unset properties taken from {@code defaults}.
+     */
+    public CachePolicy orElse(CachePolicy defaults) {
+        return new CachePolicy(
+                maximumWeight != null ? maximumWeight : defaults.maximumWeight(),
+                expireAfterWrite != null ? expireAfterWrite : defaults.expireAfterWrite(),
+                expireAfterAccess != null ? expireAfterAccess : defaults.expireAfterAccess(),
+                refreshAfterWrite != null ? refreshAfterWrite : defaults.refreshAfterWrite());
+    }
+
+    /**
+     * A Caffeine builder applying this policy's eviction and expiry, with statistics enabled for
+     * {@link CacheMetricsService}. Refresh needs a loader and is left to the caller.
+     */
+    public Caffeine<Object, Object> toCaffeine() {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher(new PayloadWeigher())
+                .recordStats();
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        if (expireAfterAccess != null) {
+            builder.expireAfterAccess(expireAfterAccess);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,17 @@
+package com.loiane.product.cache;
+
+/**
+ * Reads the current value of a cache entry past the cache, for the background refresh of the
+ * caches in {@link CacheConfig#REFRESHED_CACHES}.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@FunctionalInterface
+interface CacheReloader {
+
+    /**
+     * @return the current value of the entry, or null if it no longer exists
+     */
+    Object reload(String cacheName, Object key);
+}
@@ -4,14 +4,18 @@ import com.loiane.product.category.CategoryService;
 import com.loiane.product.product.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -27,12 +31,21 @@ public class CacheWarmingService {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheWarmingService.class);
 
+    /** The storefront's default listing page, see {@code ProductController#list}. */
+    private static final Pageable DEFAULT_LISTING_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final ProductListingCache productListingCache;
+    private final int listingPages;
 
-    public CacheWarmingService(ProductService productService, CategoryService categoryService) {
+    public CacheWarmingService(ProductService productService, CategoryService categoryService,
+                               ProductListingCache productListingCache,
+                               @Value("${product.cache.warming.listing-pages:5}") int listingPages) {
         this.productService = productService;
         this.categoryService = categoryService;
+        this.productListingCache = productListingCache;
+        this.listingPages = listingPages;
     }
 
     /**
@@ -91,16 +104,22 @@ public class CacheWarmingService {
     }
 
     /**
-     * Warms up the products cache by loading the most popular/recent products.
+     * Warms up the products cache with the default listing page and the listing pages clients
+     * requested most, up to {@code product.cache.warming.listing-pages} in total.
+     *
+     * @return number of pages loaded into the cache
      */
-    private void warmPopularProductsCache() {
+    private int warmPopularProductsCache() {
         logger.debug("Warming popular products cache...");
 
-        // Load first 20 products sorted by name (most likely to be accessed)
-        var pageable = PageRequest.of(0, 20, Sort.by("name"));
-        productService.listAll(pageable);
+        Set<Pageable> pages = new LinkedHashSet<>();
+        pages.add(DEFAULT_LISTING_PAGE);
+        pages.addAll(productListingCache.popularPages(listingPages));
+        pages.stream().limit(listingPages).forEach(productService::listAll);
 
-        logger.debug("Popular products cache warmed successfully");
+        int warmed = Math.min(pages.size(), listingPages);
+        logger.debug("Popular products cache warmed with {} listing pages", warmed);
+        return warmed;
     }
 
     /**
@@ -112,8 +131,8 @@ public class CacheWarmingService {
         try {
             // Execute cache warming synchronously for manual triggers
             warmCategoriesCache();
-            warmPopularProductsCache();
-            logger.info("Manual cache warming completed successfully");
+            int warmed = warmPopularProductsCache();
+            logger.info("Manual cache warming completed successfully, {} listing pages loaded", warmed);
         } catch (Exception e) {
             logger.error("Error during manual cache warming", e);
         }
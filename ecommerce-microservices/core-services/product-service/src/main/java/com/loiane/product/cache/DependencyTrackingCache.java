@@ -0,0 +1,92 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.loiane.product.product.api.dto.ProductResponse;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * The {@code productById} cache: records the categories of every product put into it in
+ * {@link ProductCacheDependencies}, and forgets them when the product is evicted or removed.
+ * Size and expiry evictions reach {@link ProductCacheDependencies#untrack} through the
+ * Caffeine eviction listener set up in {@link CacheConfig}, and products replaced by a background
+ * refresh are tracked again by the reloader set up there.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+class DependencyTrackingCache extends SingleFlightCache {
+
+    private final ProductCacheDependencies dependencies;
+
+    DependencyTrackingCache(String name, AsyncCache<Object, Object> cache, boolean allowNullValues,
+                            RefreshLoader refreshLoader, ProductCacheDependencies dependencies) {
+        super(name, cache, allowNullValues, refreshLoader);
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return super.get(key, () -> {
+            T value = valueLoader.call();
+            track(dependencies, key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        track(dependencies, key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            track(dependencies, key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        untrack(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = super.evictIfPresent(key);
+        untrack(key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        dependencies.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = super.invalidate();
+        dependencies.clear();
+        return invalidated;
+    }
+
+    static void track(ProductCacheDependencies dependencies, Object key, Object value) {
+        if (key instanceof UUID productId && value instanceof ProductResponse product && product.categories() != null) {
+            dependencies.track(productId, product.categories().stream()
+                    .map(ProductResponse.CategorySummary::id)
+                    .toList());
+        }
+    }
+
+    private void untrack(Object key) {
+        if (key instanceof UUID productId) {
+            dependencies.untrack(productId);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.loiane.product.cache;
+
+/**
+ * A result freshly read for a cache, and whether it is complete. Results completed with a
+ * fallback, such as a page with a lower-bound total, are served to the caller that read them
+ * but never cached, so no other caller gets them without the fallback being flagged.
+ *
+ * @param value    the result
+ * @param complete false if part of it is a fallback
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public record LoadedResult<T>(T value, boolean complete) {
+
+    public static <T> LoadedResult<T> completed(T value) {
+        return new LoadedResult<>(value, true);
+    }
+}
@@ -0,0 +1,432 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers lookups of product and category IDs that do not exist without reading the product
+ * or category.
+ * <p>
+ * Per {@link Kind}, an {@link IdBloomFilter} holds every existing ID. It is built from the
+ * database once the application is ready and then rebuilt periodically
+ * ({@code product.cache.not-found.rebuild-interval}), which also sheds deleted IDs. Creates
+ * through this instance are added right away; IDs created through other instances are picked
+ * up by polling the {@code created_at} index ({@code sync-interval}). Until the first build
+ * finishes, every ID passes to the database.
+ * <p>
+ * An ID missing from the filter may still have been created through another instance since
+ * the last sync, so a filter miss is confirmed with a primary key lookup on the primary, up to
+ * {@code confirmations-per-second}. Beyond that, e.g. while a client probes random IDs, the
+ * filter answers alone and an ID created elsewhere within the last sync may be answered 404.
+ * <p>
+ * IDs the primary confirmed missing, and deleted IDs, are kept in a short-lived negative cache
+ * ({@code negative-ttl}), registered with the {@link CacheManager} as {@code productNotFound}
+ * and {@code categoryNotFound}. A read that may have gone to a lagging replica is never cached
+ * as missing without asking the primary.
+ * <p>
+ * Lookups answered here are counted in {@value #NOT_FOUND_METRIC}, tagged with the kind and
+ * {@code answered-by}: negative-cache, primary (a confirmed filter miss), filter (unconfirmed)
+ * or database (the caller's read).
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class NotFoundCache {
+
+    public static final String NOT_FOUND_METRIC = "product.cache.not-found";
+
+    private static final Logger log = LoggerFactory.getLogger(NotFoundCache.class);
+
+    /** Smallest number of IDs a filter is sized for. */
+    static final int MINIMUM_CAPACITY = 1024;
+
+    private static final RowMapper<CreatedId> CREATED_ID = (rs, _) ->
+            new CreatedId(rs.getObject("id", UUID.class), rs.getObject("created_at", OffsetDateTime.class));
+
+    public enum Kind {
+        PRODUCT("products", "productNotFound"),
+        CATEGORY("categories", "categoryNotFound");
+
+        private final String table;
+        private final String cacheName;
+
+        Kind(String table, String cacheName) {
+            this.table = table;
+            this.cacheName = cacheName;
+        }
+
+        public String cacheName() {
+            return cacheName;
+        }
+    }
+
+    /**
+     * Reads IDs from the primary.
+     */
+    interface IdSource {
+
+        /**
+         * The IDs of a kind created at or after {@code since}, or all of them for null.
+         */
+        List<CreatedId> createdSince(Kind kind, OffsetDateTime since);
+
+        /**
+         * Whether the ID exists, read on the primary even inside a read-only transaction.
+         */
+        boolean exists(Kind kind, UUID id);
+    }
+
+    record CreatedId(UUID id, OffsetDateTime createdAt) {}
+
+    private final IdSource source;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+    private final int confirmationsPerSecond;
+    private final Map<Kind, Ids> ids = new EnumMap<>(Kind.class);
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong confirmationSecond = new AtomicLong();
+    private final AtomicInteger confirmations = new AtomicInteger();
+
+    public NotFoundCache(CacheManager cacheManager, JdbcClient jdbcClient, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${product.cache.not-found.enabled:true}") boolean enabled,
+                         @Value("${product.cache.not-found.false-positive-rate:0.01}") double falsePositiveRate,
+                         @Value("${product.cache.not-found.sync-overlap:1m}") Duration syncOverlap,
+                         @Value("${product.cache.not-found.confirmations-per-second:200}") int confirmationsPerSecond,
+                         @Value("${product.cache.not-found.negative-ttl:30s}") Duration negativeTtl,
+                         @Value("${product.cache.not-found.negative-maximum-size:100000}") long negativeMaximumSize) {
+        this(cacheManager, jdbcSource(jdbcClient, transactionManager), meterRegistry, Clock.systemUTC(), enabled,
+                falsePositiveRate, syncOverlap, confirmationsPerSecond, negativeTtl, negativeMaximumSize);
+    }
+
+    NotFoundCache(CacheManager cacheManager, IdSource source, MeterRegistry meterRegistry, Clock clock,
+                  boolean enabled, double falsePositiveRate, Duration syncOverlap, int confirmationsPerSecond,
+                  Duration negativeTtl, long negativeMaximumSize) {
+        this.source = source;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = syncOverlap;
+        this.confirmationsPerSecond = confirmationsPerSecond;
+        for (Kind kind : Kind.values()) {
+            Cache<Object, Object> missing = Caffeine.newBuilder()
+                    .maximumSize(negativeMaximumSize)
+                    .expireAfterWrite(negativeTtl)
+                    .recordStats()
+                    .build();
+            if (enabled && cacheManager instanceof CaffeineCacheManager caffeineCacheManager) {
+                caffeineCacheManager.registerCustomCache(kind.cacheName(), missing);
+            }
+            ids.put(kind, new Ids(missing));
+        }
+    }
+
+    /**
+     * Reads from the primary: outside a transaction, reads are not routed to replicas, which may
+     * not have the newest IDs yet. Existence checks suspend the caller's transaction for that.
+     */
+    private static IdSource jdbcSource(JdbcClient jdbcClient, PlatformTransactionManager transactionManager) {
+        TransactionTemplate outsideTransaction = new TransactionTemplate(transactionManager);
+        outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        return new IdSource() {
+            @Override
+            public List<CreatedId> createdSince(Kind kind, OffsetDateTime since) {
+                return since == null
+                        ? jdbcClient.sql("SELECT id, created_at FROM " + kind.table).query(CREATED_ID).list()
+                        : jdbcClient.sql("SELECT id, created_at FROM " + kind.table + " WHERE created_at >= :since")
+                                .param("since", since)
+                                .query(CREATED_ID)
+                                .list();
+            }
+
+            @Override
+            public boolean exists(Kind kind, UUID id) {
+                return Boolean.TRUE.equals(outsideTransaction.execute(_ ->
+                        jdbcClient.sql("SELECT EXISTS (SELECT 1 FROM " + kind.table + " WHERE id = :id)")
+                                .param("id", id)
+                                .query(Boolean.class)
+                                .single()));
+            }
+        };
+    }
+
+    /**
+     * Whether the ID is known not to exist: the primary recently did not have it, or the filter
+     * does not contain it and the primary confirms, or confirmations are used up for this second.
+     */
+    public boolean isKnownMissing(Kind kind, UUID id) {
+        if (!enabled) {
+            return false;
+        }
+        Ids known = ids.get(kind);
+        if (known.missing.getIfPresent(id) != null) {
+            count(kind, "negative-cache");
+            return true;
+        }
+        IdBloomFilter filter = known.filter;
+        if (filter == null || filter.mightContain(id)) {
+            return false;
+        }
+        if (!tryConfirm()) {
+            count(kind, "filter");
+            return true;
+        }
+        Boolean exists = existsOnPrimary(kind, id);
+        if (exists == null || exists) {
+            if (Boolean.TRUE.equals(exists)) {
+                // Created through another instance since the last sync
+                known.add(id);
+            }
+            return false;
+        }
+        known.missing.put(id, Boolean.TRUE);
+        count(kind, "primary");
+        return true;
+    }
+
+    /**
+     * Counts an ID the caller's read did not find and, if the primary confirms it is missing,
+     * remembers it for {@code negative-ttl}. The read may have gone to a replica that has not
+     * replayed the ID's insert yet.
+     */
+    public void recordMissing(Kind kind, UUID id) {
+        if (!enabled) {
+            return;
+        }
+        count(kind, "database");
+        if (tryConfirm() && Boolean.FALSE.equals(existsOnPrimary(kind, id))) {
+            ids.get(kind).missing.put(id, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Adds a created ID to the filter right away, so reads finding it elsewhere before the
+     * commit completes are not answered 404, and again after the commit, in case a rebuild
+     * swapped the filter in between. A rollback leaves it as a false positive.
+     */
+    public void recordCreated(Kind kind, UUID id) {
+        if (!enabled) {
+            return;
+        }
+        Ids known = ids.get(kind);
+        known.add(id);
+        afterCommit(() -> known.add(id));
+    }
+
+    /**
+     * Remembers a deleted ID in the negative cache once the transaction commits; the filter
+     * keeps it until the next rebuild.
+     */
+    public void recordDeleted(Kind kind, UUID id) {
+        if (enabled) {
+            afterCommit(() -> ids.get(kind).missing.put(id, Boolean.TRUE));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reads every ID into fresh filters sized for twice the current count and swaps them in.
+     * Lookups keep using the current filters meanwhile; IDs created during the read are replayed.
+     */
+    @Scheduled(initialDelayString = "${product.cache.not-found.rebuild-interval:10m}",
+            fixedDelayString = "${product.cache.not-found.rebuild-interval:10m}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (Kind kind : Kind.values()) {
+                rebuild(kind);
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuild(Kind kind) {
+        Ids known = ids.get(kind);
+        known.startRebuild();
+        try {
+            long start = System.nanoTime();
+            List<CreatedId> all = source.createdSince(kind, null);
+            IdBloomFilter rebuilt = new IdBloomFilter(Math.max(MINIMUM_CAPACITY, 2L * all.size()), falsePositiveRate);
+            all.forEach(created -> rebuilt.put(created.id()));
+            known.finishRebuild(rebuilt, latest(all));
+            log.info("{} ID filter built with {} IDs ({} KB) in {} ms", kind.table, all.size(),
+                    rebuilt.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            known.abortRebuild();
+            log.warn("{} ID filter rebuild failed, {}", kind.table,
+                    known.filter != null ? "keeping the current filter" : "lookups stay on the database", e);
+        }
+    }
+
+    /**
+     * Adds the IDs created since the last build or sync, less {@code sync-overlap} to cover
+     * transactions that committed after later ones and clock skew between instances.
+     */
+    @Scheduled(initialDelayString = "${product.cache.not-found.sync-interval:5s}",
+            fixedDelayString = "${product.cache.not-found.sync-interval:5s}")
+    public void syncCreated() {
+        if (!enabled) {
+            return;
+        }
+        for (Kind kind : Kind.values()) {
+            Ids known = ids.get(kind);
+            OffsetDateTime watermark = known.watermark;
+            if (known.filter == null || watermark == null) {
+                continue;
+            }
+            try {
+                List<CreatedId> created = source.createdSince(kind, watermark.minus(syncOverlap));
+                created.forEach(id -> known.add(id.id()));
+                known.advanceWatermark(latest(created));
+            } catch (RuntimeException e) {
+                log.warn("Reading {} created since {} failed, retrying next time", kind.table, watermark, e);
+            }
+        }
+    }
+
+    /**
+     * Takes one of the confirmations of the current second, shared by both kinds.
+     */
+    private boolean tryConfirm() {
+        long second = clock.millis() / 1000;
+        long current = confirmationSecond.get();
+        if (second != current && confirmationSecond.compareAndSet(current, second)) {
+            confirmations.set(0);
+        }
+        return confirmations.incrementAndGet() <= confirmationsPerSecond;
+    }
+
+    /**
+     * Whether the primary has the ID, or null if it could not be asked.
+     */
+    private Boolean existsOnPrimary(Kind kind, UUID id) {
+        try {
+            return source.exists(kind, id);
+        } catch (RuntimeException e) {
+            log.warn("Confirming {} ID {} on the primary failed", kind.table, id, e);
+            return null;
+        }
+    }
+
+    private void count(Kind kind, String answeredBy) {
+        meterRegistry.counter(NOT_FOUND_METRIC, "kind", kind.name().toLowerCase(),
+                "answered-by", answeredBy).increment();
+    }
+
+    private static OffsetDateTime latest(List<CreatedId> ids) {
+        return ids.stream()
+                .map(CreatedId::createdAt)
+                .max(OffsetDateTime::compareTo)
+                .orElse(null);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Filter, negative cache and sync watermark of one kind. Adds and the swap of a rebuilt
+     * filter are serialized, so no add is lost between the rebuild's read and the swap;
+     * lookups read the filter without locking.
+     */
+    private static final class Ids {
+
+        private final Cache<Object, Object> missing;
+        private volatile IdBloomFilter filter;
+        private volatile OffsetDateTime watermark;
+        /** IDs added while a rebuild reads the database; replayed onto the rebuilt filter. */
+        private List<UUID> pending;
+
+        Ids(Cache<Object, Object> missing) {
+            this.missing = missing;
+        }
+
+        void add(UUID id) {
+            synchronized (this) {
+                if (filter != null) {
+                    filter.put(id);
+                }
+                if (pending != null) {
+                    pending.add(id);
+                }
+            }
+            missing.invalidate(id);
+        }
+
+        synchronized void startRebuild() {
+            pending = new ArrayList<>();
+        }
+
+        synchronized void finishRebuild(IdBloomFilter rebuilt, OffsetDateTime latest) {
+            pending.forEach(rebuilt::put);
+            pending = null;
+            filter = rebuilt;
+            advanceWatermark(latest);
+        }
+
+        synchronized void abortRebuild() {
+            pending = null;
+        }
+
+        synchronized void advanceWatermark(OffsetDateTime latest) {
+            if (latest != null && (watermark == null || latest.isAfter(watermark))) {
+                watermark = latest;
+            } else if (watermark == null) {
+                // Nothing created yet: sync everything created from now on
+                watermark = OffsetDateTime.now();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.loiane.product.category.api.dto.CategoryResponse;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.data.domain.Slice;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Weighs a cache entry by the estimated heap bytes of its key and value, so a cache bounded by
+ * weight holds as many entries as fit its memory budget whether they are single products or
+ * whole category lists.
+ * <p>
+ * Estimates assume a 64-bit JVM with compressed references and compact strings. They walk the
+ * response DTOs, their collections and pages field by field; any other object counts as
+ * {@value #UNKNOWN_OBJECT} bytes. Estimates are approximate, not measured.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class PayloadWeigher implements Weigher<Object, Object> {
+
+    static final int UNKNOWN_OBJECT = 64;
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    /** String object plus its byte array header. */
+    private static final int STRING = 24 + ARRAY_HEADER;
+    private static final int UUID_SIZE = 32;
+    /** OffsetDateTime with its LocalDateTime, LocalDate and LocalTime; the ZoneOffset is shared. */
+    private static final int OFFSET_DATE_TIME = 96;
+    /** ArrayList or immutable list object. */
+    private static final int LIST = 24;
+    /** PageImpl or SliceImpl with its Pageable and Sort. */
+    private static final int PAGE = 96;
+    private static final int MAP_ENTRY = 32;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, estimate(key) + estimate(value));
+    }
+
+    static long estimate(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case String string -> align(STRING + string.length());
+            case UUID _ -> UUID_SIZE;
+            case OffsetDateTime _ -> OFFSET_DATE_TIME;
+            case Number _, Boolean _, Enum<?> _ -> 16;
+            case ProductResponse product -> object(10) + estimate(product.id()) + estimate(product.sku())
+                    + estimate(product.name()) + estimate(product.slug()) + estimate(product.brand())
+                    + estimate(product.description()) + estimate(product.status())
+                    + estimate(product.categories()) + estimate(product.createdAt())
+                    + estimate(product.updatedAt());
+            case ProductResponse.CategorySummary summary -> object(3) + estimate(summary.id())
+                    + estimate(summary.name()) + estimate(summary.slug());
+            case CategoryResponse category -> object(6) + estimate(category.id()) + estimate(category.name())
+                    + estimate(category.slug()) + estimate(category.parent()) + estimate(category.createdAt())
+                    + estimate(category.updatedAt());
+            case CategoryResponse.ParentSummary parent -> object(3) + estimate(parent.id())
+                    + estimate(parent.name()) + estimate(parent.slug());
+            case Slice<?> slice -> PAGE + estimate(slice.getContent());
+            case Collection<?> collection -> LIST + align(ARRAY_HEADER + (long) REFERENCE * collection.size())
+                    + collection.stream().mapToLong(PayloadWeigher::estimate).sum();
+            case Map<?, ?> map -> LIST + map.entrySet().stream()
+                    .mapToLong(entry -> MAP_ENTRY + estimate(entry.getKey()) + estimate(entry.getValue()))
+                    .sum();
+            default -> UNKNOWN_OBJECT;
+        };
+    }
+
+    private static long object(int references) {
+        return align(OBJECT_HEADER + (long) REFERENCE * references);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
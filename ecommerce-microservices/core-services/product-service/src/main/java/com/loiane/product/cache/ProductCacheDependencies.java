@@ -0,0 +1,79 @@
+package com.loiane.product.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from category ID to the IDs of the products cached in {@code productById}
+ * whose response embeds that category, so a category rename or delete evicts exactly those
+ * products instead of the whole cache.
+ * <p>
+ * Kept up to date by {@link DependencyTrackingCache} as products enter and leave the cache:
+ * a put costs one set insert per category of the product, a removal one set remove. A product
+ * that leaves the cache concurrently with its put may stay indexed; evicting it later is a no-op.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class ProductCacheDependencies {
+
+    private final Map<UUID, Set<UUID>> productsByCategory = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> categoriesByProduct = new ConcurrentHashMap<>();
+
+    /**
+     * Records the categories of a cached product, replacing the ones recorded for it before.
+     */
+    void track(UUID productId, Collection<UUID> categoryIds) {
+        Set<UUID> categories = Set.copyOf(categoryIds);
+        Set<UUID> previous = categories.isEmpty()
+                ? categoriesByProduct.remove(productId)
+                : categoriesByProduct.put(productId, categories);
+        if (previous != null) {
+            previous.stream()
+                    .filter(categoryId -> !categories.contains(categoryId))
+                    .forEach(categoryId -> unlink(categoryId, productId));
+        }
+        categories.forEach(categoryId ->
+                productsByCategory.computeIfAbsent(categoryId, _ -> ConcurrentHashMap.newKeySet()).add(productId));
+    }
+
+    void untrack(UUID productId) {
+        Set<UUID> categories = categoriesByProduct.remove(productId);
+        if (categories != null) {
+            categories.forEach(categoryId -> unlink(categoryId, productId));
+        }
+    }
+
+    void clear() {
+        categoriesByProduct.clear();
+        productsByCategory.clear();
+    }
+
+    /**
+     * IDs of the cached products in the category, a snapshot.
+     */
+    public Set<UUID> cachedProductsIn(UUID categoryId) {
+        Set<UUID> products = productsByCategory.get(categoryId);
+        return products == null ? Set.of() : Set.copyOf(products);
+    }
+
+    /**
+     * Number of cached products with at least one category.
+     */
+    public int trackedProducts() {
+        return categoriesByProduct.size();
+    }
+
+    private void unlink(UUID categoryId, UUID productId) {
+        productsByCategory.computeIfPresent(categoryId, (_, products) -> {
+            products.remove(productId);
+            return products.isEmpty() ? null : products;
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Product listing pages in the {@value #CACHE_NAME} cache, keyed by page, size and sort.
+ * <p>
+ * Keys carry the catalog generation of {@link SearchResultCache}, which every committed product
+ * or category write advances, so a write makes all earlier pages unreachable with one counter
+ * increment instead of clearing the cache; they age out under the cache's {@link CachePolicy}.
+ * <p>
+ * Also counts how often clients request each page, so {@link CacheWarmingService} can load the
+ * pages the storefront actually asks for. Loads outside an HTTP request, such as warming itself,
+ * are not counted. At most {@code product.cache.warming.tracked-pages} distinct pages are counted.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class ProductListingCache {
+
+    public static final String CACHE_NAME = "products";
+
+    private final Cache pages;
+    private final SearchResultCache searchResultCache;
+    private final int trackedPages;
+    private final Map<ListingPage, LongAdder> requests = new ConcurrentHashMap<>();
+
+    public ProductListingCache(CacheManager cacheManager, SearchResultCache searchResultCache,
+                               @Value("${product.cache.warming.tracked-pages:100}") int trackedPages) {
+        this.pages = cacheManager.getCache(CACHE_NAME);
+        this.searchResultCache = searchResultCache;
+        this.trackedPages = trackedPages;
+    }
+
+    /**
+     * Returns the cached page in the current generation, loading it on a miss. Concurrent misses
+     * for the same page wait for one load. Unpaged listings are never cached, and neither are
+     * incomplete pages: the caller that loaded one gets it, and callers that waited for that
+     * load run their own.
+     */
+    public Page<ProductResponse> get(Pageable pageable, Supplier<LoadedResult<Page<ProductResponse>>> loader) {
+        if (pageable.isUnpaged() || pages == null) {
+            return loader.get().value();
+        }
+        ListingPage page = new ListingPage(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            count(page);
+        }
+        // Read before loading: a write committing meanwhile leaves this page in a stale generation
+        Key key = new Key(searchResultCache.generation(), page);
+        boolean[] loadedHere = {false};
+        try {
+            return pages.get(key, () -> {
+                loadedHere[0] = true;
+                LoadedResult<Page<ProductResponse>> loaded = loader.get();
+                if (!loaded.complete()) {
+                    // A failed load is dropped from the cache
+                    throw new IncompletePage(loaded.value());
+                }
+                return loaded.value();
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (!(e.getCause() instanceof IncompletePage incomplete)) {
+                throw e;
+            }
+            return loadedHere[0] ? incomplete.page : loader.get().value();
+        }
+    }
+
+    /**
+     * Returns the page cached in the current or one of the
+     * {@value SearchResultCache#STALE_GENERATIONS} previous generations, or null. Served when a
+     * fresh listing exceeds its deadline; lookups are not counted in the hit rate.
+     */
+    @SuppressWarnings("unchecked")
+    public Page<ProductResponse> getStale(Pageable pageable) {
+        if (pageable.isUnpaged() || !(pages instanceof CaffeineCache caffeineCache)) {
+            return null;
+        }
+        ListingPage page = new ListingPage(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        long current = searchResultCache.generation();
+        for (long g = current; g >= Math.max(0, current - SearchResultCache.STALE_GENERATIONS); g--) {
+            Object cached = caffeineCache.getNativeCache().asMap().get(new Key(g, page));
+            if (cached != null) {
+                return (Page<ProductResponse>) cached;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The most requested pages, most requested first.
+     */
+    public List<Pageable> popularPages(int limit) {
+        return requests.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<ListingPage, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(limit)
+                .map(entry -> (Pageable) PageRequest.of(entry.getKey().page(), entry.getKey().size(),
+                        entry.getKey().sort()))
+                .toList();
+    }
+
+    private void count(ListingPage page) {
+        LongAdder count = requests.get(page);
+        if (count == null) {
+            if (requests.size() >= trackedPages) {
+                return;
+            }
+            count = requests.computeIfAbsent(page, _ -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    private record ListingPage(int page, int size, Sort sort) {}
+
+    /**
+     * Aborts the load of an incomplete page so that it is not cached, carrying the page to the
+     * caller that loaded it.
+     */
+    private static final class IncompletePage extends RuntimeException {
+
+        private final transient Page<ProductResponse> page;
+
+        IncompletePage(Page<ProductResponse> page) {
+            super(null, null, false, false);
+            this.page = page;
+        }
+    }
+
+    private record Key(long generation, ListingPage page) {}
+}
@@ -0,0 +1,48 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reloads the entries of a cache refreshed after write through its {@link CacheReloader}. Caffeine
+ * runs at most one reload per key at a time, on its executor rather than the request thread.
+ * <p>
+ * A reload returning null drops the entry, e.g. a product deleted through another instance. A
+ * failed reload keeps the current value until it expires; the next read retries it.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+class RefreshLoader implements CacheLoader<Object, Object> {
+
+    private final String cacheName;
+    private final CacheReloader reloader;
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failedRefreshes = new LongAdder();
+
+    RefreshLoader(String cacheName, CacheReloader reloader) {
+        this.cacheName = cacheName;
+        this.reloader = reloader;
+    }
+
+    @Override
+    public Object load(Object key) {
+        try {
+            Object value = reloader.reload(cacheName, key);
+            refreshes.increment();
+            return value;
+        } catch (RuntimeException e) {
+            failedRefreshes.increment();
+            throw e;
+        }
+    }
+
+    long refreshes() {
+        return refreshes.sum();
+    }
+
+    long failedRefreshes() {
+        return failedRefreshes.sum();
+    }
+}
@@ -0,0 +1,88 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of search result totals keyed by normalized search criteria.
+ * Page responses need a total, but the count query runs over the same joins as the page
+ * itself; caching it for a few seconds removes most of that cost for repeated searches.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class SearchCountCache {
+
+    private final Cache<Object, Long> counts;
+    private final boolean estimatesEnabled;
+
+    public SearchCountCache(@Value("${product.search.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${product.search.count-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${product.search.count-mode:exact}") String countMode) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.estimatesEnabled = "estimate".equalsIgnoreCase(countMode);
+    }
+
+    /**
+     * Returns the cached total for the criteria, computing it with the loader on a miss.
+     *
+     * @param criteria normalized search criteria (must implement equals/hashCode)
+     * @param loader computes the total when it is not cached
+     */
+    public long get(Object criteria, LongSupplier loader) {
+        return counts.get(criteria, key -> loader.getAsLong());
+    }
+
+    /**
+     * Whether unfiltered totals may come from the Postgres planner estimate instead of count(*).
+     */
+    public boolean isEstimateEnabled() {
+        return estimatesEnabled;
+    }
+
+    /**
+     * Drops every cached total, used when rows are inserted or deleted.
+     */
+    public void invalidateAll() {
+        counts.invalidateAll();
+    }
+
+    /**
+     * Drops every cached total once the current transaction commits, or right away without one.
+     * Dropping before the commit would let a concurrent search re-cache the old total, which the
+     * {@link SearchResultCache} generation started after the commit would then serve.
+     */
+    public void invalidateAllAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counts.invalidateAll();
+                }
+            });
+        } else {
+            counts.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return counts.stats();
+    }
+
+    public long estimatedSize() {
+        return counts.estimatedSize();
+    }
+}
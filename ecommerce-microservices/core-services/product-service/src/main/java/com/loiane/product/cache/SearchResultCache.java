@@ -0,0 +1,139 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of product and category search results keyed by the normalized criteria, page, size
+ * and sort of the request, so equivalent requests share one entry however they were spelled.
+ * <p>
+ * Every key also carries the catalog generation it was read in. Each committed product or
+ * category write starts a new generation, which makes all earlier entries unreachable at once
+ * without tracking which keys a write affects; they age out by size and TTL. The TTL also
+ * bounds how long writes made through other instances go unseen.
+ * <p>
+ * Registered with the {@link CacheManager} as {@value #CACHE_NAME}, so {@link CacheMetricsService}
+ * reports its hit rate alongside the annotation-driven caches.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String CACHE_NAME = "searchResults";
+
+    /** Earlier generations {@link #getStale} looks back through. */
+    static final int STALE_GENERATIONS = 16;
+
+    private final Cache<Object, Object> results;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(CacheManager cacheManager,
+                             @Value("${product.search.result-cache.enabled:true}") boolean enabled,
+                             @Value("${product.search.result-cache.ttl:60s}") Duration ttl,
+                             @Value("${product.search.result-cache.maximum-size:2000}") long maximumSize) {
+        this.enabled = enabled;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        if (cacheManager instanceof CaffeineCacheManager caffeineCacheManager) {
+            caffeineCacheManager.registerCustomCache(CACHE_NAME, results);
+        }
+    }
+
+    /**
+     * Returns the cached result for the request in the current generation, computing it with
+     * the loader on a miss. Concurrent misses for the same key wait for one load.
+     *
+     * @param kind distinguishes result types searched with the same criteria, e.g. page and slice
+     * @param criteria normalized search criteria (must implement equals/hashCode)
+     */
+    public <T> T get(String kind, Object criteria, Pageable pageable, Supplier<T> loader) {
+        return getUnlessPartial(kind, criteria, pageable, () -> LoadedResult.completed(loader.get()));
+    }
+
+    /**
+     * Like {@link #get}, but an incomplete result is returned to the caller that loaded it
+     * without being cached; callers that waited for that load then run their own.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getUnlessPartial(String kind, Object criteria, Pageable pageable, Supplier<LoadedResult<T>> loader) {
+        if (!enabled || pageable.isUnpaged()) {
+            return loader.get().value();
+        }
+        // Read before loading: a write committing meanwhile leaves this result in a stale generation
+        Key key = new Key(generation.get(), kind, criteria, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort());
+        Object[] incomplete = {null};
+        Object result = results.get(key, _ -> {
+            LoadedResult<T> loaded = loader.get();
+            if (loaded.complete()) {
+                return loaded.value();
+            }
+            incomplete[0] = loaded.value();
+            // Nothing is cached for a null value
+            return null;
+        });
+        return (T) (result != null ? result : incomplete[0]);
+    }
+
+    /**
+     * Returns the most recent result cached for the request in the current or one of the
+     * {@value #STALE_GENERATIONS} previous generations, or null. Served when a fresh search
+     * exceeds its deadline; lookups are not counted in the hit rate.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getStale(String kind, Object criteria, Pageable pageable) {
+        if (!enabled || pageable.isUnpaged()) {
+            return null;
+        }
+        long current = generation.get();
+        for (long g = current; g >= Math.max(0, current - STALE_GENERATIONS); g--) {
+            Object result = results.asMap().get(new Key(g, kind, criteria, pageable.getPageNumber(),
+                    pageable.getPageSize(), pageable.getSort()));
+            if (result != null) {
+                return (T) result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts a new generation once the current transaction commits, or right away without one.
+     * Bumping before the commit would let a search still seeing the old rows cache them as new.
+     */
+    public void nextGenerationAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    private record Key(long generation, String kind, Object criteria, int page, int size, Sort sort) {}
+}
@@ -0,0 +1,40 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.category.CategoryService;
+import com.loiane.product.product.ProductService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Reloads {@code productById} and {@code categories} entries through the services' uncached,
+ * read-only transactional reads, so refreshes are routed like any other read.
+ * <p>
+ * The services are looked up on first reload: {@link CategoryService} needs the cache manager
+ * this reloader is built into.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+class ServiceCacheReloader implements CacheReloader {
+
+    private final ObjectProvider<ProductService> productService;
+    private final ObjectProvider<CategoryService> categoryService;
+
+    ServiceCacheReloader(ObjectProvider<ProductService> productService,
+                         ObjectProvider<CategoryService> categoryService) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+    }
+
+    @Override
+    public Object reload(String cacheName, Object key) {
+        return switch (cacheName) {
+            case CacheConfig.PRODUCT_BY_ID -> productService.getObject().findById((UUID) key).orElse(null);
+            case CacheConfig.CATEGORIES -> categoryService.getObject().findAll();
+            default -> throw new IllegalArgumentException("Cache '" + cacheName + "' is not refreshed");
+        };
+    }
+}
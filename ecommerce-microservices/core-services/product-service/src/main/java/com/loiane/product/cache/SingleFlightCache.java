@@ -0,0 +1,101 @@
+package com.loiane.product.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An annotation-driven cache backed by a Caffeine {@link AsyncCache}, so a load in progress is an
+ * entry that other callers find and wait for. Concurrent misses on the same key, through
+ * {@code @Cacheable(sync = true)} or {@link #get(Object, Callable)}, run the loader once on the
+ * first caller's thread; the others wait for its result and are counted as coalesced loads.
+ * <p>
+ * Caches built with a {@link RefreshLoader} are refreshed after write: the first read of an entry
+ * older than the refresh interval starts one background reload, and it and the reads that follow
+ * are served the current value until the reload replaces it.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+class SingleFlightCache extends CaffeineCache {
+
+    private final RefreshLoader refreshLoader;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    SingleFlightCache(String name, AsyncCache<Object, Object> cache, boolean allowNullValues,
+                      RefreshLoader refreshLoader) {
+        super(name, cache, allowNullValues);
+        this.refreshLoader = refreshLoader;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> current = getAsyncCache().get(key, (_, _) -> load);
+        if (current == load) {
+            loads.increment();
+            try {
+                load.complete(toStoreValue(valueLoader.call()));
+            } catch (Throwable ex) {
+                // Failed loads are dropped from the cache; the waiting callers get the same failure
+                load.completeExceptionally(ex);
+                if (ex instanceof Error error) {
+                    throw error;
+                }
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+        } else if (!current.isDone()) {
+            coalescedLoads.increment();
+        }
+        try {
+            return (T) fromStoreValue(current.join());
+        } catch (CompletionException | CancellationException ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause() != null ? ex.getCause() : ex);
+        }
+    }
+
+    /**
+     * Returns a completed entry without loading it, also for caches with a {@link RefreshLoader};
+     * a load in progress counts as absent.
+     */
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+
+    /**
+     * Loads run by callers of this instance, excluding background refreshes.
+     */
+    long loads() {
+        return loads.sum();
+    }
+
+    /**
+     * Callers that waited for a load another caller had started instead of loading themselves.
+     */
+    long coalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    /**
+     * Whether entries are refreshed in the background after write.
+     */
+    boolean isRefreshed() {
+        return refreshLoader != null;
+    }
+
+    long refreshes() {
+        return refreshLoader == null ? 0 : refreshLoader.refreshes();
+    }
+
+    long failedRefreshes() {
+        return refreshLoader == null ? 0 : refreshLoader.failedRefreshes();
+    }
+}
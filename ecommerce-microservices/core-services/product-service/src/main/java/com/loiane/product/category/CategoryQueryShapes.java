@@ -0,0 +1,151 @@
+package com.loiane.product.category;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.common.util.LikePatterns;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue of the category search statements, one per combination of filters, and of the
+ * ORDER BY clause of every sort in {@link CategorySearchCriteria#SORTS}, rendered once when
+ * the class loads. See {@code ProductQueryShapes} for the approach.
+ * {@code isRoot} contributes one of two bits, root or child, never both.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class CategoryQueryShapes {
+
+    static final int NAME = 1;
+    static final int SLUG = 1 << 1;
+    static final int PARENT = 1 << 2;
+    static final int ROOT = 1 << 3;
+    static final int CHILD = 1 << 4;
+
+    private static final int SHAPES = 1 << 5;
+
+    static final String SELECT_CATEGORIES = """
+            SELECT c.id, c.name, c.slug, c.created_at, c.updated_at,
+                   parent.id AS parent_id, parent.name AS parent_name, parent.slug AS parent_slug
+            FROM categories c
+            LEFT JOIN categories parent ON parent.id = c.parent_id""";
+
+    private static final String COUNT_CATEGORIES = "SELECT count(*) FROM categories c";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "c.id",
+            "name", "c.name",
+            "createdAt", "c.created_at",
+            "updatedAt", "c.updated_at"
+    );
+
+    private static final String[] SELECTS = new String[SHAPES];
+    private static final String[] COUNTS = new String[SHAPES];
+    private static final Map<Sort, String> ORDER_BYS = new HashMap<>();
+
+    static {
+        for (int mask = 0; mask < SHAPES; mask++) {
+            if ((mask & (ROOT | CHILD)) != (ROOT | CHILD)) {
+                String where = where(mask);
+                SELECTS[mask] = SELECT_CATEGORIES + where;
+                COUNTS[mask] = COUNT_CATEGORIES + where;
+            }
+        }
+        CategorySearchCriteria.SORTS.sorts().forEach(sort -> ORDER_BYS.put(sort, renderOrderBy(sort)));
+    }
+
+    private CategoryQueryShapes() {
+    }
+
+    static int maskOf(CategorySearchCriteria criteria) {
+        int mask = 0;
+        if (criteria.name() != null) {
+            mask |= NAME;
+        }
+        if (criteria.slug() != null) {
+            mask |= SLUG;
+        }
+        if (criteria.parentId() != null) {
+            mask |= PARENT;
+        }
+        if (criteria.isRoot() != null) {
+            mask |= criteria.isRoot() ? ROOT : CHILD;
+        }
+        return mask;
+    }
+
+    static String select(int mask) {
+        return SELECTS[mask];
+    }
+
+    static String count(int mask) {
+        return COUNTS[mask];
+    }
+
+    /**
+     * ORDER BY clause for a sort, resolved to one of {@link CategorySearchCriteria#SORTS} first if need be.
+     *
+     * @throws InvalidInputException if no index serves the sort
+     */
+    static String orderBy(Sort sort) {
+        String orderBy = ORDER_BYS.get(sort);
+        return orderBy != null ? orderBy : ORDER_BYS.get(CategorySearchCriteria.SORTS.resolve(sort));
+    }
+
+    static Map<String, Object> params(CategorySearchCriteria criteria) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (criteria.name() != null) {
+            params.put("name", LikePatterns.contains(criteria.name()));
+        }
+        if (criteria.slug() != null) {
+            params.put("slug", LikePatterns.contains(criteria.slug()));
+        }
+        if (criteria.parentId() != null) {
+            params.put("parentId", criteria.parentId());
+        }
+        return params;
+    }
+
+    /**
+     * Ties are broken by ID in the direction of the last sort property, so that a sort with
+     * a (sort key, id) index is read from it in one direction.
+     */
+    private static String renderOrderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " ORDER BY c.id";
+        }
+        String columns = sort.stream()
+                .map(order -> SORT_COLUMNS.get(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", "));
+        return " ORDER BY " + columns + ", c.id" + (sort.toList().getLast().isAscending() ? "" : " DESC");
+    }
+
+    /**
+     * WHERE clause for the category search filters. {@code isRoot=false} selects child
+     * categories, i.e. the ones that have a parent.
+     */
+    private static String where(int mask) {
+        List<String> conditions = new ArrayList<>();
+        if ((mask & NAME) != 0) {
+            conditions.add("lower(c.name) LIKE :name ESCAPE '\\'");
+        }
+        if ((mask & SLUG) != 0) {
+            conditions.add("lower(c.slug) LIKE :slug ESCAPE '\\'");
+        }
+        if ((mask & PARENT) != 0) {
+            conditions.add("c.parent_id = :parentId");
+        }
+        if ((mask & ROOT) != 0) {
+            conditions.add("c.parent_id IS NULL");
+        } else if ((mask & CHILD) != 0) {
+            conditions.add("c.parent_id IS NOT NULL");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
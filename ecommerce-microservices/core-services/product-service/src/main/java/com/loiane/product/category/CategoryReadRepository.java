@@ -0,0 +1,94 @@
+package com.loiane.product.category;
+
+import com.loiane.product.category.api.dto.CategoryResponse;
+import com.loiane.product.common.exception.InvalidInputException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-only category queries that map JDBC rows straight into {@link CategoryResponse}.
+ * The parent summary is resolved by a self join in the same statement instead of a lazy
+ * load per category. Search statements come precompiled from {@link CategoryQueryShapes}.
+ * <p>
+ * Active when {@code product.read-path=projection}; writes always go through {@link CategoryRepository}.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Repository
+public class CategoryReadRepository {
+
+    private static final String SELECT_CATEGORY_BY_ID = CategoryQueryShapes.SELECT_CATEGORIES + " WHERE c.id = :id";
+
+    private static final RowMapper<CategoryResponse> CATEGORY_RESPONSE = (rs, _) -> {
+        UUID parentId = rs.getObject("parent_id", UUID.class);
+        CategoryResponse.ParentSummary parent = parentId == null ? null
+                : new CategoryResponse.ParentSummary(parentId, rs.getString("parent_name"), rs.getString("parent_slug"));
+        return new CategoryResponse(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("slug"),
+                parent,
+                rs.getObject("created_at", OffsetDateTime.class),
+                rs.getObject("updated_at", OffsetDateTime.class)
+        );
+    };
+
+    private final JdbcClient jdbcClient;
+    private final boolean enabled;
+
+    public CategoryReadRepository(JdbcClient jdbcClient,
+                                  @Value("${product.read-path:projection}") String readPath) {
+        this.jdbcClient = jdbcClient;
+        this.enabled = "projection".equalsIgnoreCase(readPath);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<CategoryResponse> findById(UUID id) {
+        return jdbcClient.sql(SELECT_CATEGORY_BY_ID)
+                .param("id", id)
+                .query(CATEGORY_RESPONSE)
+                .optional();
+    }
+
+    /**
+     * Reads one page of matching categories plus one extra row to tell whether a next page exists.
+     *
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     */
+    public Slice<CategoryResponse> findSlice(CategorySearchCriteria criteria, Pageable pageable) {
+        StringBuilder sql = new StringBuilder(CategoryQueryShapes.select(CategoryQueryShapes.maskOf(criteria)))
+                .append(CategoryQueryShapes.orderBy(pageable.getSort()));
+        Map<String, Object> params = CategoryQueryShapes.params(criteria);
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+            params.put("limit", pageable.getPageSize() + 1);
+            params.put("offset", pageable.getOffset());
+        }
+
+        List<CategoryResponse> rows = jdbcClient.sql(sql.toString()).params(params).query(CATEGORY_RESPONSE).list();
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    public long count(CategorySearchCriteria criteria) {
+        return jdbcClient.sql(CategoryQueryShapes.count(CategoryQueryShapes.maskOf(criteria)))
+                .params(CategoryQueryShapes.params(criteria))
+                .query(Long.class)
+                .single();
+    }
+}
@@ -1,12 +1,24 @@
 package com.loiane.product.category;
 
+import com.loiane.product.common.repository.RefreshableRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface CategoryRepository extends JpaRepository<Category, UUID>, JpaSpecificationExecutor<Category> {
+public interface CategoryRepository extends JpaRepository<Category, UUID>, JpaSpecificationExecutor<Category>,
+        RefreshableRepository<Category> {
     Optional<Category> findBySlug(String slug);
     boolean existsBySlug(String slug);
+
+    // Page content without the count query; totals are resolved separately
+    Slice<Category> findSliceBy(Pageable pageable);
+
+    @Query("select c.id from Category c where c.parent.id = :parentId")
+    List<UUID> findIdsByParentId(UUID parentId);
 }
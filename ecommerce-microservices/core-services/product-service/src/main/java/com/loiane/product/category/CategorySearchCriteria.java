@@ -0,0 +1,31 @@
+package com.loiane.product.category;
+
+import com.loiane.product.common.util.IndexedSorts;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Normalized category search filters, usable directly as a cache key.
+ */
+public record CategorySearchCriteria(String name, String slug, UUID parentId, Boolean isRoot) {
+
+    /**
+     * Sorts backed by a (sort key, id) index, see V6.
+     */
+    public static final IndexedSorts SORTS = new IndexedSorts("Categories", List.of(
+            List.of("name"), List.of("createdAt"), List.of("updatedAt"), List.of("id")));
+
+    public static CategorySearchCriteria of(String name, String slug, UUID parentId, Boolean isRoot) {
+        return new CategorySearchCriteria(lowerCaseOrNull(name), lowerCaseOrNull(slug), parentId, isRoot);
+    }
+
+    public boolean isEmpty() {
+        return name == null && slug == null && parentId == null && isRoot == null;
+    }
+
+    private static String lowerCaseOrNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
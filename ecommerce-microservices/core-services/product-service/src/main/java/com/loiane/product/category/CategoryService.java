@@ -1,22 +1,40 @@
 package com.loiane.product.category;
 
+import com.loiane.product.cache.NotFoundCache;
+import com.loiane.product.cache.ProductCacheDependencies;
+import com.loiane.product.cache.SearchCountCache;
+import com.loiane.product.cache.SearchResultCache;
 import com.loiane.product.category.api.CategoryMapper;
 import com.loiane.product.category.api.dto.CategoryRequest;
 import com.loiane.product.category.api.dto.CategoryResponse;
 import com.loiane.product.common.exception.CategoryNotFoundException;
 import com.loiane.product.common.exception.DuplicateCategorySlugException;
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -25,60 +43,176 @@ public class CategoryService {
     private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
 
     private final CategoryRepository categoryRepository;
+    private final CategoryReadRepository categoryReadRepository;
+    private final SearchCountCache searchCountCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestions productSuggestions;
+    private final SearchResultCache searchResultCache;
+    private final CacheManager cacheManager;
+    private final ProductCacheDependencies productCacheDependencies;
+    private final NotFoundCache notFoundCache;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CategoryReadRepository categoryReadRepository,
+                           SearchCountCache searchCountCache, ProductSearchIndex productSearchIndex,
+                           ProductSuggestions productSuggestions, SearchResultCache searchResultCache,
+                           CacheManager cacheManager, ProductCacheDependencies productCacheDependencies,
+                           NotFoundCache notFoundCache, PlatformTransactionManager transactionManager) {
         this.categoryRepository = categoryRepository;
+        this.categoryReadRepository = categoryReadRepository;
+        this.searchCountCache = searchCountCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productSuggestions = productSuggestions;
+        this.searchResultCache = searchResultCache;
+        this.cacheManager = cacheManager;
+        this.productCacheDependencies = productCacheDependencies;
+        this.notFoundCache = notFoundCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
+    /**
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     */
     @Transactional(readOnly = true)
     public Page<CategoryResponse> listAll(Pageable pageable) {
-        return categoryRepository.findAll(pageable).map(CategoryMapper::toResponse);
+        if (categoryReadRepository.isEnabled()) {
+            return search(null, null, null, null, pageable);
+        }
+        return categoryRepository.findAll(CategorySearchCriteria.SORTS.resolve(pageable))
+                .map(CategoryMapper::toResponse);
     }
 
+    /**
+     * Concurrent misses wait for one read.
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories")
+    @Cacheable(value = "categories", sync = true)
     public List<CategoryResponse> listAll() {
+        return findAll();
+    }
+
+    /**
+     * Reads all categories past the {@code categories} cache, as its background refresh does.
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryResponse> findAll() {
+        if (categoryReadRepository.isEnabled()) {
+            return categoryReadRepository.findSlice(CategorySearchCriteria.of(null, null, null, null),
+                    Pageable.unpaged()).getContent();
+        }
         return CategoryMapper.toResponseList(categoryRepository.findAll());
     }
 
+    /**
+     * Searches categories and returns a page, cached in {@link SearchResultCache}, with a total
+     * served from {@link SearchCountCache}.
+     *
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     */
     @Transactional(readOnly = true)
     public Page<CategoryResponse> search(String name, String slug, UUID parentId,
                                         Boolean isRoot, Pageable pageable) {
+        CategorySearchCriteria criteria = CategorySearchCriteria.of(name, slug, parentId, isRoot);
+        Pageable indexed = CategorySearchCriteria.SORTS.resolve(pageable);
+        return searchResultCache.get("page", criteria, indexed, () -> searchPage(criteria, indexed));
+    }
+
+    private Page<CategoryResponse> searchPage(CategorySearchCriteria criteria, Pageable pageable) {
+        if (categoryReadRepository.isEnabled()) {
+            Slice<CategoryResponse> slice = categoryReadRepository.findSlice(criteria, pageable);
+            return PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                    () -> searchCountCache.get(criteria, () -> categoryReadRepository.count(criteria)));
+        }
+        Specification<Category> spec = buildSpecification(criteria);
+        Slice<Category> slice = findSlice(spec, pageable);
+        return PageableExecutionUtils.getPage(CategoryMapper.toResponseList(slice.getContent()), pageable,
+                () -> searchCountCache.get(criteria,
+                        () -> spec == null ? categoryRepository.count() : categoryRepository.count(spec)));
+    }
+
+    /**
+     * Searches categories without computing a total: only tells whether a next page exists.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CategoryResponse> searchSlice(String name, String slug, UUID parentId,
+                                              Boolean isRoot, Pageable pageable) {
+        CategorySearchCriteria criteria = CategorySearchCriteria.of(name, slug, parentId, isRoot);
+        Pageable indexed = CategorySearchCriteria.SORTS.resolve(pageable);
+        return searchResultCache.get("slice", criteria, indexed, () -> searchSlice(criteria, indexed));
+    }
+
+    private Slice<CategoryResponse> searchSlice(CategorySearchCriteria criteria, Pageable pageable) {
+        if (categoryReadRepository.isEnabled()) {
+            return categoryReadRepository.findSlice(criteria, pageable);
+        }
+        Specification<Category> spec = buildSpecification(criteria);
+        return findSlice(spec, pageable).map(CategoryMapper::toResponse);
+    }
+
+    private Slice<Category> findSlice(Specification<Category> spec, Pageable pageable) {
+        if (spec == null) {
+            return categoryRepository.findSliceBy(pageable);
+        }
+        return categoryRepository.findBy(spec, query -> query.slice(pageable));
+    }
+
+    private Specification<Category> buildSpecification(CategorySearchCriteria criteria) {
         Specification<Category> spec = null;
 
-        if (name != null && !name.trim().isEmpty()) {
-            spec = addSpecification(spec, CategorySpecification.hasName(name));
+        if (criteria.name() != null) {
+            spec = addSpecification(spec, CategorySpecification.hasName(criteria.name()));
         }
-        if (slug != null && !slug.trim().isEmpty()) {
-            spec = addSpecification(spec, CategorySpecification.hasSlug(slug));
+        if (criteria.slug() != null) {
+            spec = addSpecification(spec, CategorySpecification.hasSlug(criteria.slug()));
         }
-        if (parentId != null) {
-            spec = addSpecification(spec, CategorySpecification.hasParent(parentId));
+        if (criteria.parentId() != null) {
+            spec = addSpecification(spec, CategorySpecification.hasParent(criteria.parentId()));
         }
-        if (isRoot != null && isRoot) {
+        if (criteria.isRoot() != null && criteria.isRoot()) {
             spec = addSpecification(spec, CategorySpecification.isRootCategory());
         }
-        if (isRoot != null && !isRoot) {
+        if (criteria.isRoot() != null && !criteria.isRoot()) {
             spec = addSpecification(spec, CategorySpecification.hasSubCategories());
         }
+        return spec;
+    }
 
-        if (spec == null) {
-            return categoryRepository.findAll(pageable).map(CategoryMapper::toResponse);
+    /**
+     * Concurrent misses on the same ID wait for one read. IDs {@link NotFoundCache} knows do not
+     * exist are answered before a transaction, and with it a connection, is taken.
+     */
+    @Cacheable(value = "categoryById", key = "#id", sync = true)
+    public CategoryResponse getById(UUID id) {
+        log.debug("Fetching category with ID: {}", id);
+        if (notFoundCache.isKnownMissing(NotFoundCache.Kind.CATEGORY, id)) {
+            throw new CategoryNotFoundException(id);
+        }
+        Optional<CategoryResponse> category = readOnlyTransaction.execute(_ -> findById(id));
+        if (category == null || category.isEmpty()) {
+            notFoundCache.recordMissing(NotFoundCache.Kind.CATEGORY, id);
+            throw new CategoryNotFoundException(id);
         }
-        return categoryRepository.findAll(spec, pageable).map(CategoryMapper::toResponse);
+        return category.get();
     }
 
+    /**
+     * Reads a category past the {@code categoryById} cache.
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = "categoryById", key = "#id")
-    public CategoryResponse getById(UUID id) {
-        log.debug("Fetching category with ID: {}", id);
-        Category entity = categoryRepository.findById(id)
-                .orElseThrow(() -> new CategoryNotFoundException(id));
-        return CategoryMapper.toResponse(entity);
+    public Optional<CategoryResponse> findById(UUID id) {
+        if (categoryReadRepository.isEnabled()) {
+            return categoryReadRepository.findById(id);
+        }
+        return categoryRepository.findById(id).map(CategoryMapper::toResponse);
     }
 
+    /**
+     * Caches the created category under its ID once the transaction has committed.
+     */
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
+    @Caching(put = @CachePut(value = "categoryById", key = "#result.id"),
+            evict = @CacheEvict(value = "categories", allEntries = true))
     public CategoryResponse create(CategoryRequest request) {
         log.debug("Creating category with slug: {}", request.slug());
 
@@ -90,6 +224,9 @@ public class CategoryService {
                 entity.setParent(parent);
             }
             Category saved = categoryRepository.save(entity);
+            notFoundCache.recordCreated(NotFoundCache.Kind.CATEGORY, saved.getId());
+            searchCountCache.invalidateAllAfterCommit();
+            searchResultCache.nextGenerationAfterCommit();
             log.info("Successfully created category with ID: {} and slug: {}", saved.getId(), saved.getSlug());
             return CategoryMapper.toResponse(saved);
         } catch (DataIntegrityViolationException e) {
@@ -98,12 +235,23 @@ public class CategoryService {
         }
     }
 
+    /**
+     * Replaces the cached category with the updated one once the transaction has committed.
+     * The category is read back on the configured read path after the flush, so the cached
+     * response carries the {@code updated_at} the database trigger wrote. Cached subcategories and products are
+     * evicted only when the name or slug they embed changed; other cached categories and
+     * products are kept.
+     */
     @Transactional
-    @CacheEvict(value = {"categories", "categoryById"}, allEntries = true)
+    @Caching(put = @CachePut(value = "categoryById", key = "#id"),
+            evict = @CacheEvict(value = "categories", allEntries = true))
     public CategoryResponse update(UUID id, CategoryRequest request) {
         log.debug("Updating category with ID: {}", id);
         Category entity = categoryRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException(id));
+        if (!entity.getName().equals(request.name()) || !entity.getSlug().equals(request.slug())) {
+            evictDependentsAfterCommit(id);
+        }
         CategoryMapper.updateEntity(entity, request);
         if (request.parentId() != null) {
             Category parent = categoryRepository.findById(request.parentId())
@@ -112,21 +260,72 @@ public class CategoryService {
         } else {
             entity.setParent(null);
         }
+        categoryRepository.saveAndFlush(entity);
+        searchCountCache.invalidateAllAfterCommit();
+        productSearchIndex.renameCategoryAfterCommit(id, entity.getName(), entity.getSlug());
+        productSuggestions.refreshAfterCommit();
+        searchResultCache.nextGenerationAfterCommit();
         log.info("Successfully updated category with ID: {}", id);
-        return CategoryMapper.toResponse(entity);
+        if (!categoryReadRepository.isEnabled()) {
+            // The entity path would read the managed entity, missing the trigger's timestamp
+            categoryRepository.refresh(entity);
+        }
+        return findById(id)
+                .orElseThrow(() -> new CategoryNotFoundException(id));
     }
 
+    /**
+     * Evicts the category, its cached subcategories, which lose their parent, and its cached
+     * products, which lose the category.
+     */
     @Transactional
-    @CacheEvict(value = {"categories", "categoryById"}, allEntries = true)
+    @Caching(evict = {@CacheEvict(value = "categoryById", key = "#id"),
+            @CacheEvict(value = "categories", allEntries = true)})
     public void delete(UUID id) {
         log.debug("Deleting category with ID: {}", id);
         if (!categoryRepository.existsById(id)) {
             throw new CategoryNotFoundException(id);
         }
+        evictDependentsAfterCommit(id);
         categoryRepository.deleteById(id);
+        notFoundCache.recordDeleted(NotFoundCache.Kind.CATEGORY, id);
+        searchCountCache.invalidateAllAfterCommit();
+        productSearchIndex.removeCategoryAfterCommit(id);
+        productSuggestions.refreshAfterCommit();
+        searchResultCache.nextGenerationAfterCommit();
         log.info("Successfully deleted category with ID: {}", id);
     }
 
+    /**
+     * Subcategory responses embed their parent's name and slug, product responses the name and
+     * slug of their categories. Both are evicted after the commit, so a read racing the
+     * transaction cannot cache the old values again. The cached products are looked up in
+     * {@link ProductCacheDependencies} only then, to include those cached meanwhile.
+     */
+    private void evictDependentsAfterCommit(UUID categoryId) {
+        List<UUID> subcategoryIds = categoryRepository.findIdsByParentId(categoryId);
+        Cache categoryById = cacheManager.getCache("categoryById");
+        Cache productById = cacheManager.getCache("productById");
+        Runnable evict = () -> {
+            if (categoryById != null) {
+                subcategoryIds.forEach(categoryById::evict);
+            }
+            if (productById != null) {
+                productCacheDependencies.cachedProductsIn(categoryId).forEach(productById::evict);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
     private Specification<Category> addSpecification(Specification<Category> existing,
                                                     Specification<Category> newSpec) {
         return existing == null ? newSpec : existing.and(newSpec);
@@ -1,5 +1,6 @@
 package com.loiane.product.category;
 
+import com.loiane.product.common.util.LikePatterns;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.UUID;
@@ -17,7 +18,8 @@ public final class CategorySpecification {
             }
             return criteriaBuilder.like(
                 criteriaBuilder.lower(root.get("name")),
-                "%" + name.toLowerCase() + "%"
+                LikePatterns.contains(name),
+                LikePatterns.ESCAPE
             );
         };
     }
@@ -29,7 +31,8 @@ public final class CategorySpecification {
             }
             return criteriaBuilder.like(
                 criteriaBuilder.lower(root.get("slug")),
-                "%" + slug.toLowerCase() + "%"
+                LikePatterns.contains(slug),
+                LikePatterns.ESCAPE
             );
         };
     }
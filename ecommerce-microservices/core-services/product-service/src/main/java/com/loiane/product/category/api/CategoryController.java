@@ -12,6 +12,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -61,11 +62,13 @@ public class CategoryController {
             - **isRoot**: Filter for root categories (true) or child categories (false)
 
             All filters can be combined for complex category queries.
+            Pass `withTotal=false` to skip the total count and get a slice that only
+            reports whether a next page exists.
             """
     )
     @ApiResponse(responseCode = "200", description = "Search completed successfully")
     @ApiResponse(responseCode = "400", description = "Invalid search parameters")
-    public Page<CategoryResponse> search(
+    public Slice<CategoryResponse> search(
             @Parameter(description = "Category name (partial, case-insensitive)",
                 example = "Electronics")
             @RequestParam(required = false) String name,
@@ -81,8 +84,14 @@ public class CategoryController {
             @Parameter(description = "Filter for root categories (true) or child categories (false)")
             @RequestParam(required = false) Boolean isRoot,
 
+            @Parameter(description = "Include total element and page counts (false returns a slice)")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+
             @Parameter(description = "Pagination and sorting parameters")
             @PageableDefault(size = 20, sort = "name") Pageable pageable) {
+        if (!withTotal) {
+            return service.searchSlice(name, slug, parentId, isRoot, pageable);
+        }
         return service.search(name, slug, parentId, isRoot, pageable);
     }
 
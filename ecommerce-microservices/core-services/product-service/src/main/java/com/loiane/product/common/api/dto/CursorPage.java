@@ -0,0 +1,33 @@
+package com.loiane.product.common.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Page of results addressed by an opaque cursor instead of a page number.
+ * Clients pass {@code nextCursor} back as the {@code after} parameter to get the next page.
+ */
+@Schema(description = "Cursor-paginated result page")
+public record CursorPage<T>(
+
+        @Schema(description = "Items on this page")
+        List<T> content,
+
+        @Schema(description = "Requested page size",
+                example = "20")
+        int size,
+
+        @Schema(description = "Whether more items follow this page",
+                example = "true")
+        boolean hasNext,
+
+        @Schema(description = "Opaque cursor for the next page, null on the last page",
+                example = "bmFtZQpBU0MKNTUwZTg0MDAtZTI5Yi00MWQ0LWE3MTYtNDQ2NjU1NDQwMDAwCmlQaG9uZSAxNQ")
+        String nextCursor
+
+) {
+    public static <T> CursorPage<T> of(List<T> content, int size, String nextCursor) {
+        return new CursorPage<>(content, size, nextCursor != null, nextCursor);
+    }
+}
@@ -21,6 +21,17 @@ public abstract class BusinessException extends RuntimeException {
         this.httpStatus = httpStatus;
     }
 
+    /**
+     * For exceptions thrown routinely for bad client input, such as lookups of unknown IDs:
+     * without a stack trace, which costs more to capture than the rest of the 404 and is
+     * never logged for business exceptions.
+     */
+    protected BusinessException(String errorCode, String message, int httpStatus, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+        this.httpStatus = httpStatus;
+    }
+
     protected BusinessException(String errorCode, String message, int httpStatus, Throwable cause) {
         super(message, cause);
         this.errorCode = errorCode;
@@ -3,11 +3,14 @@ package com.loiane.product.common.exception;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.http.HttpStatus;
 
+import java.util.Collection;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Exception thrown when a requested category is not found in the system.
  * This is a business exception that maps to HTTP 404 Not Found status.
+ * Thrown for an unknown ID without a stack trace, see {@link BusinessException}.
  */
 @Schema(description = "Exception thrown when a category is not found")
 public class CategoryNotFoundException extends BusinessException {
@@ -19,10 +22,19 @@ public class CategoryNotFoundException extends BusinessException {
     private final UUID categoryId;
 
     public CategoryNotFoundException(UUID categoryId) {
-        super(ERROR_CODE, "Category not found with ID: " + categoryId, HTTP_STATUS);
+        super(ERROR_CODE, "Category not found with ID: " + categoryId, HTTP_STATUS, false);
         this.categoryId = categoryId;
     }
 
+    /**
+     * Reports every category ID of a request that does not exist, not just the first one.
+     */
+    public CategoryNotFoundException(Collection<UUID> categoryIds) {
+        super(ERROR_CODE, "Categories not found with IDs: "
+                + categoryIds.stream().map(UUID::toString).collect(Collectors.joining(", ")), HTTP_STATUS);
+        this.categoryId = categoryIds.stream().findFirst().orElse(null);
+    }
+
     public CategoryNotFoundException(String slug) {
         super(ERROR_CODE, "Category not found with slug: " + slug, HTTP_STATUS);
         this.categoryId = null;
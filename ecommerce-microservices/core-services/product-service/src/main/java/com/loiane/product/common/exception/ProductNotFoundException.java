@@ -8,6 +8,7 @@ import java.util.UUID;
 /**
  * Exception thrown when a requested product is not found in the system.
  * This is a business exception that maps to HTTP 404 Not Found status.
+ * Thrown for an unknown ID without a stack trace, see {@link BusinessException}.
  */
 @Schema(description = "Exception thrown when a product is not found")
 public class ProductNotFoundException extends BusinessException {
@@ -19,7 +20,7 @@ public class ProductNotFoundException extends BusinessException {
     private final UUID productId;
 
     public ProductNotFoundException(UUID productId) {
-        super(ERROR_CODE, "Product not found with ID: " + productId, HTTP_STATUS);
+        super(ERROR_CODE, "Product not found with ID: " + productId, HTTP_STATUS, false);
         this.productId = productId;
     }
 
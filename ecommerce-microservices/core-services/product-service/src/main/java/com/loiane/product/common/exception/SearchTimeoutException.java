@@ -0,0 +1,28 @@
+package com.loiane.product.common.exception;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a search exceeds its statement deadline and no cached or partial
+ * result can be served instead.
+ * This is a business exception that maps to HTTP 503 Service Unavailable status.
+ */
+@Schema(description = "Exception thrown when a search times out without a fallback result")
+public class SearchTimeoutException extends BusinessException {
+
+    private static final String ERROR_CODE = "SEARCH_TIMEOUT";
+    private static final int HTTP_STATUS = HttpStatus.SERVICE_UNAVAILABLE.value();
+
+    @Schema(description = "Operation that timed out", example = "search")
+    private final String operation;
+
+    public SearchTimeoutException(String operation, Throwable cause) {
+        super(ERROR_CODE, "The " + operation + " took too long; narrow the filters or try again", HTTP_STATUS, cause);
+        this.operation = operation;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+}
@@ -0,0 +1,16 @@
+package com.loiane.product.common.repository;
+
+/**
+ * Repository fragment that rereads a managed entity from the database.
+ * <p>
+ * Needed after a flush when the database changed the row beyond what the entity wrote, e.g. the
+ * {@code updated_at} triggers, or after its associations were written through JDBC: later
+ * queries in the same persistence context return the managed instance as it was.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public interface RefreshableRepository<T> {
+
+    void refresh(T entity);
+}
@@ -0,0 +1,23 @@
+package com.loiane.product.common.repository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Implementation picked up by Spring Data for every repository extending {@link RefreshableRepository}.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+class RefreshableRepositoryImpl<T> implements RefreshableRepository<T> {
+
+    private final EntityManager entityManager;
+
+    RefreshableRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void refresh(T entity) {
+        entityManager.refresh(entity);
+    }
+}
@@ -0,0 +1,94 @@
+package com.loiane.product.common.util;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Whitelist of the sort orders a listing accepts, each one the key order of a B-tree index,
+ * so a page is read in index order instead of sorting every matching row.
+ * <p>
+ * A requested sort is accepted when its properties are a prefix of one of the index orders,
+ * and it is rerouted to that full order, e.g. {@code status} becomes {@code status, name}.
+ * All properties must share one direction, since an index is read either forwards or
+ * backwards, and none may ignore case. Unsorted requests stay unsorted.
+ */
+public final class IndexedSorts {
+
+    private final String resource;
+    /** Full index order by its first property. */
+    private final Map<String, List<String>> orders = new LinkedHashMap<>();
+
+    /**
+     * @param resource plural name used in error messages, e.g. "Products"
+     * @param orders   property lists in index key order, each with a distinct first property
+     */
+    public IndexedSorts(String resource, List<List<String>> orders) {
+        this.resource = resource;
+        orders.forEach(order -> this.orders.put(order.getFirst(), List.copyOf(order)));
+    }
+
+    /**
+     * @throws InvalidInputException if no index serves the sort
+     */
+    public Sort resolve(Sort sort) {
+        if (sort.isUnsorted()) {
+            return sort;
+        }
+        List<Sort.Order> requested = sort.toList();
+        Sort.Direction direction = requested.getFirst().getDirection();
+        List<String> indexed = orders.get(requested.getFirst().getProperty());
+        if (indexed == null || requested.size() > indexed.size()) {
+            throw unsupported(sort);
+        }
+        for (int i = 0; i < requested.size(); i++) {
+            Sort.Order order = requested.get(i);
+            if (!order.getProperty().equals(indexed.get(i)) || order.getDirection() != direction
+                    || order.isIgnoreCase()) {
+                throw unsupported(sort);
+            }
+        }
+        return Sort.by(direction, indexed.toArray(String[]::new));
+    }
+
+    /**
+     * The same page with its sort {@link #resolve(Sort) resolved}.
+     *
+     * @throws InvalidInputException if no index serves the sort
+     */
+    public Pageable resolve(Pageable pageable) {
+        Sort sort = resolve(pageable.getSort());
+        if (sort.equals(pageable.getSort())) {
+            return pageable;
+        }
+        return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    /**
+     * Every sort {@link #resolve(Sort)} returns: unsorted, then each index order ascending and descending.
+     */
+    public List<Sort> sorts() {
+        List<Sort> sorts = new ArrayList<>();
+        sorts.add(Sort.unsorted());
+        for (List<String> order : orders.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                sorts.add(Sort.by(direction, order.toArray(String[]::new)));
+            }
+        }
+        return sorts;
+    }
+
+    private InvalidInputException unsupported(Sort sort) {
+        return new InvalidInputException("sort", sort.toString(), resource + " can be sorted by: "
+                + orders.values().stream().map(order -> String.join(" then ", order)).collect(Collectors.joining(", "))
+                + ", in one direction");
+    }
+}
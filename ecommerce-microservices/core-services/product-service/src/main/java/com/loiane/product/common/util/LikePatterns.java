@@ -0,0 +1,37 @@
+package com.loiane.product.common.util;
+
+import java.util.Locale;
+
+/**
+ * Builds case-insensitive "contains" patterns for SQL {@code LIKE}.
+ * Patterns are meant to be matched against {@code lower(column)} so the predicate lines up
+ * with the {@code pg_trgm} expression indexes (see V4__trigram_search_indexes.sql), and user
+ * input is escaped so {@code %} and {@code _} are matched literally instead of as wildcards.
+ */
+public final class LikePatterns {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Returns {@code %value%} with the value lower-cased and its LIKE wildcards escaped.
+     */
+    public static String contains(String value) {
+        return "%" + escape(value.toLowerCase(Locale.ROOT)) + "%";
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.loiane.product.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * One replica pool plus the health state the lag monitor keeps for it.
+ * A replica starts out healthy so reads move to it as soon as the application is up;
+ * the first lag check corrects that within one check interval.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public final class ReadReplica {
+
+    private final String key;
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+    private volatile Duration lag = Duration.ZERO;
+
+    public ReadReplica(String key, DataSource dataSource) {
+        this.key = key;
+        this.dataSource = dataSource;
+    }
+
+    public String getKey() { return key; }
+    public DataSource getDataSource() { return dataSource; }
+    public boolean isHealthy() { return healthy; }
+    public Duration getLag() { return lag; }
+
+    void markLag(Duration lag, Duration maxLag) {
+        this.lag = lag;
+        this.healthy = lag.compareTo(maxLag) <= 0;
+    }
+
+    void markUnreachable() {
+        this.healthy = false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.loiane.product.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Restores a client's primary pin for the duration of a request.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReadYourWritesPinning pinning;
+
+    public ReadYourWritesFilter(ReadYourWritesPinning pinning) {
+        this.pinning = pinning;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        pinning.restore(request);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            pinning.clear();
+        }
+    }
+}
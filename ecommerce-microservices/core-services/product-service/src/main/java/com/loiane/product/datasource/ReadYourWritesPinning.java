@@ -0,0 +1,88 @@
+package com.loiane.product.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Read-your-writes guarantee on top of replica routing.
+ * After a write commits, reads of the same client go to the primary for a short window,
+ * long enough for replicas to replay the write. The deadline is kept per thread for the rest
+ * of the current request and handed to the client as a cookie, which
+ * {@link ReadYourWritesFilter} restores on its next requests and clears when each completes.
+ * Writes outside a request, e.g. on scheduler or async threads, pin nothing: there is no client
+ * to pin, and the pooled thread would keep the pin for unrelated work.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public class ReadYourWritesPinning {
+
+    static final String COOKIE_NAME = "primary-pin-until";
+
+    private final Duration window;
+    private final Clock clock;
+    private final ThreadLocal<Long> pinnedUntil = new ThreadLocal<>();
+
+    public ReadYourWritesPinning(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    public boolean isPinned() {
+        Long until = pinnedUntil.get();
+        return until != null && until > clock.millis();
+    }
+
+    /**
+     * Pins the current request, and the client through a cookie, to the primary. Does nothing
+     * outside a request.
+     */
+    public void onWriteCommitted() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        long until = clock.millis() + window.toMillis();
+        pinnedUntil.set(until);
+        if (attributes.getResponse() != null) {
+            addCookie(attributes.getResponse(), until);
+        }
+    }
+
+    /**
+     * Restores the pin of a client from its cookie. Deadlines further out than one window
+     * are capped, so a tampered cookie cannot keep a client on the primary indefinitely.
+     */
+    void restore(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return;
+        }
+        long latest = clock.millis() + window.toMillis();
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    pinnedUntil.set(Math.min(Long.parseLong(cookie.getValue()), latest));
+                } catch (NumberFormatException e) {
+                    // Ignore malformed values, the client simply reads from replicas
+                }
+            }
+        }
+    }
+
+    void clear() {
+        pinnedUntil.remove();
+    }
+
+    private void addCookie(HttpServletResponse response, long until) {
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+        response.addCookie(cookie);
+    }
+}
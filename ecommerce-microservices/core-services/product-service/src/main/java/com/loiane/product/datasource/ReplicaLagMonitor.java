@@ -0,0 +1,63 @@
+package com.loiane.product.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Periodically measures replication lag on every replica and takes lagging or unreachable
+ * replicas out of rotation until they catch up.
+ * <p>
+ * Lag is the time since the last replayed transaction, counted only while WAL received from
+ * the primary is still waiting to be replayed; an idle but caught-up replica reports zero.
+ * A server that is not in recovery (e.g. a standalone test database) also reports zero.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END::bigint""";
+
+    private final List<ReadReplica> replicas;
+    private final Duration maxLag;
+
+    public ReplicaLagMonitor(List<ReadReplica> replicas, Duration maxLag) {
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${product.datasource.replicas.lag-check-interval:5s}")
+    public void checkLag() {
+        replicas.forEach(this::check);
+    }
+
+    void check(ReadReplica replica) {
+        boolean wasHealthy = replica.isHealthy();
+        try {
+            Long lagMillis = new JdbcTemplate(replica.getDataSource()).queryForObject(LAG_QUERY, Long.class);
+            replica.markLag(Duration.ofMillis(lagMillis == null ? 0 : lagMillis), maxLag);
+        } catch (DataAccessException e) {
+            replica.markUnreachable();
+            log.debug("Lag check failed for replica {}: {}", replica.getKey(), e.getMessage());
+        }
+        if (wasHealthy && !replica.isHealthy()) {
+            log.warn("Replica {} taken out of rotation (lag {}), reads fall back to the primary",
+                    replica.getKey(), replica.getLag());
+        } else if (!wasHealthy && replica.isHealthy()) {
+            log.info("Replica {} back in rotation (lag {})", replica.getKey(), replica.getLag());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.loiane.product.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read replica routing, active when {@code product.datasource.replicas.urls} lists at least one replica.
+ * <p>
+ * Replaces the auto-configured pool with one Hikari pool for the primary and one per replica,
+ * all bound to the same {@code spring.datasource.hikari.*} settings. Replica pools are read-only.
+ * Without replica URLs the auto-configured single pool is used unchanged.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Configuration
+@ConditionalOnExpression("!'${product.datasource.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    public ReadYourWritesPinning readYourWritesPinning(
+            @Value("${product.datasource.read-your-writes-window:2s}") Duration window) {
+        return new ReadYourWritesPinning(window, Clock.systemUTC());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWritesPinning pinning) {
+        return new ReadYourWritesFilter(pinning);
+    }
+
+    /**
+     * The routing pool itself is not injectable; everything uses the lazy proxy below.
+     * Spring still closes it, and with it every pool, on shutdown.
+     */
+    @Bean(autowireCandidate = false)
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            ReadYourWritesPinning pinning,
+            @Value("${product.datasource.replicas.urls}") String urls,
+            @Value("${product.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${product.datasource.replicas.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        bindHikariSettings(primary, environment);
+
+        List<ReadReplica> replicas = new ArrayList<>();
+        List<String> replicaUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            bindHikariSettings(replica, environment);
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setReadOnly(true);
+            replica.setPoolName("replica-" + (i + 1));
+            replicas.add(new ReadReplica(replica.getPoolName(), replica));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, pinning);
+    }
+
+    /**
+     * Defers the routing decision until the first statement, when the transaction manager has
+     * already marked the transaction read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            @Value("${product.datasource.replicas.max-lag:5s}") Duration maxLag) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource.getReplicas(), maxLag);
+    }
+
+    private static void bindHikariSettings(HikariDataSource dataSource, Environment environment) {
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(dataSource));
+    }
+}
@@ -0,0 +1,143 @@
+package com.loiane.product.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to a healthy replica and everything else to the primary.
+ * <p>
+ * A read goes to the primary instead when every replica lags behind by more than the
+ * configured maximum, or when the client wrote recently (see {@link ReadYourWritesPinning}).
+ * A read-write transaction pins the client only if it wrote: before it commits, the primary
+ * is asked whether it assigned the transaction an ID, which PostgreSQL does on the first write.
+ * Replicas are picked round-robin. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction's
+ * read-only flag is only known after the transaction manager asked for a connection.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final String WROTE_IN_TRANSACTION = "SELECT txid_current_if_assigned() IS NOT NULL";
+
+    private final DataSource primary;
+    private final List<ReadReplica> replicas;
+    private final ReadYourWritesPinning pinning;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReadReplica> replicas, ReadYourWritesPinning pinning) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.pinning = pinning;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.getKey(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pinIfWritten(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return pinIfWritten(super.getConnection(username, password));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (pinning.isPinned()) {
+            return PRIMARY;
+        }
+        ReadReplica replica = nextHealthyReplica();
+        return replica == null ? PRIMARY : replica.getKey();
+    }
+
+    private ReadReplica nextHealthyReplica() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplica candidate = replicas.get((start + i) % replicas.size());
+            if (candidate.isHealthy()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pins the client once the read-write transaction the primary connection belongs to
+     * commits, if it wrote anything.
+     */
+    private Connection pinIfWritten(Connection connection) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean wrote;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    wrote = wroteInTransaction(connection);
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (wrote) {
+                        pinning.onWriteCommitted();
+                    }
+                }
+            });
+        }
+        return connection;
+    }
+
+    /**
+     * Whether the connection's transaction wrote. If that cannot be told, assumes it did, so the
+     * client reads from the primary rather than possibly missing its write.
+     */
+    static boolean wroteInTransaction(Connection connection) {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(WROTE_IN_TRANSACTION)) {
+            return !result.next() || result.getBoolean(1);
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (ReadReplica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.loiane.product.datasource;
+
+import com.loiane.product.common.exception.SearchTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Per-request query deadlines enforced by PostgreSQL.
+ * <p>
+ * {@link #limit(Duration)} sets {@code statement_timeout} for the rest of the current
+ * transaction, so the server cancels any statement running longer and the connection goes
+ * back to the pool instead of being held by one pathological query. Reads that have a fallback
+ * run through {@link #orFallback}: each runs under a savepoint, so a cancelled statement rolls
+ * back to it and leaves the transaction usable, and the fallback result is served instead.
+ * <p>
+ * Fallbacks are counted in the {@value #TIMEOUTS_METRIC} counter, tagged with the operation and
+ * the fallback used ({@code none} when there was none), and flagged to the client in the
+ * {@value #FALLBACK_HEADER} response header.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class StatementDeadlines {
+
+    public static final String FALLBACK_HEADER = "X-Search-Fallback";
+    public static final String TIMEOUTS_METRIC = "product.search.timeouts";
+
+    private static final Logger log = LoggerFactory.getLogger(StatementDeadlines.class);
+
+    /** SQLSTATE of a statement cancelled by {@code statement_timeout}. */
+    private static final String QUERY_CANCELED = "57014";
+
+    private static final String SET_STATEMENT_TIMEOUT =
+            "SELECT set_config('statement_timeout', CAST(:timeout AS text), true)";
+
+    private final JdbcClient jdbcClient;
+    private final TransactionTemplate savepoint;
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<String> fallback = new ThreadLocal<>();
+
+    public StatementDeadlines(JdbcClient jdbcClient, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcClient = jdbcClient;
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Cancels every later statement of the current transaction that runs longer than the
+     * deadline. Zero or negative leaves the server default.
+     */
+    public void limit(Duration deadline) {
+        if (deadline.isPositive()) {
+            jdbcClient.sql(SET_STATEMENT_TIMEOUT).param("timeout", deadline.toMillis()).query().singleValue();
+        }
+    }
+
+    /**
+     * Runs the read under a savepoint of the current transaction. If one of its statements hits
+     * the deadline, returns the fallback instead and flags the response with its kind.
+     *
+     * @param operation    metric tag and error message subject, e.g. "search" or "count"
+     * @param fallbackKind {@value #FALLBACK_HEADER} value, e.g. "stale" or "partial"
+     * @param fallback     result to serve instead, or null when there is none
+     * @throws SearchTimeoutException if the read timed out and the fallback returned null
+     */
+    public <T> T orFallback(String operation, Supplier<T> read, String fallbackKind, Supplier<T> fallback) {
+        try {
+            return savepoint.execute(_ -> read.get());
+        } catch (RuntimeException e) {
+            if (!isTimeout(e)) {
+                throw e;
+            }
+            T result = fallback.get();
+            meterRegistry.counter(TIMEOUTS_METRIC, "operation", operation,
+                    "fallback", result == null ? "none" : fallbackKind).increment();
+            if (result == null) {
+                throw new SearchTimeoutException(operation, e);
+            }
+            log.warn("Serving a {} result after the {} exceeded its deadline", fallbackKind, operation);
+            markFallback(fallbackKind);
+            return result;
+        }
+    }
+
+    /**
+     * Returns and forgets the fallback served on this thread since the last call, or null.
+     * Callers use it to keep fallback results out of caches.
+     */
+    public String takeFallback() {
+        String kind = fallback.get();
+        fallback.remove();
+        return kind;
+    }
+
+    static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException
+                    || cause instanceof SQLException sql && QUERY_CANCELED.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markFallback(String kind) {
+        fallback.set(kind);
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null) {
+            attributes.getResponse().setHeader(FALLBACK_HEADER, kind);
+        }
+    }
+}
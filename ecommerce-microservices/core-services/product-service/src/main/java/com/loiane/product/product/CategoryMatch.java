@@ -0,0 +1,33 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.exception.InvalidInputException;
+
+import java.util.Locale;
+
+/**
+ * How a product search combines several category IDs.
+ */
+public enum CategoryMatch {
+
+    /** Products in at least one of the categories. */
+    ANY,
+
+    /** Products in every one of the categories. */
+    ALL;
+
+    /**
+     * Parses the {@code categoryMatch} request parameter, case-insensitively.
+     *
+     * @throws InvalidInputException if the value is neither {@code any} nor {@code all}
+     */
+    public static CategoryMatch from(String value) {
+        if (value == null || value.isBlank()) {
+            return ANY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("categoryMatch", value, "Category match must be one of: any, all");
+        }
+    }
+}
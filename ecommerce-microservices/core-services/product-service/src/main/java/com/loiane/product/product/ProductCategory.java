@@ -0,0 +1,62 @@
+package com.loiane.product.product;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Read-only view of a {@code product_categories} row.
+ * Lets Specifications filter by category as a semi-join on the join table alone, without
+ * joining {@code categories}. The association itself is still owned by {@code Product.categories}.
+ */
+@Entity
+@Immutable
+@Table(name = "product_categories")
+@IdClass(ProductCategory.Key.class)
+public class ProductCategory {
+
+    @Id
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Id
+    @Column(name = "category_id", nullable = false, updatable = false)
+    private UUID categoryId;
+
+    protected ProductCategory() {}
+
+    public UUID getProductId() { return productId; }
+    public UUID getCategoryId() { return categoryId; }
+
+    public static class Key implements Serializable {
+
+        private UUID productId;
+        private UUID categoryId;
+
+        public Key() {}
+
+        public Key(UUID productId, UUID categoryId) {
+            this.productId = productId;
+            this.categoryId = categoryId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(productId, other.productId) && Objects.equals(categoryId, other.categoryId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, categoryId);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.loiane.product.product;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains the {@code product_categories} join rows of a product directly through JDBC.
+ * Product writes only insert and delete the rows that actually changed, as one batch each,
+ * instead of letting Hibernate clear and re-insert the whole {@code Product.categories} set.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Repository
+public class ProductCategoryRepository {
+
+    private static final String SELECT_CATEGORY_IDS =
+            "SELECT category_id FROM product_categories WHERE product_id = ?";
+    private static final String INSERT_LINK =
+            "INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)";
+    private static final String DELETE_LINK =
+            "DELETE FROM product_categories WHERE product_id = ? AND category_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductCategoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Set<UUID> findCategoryIds(UUID productId) {
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT_CATEGORY_IDS, UUID.class, productId));
+    }
+
+    public void link(UUID productId, Collection<UUID> categoryIds) {
+        batch(INSERT_LINK, productId, categoryIds);
+    }
+
+    public void unlink(UUID productId, Collection<UUID> categoryIds) {
+        batch(DELETE_LINK, productId, categoryIds);
+    }
+
+    private void batch(String sql, UUID productId, Collection<UUID> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = categoryIds.stream()
+                .map(categoryId -> new Object[]{productId, categoryId})
+                .toList();
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+}
@@ -0,0 +1,95 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor for product pagination.
+ * Identifies the last row of a page by its (sort key, id) pair so the next page can
+ * seek past it instead of skipping rows with OFFSET.
+ */
+public record ProductCursor(String property, Sort.Direction direction, Comparable<?> value, UUID id) {
+
+    public static final List<String> SUPPORTED_SORT_PROPERTIES = List.of("name", "sku", "createdAt", "updatedAt");
+
+    /**
+     * Sort properties that can back a cursor. Each one is non-null and has a matching
+     * (column, id) index, see V3__keyset_pagination_indexes.sql; name and SKU are compared by
+     * code point, see V7__code_point_sort_indexes.sql.
+     */
+    private static final Map<String, SortKey> SORT_KEYS = Map.of(
+            "name", new SortKey(Product::getName, raw -> raw),
+            "sku", new SortKey(Product::getSku, raw -> raw),
+            "createdAt", new SortKey(Product::getCreatedAt, OffsetDateTime::parse),
+            "updatedAt", new SortKey(Product::getUpdatedAt, OffsetDateTime::parse)
+    );
+
+    private static final String SEPARATOR = "\n";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Resolves the single sort order cursor mode runs on.
+     *
+     * @throws InvalidInputException if the sort is not a single supported property
+     */
+    public static Sort.Order keysetOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1 || !SORT_KEYS.containsKey(orders.getFirst().getProperty())) {
+            throw new InvalidInputException("sort", sort.toString(),
+                    "Cursor pagination supports sorting by a single property, one of: "
+                            + String.join(", ", SUPPORTED_SORT_PROPERTIES));
+        }
+        return orders.getFirst();
+    }
+
+    /**
+     * Builds the cursor that points right after the given product.
+     */
+    public static ProductCursor after(Product product, Sort.Order order) {
+        SortKey key = SORT_KEYS.get(order.getProperty());
+        return new ProductCursor(order.getProperty(), order.getDirection(), key.extractor().apply(product), product.getId());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()} and checks it was issued for the same sort.
+     *
+     * @throws InvalidInputException if the token is malformed or belongs to another sort
+     */
+    public static ProductCursor decode(String token, Sort.Order order) {
+        try {
+            String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw invalidCursor(token);
+            }
+            SortKey key = SORT_KEYS.get(parts[0]);
+            Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+            if (key == null || !parts[0].equals(order.getProperty()) || direction != order.getDirection()) {
+                throw new InvalidInputException("after", token, "Cursor does not match the requested sort");
+            }
+            return new ProductCursor(parts[0], direction, key.parser().apply(parts[3]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalidCursor(token);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, property, direction.name(), id.toString(), String.valueOf(value));
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InvalidInputException invalidCursor(String token) {
+        return new InvalidInputException("after", token, "Malformed pagination cursor");
+    }
+
+    private record SortKey(Function<Product, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {}
+}
@@ -0,0 +1,284 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.common.util.LikePatterns;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.support.SqlArrayValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue of the product search statements, one per combination of filters.
+ * <p>
+ * Every filter either is or is not present, so the WHERE clause of a search is fully
+ * determined by a bitmask of the filters in use. All shapes are rendered once when the
+ * class loads, as is the ORDER BY clause of every sort in {@link ProductSearchCriteria#SORTS};
+ * a search computes its mask and binds its values into the matching statement. Category IDs
+ * are bound as one {@code uuid[]} array rather than one placeholder each, so the SQL text
+ * depends only on the shape and sort, which lets the driver reuse server-side prepared statements.
+ * Category filters contribute one of two bits, any or all, never both.
+ * Full-text searches are ordered by {@link #RANK} before the requested sort, fuzzy name
+ * searches by {@link #SIMILARITY}.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class ProductQueryShapes {
+
+    static final int NAME = 1;
+    static final int STATUS = 1 << 1;
+    static final int BRAND = 1 << 2;
+    static final int SKU = 1 << 3;
+    static final int ANY_CATEGORY = 1 << 4;
+    static final int ALL_CATEGORIES = 1 << 5;
+    static final int FULL_TEXT = 1 << 6;
+    static final int FUZZY = 1 << 7;
+
+    private static final int SHAPES = 1 << 8;
+
+    private static final String TS_QUERY = "websearch_to_tsquery('english', :query)";
+
+    /**
+     * Relevance of a product for the full-text query, weighted by the V5 {@code search_vector} weights.
+     */
+    static final String RANK = "ts_rank(p.search_vector, " + TS_QUERY + ")";
+
+    /**
+     * How closely the fuzzy name term matches the most similar run of words in the product
+     * name, from 0 to 1. Both {@code <%} and this function compare trigram sets, so a typo
+     * such as "iphnoe" still shares enough trigrams with "iphone".
+     */
+    static final String SIMILARITY = "word_similarity(:name, lower(p.name))";
+
+    static final String SELECT_PRODUCTS = """
+            SELECT p.id, p.sku, p.name, p.slug, p.brand, p.description, p.status, p.created_at, p.updated_at
+            FROM products p""";
+
+    private static final String SELECT_IDS = "SELECT p.id FROM products p";
+
+    private static final String COUNT_PRODUCTS = "SELECT count(*) FROM products p";
+
+    /**
+     * Text sort keys are ordered by code point, the order of the in-memory search index and of
+     * the V7 sort indexes, rather than by the database's linguistic default collation.
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "p.id",
+            "sku", "p.sku COLLATE ucs_basic",
+            "name", "p.name COLLATE ucs_basic",
+            "status", "p.status",
+            "createdAt", "p.created_at",
+            "updatedAt", "p.updated_at"
+    );
+
+    /** Relevance terms a shape can order by, see {@link #relevance(int)}. */
+    private static final int RELEVANCE_MASK = FUZZY | FULL_TEXT;
+
+    private static final String[] SELECTS = new String[SHAPES];
+    private static final String[] IDS = new String[SHAPES];
+    private static final String[] COUNTS = new String[SHAPES];
+    private static final String[] FACETS = new String[SHAPES];
+    /** ORDER BY clause per relevance terms and indexed sort. */
+    private static final Map<Integer, Map<Sort, String>> ORDER_BYS = new HashMap<>();
+
+    static {
+        for (int mask = 0; mask < SHAPES; mask++) {
+            if (isValid(mask)) {
+                String where = where(mask);
+                SELECTS[mask] = SELECT_PRODUCTS + where;
+                IDS[mask] = SELECT_IDS + where;
+                COUNTS[mask] = COUNT_PRODUCTS + where;
+                FACETS[mask] = facets(where);
+            }
+        }
+        for (int terms : new int[] {0, FUZZY, FULL_TEXT, FUZZY | FULL_TEXT}) {
+            Map<Sort, String> orderBys = new HashMap<>();
+            for (Sort sort : ProductSearchCriteria.SORTS.sorts()) {
+                orderBys.put(sort, renderOrderBy(relevance(terms), sort));
+            }
+            ORDER_BYS.put(terms, orderBys);
+        }
+    }
+
+    private ProductQueryShapes() {
+    }
+
+    static int maskOf(ProductSearchCriteria criteria) {
+        int mask = 0;
+        if (criteria.name() != null) {
+            mask |= NAME;
+        }
+        if (criteria.status() != null) {
+            mask |= STATUS;
+        }
+        if (criteria.brand() != null) {
+            mask |= BRAND;
+        }
+        if (criteria.sku() != null) {
+            mask |= SKU;
+        }
+        if (!criteria.categoryIds().isEmpty()) {
+            mask |= criteria.categoryMatch() == CategoryMatch.ALL ? ALL_CATEGORIES : ANY_CATEGORY;
+        }
+        if (criteria.isFullText()) {
+            mask |= FULL_TEXT;
+        }
+        if (criteria.isFuzzy()) {
+            mask |= FUZZY;
+        }
+        return mask;
+    }
+
+    static String select(int mask) {
+        return SELECTS[mask];
+    }
+
+    /**
+     * Same matches as {@link #select(int)}, IDs only, so that an index holding the filtered
+     * columns can answer it without reading the table.
+     */
+    static String selectIds(int mask) {
+        return IDS[mask];
+    }
+
+    static String count(int mask) {
+        return COUNTS[mask];
+    }
+
+    static String facets(int mask) {
+        return FACETS[mask];
+    }
+
+    /**
+     * ORDER BY clause of the shape for a sort, relevance first. A sort that is not one of
+     * {@link ProductSearchCriteria#SORTS} is resolved to one first.
+     *
+     * @throws InvalidInputException if no index serves the sort
+     */
+    static String orderBy(int mask, Sort sort) {
+        Map<Sort, String> orderBys = ORDER_BYS.get(mask & RELEVANCE_MASK);
+        String orderBy = orderBys.get(sort);
+        return orderBy != null ? orderBy : orderBys.get(ProductSearchCriteria.SORTS.resolve(sort));
+    }
+
+    /**
+     * Relevance terms of the shape to order by before the requested sort, each followed by
+     * {@code ", "}; empty when the shape has no notion of relevance.
+     */
+    static String relevance(int mask) {
+        StringBuilder relevance = new StringBuilder();
+        if ((mask & FUZZY) != 0) {
+            relevance.append(SIMILARITY).append(" DESC, ");
+        }
+        if ((mask & FULL_TEXT) != 0) {
+            relevance.append(RANK).append(" DESC, ");
+        }
+        return relevance.toString();
+    }
+
+    /**
+     * Bind values for the statement of {@link #maskOf(ProductSearchCriteria) the criteria's shape}.
+     * Criteria values are already lower-cased, see {@link ProductSearchCriteria#of}. A fuzzy
+     * name is bound as is, since similarity has no wildcards.
+     */
+    static Map<String, Object> params(ProductSearchCriteria criteria) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (criteria.name() != null) {
+            params.put("name", criteria.isFuzzy() ? criteria.name() : LikePatterns.contains(criteria.name()));
+        }
+        if (criteria.status() != null) {
+            params.put("status", criteria.status());
+        }
+        if (criteria.brand() != null) {
+            params.put("brand", LikePatterns.contains(criteria.brand()));
+        }
+        if (criteria.sku() != null) {
+            params.put("sku", LikePatterns.contains(criteria.sku()));
+        }
+        if (!criteria.categoryIds().isEmpty()) {
+            params.put("categoryIds", new SqlArrayValue("uuid", criteria.categoryIds().toArray()));
+            if (criteria.categoryMatch() == CategoryMatch.ALL) {
+                params.put("categoryCount", criteria.categoryIds().size());
+            }
+        }
+        if (criteria.isFullText()) {
+            params.put("query", criteria.query());
+        }
+        return params;
+    }
+
+    /**
+     * Brand, status and category counts over the matches of one shape, as rows of
+     * (facet, value, name, count). Used when the in-memory index cannot answer the search.
+     */
+    private static String facets(String where) {
+        return "SELECT 'BRAND' AS facet, p.brand AS value, NULL AS name, count(*) AS count FROM products p" + where
+                + (where.isEmpty() ? " WHERE" : " AND") + " p.brand IS NOT NULL GROUP BY p.brand"
+                + " UNION ALL SELECT 'STATUS', p.status, NULL, count(*) FROM products p" + where
+                + " GROUP BY p.status"
+                + " UNION ALL SELECT 'CATEGORY', CAST(c.id AS text), c.name, count(*) FROM products p"
+                + " JOIN product_categories pcf ON pcf.product_id = p.id JOIN categories c ON c.id = pcf.category_id"
+                + where + " GROUP BY c.id, c.name";
+    }
+
+    /**
+     * Ties are broken by ID in the direction of the last sort property, so that a sort with
+     * a (sort key, id) index is read from it in one direction.
+     */
+    private static String renderOrderBy(String relevance, Sort sort) {
+        if (sort.isUnsorted()) {
+            return " ORDER BY " + relevance + "p.id";
+        }
+        String columns = sort.stream()
+                .map(order -> SORT_COLUMNS.get(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", "));
+        return " ORDER BY " + relevance + columns + ", p.id" + (sort.toList().getLast().isAscending() ? "" : " DESC");
+    }
+
+    private static boolean isValid(int mask) {
+        return (mask & (ANY_CATEGORY | ALL_CATEGORIES)) != (ANY_CATEGORY | ALL_CATEGORIES)
+                && ((mask & FUZZY) == 0 || (mask & NAME) != 0);
+    }
+
+    /**
+     * WHERE clause equivalent to the {@link ProductSpecification} filters of the same shape.
+     * The full-text condition has no Specification counterpart and is served by the
+     * {@code search_vector} GIN index. Neither has the fuzzy name condition, whose {@code <%}
+     * operator is served by the V4 trigram index on {@code lower(name)}; its threshold is the
+     * {@code pg_trgm.word_similarity_threshold} setting of the transaction.
+     */
+    private static String where(int mask) {
+        List<String> conditions = new ArrayList<>();
+        if ((mask & FUZZY) != 0) {
+            conditions.add(":name <% lower(p.name)");
+        } else if ((mask & NAME) != 0) {
+            conditions.add("lower(p.name) LIKE :name ESCAPE '\\'");
+        }
+        if ((mask & STATUS) != 0) {
+            conditions.add("p.status = :status");
+        }
+        if ((mask & BRAND) != 0) {
+            conditions.add("lower(p.brand) LIKE :brand ESCAPE '\\'");
+        }
+        if ((mask & SKU) != 0) {
+            conditions.add("lower(p.sku) LIKE :sku ESCAPE '\\'");
+        }
+        if ((mask & ALL_CATEGORIES) != 0) {
+            conditions.add("p.id IN (SELECT pc.product_id FROM product_categories pc"
+                    + " WHERE pc.category_id = ANY(:categoryIds)"
+                    + " GROUP BY pc.product_id HAVING count(*) = :categoryCount)");
+        } else if ((mask & ANY_CATEGORY) != 0) {
+            conditions.add("EXISTS (SELECT 1 FROM product_categories pc"
+                    + " WHERE pc.product_id = p.id AND pc.category_id = ANY(:categoryIds))");
+        }
+        if ((mask & FULL_TEXT) != 0) {
+            conditions.add("p.search_vector @@ " + TS_QUERY);
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
@@ -0,0 +1,270 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.product.api.dto.ProductFacets;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only product queries that map JDBC rows straight into {@link ProductResponse}.
+ * Nothing is loaded into the persistence context, so reads pay neither for entity
+ * hydration nor for the snapshots kept for dirty checking. Category summaries for a
+ * whole page come from one extra query keyed by the page's product IDs. Search statements
+ * come precompiled from {@link ProductQueryShapes}.
+ * <p>
+ * Active when {@code product.read-path=projection}, and for every full-text or fuzzy search,
+ * which have no entity equivalent. Writes always go through {@link ProductRepository}.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Repository
+public class ProductReadRepository {
+
+    private static final String SELECT_PRODUCT_BY_ID = ProductQueryShapes.SELECT_PRODUCTS + " WHERE p.id = :id";
+
+    private static final String SELECT_CATEGORIES = """
+            SELECT pc.product_id, c.id, c.name, c.slug
+            FROM product_categories pc
+            JOIN categories c ON c.id = pc.category_id
+            WHERE pc.product_id = ANY(:productIds)
+            ORDER BY c.name""";
+
+    /** Every product once per category, or once without any; rows of a product are adjacent. */
+    private static final String SELECT_ALL_PRODUCTS = """
+            SELECT p.id, p.sku, p.name, p.slug, p.brand, p.description, p.status, p.created_at, p.updated_at,
+                   c.id AS category_id, c.name AS category_name, c.slug AS category_slug
+            FROM products p
+            LEFT JOIN product_categories pc ON pc.product_id = p.id
+            LEFT JOIN categories c ON c.id = pc.category_id
+            ORDER BY p.id, c.name""";
+
+    /** Aliased {@code p} so that the ORDER BY clauses of {@link ProductQueryShapes} apply. */
+    private static final String SELECT_POSITIONS = """
+            SELECT p.position
+            FROM (SELECT p.id, p.sku, p.name, p.status, p.created_at, p.updated_at,
+                         row_number() OVER (ORDER BY p.id) - 1 AS position
+                  FROM products p) p""";
+
+    /** Rows fetched per round trip while streaming the catalog. */
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    /**
+     * Threshold of the {@code <%} operator for the rest of the transaction, which every caller
+     * of a fuzzy search runs in.
+     */
+    private static final String SET_FUZZY_THRESHOLD =
+            "SELECT set_config('pg_trgm.word_similarity_threshold', CAST(:threshold AS text), true)";
+
+    private static final RowMapper<ProductRow> PRODUCT_ROW = (rs, _) -> new ProductRow(
+            rs.getObject("id", UUID.class),
+            rs.getString("sku"),
+            rs.getString("name"),
+            rs.getString("slug"),
+            rs.getString("brand"),
+            rs.getString("description"),
+            rs.getString("status"),
+            rs.getObject("created_at", OffsetDateTime.class),
+            rs.getObject("updated_at", OffsetDateTime.class)
+    );
+
+    private final JdbcClient jdbcClient;
+    private final JdbcClient streamingClient;
+    private final boolean enabled;
+    private final double fuzzyThreshold;
+
+    public ProductReadRepository(JdbcClient jdbcClient, DataSource dataSource,
+                                 @Value("${product.read-path:projection}") String readPath,
+                                 @Value("${product.search.fuzzy.threshold:0.3}") double fuzzyThreshold) {
+        this.jdbcClient = jdbcClient;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingClient = JdbcClient.create(streaming);
+        this.enabled = "projection".equalsIgnoreCase(readPath);
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<ProductResponse> findById(UUID id) {
+        return jdbcClient.sql(SELECT_PRODUCT_BY_ID)
+                .param("id", id)
+                .query(PRODUCT_ROW)
+                .optional()
+                .map(row -> row.toResponse(findCategories(List.of(row.id())).getOrDefault(row.id(), List.of())));
+    }
+
+    /**
+     * Reads one page of matching products plus one extra row to tell whether a next page exists.
+     * <p>
+     * A page without relevance ordering first picks its IDs in a subquery, then reads only
+     * those rows. With a covering (sort key, id) index (V6) the subquery, including the rows
+     * OFFSET skips, is an index-only scan.
+     *
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     */
+    public Slice<ProductResponse> findSlice(ProductSearchCriteria criteria, Pageable pageable) {
+        int mask = ProductQueryShapes.maskOf(criteria);
+        String orderBy = ProductQueryShapes.orderBy(mask, pageable.getSort());
+        StringBuilder sql = new StringBuilder();
+        Map<String, Object> params = ProductQueryShapes.params(criteria);
+        applyFuzzyThreshold(criteria);
+        if (pageable.isPaged()) {
+            if (ProductQueryShapes.relevance(mask).isEmpty()) {
+                sql.append(ProductQueryShapes.SELECT_PRODUCTS)
+                        .append(" JOIN (").append(ProductQueryShapes.selectIds(mask)).append(orderBy)
+                        .append(" LIMIT :limit OFFSET :offset) page ON page.id = p.id")
+                        .append(orderBy);
+            } else {
+                sql.append(ProductQueryShapes.select(mask)).append(orderBy).append(" LIMIT :limit OFFSET :offset");
+            }
+            params.put("limit", pageable.getPageSize() + 1);
+            params.put("offset", pageable.getOffset());
+        } else {
+            sql.append(ProductQueryShapes.select(mask)).append(orderBy);
+        }
+
+        List<ProductRow> rows = jdbcClient.sql(sql.toString()).params(params).query(PRODUCT_ROW).list();
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        List<ProductRow> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        Map<UUID, List<ProductResponse.CategorySummary>> categories =
+                findCategories(content.stream().map(ProductRow::id).toList());
+        List<ProductResponse> responses = content.stream()
+                .map(row -> row.toResponse(categories.getOrDefault(row.id(), List.of())))
+                .toList();
+        return new SliceImpl<>(responses, pageable, hasNext);
+    }
+
+    /**
+     * Streams the whole catalog, each product with its categories, in ID order from one
+     * statement that is read {@value #STREAM_FETCH_SIZE} rows at a time, so e.g. an index can be
+     * built without holding every product. PostgreSQL only reads a result set in batches inside
+     * a transaction; outside one the whole result is buffered.
+     */
+    public void forEachProduct(Consumer<ProductResponse> action) {
+        ProductRow[] current = {null};
+        List<ProductResponse.CategorySummary> categories = new ArrayList<>();
+        streamingClient.sql(SELECT_ALL_PRODUCTS).query(rs -> {
+            UUID id = rs.getObject("id", UUID.class);
+            if (current[0] != null && !current[0].id().equals(id)) {
+                action.accept(current[0].toResponse(List.copyOf(categories)));
+                categories.clear();
+            }
+            if (current[0] == null || !current[0].id().equals(id)) {
+                current[0] = PRODUCT_ROW.mapRow(rs, 0);
+            }
+            UUID categoryId = rs.getObject("category_id", UUID.class);
+            if (categoryId != null) {
+                categories.add(new ProductResponse.CategorySummary(
+                        categoryId, rs.getString("category_name"), rs.getString("category_slug")));
+            }
+        });
+        if (current[0] != null) {
+            action.accept(current[0].toResponse(List.copyOf(categories)));
+        }
+    }
+
+    /**
+     * Streams, in the order of an indexed sort, the position of every product in the ID order
+     * of {@link #forEachProduct(Consumer)}. Run in the same transaction as that read, under
+     * repeatable read, both see the same products.
+     *
+     * @throws InvalidInputException if no index serves the sort
+     */
+    public void forEachPosition(Sort sort, IntConsumer action) {
+        streamingClient.sql(SELECT_POSITIONS + ProductQueryShapes.orderBy(0, sort))
+                .query(rs -> action.accept(rs.getInt("position")));
+    }
+
+    public long count(ProductSearchCriteria criteria) {
+        applyFuzzyThreshold(criteria);
+        return jdbcClient.sql(ProductQueryShapes.count(ProductQueryShapes.maskOf(criteria)))
+                .params(ProductQueryShapes.params(criteria))
+                .query(Long.class)
+                .single();
+    }
+
+    /**
+     * Brand, status and category counts over every product matching the criteria, grouped
+     * by the database in one statement.
+     */
+    public ProductFacets findFacets(ProductSearchCriteria criteria) {
+        List<ProductFacets.ValueCount> brands = new ArrayList<>();
+        List<ProductFacets.ValueCount> statuses = new ArrayList<>();
+        List<ProductFacets.CategoryCount> categories = new ArrayList<>();
+        applyFuzzyThreshold(criteria);
+        jdbcClient.sql(ProductQueryShapes.facets(ProductQueryShapes.maskOf(criteria)))
+                .params(ProductQueryShapes.params(criteria))
+                .query((RowCallbackHandler) rs -> {
+                    long count = rs.getLong("count");
+                    switch (rs.getString("facet")) {
+                        case "BRAND" -> brands.add(new ProductFacets.ValueCount(rs.getString("value"), count));
+                        case "STATUS" -> statuses.add(new ProductFacets.ValueCount(rs.getString("value"), count));
+                        default -> categories.add(new ProductFacets.CategoryCount(
+                                UUID.fromString(rs.getString("value")), rs.getString("name"), count));
+                    }
+                });
+        brands.sort(ProductFacets.VALUE_ORDER);
+        statuses.sort(ProductFacets.VALUE_ORDER);
+        categories.sort(ProductFacets.CATEGORY_ORDER);
+        return new ProductFacets(brands, statuses, categories);
+    }
+
+    private void applyFuzzyThreshold(ProductSearchCriteria criteria) {
+        if (criteria.isFuzzy()) {
+            jdbcClient.sql(SET_FUZZY_THRESHOLD).param("threshold", fuzzyThreshold).query().singleValue();
+        }
+    }
+
+    private Map<UUID, List<ProductResponse.CategorySummary>> findCategories(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, List<ProductResponse.CategorySummary>> byProduct = new HashMap<>();
+        jdbcClient.sql(SELECT_CATEGORIES)
+                .param("productIds", new SqlArrayValue("uuid", productIds.toArray()))
+                .query(collectCategories(byProduct));
+        return byProduct;
+    }
+
+    private static RowCallbackHandler collectCategories(Map<UUID, List<ProductResponse.CategorySummary>> byProduct) {
+        return rs -> byProduct.computeIfAbsent(rs.getObject("product_id", UUID.class), _ -> new ArrayList<>())
+                .add(new ProductResponse.CategorySummary(
+                        rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("slug")));
+    }
+
+    private record ProductRow(UUID id, String sku, String name, String slug, String brand, String description,
+                              String status, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+
+        ProductResponse toResponse(List<ProductResponse.CategorySummary> categories) {
+            return new ProductResponse(id, sku, name, slug, brand, description, status, categories,
+                    createdAt, updatedAt);
+        }
+    }
+}
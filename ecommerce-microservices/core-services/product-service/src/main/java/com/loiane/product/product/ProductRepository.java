@@ -1,14 +1,40 @@
 package com.loiane.product.product;
 
+import com.loiane.product.common.repository.RefreshableRepository;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        RefreshableRepository<Product> {
     Optional<Product> findBySku(String sku);
     Optional<Product> findBySlug(String slug);
     boolean existsBySku(String sku);
     boolean existsBySlug(String slug);
+
+    /**
+     * Planner row estimate for the products table (pg_class.reltuples), refreshed by
+     * ANALYZE/autovacuum. Returns a negative value when the table was never analyzed.
+     */
+    @Query(value = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'products'::regclass", nativeQuery = true)
+    long estimateCount();
+
+    // Fetch plans for read paths: categories are loaded in the same statement
+    // so mapping to ProductResponse never triggers a lazy load per product.
+
+    @EntityGraph(attributePaths = "categories")
+    Optional<Product> findWithCategoriesById(UUID id);
+
+    @EntityGraph(attributePaths = "categories")
+    List<Product> findWithCategoriesByIdIn(Collection<UUID> ids);
+
+    @EntityGraph(attributePaths = "categories")
+    @Query("select p from Product p")
+    List<Product> findAllWithCategories();
 }
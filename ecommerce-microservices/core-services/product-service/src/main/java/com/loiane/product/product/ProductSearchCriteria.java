@@ -0,0 +1,96 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.util.IndexedSorts;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized product search filters.
+ * Two requests that match the same rows produce equal criteria (trimmed, lower-cased
+ * partial-match values, blank values dropped, category IDs sorted, {@code ALL} with a single
+ * category folded into {@code ANY}, whitespace in the full-text query collapsed, fuzzy matching
+ * dropped without a name), so instances can be used directly as cache keys.
+ */
+public record ProductSearchCriteria(String name, String status, String brand, String sku, List<UUID> categoryIds,
+                                    CategoryMatch categoryMatch, String query, boolean fuzzy) {
+
+    /**
+     * Sorts backed by a (sort key, id) index, see V3 and V6; {@code status} is read through
+     * (status, name, id). Other columns have no index to read in order.
+     */
+    public static final IndexedSorts SORTS = new IndexedSorts("Products", List.of(
+            List.of("name"), List.of("sku"), List.of("createdAt"), List.of("updatedAt"),
+            List.of("status", "name"), List.of("id")));
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static ProductSearchCriteria of(String name, String status, String brand, String sku,
+                                           Set<UUID> categoryIds) {
+        return of(name, status, brand, sku, categoryIds, CategoryMatch.ANY);
+    }
+
+    public static ProductSearchCriteria of(String name, String status, String brand, String sku,
+                                           Set<UUID> categoryIds, CategoryMatch categoryMatch) {
+        return of(name, status, brand, sku, categoryIds, categoryMatch, null);
+    }
+
+    /**
+     * @param query full-text query in web search syntax (quoted phrases, {@code or}, {@code -term})
+     */
+    public static ProductSearchCriteria of(String name, String status, String brand, String sku,
+                                           Set<UUID> categoryIds, CategoryMatch categoryMatch, String query) {
+        return of(name, status, brand, sku, categoryIds, categoryMatch, query, false);
+    }
+
+    /**
+     * @param fuzzy match {@code name} by trigram word similarity instead of as a substring
+     */
+    public static ProductSearchCriteria of(String name, String status, String brand, String sku,
+                                           Set<UUID> categoryIds, CategoryMatch categoryMatch, String query,
+                                           boolean fuzzy) {
+        List<UUID> sortedIds = categoryIds == null ? List.of() : List.copyOf(new TreeSet<>(categoryIds));
+        String normalizedName = lowerCaseOrNull(name);
+        return new ProductSearchCriteria(
+                normalizedName,
+                trimToNull(status),
+                lowerCaseOrNull(brand),
+                lowerCaseOrNull(sku),
+                sortedIds,
+                sortedIds.size() > 1 && categoryMatch == CategoryMatch.ALL ? CategoryMatch.ALL : CategoryMatch.ANY,
+                collapseWhitespace(query),
+                fuzzy && normalizedName != null
+        );
+    }
+
+    public boolean isEmpty() {
+        return name == null && status == null && brand == null && sku == null && categoryIds.isEmpty()
+                && query == null;
+    }
+
+    public boolean isFullText() {
+        return query != null;
+    }
+
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String collapseWhitespace(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed == null ? null : WHITESPACE.matcher(trimmed).replaceAll(" ");
+    }
+
+    private static String lowerCaseOrNull(String value) {
+        String trimmed = trimToNull(value);
+        return trimmed == null ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,76 +1,414 @@
 package com.loiane.product.product;
 
+import com.loiane.product.cache.LoadedResult;
+import com.loiane.product.cache.NotFoundCache;
+import com.loiane.product.cache.ProductListingCache;
+import com.loiane.product.cache.SearchCountCache;
+import com.loiane.product.cache.SearchResultCache;
 import com.loiane.product.category.Category;
 import com.loiane.product.category.CategoryRepository;
+import com.loiane.product.common.api.dto.CursorPage;
 import com.loiane.product.common.exception.CategoryNotFoundException;
 import com.loiane.product.common.exception.DuplicateSkuException;
+import com.loiane.product.common.exception.InvalidInputException;
 import com.loiane.product.common.exception.ProductNotFoundException;
+import com.loiane.product.datasource.StatementDeadlines;
 import com.loiane.product.product.api.ProductMapper;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductFacets;
 import com.loiane.product.product.api.dto.ProductRequest;
 import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
+import com.loiane.product.search.SearchAnalytics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
 
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final String STALE = "stale";
+    private static final String PARTIAL = "partial";
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductReadRepository productReadRepository;
+    private final ProductCategoryRepository productCategoryRepository;
+    private final SearchCountCache searchCountCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestions productSuggestions;
+    private final SearchResultCache searchResultCache;
+    private final SearchAnalytics searchAnalytics;
+    private final ProductListingCache productListingCache;
+    private final StatementDeadlines statementDeadlines;
+    private final NotFoundCache notFoundCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration searchDeadline;
+    private final Duration facetsDeadline;
 
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                          ProductReadRepository productReadRepository,
+                          ProductCategoryRepository productCategoryRepository,
+                          SearchCountCache searchCountCache, ProductSearchIndex productSearchIndex,
+                          ProductSuggestions productSuggestions, SearchResultCache searchResultCache,
+                          SearchAnalytics searchAnalytics, ProductListingCache productListingCache,
+                          StatementDeadlines statementDeadlines, NotFoundCache notFoundCache,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${product.search.deadline.search:2s}") Duration searchDeadline,
+                          @Value("${product.search.deadline.facets:3s}") Duration facetsDeadline) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productReadRepository = productReadRepository;
+        this.productCategoryRepository = productCategoryRepository;
+        this.searchCountCache = searchCountCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productSuggestions = productSuggestions;
+        this.searchResultCache = searchResultCache;
+        this.searchAnalytics = searchAnalytics;
+        this.productListingCache = productListingCache;
+        this.statementDeadlines = statementDeadlines;
+        this.notFoundCache = notFoundCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.searchDeadline = searchDeadline;
+        this.facetsDeadline = facetsDeadline;
     }
 
+    /**
+     * Lists products a page at a time, cached in {@link ProductListingCache} until the next catalog write.
+     * Runs under the search deadline like {@link #search}: a total that times out is reported as
+     * a lower bound and that page is not cached; a page that times out is served from the last
+     * cached one, if any.
+     *
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     * @throws com.loiane.product.common.exception.SearchTimeoutException if the page timed out
+     *                                                                    and nothing is cached for it
+     */
     @Transactional(readOnly = true)
     public Page<ProductResponse> listAll(Pageable pageable) {
-        return productRepository.findAll(pageable).map(ProductMapper::toResponse);
+        Pageable indexed = ProductSearchCriteria.SORTS.resolve(pageable);
+        Page<ProductResponse> page = statementDeadlines.orFallback("search",
+                () -> productListingCache.get(indexed,
+                        () -> loaded(() -> searchPage(ProductSearchCriteria.of(null, null, null, null, null), indexed))),
+                STALE, () -> productListingCache.getStale(indexed));
+        statementDeadlines.takeFallback();
+        return page;
     }
 
     @Transactional(readOnly = true)
     public List<ProductResponse> listAll() {
-        return ProductMapper.toResponseList(productRepository.findAll());
+        if (productReadRepository.isEnabled()) {
+            return productReadRepository.findSlice(ProductSearchCriteria.of(null, null, null, null, null),
+                    Pageable.unpaged()).getContent();
+        }
+        return ProductMapper.toResponseList(productRepository.findAllWithCategories());
     }
 
+    /**
+     * Searches products and returns a page with a total, cached in {@link SearchResultCache}.
+     * Criteria, total and latency are recorded in {@link SearchAnalytics}.
+     * The page itself is read as a slice; the total comes from {@link SearchCountCache}, and
+     * is not queried at all when the slice already proves where the result set ends.
+     * <p>
+     * Database reads run under {@code product.search.deadline.search}. If the total times out,
+     * the page is served with a lower bound as total; if the page itself times out, the last
+     * cached result for the request is served instead. Either is flagged in the
+     * {@value StatementDeadlines#FALLBACK_HEADER} response header and not cached.
+     *
+     * @param query optional full-text query; matches are ordered by relevance before {@code pageable}'s sort
+     * @param fuzzy match {@code name} by trigram similarity, tolerating typos; matches are ordered
+     *              by similarity before {@code pageable}'s sort
+     * @throws InvalidInputException if {@code fuzzy} is set without a name, or the page is
+     *                               sorted in an order no index serves
+     * @throws com.loiane.product.common.exception.SearchTimeoutException if the page timed out
+     *                                                                    and nothing is cached for it
+     */
     @Transactional(readOnly = true)
     public Page<ProductResponse> search(String name, String status, String brand, String sku,
-                                       Set<UUID> categoryIds, Pageable pageable) {
+                                       Set<UUID> categoryIds, CategoryMatch categoryMatch, String query,
+                                       boolean fuzzy, Pageable pageable) {
+        long start = System.nanoTime();
+        ProductSearchCriteria criteria = criteria(name, status, brand, sku, categoryIds, categoryMatch, query, fuzzy);
+        Pageable indexed = ProductSearchCriteria.SORTS.resolve(pageable);
+        Page<ProductResponse> page = cachedSearch("page", criteria, indexed, () -> searchPage(criteria, indexed));
+        searchAnalytics.record(criteria, page.getTotalElements(), System.nanoTime() - start);
+        return page;
+    }
+
+    /**
+     * Searches products and returns a page with a total plus brand, status and category counts
+     * over all matches. Served from {@link ProductSearchIndex} by intersecting bitmaps once it is
+     * built; otherwise the page is read as in {@link #search} and the counts are grouped by the database
+     * under {@code product.search.deadline.facets}, falling back to empty counts if they time out.
+     */
+    @Transactional(readOnly = true)
+    public FacetedProductPage searchWithFacets(String name, String status, String brand, String sku,
+                                               Set<UUID> categoryIds, CategoryMatch categoryMatch, String query,
+                                               boolean fuzzy, Pageable pageable) {
+        long start = System.nanoTime();
+        ProductSearchCriteria criteria = criteria(name, status, brand, sku, categoryIds, categoryMatch, query, fuzzy);
+        Pageable indexed = ProductSearchCriteria.SORTS.resolve(pageable);
+        FacetedProductPage page =
+                cachedSearch("facets", criteria, indexed, () -> searchFacetedPage(criteria, indexed));
+        searchAnalytics.record(criteria, page.getTotalElements(), System.nanoTime() - start);
+        return page;
+    }
+
+    private FacetedProductPage searchFacetedPage(ProductSearchCriteria criteria, Pageable pageable) {
+        if (useSearchIndex(criteria)) {
+            return productSearchIndex.searchWithFacets(criteria, pageable);
+        }
+        Page<ProductResponse> page = searchPage(criteria, pageable);
+        ProductFacets facets = statementDeadlines.orFallback("facets", () -> {
+            statementDeadlines.limit(facetsDeadline);
+            return productReadRepository.findFacets(criteria);
+        }, PARTIAL, () -> new ProductFacets(List.of(), List.of(), List.of()));
+        return new FacetedProductPage(page.getContent(), pageable, page.getTotalElements(), facets);
+    }
+
+    /**
+     * Searches products without computing a total: only tells whether a next page exists.
+     * {@link SearchAnalytics} records the matches on the page as the result count.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductResponse> searchSlice(String name, String status, String brand, String sku,
+                                             Set<UUID> categoryIds, CategoryMatch categoryMatch, String query,
+                                             boolean fuzzy, Pageable pageable) {
+        long start = System.nanoTime();
+        ProductSearchCriteria criteria = criteria(name, status, brand, sku, categoryIds, categoryMatch, query, fuzzy);
+        Pageable indexed = ProductSearchCriteria.SORTS.resolve(pageable);
+        Slice<ProductResponse> slice = cachedSearch("slice", criteria, indexed, () -> searchSlice(criteria, indexed));
+        searchAnalytics.record(criteria, slice.getNumberOfElements(), System.nanoTime() - start);
+        return slice;
+    }
+
+    private Slice<ProductResponse> searchSlice(ProductSearchCriteria criteria, Pageable pageable) {
+        if (useSearchIndex(criteria)) {
+            Page<ProductResponse> page = productSearchIndex.search(criteria, pageable);
+            return new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+        }
+        statementDeadlines.limit(searchDeadline);
+        if (useReadRepository(criteria)) {
+            return productReadRepository.findSlice(criteria, pageable);
+        }
+        Slice<Product> slice = findSlice(buildSpecification(criteria), pageable);
+        return new SliceImpl<>(toResponses(slice.getContent()), pageable, slice.hasNext());
+    }
+
+    /**
+     * Keyset (seek) pagination over the same filters as {@link #search}.
+     * Fetches {@code size + 1} rows ordered by (sort key, id) starting right after the cursor,
+     * so the cost of a page does not grow with its depth and no count query is needed.
+     *
+     * @param after cursor returned by the previous page, null or blank for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> scroll(String name, String status, String brand, String sku,
+                                              Set<UUID> categoryIds, CategoryMatch categoryMatch,
+                                              String after, int size, Sort sort) {
+        Sort.Order order = ProductCursor.keysetOrder(sort);
+        Specification<Product> spec = buildSpecification(
+                ProductSearchCriteria.of(name, status, brand, sku, categoryIds, categoryMatch));
+        if (isNotEmpty(after)) {
+            spec = addSpecification(spec, ProductSpecification.seekAfter(ProductCursor.decode(after, order)));
+        }
+
+        Specification<Product> ordered = addSpecification(spec, ProductSpecification.orderedBy(Sort.by(order)));
+        List<Product> rows = productRepository.findBy(ordered, query -> query.limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<Product> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? ProductCursor.after(content.getLast(), order).encode() : null;
+        return CursorPage.of(toResponses(content), size, nextCursor);
+    }
+
+    /**
+     * Serves the page from {@link ProductSearchIndex} once it is built, with an exact total and
+     * without touching the database. Otherwise reads it through {@link ProductReadRepository}
+     * when the projection read path is enabled, or through managed entities.
+     */
+    private Page<ProductResponse> searchPage(ProductSearchCriteria criteria, Pageable pageable) {
+        if (useSearchIndex(criteria)) {
+            return productSearchIndex.search(criteria, pageable);
+        }
+        statementDeadlines.limit(searchDeadline);
+        if (useReadRepository(criteria)) {
+            Slice<ProductResponse> slice = productReadRepository.findSlice(criteria, pageable);
+            return PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                    () -> countWithin(pageable, slice,
+                            () -> countMatching(criteria, () -> productReadRepository.count(criteria))));
+        }
+        Specification<Product> spec = buildSpecification(criteria);
+        Slice<Product> slice = findSlice(spec, pageable);
+        return PageableExecutionUtils.getPage(toResponses(slice.getContent()), pageable,
+                () -> countWithin(pageable, slice, () -> countMatching(criteria,
+                        () -> spec == null ? productRepository.count() : productRepository.count(spec))));
+    }
+
+    /**
+     * Serves the search result from {@link SearchResultCache}, or the last cached one if reading
+     * it exceeds the deadline. Results completed with a partial fallback are not kept.
+     */
+    private <T> T cachedSearch(String kind, ProductSearchCriteria criteria, Pageable pageable, Supplier<T> search) {
+        T result = statementDeadlines.orFallback("search",
+                () -> searchResultCache.getUnlessPartial(kind, criteria, pageable, () -> loaded(search)),
+                STALE, () -> searchResultCache.getStale(kind, criteria, pageable));
+        // Forget a stale fallback too; its header is set already
+        statementDeadlines.takeFallback();
+        return result;
+    }
+
+    /**
+     * Runs the read and tells whether any of it was a fallback, which keeps it out of the caches.
+     */
+    private <T> LoadedResult<T> loaded(Supplier<T> read) {
+        T result = read.get();
+        return new LoadedResult<>(result, statementDeadlines.takeFallback() == null);
+    }
+
+    /**
+     * The exact total, or if counting exceeds the deadline the lowest total consistent with the
+     * slice: everything up to its end, plus one if it has a next page.
+     */
+    private long countWithin(Pageable pageable, Slice<?> slice, LongSupplier count) {
+        return statementDeadlines.orFallback("count", count::getAsLong, PARTIAL,
+                () -> pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1L : 0L));
+    }
+
+    private static ProductSearchCriteria criteria(String name, String status, String brand, String sku,
+                                                  Set<UUID> categoryIds, CategoryMatch categoryMatch, String query,
+                                                  boolean fuzzy) {
+        ProductSearchCriteria criteria =
+                ProductSearchCriteria.of(name, status, brand, sku, categoryIds, categoryMatch, query, fuzzy);
+        if (fuzzy && !criteria.isFuzzy()) {
+            throw new InvalidInputException("fuzzy", true, "Fuzzy search needs a product name to match");
+        }
+        return criteria;
+    }
+
+    /**
+     * The in-memory index has no full-text or similarity matching; those searches stay on the database.
+     */
+    private boolean useSearchIndex(ProductSearchCriteria criteria) {
+        return !criteria.isFullText() && !criteria.isFuzzy() && productSearchIndex.isReady();
+    }
+
+    /**
+     * Full-text and fuzzy searches always go through {@link ProductReadRepository}: the tsvector
+     * and trigram similarity matches and their relevance ordering have no Specification equivalent.
+     */
+    private boolean useReadRepository(ProductSearchCriteria criteria) {
+        return criteria.isFullText() || criteria.isFuzzy() || productReadRepository.isEnabled();
+    }
+
+    /**
+     * The page's sort is applied through {@link ProductSpecification#orderedBy}, which collates
+     * text keys like the other read paths.
+     */
+    private Slice<Product> findSlice(Specification<Product> spec, Pageable pageable) {
+        Pageable unsorted = pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+        return productRepository.findBy(addSpecification(spec, ProductSpecification.orderedBy(pageable.getSort())),
+                query -> query.slice(unsorted));
+    }
+
+    /**
+     * Total for a search, served from the short-lived count cache. Unfiltered totals can use
+     * the planner's row estimate when {@code product.search.count-mode=estimate}.
+     */
+    private long countMatching(ProductSearchCriteria criteria, LongSupplier exactCount) {
+        return searchCountCache.get(criteria, () -> {
+            if (criteria.isEmpty() && searchCountCache.isEstimateEnabled()) {
+                long estimate = productRepository.estimateCount();
+                if (estimate >= 0) {
+                    return estimate;
+                }
+            }
+            return exactCount.getAsLong();
+        });
+    }
+
+    private Specification<Product> buildSpecification(ProductSearchCriteria criteria) {
         Specification<Product> spec = null;
 
-        if (isNotEmpty(name)) {
-            spec = addSpecification(spec, ProductSpecification.hasName(name));
+        if (criteria.name() != null) {
+            spec = addSpecification(spec, ProductSpecification.hasName(criteria.name()));
         }
-        if (isNotEmpty(status)) {
-            spec = addSpecification(spec, ProductSpecification.hasStatus(status));
+        if (criteria.status() != null) {
+            spec = addSpecification(spec, ProductSpecification.hasStatus(criteria.status()));
         }
-        if (isNotEmpty(brand)) {
-            spec = addSpecification(spec, ProductSpecification.hasBrand(brand));
+        if (criteria.brand() != null) {
+            spec = addSpecification(spec, ProductSpecification.hasBrand(criteria.brand()));
         }
-        if (isNotEmpty(sku)) {
-            spec = addSpecification(spec, ProductSpecification.hasSku(sku));
+        if (criteria.sku() != null) {
+            spec = addSpecification(spec, ProductSpecification.hasSku(criteria.sku()));
         }
-        if (categoryIds != null && !categoryIds.isEmpty()) {
-            spec = addSpecification(spec, ProductSpecification.hasAnyCategory(categoryIds));
+        if (!criteria.categoryIds().isEmpty()) {
+            Set<UUID> categoryIds = Set.copyOf(criteria.categoryIds());
+            spec = addSpecification(spec, criteria.categoryMatch() == CategoryMatch.ALL
+                    ? ProductSpecification.hasAllCategories(categoryIds)
+                    : ProductSpecification.hasAnyCategory(categoryIds));
         }
+        return spec;
+    }
+
+    /**
+     * Maps products after loading the categories of all of them in one batched query
+     * (ID page first, then categories), instead of one lazy load per product.
+     */
+    private List<ProductResponse> toResponses(List<Product> products) {
+        Map<UUID, Product> withCategories = fetchCategories(products);
+        return products.stream()
+                .map(p -> ProductMapper.toResponse(withCategories.getOrDefault(p.getId(), p)))
+                .toList();
+    }
 
-        if (spec == null) {
-            return productRepository.findAll(pageable).map(ProductMapper::toResponse);
+    private Map<UUID, Product> fetchCategories(List<Product> products) {
+        List<UUID> ids = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
         }
-        return productRepository.findAll(spec, pageable).map(ProductMapper::toResponse);
+        return productRepository.findWithCategoriesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (first, _) -> first));
     }
 
     private boolean isNotEmpty(String str) {
@@ -82,63 +420,161 @@ public class ProductService {
         return existing == null ? newSpec : existing.and(newSpec);
     }
 
-    @Transactional(readOnly = true)
-    @Cacheable(value = "productById", key = "#id")
+    /**
+     * Typeahead completions for product names, brands and category names, served from memory.
+     *
+     * @throws InvalidInputException if {@code limit} is not between 1 and {@value #MAX_SUGGESTIONS}
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new InvalidInputException("limit", limit,
+                    "Suggestion limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return productSuggestions.suggest(prefix, limit);
+    }
+
+    /**
+     * Concurrent misses on the same ID wait for one read. IDs {@link NotFoundCache} knows do not
+     * exist are answered before a transaction, and with it a connection, is taken.
+     */
+    @Cacheable(value = "productById", key = "#id", sync = true)
     public ProductResponse getById(UUID id) {
         log.debug("Fetching product with ID: {}", id);
-        Product entity = productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(id));
-        return ProductMapper.toResponse(entity);
+        if (notFoundCache.isKnownMissing(NotFoundCache.Kind.PRODUCT, id)) {
+            throw new ProductNotFoundException(id);
+        }
+        Optional<ProductResponse> product = readOnlyTransaction.execute(_ -> findById(id));
+        if (product == null || product.isEmpty()) {
+            notFoundCache.recordMissing(NotFoundCache.Kind.PRODUCT, id);
+            throw new ProductNotFoundException(id);
+        }
+        return product.get();
     }
 
+    /**
+     * Reads a product past the {@code productById} cache, as its background refresh does.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductResponse> findById(UUID id) {
+        if (productReadRepository.isEnabled()) {
+            return productReadRepository.findById(id);
+        }
+        return productRepository.findWithCategoriesById(id).map(ProductMapper::toResponse);
+    }
+
+    /**
+     * Caches the created product under its ID once the transaction has committed.
+     */
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
+    @CachePut(value = "productById", key = "#result.id")
     public ProductResponse create(ProductRequest request) {
         log.debug("Creating product with SKU: {}", request.sku());
 
+        List<Category> categories = resolveCategories(request.categoryIds());
         try {
             Product entity = ProductMapper.toEntity(request);
-            attachCategories(entity, request.categoryIds());
-            Product saved = productRepository.save(entity);
+            // Flushed so the product row exists before its join rows are written
+            Product saved = productRepository.saveAndFlush(entity);
+            productCategoryRepository.link(saved.getId(), idsOf(categories));
+            notFoundCache.recordCreated(NotFoundCache.Kind.PRODUCT, saved.getId());
+            searchCountCache.invalidateAllAfterCommit();
             log.info("Successfully created product with ID: {} and SKU: {}", saved.getId(), saved.getSku());
-            return ProductMapper.toResponse(saved);
+            ProductResponse response = ProductMapper.toResponse(saved, categories);
+            productSearchIndex.indexAfterCommit(response);
+            productSuggestions.refreshAfterCommit();
+            searchResultCache.nextGenerationAfterCommit();
+            return response;
         } catch (DataIntegrityViolationException e) {
             log.warn("Failed to create product due to constraint violation: {}", e.getMessage());
             throw new DuplicateSkuException(request.sku(), e);
         }
     }
 
+    /**
+     * Replaces the cached product with the updated one once the transaction has committed;
+     * other cached products are kept. The product is read back on the configured read path after
+     * the flush, so the cached response carries the {@code updated_at} the database trigger wrote.
+     */
     @Transactional
-    @CacheEvict(value = {"products", "productById"}, allEntries = true)
+    @CachePut(value = "productById", key = "#id")
     public ProductResponse update(UUID id, ProductRequest request) {
         log.debug("Updating product with ID: {}", id);
         Product entity = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
+        List<Category> categories = resolveCategories(request.categoryIds());
         ProductMapper.updateEntity(entity, request);
-        attachCategories(entity, request.categoryIds());
-        Product saved = productRepository.save(entity);
+        productRepository.saveAndFlush(entity);
+        syncCategories(id, idsOf(categories));
+        searchCountCache.invalidateAllAfterCommit();
         log.info("Successfully updated product with ID: {}", id);
-        return ProductMapper.toResponse(saved);
+        if (!productReadRepository.isEnabled()) {
+            // The entity path would read the managed entity, missing the trigger's timestamp and the join rows
+            productRepository.refresh(entity);
+        }
+        ProductResponse response = findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        productSearchIndex.indexAfterCommit(response);
+        productSuggestions.refreshAfterCommit();
+        searchResultCache.nextGenerationAfterCommit();
+        return response;
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "productById"}, allEntries = true)
+    @CacheEvict(value = "productById", key = "#id")
     public void delete(UUID id) {
         log.debug("Deleting product with ID: {}", id);
         if (!productRepository.existsById(id)) {
             throw new ProductNotFoundException(id);
         }
         productRepository.deleteById(id);
+        notFoundCache.recordDeleted(NotFoundCache.Kind.PRODUCT, id);
+        searchCountCache.invalidateAllAfterCommit();
+        productSearchIndex.removeAfterCommit(id);
+        productSuggestions.refreshAfterCommit();
+        searchResultCache.nextGenerationAfterCommit();
         log.info("Successfully deleted product with ID: {}", id);
     }
 
-    private void attachCategories(Product entity, Set<UUID> categoryIds) {
-        entity.getCategories().clear();
-        if (categoryIds == null || categoryIds.isEmpty()) return;
-        for (UUID cid : categoryIds) {
-            Category category = categoryRepository.findById(cid)
-                    .orElseThrow(() -> new CategoryNotFoundException(cid));
-            entity.getCategories().add(category);
+    /**
+     * Loads all requested categories with a single query.
+     *
+     * @throws CategoryNotFoundException listing every requested ID that does not exist
+     */
+    private List<Category> resolveCategories(Set<UUID> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return List.of();
+        }
+        List<Category> found = categoryRepository.findAllById(categoryIds);
+        if (found.size() != categoryIds.size()) {
+            Set<UUID> foundIds = idsOf(found);
+            List<UUID> missing = categoryIds.stream()
+                    .filter(cid -> !foundIds.contains(cid))
+                    .sorted()
+                    .toList();
+            throw new CategoryNotFoundException(missing);
         }
+        return found.stream()
+                .sorted(Comparator.comparing(Category::getName))
+                .toList();
+    }
+
+    /**
+     * Brings the product's join rows in line with the requested categories, touching only
+     * the rows that were added or removed.
+     */
+    private void syncCategories(UUID productId, Set<UUID> categoryIds) {
+        Set<UUID> current = productCategoryRepository.findCategoryIds(productId);
+        productCategoryRepository.unlink(productId, current.stream()
+                .filter(cid -> !categoryIds.contains(cid))
+                .toList());
+        productCategoryRepository.link(productId, categoryIds.stream()
+                .filter(cid -> !current.contains(cid))
+                .toList());
+    }
+
+    private Set<UUID> idsOf(List<Category> categories) {
+        return categories.stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
     }
 }
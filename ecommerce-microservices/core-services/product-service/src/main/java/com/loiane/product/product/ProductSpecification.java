@@ -1,22 +1,35 @@
 package com.loiane.product.product;
 
-import com.loiane.product.category.Category;
+import com.loiane.product.common.util.LikePatterns;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 public final class ProductSpecification {
 
     private static final String STATUS = "status";
-    private static final String PERC = "%";
+    private static final String PRODUCT_ID = "productId";
+    private static final String CATEGORY_ID = "categoryId";
+
+    /**
+     * Text sort keys are ordered by code point, like {@link ProductQueryShapes} and the
+     * in-memory search index; see V7__code_point_sort_indexes.sql.
+     */
+    private static final Set<String> CODE_POINT_ORDERED = Set.of("name", "sku");
+    private static final String CODE_POINT_COLLATION = "ucs_basic";
 
     private ProductSpecification() {}
 
@@ -56,31 +69,125 @@ public final class ProductSpecification {
         };
     }
 
+    /**
+     * {@code lower(column) LIKE '%value%'} with wildcards in the value escaped. The
+     * {@code lower(column)} expression matches the trigram GIN indexes from V4, so the
+     * planner can serve the leading wildcard from an index instead of a sequential scan.
+     */
     private static Predicate buildCriteriaBuilder(Root<Product> root, CriteriaBuilder criteriaBuilder,
                                                   String value, String valueName) {
         return criteriaBuilder.like(
             criteriaBuilder.lower(root.get(valueName)),
-            PERC + value.toLowerCase() + PERC
+            LikePatterns.contains(value),
+            LikePatterns.ESCAPE
         );
     }
 
     public static Specification<Product> hasCategory(UUID categoryId) {
-        return (root, _, criteriaBuilder) -> {
-            if (categoryId == null) {
+        return categoryId == null ? hasAnyCategory(null) : hasAnyCategory(Set.of(categoryId));
+    }
+
+    /**
+     * Products linked to at least one of the categories, as a semi-join:
+     * {@code EXISTS (SELECT 1 FROM product_categories pc WHERE pc.product_id = p.id AND pc.category_id IN (...))}.
+     * Unlike a join it never duplicates a product that matches several IDs, so pages and
+     * counts need no DISTINCT, and it never touches the {@code categories} table.
+     */
+    public static Specification<Product> hasAnyCategory(Set<UUID> categoryIds) {
+        return (root, query, criteriaBuilder) -> {
+            if (categoryIds == null || categoryIds.isEmpty()) {
                 return criteriaBuilder.conjunction();
             }
-            Join<Product, Category> categoryJoin = root.join("categories", JoinType.INNER);
-            return criteriaBuilder.equal(categoryJoin.get("id"), categoryId);
+            Subquery<Integer> link = query.subquery(Integer.class);
+            Root<ProductCategory> productCategory = link.from(ProductCategory.class);
+            link.select(criteriaBuilder.literal(1))
+                .where(
+                    criteriaBuilder.equal(productCategory.get(PRODUCT_ID), root.get("id")),
+                    productCategory.get(CATEGORY_ID).in(categoryIds));
+            return criteriaBuilder.exists(link);
         };
     }
 
-    public static Specification<Product> hasAnyCategory(Set<UUID> categoryIds) {
-        return (root, _, criteriaBuilder) -> {
+    /**
+     * Products linked to every one of the categories:
+     * {@code p.id IN (SELECT product_id FROM product_categories WHERE category_id IN (...)
+     * GROUP BY product_id HAVING count(*) = n)}. One pass over
+     * {@code idx_product_categories_category} regardless of how many IDs are given,
+     * instead of one join per category.
+     */
+    public static Specification<Product> hasAllCategories(Set<UUID> categoryIds) {
+        return (root, query, criteriaBuilder) -> {
             if (categoryIds == null || categoryIds.isEmpty()) {
                 return criteriaBuilder.conjunction();
             }
-            Join<Product, Category> categoryJoin = root.join("categories", JoinType.INNER);
-            return categoryJoin.get("id").in(categoryIds);
+            Subquery<UUID> matching = query.subquery(UUID.class);
+            Root<ProductCategory> productCategory = matching.from(ProductCategory.class);
+            matching.select(productCategory.<UUID>get(PRODUCT_ID))
+                .where(productCategory.get(CATEGORY_ID).in(categoryIds))
+                .groupBy(productCategory.get(PRODUCT_ID))
+                .having(criteriaBuilder.equal(
+                    criteriaBuilder.count(productCategory.get(CATEGORY_ID)), (long) categoryIds.size()));
+            return root.get("id").in(matching);
         };
     }
+
+    /**
+     * Orders by the sort, ties broken by ID in the direction of its last property, in the same
+     * order as {@code ProductReadRepository}. A {@link Sort} can only name properties, not
+     * collate them, so the order is applied here and the page passed along must be unsorted.
+     */
+    public static Specification<Product> orderedBy(Sort sort) {
+        return (root, query, criteriaBuilder) -> {
+            List<Order> orders = new ArrayList<>();
+            boolean ascending = true;
+            for (Sort.Order order : sort) {
+                Expression<?> key = sortKey(root, criteriaBuilder, order.getProperty());
+                orders.add(order.isAscending() ? criteriaBuilder.asc(key) : criteriaBuilder.desc(key));
+                ascending = order.isAscending();
+            }
+            orders.add(ascending ? criteriaBuilder.asc(root.get("id")) : criteriaBuilder.desc(root.get("id")));
+            query.orderBy(orders);
+            return criteriaBuilder.conjunction();
+        };
+    }
+
+    /**
+     * Keyset predicate that seeks past the row identified by the cursor.
+     * Rendered as {@code key >= :value AND (key > :value OR id > :id)} (mirrored for descending
+     * order): the leading range condition lets Postgres start the (key, id) index scan at the
+     * cursor instead of filtering every row that came before it.
+     */
+    public static Specification<Product> seekAfter(ProductCursor cursor) {
+        return (root, _, criteriaBuilder) -> {
+            @SuppressWarnings("unchecked")
+            Expression<Comparable<Object>> key =
+                (Expression<Comparable<Object>>) sortKey(root, criteriaBuilder, cursor.property());
+            Expression<UUID> id = root.get("id");
+            @SuppressWarnings("unchecked")
+            Comparable<Object> value = (Comparable<Object>) cursor.value();
+            if (cursor.direction().isAscending()) {
+                return criteriaBuilder.and(
+                    criteriaBuilder.greaterThanOrEqualTo(key, value),
+                    criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(key, value),
+                        criteriaBuilder.greaterThan(id, cursor.id())));
+            }
+            return criteriaBuilder.and(
+                criteriaBuilder.lessThanOrEqualTo(key, value),
+                criteriaBuilder.or(
+                    criteriaBuilder.lessThan(key, value),
+                    criteriaBuilder.lessThan(id, cursor.id())));
+        };
+    }
+
+    /**
+     * The property as compared in ORDER BY and keyset conditions, so that both match the
+     * collation of its (sort key, id) index.
+     */
+    private static Expression<?> sortKey(Root<Product> root, CriteriaBuilder criteriaBuilder, String property) {
+        if (!CODE_POINT_ORDERED.contains(property)) {
+            return root.get(property);
+        }
+        return ((HibernateCriteriaBuilder) criteriaBuilder).collate(root.<String>get(property), CODE_POINT_COLLATION);
+    }
 }
@@ -1,10 +1,13 @@
 package com.loiane.product.product.api;
 
+import com.loiane.product.common.api.dto.CursorPage;
 import com.loiane.product.common.validation.ValidationGroups;
 import com.loiane.product.common.validation.ValidStatus;
+import com.loiane.product.product.CategoryMatch;
 import com.loiane.product.product.ProductService;
 import com.loiane.product.product.api.dto.ProductRequest;
 import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.product.api.dto.SuggestionResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,12 +18,14 @@ import jakarta.validation.constraints.NotNull;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -57,29 +62,68 @@ public class ProductController {
         return service.listAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    @Operation(
+        summary = "List products by cursor",
+        description = """
+            Keyset (seek) pagination over all products. Send an empty `after` to get the first page,
+            then pass the returned `nextCursor` as `after`. Supports sorting by a single property:
+            name, sku, createdAt or updatedAt. Page depth does not affect response time.
+            """
+    )
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved products")
+    @ApiResponse(responseCode = "400", description = "Malformed cursor or unsupported sort")
+    public CursorPage<ProductResponse> listByCursor(
+            @Parameter(description = "Cursor from the previous page (empty for the first page)")
+            @RequestParam String after,
+
+            @Parameter(description = "Page size and sorting parameters")
+            @PageableDefault(size = 20, sort = "name") Pageable pageable) {
+        return service.scroll(null, null, null, null, null, null, after, pageable.getPageSize(), pageable.getSort());
+    }
+
     @GetMapping("/search")
     @Operation(
         summary = "Advanced product search",
         description = """
             Search products with multiple filtering options:
+            - **q**: Full-text query over name, brand, SKU, category names and description,
+              in web search syntax (`"exact phrase"`, `or`, `-excluded`). Matches are ordered
+              by relevance (name > brand/SKU > categories > description), then by `sort`
             - **name**: Case-insensitive partial match on product name
+            - **fuzzy**: With `true`, `name` tolerates typos instead: products whose name contains
+              a word run similar enough to it (trigram word similarity at least
+              `product.search.fuzzy.threshold`) match, most similar first, then by `sort`
             - **status**: Exact match on product status (ACTIVE, DRAFT, DISCONTINUED)
             - **brand**: Case-insensitive partial match on brand name
             - **sku**: Partial match on product SKU
             - **categoryIds**: Filter by one or more category IDs
+            - **categoryMatch**: `any` (default) returns products in at least one of the categories,
+              `all` only products in every one of them
 
             All filters can be combined. Results are paginated and sortable.
+            Pass `withTotal=false` to skip the total count and get a slice that only
+            reports whether a next page exists. Pass `facets=true` to add brand, status and
+            category counts over all matches (always with a total).
             """,
         responses = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid search parameters")
         }
     )
-    public Page<ProductResponse> search(
+    public Slice<ProductResponse> search(
+            @Parameter(description = "Full-text query, results ordered by relevance",
+                example = "apple laptop")
+            @RequestParam(required = false) String q,
+
             @Parameter(description = "Product name (partial, case-insensitive)",
                 example = "iPhone")
             @RequestParam(required = false) String name,
 
+            @Parameter(description = "Match name by similarity, tolerating typos, ordered by similarity",
+                example = "true")
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+
             @Parameter(description = "Product status",
                 schema = @Schema(allowableValues = {"ACTIVE", "DRAFT", "DISCONTINUED"}),
                 example = "ACTIVE")
@@ -98,9 +142,98 @@ public class ProductController {
                 example = "['550e8400-e29b-41d4-a716-446655440000']")
             @RequestParam(required = false) Set<UUID> categoryIds,
 
+            @Parameter(description = "Whether products must be in any (default) or all of the given categories",
+                schema = @Schema(allowableValues = {"any", "all"}),
+                example = "any")
+            @RequestParam(defaultValue = "any") String categoryMatch,
+
+            @Parameter(description = "Include total element and page counts (false returns a slice)")
+            @RequestParam(defaultValue = "true") boolean withTotal,
+
+            @Parameter(description = "Include brand, status and category counts over all matches")
+            @RequestParam(defaultValue = "false") boolean facets,
+
             @Parameter(description = "Pagination and sorting parameters")
             @PageableDefault(size = 20, sort = "name") Pageable pageable) {
-        return service.search(name, status, brand, sku, categoryIds, pageable);
+        if (facets) {
+            return service.searchWithFacets(name, status, brand, sku, categoryIds,
+                    CategoryMatch.from(categoryMatch), q, fuzzy, pageable);
+        }
+        if (!withTotal) {
+            return service.searchSlice(name, status, brand, sku, categoryIds,
+                    CategoryMatch.from(categoryMatch), q, fuzzy, pageable);
+        }
+        return service.search(name, status, brand, sku, categoryIds, CategoryMatch.from(categoryMatch), q, fuzzy,
+                pageable);
+    }
+
+    @GetMapping(value = "/search", params = "after")
+    @Operation(
+        summary = "Advanced product search by cursor",
+        description = """
+            Same filters as `/api/products/search`, paginated with an opaque cursor instead of a
+            page number. Send an empty `after` to get the first page, then pass the returned
+            `nextCursor` as `after`. Supports sorting by name, sku, createdAt or updatedAt.
+            """
+    )
+    @ApiResponse(responseCode = "200", description = "Search completed successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid search parameters, malformed cursor or unsupported sort")
+    public CursorPage<ProductResponse> searchByCursor(
+            @Parameter(description = "Product name (partial, case-insensitive)",
+                example = "iPhone")
+            @RequestParam(required = false) String name,
+
+            @Parameter(description = "Product status",
+                schema = @Schema(allowableValues = {"ACTIVE", "DRAFT", "DISCONTINUED"}),
+                example = "ACTIVE")
+            @ValidStatus(groups = ValidationGroups.Search.class)
+            @RequestParam(required = false) String status,
+
+            @Parameter(description = "Brand name (partial, case-insensitive)",
+                example = "Apple")
+            @RequestParam(required = false) String brand,
+
+            @Parameter(description = "Product SKU (partial match)",
+                example = "IPH-15")
+            @RequestParam(required = false) String sku,
+
+            @Parameter(description = "Category IDs to filter by",
+                example = "['550e8400-e29b-41d4-a716-446655440000']")
+            @RequestParam(required = false) Set<UUID> categoryIds,
+
+            @Parameter(description = "Whether products must be in any (default) or all of the given categories",
+                schema = @Schema(allowableValues = {"any", "all"}),
+                example = "any")
+            @RequestParam(defaultValue = "any") String categoryMatch,
+
+            @Parameter(description = "Cursor from the previous page (empty for the first page)")
+            @RequestParam String after,
+
+            @Parameter(description = "Page size and sorting parameters")
+            @PageableDefault(size = 20, sort = "name") Pageable pageable) {
+        return service.scroll(name, status, brand, sku, categoryIds, CategoryMatch.from(categoryMatch),
+                after, pageable.getPageSize(), pageable.getSort());
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Typeahead suggestions",
+        description = """
+            Completes a partially typed search box: active product names, brands and category
+            names whose text, or any word in it, starts with `prefix` (case-insensitive).
+            Suggestions standing for more active products come first. Served from memory and
+            refreshed shortly after products or categories change.
+            """
+    )
+    @ApiResponse(responseCode = "200", description = "Suggestions, best first (empty if nothing matches)")
+    @ApiResponse(responseCode = "400", description = "Invalid limit")
+    public List<SuggestionResponse> suggest(
+            @Parameter(description = "What the user has typed so far", example = "iph")
+            @RequestParam String prefix,
+
+            @Parameter(description = "Maximum number of suggestions, 1 to 50 (capped by product.search.suggest.top-k)")
+            @RequestParam(defaultValue = "10") int limit) {
+        return service.suggest(prefix, limit);
     }
 
     @GetMapping("/{id}")
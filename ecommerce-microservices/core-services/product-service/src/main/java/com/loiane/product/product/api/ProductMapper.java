@@ -1,9 +1,11 @@
 package com.loiane.product.product.api;
 
+import com.loiane.product.category.Category;
 import com.loiane.product.product.Product;
 import com.loiane.product.product.api.dto.ProductRequest;
 import com.loiane.product.product.api.dto.ProductResponse;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -38,10 +40,15 @@ public final class ProductMapper {
 
     public static ProductResponse toResponse(Product entity) {
         if (entity == null) return null;
-        List<ProductResponse.CategorySummary> cats = entity.getCategories() == null ? List.of() :
-                entity.getCategories().stream()
-                        .map(c -> new ProductResponse.CategorySummary(c.getId(), c.getName(), c.getSlug()))
-                        .toList();
+        return toResponse(entity, entity.getCategories() == null ? List.of() : entity.getCategories());
+    }
+
+    // categories passed explicitly when they were written without touching the entity's collection
+    public static ProductResponse toResponse(Product entity, Collection<Category> categories) {
+        if (entity == null) return null;
+        List<ProductResponse.CategorySummary> cats = categories.stream()
+                .map(c -> new ProductResponse.CategorySummary(c.getId(), c.getName(), c.getSlug()))
+                .toList();
         return new ProductResponse(
                 entity.getId(),
                 entity.getSku(),
@@ -0,0 +1,27 @@
+package com.loiane.product.product.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Page of search results plus facet counts over all matches, not just this page.
+ * Serialized like any other page with an additional {@code facets} property.
+ */
+@Schema(description = "Product search page with facet counts")
+public class FacetedProductPage extends PageImpl<ProductResponse> {
+
+    private final transient ProductFacets facets;
+
+    public FacetedProductPage(List<ProductResponse> content, Pageable pageable, long total, ProductFacets facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    @Schema(description = "Brand, status and category counts over every matching product")
+    public ProductFacets getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,46 @@
+package com.loiane.product.product.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Number of matching products per brand, status and category, most frequent first")
+public record ProductFacets(
+        @Schema(description = "Matching products per brand; products without a brand are not counted")
+        List<ValueCount> brands,
+
+        @Schema(description = "Matching products per status")
+        List<ValueCount> statuses,
+
+        @Schema(description = "Matching products per category")
+        List<CategoryCount> categories
+) {
+    public static final Comparator<ValueCount> VALUE_ORDER =
+            Comparator.comparingLong(ValueCount::count).reversed().thenComparing(ValueCount::value);
+
+    public static final Comparator<CategoryCount> CATEGORY_ORDER =
+            Comparator.comparingLong(CategoryCount::count).reversed().thenComparing(CategoryCount::name);
+
+    @Schema(description = "Facet value with its number of matching products")
+    public record ValueCount(
+        @Schema(description = "Facet value", example = "Apple")
+        String value,
+
+        @Schema(description = "Number of matching products", example = "12")
+        long count
+    ) {}
+
+    @Schema(description = "Category with its number of matching products")
+    public record CategoryCount(
+        @Schema(description = "Category unique identifier")
+        UUID id,
+
+        @Schema(description = "Category name", example = "Smartphones")
+        String name,
+
+        @Schema(description = "Number of matching products", example = "7")
+        long count
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.loiane.product.product.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Typeahead suggestion")
+public record SuggestionResponse(
+        @Schema(description = "Text to complete the search box with",
+            example = "iPhone 15 Pro")
+        String text,
+
+        @Schema(description = "What the text is the name of",
+            example = "PRODUCT")
+        Type type
+) {
+    @Schema(description = "Kind of suggestion")
+    public enum Type {
+        PRODUCT,
+        BRAND,
+        CATEGORY
+    }
+}
@@ -0,0 +1,57 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * Searchable copy of the catalog held by {@link ProductSearchIndex}, either entirely on the
+ * heap ({@link ProductInvertedIndex}) or in memory-mapped segment files ({@link MappedProductIndex}).
+ * Not thread-safe; {@link ProductSearchIndex} serializes writers against readers.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+interface CatalogIndex {
+
+    void upsert(ProductResponse product);
+
+    void remove(UUID productId);
+
+    /**
+     * Replaces the summary of a renamed category in every product that references it.
+     */
+    void renameCategory(UUID categoryId, String name, String slug);
+
+    void removeCategory(UUID categoryId);
+
+    int size();
+
+    /**
+     * Same matches, order and page as {@code ProductReadRepository#findSlice} plus the exact total.
+     * Full-text and fuzzy criteria are not supported and must go to the database.
+     */
+    Page<ProductResponse> search(ProductSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Like {@link #search(ProductSearchCriteria, Pageable)}, plus brand, status and category
+     * counts over every match.
+     */
+    FacetedProductPage searchWithFacets(ProductSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Whether enough updates and deletes have piled up for a rebuild holding the live
+     * documents only to pay off.
+     */
+    boolean needsCompaction();
+
+    /**
+     * Releases resources held outside the heap, such as segment files.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,59 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * One consistent read of the whole catalog that a {@link CatalogIndex} is built from, streamed
+ * rather than held, so that building a segment needs no heap in proportion to the catalog.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+interface CatalogSnapshot {
+
+    /**
+     * Every product once, in PostgreSQL's UUID order, see {@link ProductInvertedIndex#compareUuids}.
+     */
+    void forEachProduct(Consumer<ProductResponse> action);
+
+    /**
+     * The position of every product in the order of {@link #forEachProduct(Consumer)}, listed in
+     * the ascending order of the sort, ties broken by ID.
+     *
+     * @param sort one of {@link ProductInvertedIndex#ORDERS}, ascending
+     */
+    void forEachPosition(Sort sort, IntConsumer action);
+
+    /**
+     * A snapshot of products already on the heap, e.g. in tests, sorted here with the index's
+     * own comparators.
+     */
+    static CatalogSnapshot of(List<ProductResponse> products) {
+        List<ProductResponse> byId = new ArrayList<>(products);
+        byId.sort(comparing(ProductResponse::id, ProductInvertedIndex::compareUuids));
+        return new CatalogSnapshot() {
+            @Override
+            public void forEachProduct(Consumer<ProductResponse> action) {
+                byId.forEach(action);
+            }
+
+            @Override
+            public void forEachPosition(Sort sort, IntConsumer action) {
+                Comparator<ProductResponse> order = ProductInvertedIndex.comparator(sort);
+                IntStream.range(0, byId.size()).boxed()
+                        .sorted(comparing(byId::get, order))
+                        .forEach(action::accept);
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.loiane.product.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Growable set of document IDs, one bit per ID, with the intersection count needed for facets.
+ * {@link java.util.BitSet} has no way to count an intersection without copying one of the sets.
+ * Not thread-safe; {@link ProductSearchIndex} guards every instance with its lock.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class DocIdBitmap {
+
+    private long[] words;
+    private int cardinality;
+
+    DocIdBitmap() {
+        this(64);
+    }
+
+    DocIdBitmap(int capacity) {
+        words = new long[Math.max(1, (capacity + 63) >>> 6)];
+    }
+
+    void set(int docId) {
+        int word = docId >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(words.length * 2, word + 1));
+        }
+        long bit = 1L << docId;
+        if ((words[word] & bit) == 0) {
+            words[word] |= bit;
+            cardinality++;
+        }
+    }
+
+    void clear(int docId) {
+        int word = docId >>> 6;
+        long bit = 1L << docId;
+        if (word < words.length && (words[word] & bit) != 0) {
+            words[word] &= ~bit;
+            cardinality--;
+        }
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    int wordCount() {
+        return words.length;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Number of IDs in both sets, counted a 64-bit word at a time.
+     */
+    int andCardinality(DocIdBitmap other) {
+        int length = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,12 @@
+package com.loiane.product.search;
+
+/**
+ * Product fields with posting lists. Name, brand and SKU are keyed by trigram of the
+ * lower-cased text, status by value and category by ID.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+enum IndexedField {
+    NAME, BRAND, SKU, STATUS, CATEGORY
+}
@@ -0,0 +1,395 @@
+package com.loiane.product.search;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductFacets;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Catalog index for catalogs too large to keep on the heap next to the caches. Documents and
+ * posting lists live in a memory-mapped {@link MappedSegment} file; the heap only holds what
+ * changed since the segment was written: a small {@link ProductInvertedIndex} of the products
+ * written since, one bit per segment document they replaced or deleted, and renamed or deleted
+ * categories, applied to segment documents as they are read. Searches query both and merge.
+ * <p>
+ * Changes are searchable as soon as they are applied. Once {@code mergeThreshold} of them have
+ * piled up, {@link #needsCompaction()} has {@link ProductSearchIndex} rebuild the index into a
+ * new segment in the background, which bounds the heap held per instance regardless of
+ * catalog size.
+ * <p>
+ * Pages are read in sort order from the segment's presorted document IDs. Matching a filter
+ * needs the documents it checks, but an unfiltered page only reads the sort keys of the
+ * documents before it and decodes its own.
+ * Not thread-safe; {@link ProductSearchIndex} serializes writers against readers.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class MappedProductIndex implements CatalogIndex {
+
+    private final int mergeThreshold;
+    private final MappedSegment segment;
+    /** Segment documents replaced or deleted since the segment was written. */
+    private final BitSet deleted = new BitSet();
+    /** Products written since the segment was written. */
+    private final ProductInvertedIndex recent = new ProductInvertedIndex();
+    private final Map<UUID, ProductResponse.CategorySummary> renamedCategories = new HashMap<>();
+    private final Set<UUID> removedCategories = new HashSet<>();
+    private int changes;
+
+    private MappedProductIndex(int mergeThreshold, MappedSegment segment) {
+        this.mergeThreshold = mergeThreshold;
+        this.segment = segment;
+    }
+
+    /**
+     * Writes the catalog into a new segment file in {@code directory} and maps it.
+     *
+     * @throws UncheckedIOException if the segment cannot be written
+     */
+    static MappedProductIndex build(Path directory, CatalogSnapshot catalog, int mergeThreshold) {
+        Path file = null;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, "segment-", ".psi");
+            return new MappedProductIndex(mergeThreshold, MappedSegment.write(file, catalog));
+        } catch (IOException e) {
+            deleteIncomplete(file, e);
+            throw new UncheckedIOException("Could not write product search index segment to " + directory, e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(file, e);
+            throw e;
+        }
+    }
+
+    private static void deleteIncomplete(Path file, Exception cause) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    @Override
+    public void upsert(ProductResponse product) {
+        remove(product.id());
+        recent.upsert(product);
+    }
+
+    @Override
+    public void remove(UUID productId) {
+        int docId = segment.docId(productId);
+        if (docId >= 0) {
+            deleted.set(docId);
+        }
+        recent.remove(productId);
+        changes++;
+    }
+
+    @Override
+    public void renameCategory(UUID categoryId, String name, String slug) {
+        renamedCategories.put(categoryId, new ProductResponse.CategorySummary(categoryId, name, slug));
+        recent.renameCategory(categoryId, name, slug);
+        changes++;
+    }
+
+    @Override
+    public void removeCategory(UUID categoryId) {
+        renamedCategories.remove(categoryId);
+        removedCategories.add(categoryId);
+        recent.removeCategory(categoryId);
+        changes++;
+    }
+
+    @Override
+    public int size() {
+        return segment.size() - deleted.cardinality() + recent.size();
+    }
+
+    Path file() {
+        return segment.file();
+    }
+
+    /**
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     */
+    @Override
+    public Page<ProductResponse> search(ProductSearchCriteria criteria, Pageable pageable) {
+        return search(criteria, pageable, null);
+    }
+
+    @Override
+    public FacetedProductPage searchWithFacets(ProductSearchCriteria criteria, Pageable pageable) {
+        FacetTally tally = new FacetTally();
+        Page<ProductResponse> page = search(criteria, pageable, tally);
+        return new FacetedProductPage(page.getContent(), pageable, page.getTotalElements(), tally.facets());
+    }
+
+    @Override
+    public boolean needsCompaction() {
+        return changes >= mergeThreshold;
+    }
+
+    /**
+     * Deletes the segment file. Its pages stay mapped until the buffer is garbage collected.
+     */
+    @Override
+    public void close() {
+        try {
+            segment.delete();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete product search index segment " + segment.file(), e);
+        }
+    }
+
+    /**
+     * Collects the best {@code offset + size} matches of the segment and of the recent products,
+     * which never hold the same product, and cuts the page from their merged order. Segment
+     * matches are found by walking the presorted document IDs, unless the postings narrow the
+     * search to a few candidates, which are then matched and sorted.
+     */
+    private Page<ProductResponse> search(ProductSearchCriteria criteria, Pageable pageable, FacetTally tally) {
+        Sort sort = ProductSearchCriteria.SORTS.resolve(pageable.getSort());
+        Comparator<ProductResponse> order = ProductInvertedIndex.comparator(sort);
+        int limit = pageable.isPaged() ? (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize())
+                : Integer.MAX_VALUE;
+
+        Pageable best = pageable.isPaged() ? PageRequest.of(0, limit, sort) : Pageable.unpaged(sort);
+        Page<ProductResponse> recentMatches;
+        if (tally == null) {
+            recentMatches = recent.search(criteria, best);
+        } else {
+            FacetedProductPage faceted = recent.searchWithFacets(criteria, best);
+            tally.add(faceted.getFacets());
+            recentMatches = faceted;
+        }
+
+        List<Hit> segmentMatches = new ArrayList<>();
+        int[] candidates = ProductInvertedIndex.candidates(criteria, this::postings);
+        long segmentTotal = candidates != null
+                && candidates.length < segment.size() / ProductInvertedIndex.SORTED_WALK_DIVISOR
+                ? collectTop(criteria, candidates, order, limit, tally, segmentMatches)
+                : walkSorted(criteria, candidates, sort, limit, tally, segmentMatches);
+
+        List<ProductResponse> content = new ArrayList<>();
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), limit) : 0;
+        Iterator<ProductResponse> recentHits = recentMatches.getContent().iterator();
+        Iterator<Hit> segmentHits = segmentMatches.iterator();
+        ProductResponse nextRecent = recentHits.hasNext() ? recentHits.next() : null;
+        Hit nextSegment = segmentHits.hasNext() ? segmentHits.next() : null;
+        for (int i = 0; i < limit && (nextRecent != null || nextSegment != null); i++) {
+            boolean takeRecent = nextSegment == null
+                    || nextRecent != null && order.compare(nextRecent, nextSegment.product()) < 0;
+            if (takeRecent) {
+                if (i >= from) {
+                    content.add(nextRecent);
+                }
+                nextRecent = recentHits.hasNext() ? recentHits.next() : null;
+            } else {
+                if (i >= from) {
+                    content.add(nextSegment.complete() ? nextSegment.product() : document(nextSegment.docId()));
+                }
+                nextSegment = segmentHits.hasNext() ? segmentHits.next() : null;
+            }
+        }
+        return new PageImpl<>(content, pageable, recentMatches.getTotalElements() + segmentTotal);
+    }
+
+    /**
+     * Matches each candidate and keeps the best {@code limit} by the comparator.
+     *
+     * @return the number of segment matches
+     */
+    private long collectTop(ProductSearchCriteria criteria, int[] candidates, Comparator<ProductResponse> order,
+                            int limit, FacetTally tally, List<Hit> hits) {
+        Set<UUID> categoryIds = new HashSet<>(criteria.categoryIds());
+        PriorityQueue<ProductResponse> top = new PriorityQueue<>(order.reversed());
+        long total = 0;
+        for (int docId : candidates) {
+            if (deleted.get(docId)) {
+                continue;
+            }
+            ProductResponse product = document(docId);
+            if (!ProductInvertedIndex.matches(product, criteria, categoryIds)) {
+                continue;
+            }
+            total++;
+            if (tally != null) {
+                tally.add(product);
+            }
+            if (top.size() < limit) {
+                top.add(product);
+            } else if (order.compare(product, top.peek()) < 0) {
+                top.poll();
+                top.add(product);
+            }
+        }
+        List<ProductResponse> sorted = new ArrayList<>(top);
+        sorted.sort(order);
+        sorted.forEach(product -> hits.add(new Hit(-1, product)));
+        return total;
+    }
+
+    /**
+     * Walks the segment's document IDs in sort order and keeps the first {@code limit} matches.
+     * Without filters or facets, documents need not be checked: the walk reads only the sort
+     * keys of the documents it keeps, which the page merge decodes, and stops once it has
+     * {@code limit} of them.
+     *
+     * @param candidates the only document IDs that can match, or null for every live one
+     * @return the number of segment matches
+     */
+    private long walkSorted(ProductSearchCriteria criteria, int[] candidates, Sort sort, int limit, FacetTally tally,
+                            List<Hit> hits) {
+        BitSet candidateSet = null;
+        if (candidates != null) {
+            candidateSet = new BitSet(segment.size());
+            for (int docId : candidates) {
+                candidateSet.set(docId);
+            }
+        }
+        boolean check = !criteria.isEmpty() || tally != null;
+        Set<UUID> categoryIds = new HashSet<>(criteria.categoryIds());
+        int order = ProductInvertedIndex.orderOf(sort);
+        boolean descending = ProductInvertedIndex.isDescending(sort);
+        long total = 0;
+        for (int i = 0; i < segment.size(); i++) {
+            int docId = segment.docIdAt(order, descending ? segment.size() - 1 - i : i);
+            if (deleted.get(docId) || candidateSet != null && !candidateSet.get(docId)) {
+                continue;
+            }
+            if (!check) {
+                if (hits.size() == limit) {
+                    return segment.size() - deleted.cardinality();
+                }
+                hits.add(new Hit(docId, segment.sortKeys(docId)));
+                total++;
+                continue;
+            }
+            ProductResponse product = document(docId);
+            if (!ProductInvertedIndex.matches(product, criteria, categoryIds)) {
+                continue;
+            }
+            total++;
+            if (tally != null) {
+                tally.add(product);
+            }
+            if (hits.size() < limit) {
+                hits.add(new Hit(-1, product));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Segment postings of a deleted category are ignored; its documents still list it until
+     * they are read, see {@link #document(int)}.
+     */
+    private int[] postings(IndexedField field, String key) {
+        if (field == IndexedField.CATEGORY && removedCategories.contains(UUID.fromString(key))) {
+            return null;
+        }
+        return segment.postings(field, key);
+    }
+
+    /**
+     * Reads a segment document with the category renames and deletes made since applied.
+     */
+    private ProductResponse document(int docId) {
+        ProductResponse product = segment.document(docId);
+        List<ProductResponse.CategorySummary> categories = ProductInvertedIndex.categoriesOf(product);
+        boolean renamed = categories.stream().anyMatch(c -> renamedCategories.containsKey(c.id()));
+        boolean removed = categories.stream().anyMatch(c -> removedCategories.contains(c.id()));
+        if (!renamed && !removed) {
+            return product;
+        }
+        return ProductInvertedIndex.withCategories(product, categories.stream()
+                .filter(c -> !removedCategories.contains(c.id()))
+                .map(c -> renamedCategories.getOrDefault(c.id(), c))
+                .sorted(comparing(ProductResponse.CategorySummary::name))
+                .toList());
+    }
+
+    /**
+     * A segment match: either the whole document, or only its sort keys, see
+     * {@link MappedSegment#sortKeys(int)}, to be decoded if it makes the page.
+     *
+     * @param docId its segment document ID, or -1 when {@code product} is complete
+     */
+    private record Hit(int docId, ProductResponse product) {
+
+        boolean complete() {
+            return docId < 0;
+        }
+    }
+
+    /**
+     * Brand, status and category counts, tallied document by document since the segment
+     * keeps no per-value bitmaps.
+     */
+    private static final class FacetTally {
+
+        private final Map<String, Integer> brands = new HashMap<>();
+        private final Map<String, Integer> statuses = new HashMap<>();
+        private final Map<UUID, Integer> categories = new HashMap<>();
+        private final Map<UUID, String> categoryNames = new HashMap<>();
+
+        void add(ProductResponse product) {
+            if (product.brand() != null) {
+                brands.merge(product.brand(), 1, Integer::sum);
+            }
+            if (product.status() != null) {
+                statuses.merge(product.status(), 1, Integer::sum);
+            }
+            for (ProductResponse.CategorySummary category : ProductInvertedIndex.categoriesOf(product)) {
+                categories.merge(category.id(), 1, Integer::sum);
+                categoryNames.put(category.id(), category.name());
+            }
+        }
+
+        void add(ProductFacets facets) {
+            facets.brands().forEach(brand -> brands.merge(brand.value(), (int) brand.count(), Integer::sum));
+            facets.statuses().forEach(status -> statuses.merge(status.value(), (int) status.count(), Integer::sum));
+            facets.categories().forEach(category -> {
+                categories.merge(category.id(), (int) category.count(), Integer::sum);
+                categoryNames.put(category.id(), category.name());
+            });
+        }
+
+        ProductFacets facets() {
+            return new ProductFacets(ProductInvertedIndex.valueCounts(brands), ProductInvertedIndex.valueCounts(statuses),
+                    categories.entrySet().stream()
+                            .map(entry -> new ProductFacets.CategoryCount(
+                                    entry.getKey(), categoryNames.get(entry.getKey()), entry.getValue()))
+                            .sorted(ProductFacets.CATEGORY_ORDER)
+                            .toList());
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.ProductResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the catalog in one file, mapped read-only into memory so that lookups go
+ * through the operating system's page cache instead of the Java heap. Only the pages a search
+ * touches are read from disk, and the kernel evicts them again under memory pressure.
+ * <p>
+ * Layout, big-endian: a header with the section offsets; the encoded documents, sort keys
+ * first; product IDs, 16 bytes each in PostgreSQL's unsigned order, so the document ID of a
+ * product is found by binary search; a table of document offsets; per {@link IndexedField},
+ * each key's bytes and delta-varint posting list as written by {@link PostingList}, then a
+ * table of keys in {@link String} order, searched by bisection; per order of
+ * {@link ProductInvertedIndex#ORDERS}, every document ID in ascending sort order, so a page is
+ * read by walking them instead of sorting matches. Offsets are 32-bit, which limits a segment
+ * to 2 GB. Segments are written by {@link SegmentWriter}.
+ * <p>
+ * Safe for concurrent readers: every read uses absolute positions on the shared buffer.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class MappedSegment {
+
+    /** "PSI2": product search index, format 2. */
+    static final int MAGIC = 0x50534932;
+    private static final int FIELDS = IndexedField.values().length;
+    private static final int ORDERS = ProductInvertedIndex.ORDERS.size();
+    static final int HEADER_BYTES = 4 * (4 + FIELDS + ORDERS);
+    private static final int ID_BYTES = 16;
+    private static final int KEY_ENTRY_BYTES = 16;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int docCount;
+    private final int idsOffset;
+    private final int docTableOffset;
+    private final int[] dictionaryOffsets = new int[FIELDS];
+    private final int[] orderOffsets = new int[ORDERS];
+
+    private MappedSegment(Path file, ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a product search index segment: " + file);
+        }
+        this.file = file;
+        this.buffer = buffer;
+        this.docCount = buffer.getInt(4);
+        this.idsOffset = buffer.getInt(8);
+        this.docTableOffset = buffer.getInt(12);
+        for (int field = 0; field < FIELDS; field++) {
+            dictionaryOffsets[field] = buffer.getInt(16 + 4 * field);
+        }
+        for (int order = 0; order < ORDERS; order++) {
+            orderOffsets[order] = buffer.getInt(16 + 4 * (FIELDS + order));
+        }
+    }
+
+    static MappedSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MappedSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the catalog to a new segment file and maps it.
+     *
+     * @throws IOException if the file cannot be written or would exceed 2 GB
+     */
+    static MappedSegment write(Path file, CatalogSnapshot catalog) throws IOException {
+        SegmentWriter.write(file, catalog);
+        return open(file);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int size() {
+        return docCount;
+    }
+
+    /**
+     * @return the document ID of the product, or -1 if the segment does not hold it
+     */
+    int docId(UUID productId) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = idsOffset + mid * ID_BYTES;
+            UUID id = new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+            int comparison = ProductInvertedIndex.compareUuids(id, productId);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    ProductResponse document(int docId) {
+        return new Cursor(buffer.getInt(docTableOffset + docId * 4)).readProduct();
+    }
+
+    /**
+     * Reads only what {@link ProductInvertedIndex#comparator} compares: ID, SKU, name, status and
+     * timestamps. The other fields are null and the categories empty.
+     */
+    ProductResponse sortKeys(int docId) {
+        return new Cursor(buffer.getInt(docTableOffset + docId * 4)).readSortKeys();
+    }
+
+    /**
+     * @param order    position in {@link ProductInvertedIndex#ORDERS}
+     * @param position position in the order, ascending
+     * @return the document ID at that position
+     */
+    int docIdAt(int order, int position) {
+        return buffer.getInt(orderOffsets[order] + position * 4);
+    }
+
+    /**
+     * @return document IDs holding the key in ascending order, or null for a key in no document
+     */
+    int[] postings(IndexedField field, String key) {
+        int table = dictionaryOffsets[field.ordinal()];
+        int low = 0;
+        int high = buffer.getInt(table) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = table + 4 + mid * KEY_ENTRY_BYTES;
+            int comparison = readString(buffer.getInt(entry), buffer.getInt(entry + 4)).compareTo(key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return decodePostings(buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+            }
+        }
+        return null;
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private int[] decodePostings(int position, int size) {
+        int[] ids = new int[size];
+        int docId = -1;
+        for (int i = 0; i < size; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += gap;
+            ids[i] = docId;
+        }
+        return ids;
+    }
+
+    private String readString(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads one document field by field from an absolute position.
+     */
+    private final class Cursor {
+
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        ProductResponse readProduct() {
+            UUID id = readUuid();
+            String sku = readString();
+            String name = readString();
+            String status = readString();
+            OffsetDateTime createdAt = readTime();
+            OffsetDateTime updatedAt = readTime();
+            String slug = readString();
+            String brand = readString();
+            String description = readString();
+            int categoryCount = readInt();
+            List<ProductResponse.CategorySummary> categories = new ArrayList<>(categoryCount);
+            for (int i = 0; i < categoryCount; i++) {
+                categories.add(new ProductResponse.CategorySummary(readUuid(), readString(), readString()));
+            }
+            return new ProductResponse(id, sku, name, slug, brand, description, status, List.copyOf(categories),
+                    createdAt, updatedAt);
+        }
+
+        ProductResponse readSortKeys() {
+            UUID id = readUuid();
+            String sku = readString();
+            String name = readString();
+            String status = readString();
+            return new ProductResponse(id, sku, name, null, null, null, status, List.of(), readTime(), readTime());
+        }
+
+        private int readInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        private long readLong() {
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        private UUID readUuid() {
+            return new UUID(readLong(), readLong());
+        }
+
+        private String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            String value = MappedSegment.this.readString(position, length);
+            position += length;
+            return value;
+        }
+
+        private OffsetDateTime readTime() {
+            if (buffer.get(position++) == 0) {
+                return null;
+            }
+            long epochSecond = readLong();
+            int nano = readInt();
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(readInt());
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.loiane.product.search;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Append-only, compressed list of ascending document IDs.
+ * <p>
+ * IDs are stored as gaps to the previous ID, each gap as a variable-length integer
+ * (7 bits per byte, high bit set on all but the last byte). Dense lists such as a status
+ * or a frequent trigram therefore take about one byte per document instead of four.
+ * Not thread-safe; {@link ProductSearchIndex} guards every instance with its lock.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class PostingList {
+
+    private byte[] bytes = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    /**
+     * @throws IllegalArgumentException if {@code docId} is not greater than the last added ID
+     */
+    void add(int docId) {
+        if (docId <= last) {
+            throw new IllegalArgumentException("Document IDs must be added in ascending order: " + docId);
+        }
+        int gap = docId - last;
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+        }
+        while ((gap & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        bytes[length++] = (byte) gap;
+        last = docId;
+        size++;
+    }
+
+    /**
+     * Appends the IDs of a list encoded by {@link #writeTo(DataOutput)}.
+     *
+     * @throws IllegalArgumentException if its first ID is not greater than the last added ID
+     */
+    void addEncoded(byte[] encoded, int count) {
+        int docId = -1;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = encoded[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += gap;
+            add(docId);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int sizeInBytes() {
+        return length;
+    }
+
+    /**
+     * Writes the encoded gaps as is, to be decoded by {@link MappedSegment}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    int[] toArray() {
+        int[] ids = new int[size];
+        int docId = -1;
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            docId += gap;
+            ids[i] = docId;
+        }
+        return ids;
+    }
+}
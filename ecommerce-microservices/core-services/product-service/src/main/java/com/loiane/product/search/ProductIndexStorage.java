@@ -0,0 +1,73 @@
+package com.loiane.product.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Where {@link ProductSearchIndex} keeps its copy of the catalog.
+ * <p>
+ * With {@code product.search.index.storage=heap} (default) the whole index lives on the Java
+ * heap. With {@code mmap} it is written to segment files under
+ * {@code product.search.index.directory} and memory-mapped, so it is served from the page
+ * cache and the heap only holds the changes since the last segment, at most
+ * {@code product.search.index.merge-threshold} of them. The directory must be local to the
+ * instance; segments left over from a previous run are deleted on startup.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class ProductIndexStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIndexStorage.class);
+
+    private final boolean mapped;
+    private final Path directory;
+    private final int mergeThreshold;
+
+    public ProductIndexStorage(@Value("${product.search.index.storage:heap}") String storage,
+                               @Value("${product.search.index.directory:${java.io.tmpdir}/product-search-index}") String directory,
+                               @Value("${product.search.index.merge-threshold:10000}") int mergeThreshold) {
+        this.mapped = "mmap".equalsIgnoreCase(storage);
+        this.directory = Path.of(directory);
+        this.mergeThreshold = mergeThreshold;
+        if (mapped) {
+            deleteLeftoverSegments();
+        }
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * A new index holding the catalog.
+     */
+    CatalogIndex build(CatalogSnapshot catalog) {
+        if (mapped) {
+            return MappedProductIndex.build(directory, catalog, mergeThreshold);
+        }
+        return ProductInvertedIndex.of(catalog);
+    }
+
+    private void deleteLeftoverSegments() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        // Segments and the run files spilled while writing one
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "segment-*")) {
+            for (Path segment : segments) {
+                Files.deleteIfExists(segment);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete leftover product search index segments in {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,745 @@
+package com.loiane.product.search;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.product.CategoryMatch;
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductFacets;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * Inverted index over the searchable product fields, answering the same filters as
+ * {@code ProductReadRepository} with the same results.
+ * <p>
+ * Name, brand and SKU are "contains" filters, so they are indexed by trigram, like the
+ * pg_trgm indexes: a term's candidates are the documents holding all of its trigrams, which
+ * are then verified against the lower-cased text. Status and categories are indexed by value.
+ * For facet counts, every brand, status and category value also has a bitmap of its live
+ * documents, intersected with the bitmap of a search's matches.
+ * <p>
+ * The live document IDs are also kept presorted in each index order of
+ * {@link ProductSearchCriteria#SORTS}, ascending; a descending page walks the same array
+ * backwards. An unfiltered page is then cut straight out of the array, and a search matching
+ * a large share of the catalog walks it instead of sorting its matches. Text is compared by
+ * code point, the order of the {@code ucs_basic} collation the database sorts those columns in
+ * (see V7), so every page is the same whichever of the two serves it. Keeping the arrays sorted
+ * costs every write one insert and one delete per order, each moving about half an array.
+ * <p>
+ * Every product version gets a new document ID. Updates and deletes only mark the old ID dead;
+ * once dead IDs make up a quarter of the index, {@link ProductSearchIndex} rebuilds it in the
+ * background.
+ * Not thread-safe; {@link ProductSearchIndex} serializes writers against readers.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class ProductInvertedIndex implements CatalogIndex {
+
+    private static final int GRAM = 3;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1_000;
+    /** Rough number of map updates per match when facets are tallied document by document. */
+    private static final int TALLY_COST_PER_MATCH = 4;
+    /**
+     * Searches with at least one candidate per this many live documents walk a presorted
+     * array instead of sorting their matches.
+     */
+    static final int SORTED_WALK_DIVISOR = 8;
+
+    private static final Comparator<String> TEXT = nullsLast(ProductInvertedIndex::compareCodePoints);
+    private static final Comparator<OffsetDateTime> TIME = nullsLast(comparing(OffsetDateTime::toInstant));
+    private static final Comparator<ProductResponse> BY_ID =
+            comparing(ProductResponse::id, ProductInvertedIndex::compareUuids);
+
+    /** Properties of every index order, unsorted being ID order; see {@link #orderOf(Sort)}. */
+    static final List<List<String>> ORDERS = ProductSearchCriteria.SORTS.sorts().stream()
+            .map(ProductInvertedIndex::properties)
+            .distinct()
+            .toList();
+    /** Ascending comparator of each of {@link #ORDERS}, ties broken by ID. */
+    private static final List<Comparator<ProductResponse>> ASCENDING = ORDERS.stream()
+            .map(ProductInvertedIndex::ascending)
+            .toList();
+
+    private ProductResponse[] docs = new ProductResponse[1024];
+    private String[] names = new String[1024];
+    private String[] brands = new String[1024];
+    private String[] skus = new String[1024];
+    private int nextDocId;
+    private final BitSet live = new BitSet();
+    private final Map<UUID, Integer> docIdByProduct = new HashMap<>();
+
+    private final Map<String, PostingList> nameGrams = new HashMap<>();
+    private final Map<String, PostingList> brandGrams = new HashMap<>();
+    private final Map<String, PostingList> skuGrams = new HashMap<>();
+    private final Map<String, PostingList> byStatus = new HashMap<>();
+    private final Map<UUID, PostingList> byCategory = new HashMap<>();
+
+    private final Map<String, DocIdBitmap> brandBitmaps = new HashMap<>();
+    private final Map<String, DocIdBitmap> statusBitmaps = new HashMap<>();
+    private final Map<UUID, DocIdBitmap> categoryBitmaps = new HashMap<>();
+    private final Map<UUID, String> categoryNames = new HashMap<>();
+
+    /** Live document IDs in each of {@link #ORDERS}, ascending; the first {@link #sortedCount} are in use. */
+    private final int[][] sorted = new int[ORDERS.size()][1024];
+    private int sortedCount;
+    /** Set while {@link #of} loads documents, which are sorted once at the end instead of one by one. */
+    private boolean deferSorting;
+
+    /**
+     * A new index holding the catalog, sorted once rather than on every insert. The heap holds
+     * every document anyway, so the sort orders are computed here rather than read.
+     */
+    static ProductInvertedIndex of(CatalogSnapshot catalog) {
+        ProductInvertedIndex index = new ProductInvertedIndex();
+        index.deferSorting = true;
+        catalog.forEachProduct(index::upsert);
+        index.sortLive();
+        return index;
+    }
+
+    @Override
+    public void upsert(ProductResponse product) {
+        remove(product.id());
+        int docId = nextDocId++;
+        if (docId == docs.length) {
+            int capacity = docs.length * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            names = Arrays.copyOf(names, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+            skus = Arrays.copyOf(skus, capacity);
+        }
+        docs[docId] = product;
+        names[docId] = lowerCase(product.name());
+        brands[docId] = lowerCase(product.brand());
+        skus[docId] = lowerCase(product.sku());
+        live.set(docId);
+        docIdByProduct.put(product.id(), docId);
+        if (!deferSorting) {
+            insertSorted(docId);
+        }
+
+        addGrams(nameGrams, names[docId], docId);
+        addGrams(brandGrams, brands[docId], docId);
+        addGrams(skuGrams, skus[docId], docId);
+        if (product.status() != null) {
+            byStatus.computeIfAbsent(product.status(), _ -> new PostingList()).add(docId);
+            statusBitmaps.computeIfAbsent(product.status(), _ -> new DocIdBitmap()).set(docId);
+        }
+        if (product.brand() != null) {
+            brandBitmaps.computeIfAbsent(product.brand(), _ -> new DocIdBitmap()).set(docId);
+        }
+        for (ProductResponse.CategorySummary category : categoriesOf(product)) {
+            byCategory.computeIfAbsent(category.id(), _ -> new PostingList()).add(docId);
+            categoryBitmaps.computeIfAbsent(category.id(), _ -> new DocIdBitmap()).set(docId);
+            categoryNames.put(category.id(), category.name());
+        }
+    }
+
+    @Override
+    public void remove(UUID productId) {
+        Integer docId = docIdByProduct.remove(productId);
+        if (docId != null) {
+            ProductResponse product = docs[docId];
+            clearBit(statusBitmaps, product.status(), docId);
+            clearBit(brandBitmaps, product.brand(), docId);
+            for (ProductResponse.CategorySummary category : categoriesOf(product)) {
+                clearBit(categoryBitmaps, category.id(), docId);
+            }
+            if (!deferSorting) {
+                removeSorted(docId);
+            }
+            live.clear(docId);
+            docs[docId] = null;
+        }
+    }
+
+    private void insertSorted(int docId) {
+        if (sortedCount == sorted[0].length) {
+            for (int order = 0; order < sorted.length; order++) {
+                sorted[order] = Arrays.copyOf(sorted[order], sortedCount * 2);
+            }
+        }
+        for (int order = 0; order < sorted.length; order++) {
+            int position = sortedPosition(order, docs[docId]);
+            System.arraycopy(sorted[order], position, sorted[order], position + 1, sortedCount - position);
+            sorted[order][position] = docId;
+        }
+        sortedCount++;
+    }
+
+    /**
+     * Must run while the document is still readable, since its position is found by its values.
+     */
+    private void removeSorted(int docId) {
+        for (int order = 0; order < sorted.length; order++) {
+            int position = sortedPosition(order, docs[docId]);
+            System.arraycopy(sorted[order], position + 1, sorted[order], position, sortedCount - position - 1);
+        }
+        sortedCount--;
+    }
+
+    /**
+     * Binary search by the order's comparator, which never ties two products since it ends with the ID.
+     *
+     * @return the position of the product in the order, or where it would be inserted
+     */
+    private int sortedPosition(int order, ProductResponse product) {
+        Comparator<ProductResponse> comparator = ASCENDING.get(order);
+        int[] docIds = sorted[order];
+        int low = 0;
+        int high = sortedCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = comparator.compare(docs[docIds[mid]], product);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return low;
+    }
+
+    private void sortLive() {
+        int[] liveDocIds = live.stream().toArray();
+        for (int order = 0; order < sorted.length; order++) {
+            Comparator<ProductResponse> comparator = ASCENDING.get(order);
+            int[] docIds = Arrays.stream(liveDocIds).boxed()
+                    .sorted(comparing((Integer docId) -> docs[docId], comparator))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            sorted[order] = Arrays.copyOf(docIds, Math.max(docIds.length, 1024));
+        }
+        sortedCount = liveDocIds.length;
+        deferSorting = false;
+    }
+
+    /**
+     * Facet bitmaps only ever hold live documents, so their counts need no liveness check.
+     */
+    private static <K> void clearBit(Map<K, DocIdBitmap> bitmaps, K value, int docId) {
+        DocIdBitmap bitmap = value == null ? null : bitmaps.get(value);
+        if (bitmap != null) {
+            bitmap.clear(docId);
+            if (bitmap.cardinality() == 0) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    @Override
+    public void renameCategory(UUID categoryId, String name, String slug) {
+        categoryNames.computeIfPresent(categoryId, (_, _) -> name);
+        forEachLiveDoc(byCategory.get(categoryId), docId -> {
+            ProductResponse product = docs[docId];
+            List<ProductResponse.CategorySummary> categories = product.categories().stream()
+                    .map(c -> c.id().equals(categoryId) ? new ProductResponse.CategorySummary(categoryId, name, slug) : c)
+                    .sorted(comparing(ProductResponse.CategorySummary::name))
+                    .toList();
+            docs[docId] = withCategories(product, categories);
+        });
+    }
+
+    @Override
+    public void removeCategory(UUID categoryId) {
+        categoryBitmaps.remove(categoryId);
+        categoryNames.remove(categoryId);
+        forEachLiveDoc(byCategory.remove(categoryId), docId -> {
+            ProductResponse product = docs[docId];
+            docs[docId] = withCategories(product, product.categories().stream()
+                    .filter(c -> !c.id().equals(categoryId))
+                    .toList());
+        });
+    }
+
+    @Override
+    public int size() {
+        return docIdByProduct.size();
+    }
+
+    /**
+     * Live documents in document ID order.
+     */
+    List<ProductResponse> products() {
+        List<ProductResponse> products = new ArrayList<>(size());
+        live.stream().forEach(docId -> products.add(docs[docId]));
+        return products;
+    }
+
+    @Override
+    public boolean needsCompaction() {
+        int dead = nextDocId - docIdByProduct.size();
+        return dead >= MIN_DEAD_FOR_COMPACTION && dead * 4 >= nextDocId;
+    }
+
+    /**
+     * @throws InvalidInputException if the page is sorted in an order no index serves
+     */
+    @Override
+    public Page<ProductResponse> search(ProductSearchCriteria criteria, Pageable pageable) {
+        return search(criteria, pageable, null);
+    }
+
+    /**
+     * An unfiltered search counts facets straight from the value bitmaps, which hold exactly
+     * the live documents.
+     */
+    @Override
+    public FacetedProductPage searchWithFacets(ProductSearchCriteria criteria, Pageable pageable) {
+        DocIdBitmap matched = criteria.isEmpty() ? null : new DocIdBitmap(nextDocId);
+        Page<ProductResponse> page = search(criteria, pageable, matched);
+        return new FacetedProductPage(page.getContent(), pageable, page.getTotalElements(), facets(matched));
+    }
+
+    /**
+     * Without filters the page is a slice of the presorted array. With filters, a small set of
+     * candidates is matched and its best {@code offset + size} are kept by the comparator; a
+     * large one, or none when no filter narrows the search, is matched while walking the
+     * presorted array, so the page is taken in order as the matches are counted.
+     */
+    private Page<ProductResponse> search(ProductSearchCriteria criteria, Pageable pageable, DocIdBitmap matched) {
+        Sort sort = ProductSearchCriteria.SORTS.resolve(pageable.getSort());
+        int order = orderOf(sort);
+        boolean descending = isDescending(sort);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? (int) Math.min(Integer.MAX_VALUE, offset + pageable.getPageSize())
+                : Integer.MAX_VALUE;
+        if (criteria.isEmpty()) {
+            List<ProductResponse> content = new ArrayList<>();
+            for (long i = offset; i < Math.min(limit, sortedCount); i++) {
+                content.add(docs[sortedDocId(order, descending, (int) i)]);
+            }
+            return new PageImpl<>(content, pageable, sortedCount);
+        }
+
+        int[] candidates = candidates(criteria, this::postings);
+        Set<UUID> categoryIds = new HashSet<>(criteria.categoryIds());
+        if (candidates == null || candidates.length >= sortedCount / SORTED_WALK_DIVISOR) {
+            return walkSorted(criteria, categoryIds, candidates, order, descending, offset, limit, pageable, matched);
+        }
+
+        Comparator<ProductResponse> comparator = descending ? ASCENDING.get(order).reversed() : ASCENDING.get(order);
+        PriorityQueue<ProductResponse> top = new PriorityQueue<>(comparator.reversed());
+        int total = 0;
+        for (int docId : candidates) {
+            if (!live.get(docId) || !matches(docId, criteria, categoryIds)) {
+                continue;
+            }
+            total++;
+            if (matched != null) {
+                matched.set(docId);
+            }
+            ProductResponse product = docs[docId];
+            if (top.size() < limit) {
+                top.add(product);
+            } else if (comparator.compare(product, top.peek()) < 0) {
+                top.poll();
+                top.add(product);
+            }
+        }
+        List<ProductResponse> best = new ArrayList<>(top);
+        best.sort(comparator);
+        int from = (int) Math.min(offset, best.size());
+        return new PageImpl<>(best.subList(from, best.size()), pageable, total);
+    }
+
+    /**
+     * Matches every document in sort order, keeping those between {@code offset} and {@code limit}.
+     *
+     * @param candidates the only document IDs that can match, or null for every live one
+     */
+    private Page<ProductResponse> walkSorted(ProductSearchCriteria criteria, Set<UUID> categoryIds, int[] candidates,
+                                             int order, boolean descending, long offset, int limit,
+                                             Pageable pageable, DocIdBitmap matched) {
+        BitSet candidateSet = null;
+        if (candidates != null) {
+            candidateSet = new BitSet(nextDocId);
+            for (int docId : candidates) {
+                candidateSet.set(docId);
+            }
+        }
+        List<ProductResponse> content = new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < sortedCount; i++) {
+            int docId = sortedDocId(order, descending, i);
+            if ((candidateSet != null && !candidateSet.get(docId)) || !matches(docId, criteria, categoryIds)) {
+                continue;
+            }
+            if (total >= offset && total < limit) {
+                content.add(docs[docId]);
+            }
+            total++;
+            if (matched != null) {
+                matched.set(docId);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private int sortedDocId(int order, boolean descending, int i) {
+        return sorted[order][descending ? sortedCount - 1 - i : i];
+    }
+
+    /**
+     * Intersects the result bitmap with every value bitmap, a word at a time. When the result
+     * is so small that this would touch more words than there are matches times their values,
+     * the matches are tallied one by one instead; both give the same counts.
+     *
+     * @param matched the matches of a search, or null for every live document
+     */
+    private ProductFacets facets(DocIdBitmap matched) {
+        Map<String, Integer> brands = new HashMap<>();
+        Map<String, Integer> statuses = new HashMap<>();
+        Map<UUID, Integer> categories = new HashMap<>();
+        if (matched == null) {
+            brandBitmaps.forEach((brand, bitmap) -> brands.put(brand, bitmap.cardinality()));
+            statusBitmaps.forEach((status, bitmap) -> statuses.put(status, bitmap.cardinality()));
+            categoryBitmaps.forEach((id, bitmap) -> categories.put(id, bitmap.cardinality()));
+            return facets(brands, statuses, categories);
+        }
+        long bitmapCost = (long) matched.wordCount()
+                * (brandBitmaps.size() + statusBitmaps.size() + categoryBitmaps.size());
+        if ((long) matched.cardinality() * TALLY_COST_PER_MATCH < bitmapCost) {
+            matched.forEach(docId -> {
+                ProductResponse product = docs[docId];
+                if (product.brand() != null) {
+                    brands.merge(product.brand(), 1, Integer::sum);
+                }
+                if (product.status() != null) {
+                    statuses.merge(product.status(), 1, Integer::sum);
+                }
+                categoriesOf(product).forEach(category -> categories.merge(category.id(), 1, Integer::sum));
+            });
+        } else {
+            brandBitmaps.forEach((brand, bitmap) -> brands.put(brand, bitmap.andCardinality(matched)));
+            statusBitmaps.forEach((status, bitmap) -> statuses.put(status, bitmap.andCardinality(matched)));
+            categoryBitmaps.forEach((id, bitmap) -> categories.put(id, bitmap.andCardinality(matched)));
+        }
+        return facets(brands, statuses, categories);
+    }
+
+    private ProductFacets facets(Map<String, Integer> brands, Map<String, Integer> statuses,
+                                 Map<UUID, Integer> categories) {
+        return new ProductFacets(valueCounts(brands), valueCounts(statuses),
+                categories.entrySet().stream()
+                        .filter(entry -> entry.getValue() > 0)
+                        .map(entry -> new ProductFacets.CategoryCount(
+                                entry.getKey(), categoryNames.get(entry.getKey()), entry.getValue()))
+                        .sorted(ProductFacets.CATEGORY_ORDER)
+                        .toList());
+    }
+
+    static List<ProductFacets.ValueCount> valueCounts(Map<String, Integer> counts) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> new ProductFacets.ValueCount(entry.getKey(), entry.getValue()))
+                .sorted(ProductFacets.VALUE_ORDER)
+                .toList();
+    }
+
+    private int[] postings(IndexedField field, String key) {
+        PostingList postings = switch (field) {
+            case NAME -> nameGrams.get(key);
+            case BRAND -> brandGrams.get(key);
+            case SKU -> skuGrams.get(key);
+            case STATUS -> byStatus.get(key);
+            case CATEGORY -> byCategory.get(UUID.fromString(key));
+        };
+        return postings == null ? null : postings.toArray();
+    }
+
+    /**
+     * Intersects the posting lists of every indexed filter, smallest first.
+     *
+     * @param postings document IDs of a field's key in ascending order, null for a key in no document
+     * @return candidate document IDs in ascending order, or null when no filter narrows the
+     * search and every live document is a candidate
+     */
+    static int[] candidates(ProductSearchCriteria criteria, BiFunction<IndexedField, String, int[]> postings) {
+        List<int[]> lists = new ArrayList<>();
+        if (!addGramLists(lists, postings, IndexedField.NAME, criteria.name())
+                || !addGramLists(lists, postings, IndexedField.BRAND, criteria.brand())
+                || !addGramLists(lists, postings, IndexedField.SKU, criteria.sku())) {
+            return new int[0];
+        }
+        if (criteria.status() != null) {
+            int[] status = postings.apply(IndexedField.STATUS, criteria.status());
+            if (status == null) {
+                return new int[0];
+            }
+            lists.add(status);
+        }
+        if (!criteria.categoryIds().isEmpty()) {
+            if (criteria.categoryMatch() == CategoryMatch.ALL) {
+                for (UUID categoryId : criteria.categoryIds()) {
+                    int[] category = postings.apply(IndexedField.CATEGORY, categoryId.toString());
+                    if (category == null) {
+                        return new int[0];
+                    }
+                    lists.add(category);
+                }
+            } else {
+                lists.add(union(criteria.categoryIds(), postings));
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        lists.sort(comparing(list -> list.length));
+        int[] result = lists.getFirst();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return false when a trigram of the term is in no document, i.e. nothing can match
+     */
+    private static boolean addGramLists(List<int[]> lists, BiFunction<IndexedField, String, int[]> postings,
+                                        IndexedField field, String term) {
+        if (term == null) {
+            return true;
+        }
+        for (String gram : grams(term)) {
+            int[] posting = postings.apply(field, gram);
+            if (posting == null) {
+                return false;
+            }
+            lists.add(posting);
+        }
+        return true;
+    }
+
+    private static int[] union(List<UUID> categoryIds, BiFunction<IndexedField, String, int[]> postings) {
+        BitSet union = new BitSet();
+        for (UUID categoryId : categoryIds) {
+            int[] category = postings.apply(IndexedField.CATEGORY, categoryId.toString());
+            if (category != null) {
+                for (int docId : category) {
+                    union.set(docId);
+                }
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Verifies every filter on the document itself; posting lists only narrow the candidates.
+     * Criteria values are already lower-cased, see {@link ProductSearchCriteria#of}.
+     */
+    private boolean matches(int docId, ProductSearchCriteria criteria, Set<UUID> categoryIds) {
+        ProductResponse product = docs[docId];
+        return (criteria.name() == null || contains(names[docId], criteria.name()))
+                && (criteria.brand() == null || contains(brands[docId], criteria.brand()))
+                && (criteria.sku() == null || contains(skus[docId], criteria.sku()))
+                && matchesValues(product, criteria, categoryIds);
+    }
+
+    /**
+     * Verifies every filter on a product whose lower-cased texts are not at hand.
+     */
+    static boolean matches(ProductResponse product, ProductSearchCriteria criteria, Set<UUID> categoryIds) {
+        return (criteria.name() == null || contains(lowerCase(product.name()), criteria.name()))
+                && (criteria.brand() == null || contains(lowerCase(product.brand()), criteria.brand()))
+                && (criteria.sku() == null || contains(lowerCase(product.sku()), criteria.sku()))
+                && matchesValues(product, criteria, categoryIds);
+    }
+
+    private static boolean matchesValues(ProductResponse product, ProductSearchCriteria criteria,
+                                         Set<UUID> categoryIds) {
+        if (criteria.status() != null && !criteria.status().equals(product.status())) {
+            return false;
+        }
+        if (categoryIds.isEmpty()) {
+            return true;
+        }
+        long matched = categoriesOf(product).stream().filter(c -> categoryIds.contains(c.id())).count();
+        return criteria.categoryMatch() == CategoryMatch.ALL ? matched == categoryIds.size() : matched > 0;
+    }
+
+    private static boolean contains(String text, String term) {
+        return text != null && text.contains(term);
+    }
+
+    /**
+     * Comparator of a page sort, the same order as the database statements: a descending sort
+     * is its ascending order reversed, ties by ID included, which also keeps PostgreSQL's null
+     * ordering of nulls last ascending and first descending.
+     *
+     * @throws InvalidInputException if no index serves the sort
+     */
+    static Comparator<ProductResponse> comparator(Sort sort) {
+        Sort resolved = ProductSearchCriteria.SORTS.resolve(sort);
+        Comparator<ProductResponse> ascending = ASCENDING.get(orderOf(resolved));
+        return isDescending(resolved) ? ascending.reversed() : ascending;
+    }
+
+    /**
+     * @param sort a sort {@link com.loiane.product.common.util.IndexedSorts#resolve(Sort) resolved}
+     *             by {@link ProductSearchCriteria#SORTS}
+     * @return its position in {@link #ORDERS}
+     */
+    static int orderOf(Sort sort) {
+        return ORDERS.indexOf(properties(sort));
+    }
+
+    /**
+     * The ascending sort of one of {@link #ORDERS}.
+     */
+    static Sort sortOf(int order) {
+        return Sort.by(Sort.Direction.ASC, ORDERS.get(order).toArray(String[]::new));
+    }
+
+    /**
+     * Resolved sorts have a single direction; see {@link com.loiane.product.common.util.IndexedSorts}.
+     */
+    static boolean isDescending(Sort sort) {
+        return sort.isSorted() && sort.iterator().next().isDescending();
+    }
+
+    private static List<String> properties(Sort sort) {
+        return sort.isUnsorted() ? List.of("id") : sort.stream().map(Sort.Order::getProperty).toList();
+    }
+
+    private static Comparator<ProductResponse> ascending(List<String> properties) {
+        Comparator<ProductResponse> order = null;
+        for (String property : properties) {
+            Comparator<ProductResponse> next = switch (property) {
+                case "id" -> BY_ID;
+                case "sku" -> comparing(ProductResponse::sku, TEXT);
+                case "name" -> comparing(ProductResponse::name, TEXT);
+                case "status" -> comparing(ProductResponse::status, TEXT);
+                case "createdAt" -> comparing(ProductResponse::createdAt, TIME);
+                case "updatedAt" -> comparing(ProductResponse::updatedAt, TIME);
+                default -> throw new IllegalStateException("No product comparator for sort property " + property);
+            };
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order.thenComparing(BY_ID);
+    }
+
+    private void forEachLiveDoc(PostingList postings, IntConsumer action) {
+        if (postings == null) {
+            return;
+        }
+        for (int docId : postings.toArray()) {
+            if (live.get(docId)) {
+                action.accept(docId);
+            }
+        }
+    }
+
+    private static void addGrams(Map<String, PostingList> postings, String text, int docId) {
+        if (text == null) {
+            return;
+        }
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, _ -> new PostingList()).add(docId);
+        }
+    }
+
+    /**
+     * Distinct trigrams of a lower-cased text; empty for texts shorter than three characters.
+     */
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Orders strings by Unicode code point, which is also the byte order of their UTF-8 encoding
+     * and so PostgreSQL's {@code ucs_basic} collation. {@link String#compareTo} compares UTF-16
+     * units instead, which puts characters beyond U+FFFF before U+E000 to U+FFFF.
+     */
+    static int compareCodePoints(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                return codePointRank(x) - codePointRank(y);
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    /**
+     * Moves surrogates, which only encode code points beyond U+FFFF, above U+E000 to U+FFFF.
+     */
+    private static int codePointRank(char c) {
+        if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+            return c + 0x2000;
+        }
+        return c > Character.MAX_SURROGATE ? c - 0x800 : c;
+    }
+
+    /**
+     * PostgreSQL compares UUIDs as unsigned bytes; {@link UUID#compareTo} compares signed longs.
+     */
+    static int compareUuids(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    static List<ProductResponse.CategorySummary> categoriesOf(ProductResponse product) {
+        return product.categories() == null ? List.of() : product.categories();
+    }
+
+    static ProductResponse withCategories(ProductResponse product,
+                                                  List<ProductResponse.CategorySummary> categories) {
+        return new ProductResponse(product.id(), product.sku(), product.name(), product.slug(), product.brand(),
+                product.description(), product.status(), categories, product.createdAt(), product.updatedAt());
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
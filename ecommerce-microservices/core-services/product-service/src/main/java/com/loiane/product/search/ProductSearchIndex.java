@@ -0,0 +1,252 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductReadRepository;
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Serves product searches from an in-process {@link CatalogIndex} instead of the database, kept
+ * on the heap or in memory-mapped files as configured in {@link ProductIndexStorage}.
+ * <p>
+ * The index is built from the database once the application is ready and then kept current by
+ * the product and category write paths, which hand over their changes to be applied after the
+ * transaction commits. Changes made through other instances are picked up by a periodic full
+ * rebuild ({@code product.search.index.rebuild-interval}). Once enough updates and deletes
+ * have piled up in the index, it is rebuilt early, off the write path, at the next check
+ * ({@code product.search.index.compaction-check-interval}). Until the first build finishes,
+ * and always with {@code product.search.index.enabled=false}, {@link #isReady()} is false and
+ * searches go to the database.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductReadRepository productReadRepository;
+    private final ProductIndexStorage storage;
+    private final TransactionTemplate snapshotTransaction;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private CatalogIndex index;
+    /** Changes applied while a rebuild reads the database; replayed onto the rebuilt index. */
+    private List<Consumer<CatalogIndex>> pending;
+    private volatile boolean ready;
+    /** Set once the index {@link CatalogIndex#needsCompaction() needs compaction}; cleared by a rebuild. */
+    private volatile boolean compactionDue;
+
+    public ProductSearchIndex(ProductReadRepository productReadRepository, ProductIndexStorage storage,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${product.search.index.enabled:true}") boolean enabled) {
+        this.productReadRepository = productReadRepository;
+        this.storage = storage;
+        // Read-write, so it runs on the primary; repeatable read, so every statement of the
+        // build sees the same snapshot
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @see CatalogIndex#search(ProductSearchCriteria, Pageable)
+     */
+    public Page<ProductResponse> search(ProductSearchCriteria criteria, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            return index.search(criteria, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @see CatalogIndex#searchWithFacets(ProductSearchCriteria, Pageable)
+     */
+    public FacetedProductPage searchWithFacets(ProductSearchCriteria criteria, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            return index.searchWithFacets(criteria, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void indexAfterCommit(ProductResponse product) {
+        afterCommit(target -> target.upsert(product));
+    }
+
+    public void removeAfterCommit(UUID productId) {
+        afterCommit(target -> target.remove(productId));
+    }
+
+    public void renameCategoryAfterCommit(UUID categoryId, String name, String slug) {
+        afterCommit(target -> target.renameCategory(categoryId, name, slug));
+    }
+
+    public void removeCategoryAfterCommit(UUID categoryId) {
+        afterCommit(target -> target.removeCategory(categoryId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reads every product from the database into a fresh index and swaps it in. Searches keep
+     * using the current index meanwhile; changes committed during the read are replayed.
+     * Rebuilding is also how an index is compacted, see {@link #compactIfDue()}.
+     */
+    @Scheduled(initialDelayString = "${product.search.index.rebuild-interval:10m}",
+            fixedDelayString = "${product.search.index.rebuild-interval:10m}")
+    public void rebuild() {
+        if (!enabled || !startRebuild()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            CatalogIndex rebuilt = snapshotTransaction.execute(_ -> storage.build(snapshot()));
+            CatalogIndex replaced;
+            lock.writeLock().lock();
+            try {
+                pending.forEach(change -> change.accept(rebuilt));
+                replaced = index;
+                index = rebuilt;
+                compactionDue = rebuilt.needsCompaction();
+                ready = true;
+            } finally {
+                pending = null;
+                lock.writeLock().unlock();
+            }
+            close(replaced);
+            log.info("Product search index built with {} products in {} ms ({})",
+                    rebuilt.size(), (System.nanoTime() - start) / 1_000_000, storage.isMapped() ? "mmap" : "heap");
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Product search index rebuild failed, {}", ready ? "keeping the current index" : "searches stay on the database", e);
+        }
+    }
+
+    /**
+     * Compacts by rebuilding, which keeps writes and searches running meanwhile, instead of
+     * compacting on the write that crossed the threshold while it holds the write lock.
+     */
+    @Scheduled(fixedDelayString = "${product.search.index.compaction-check-interval:10s}")
+    public void compactIfDue() {
+        if (compactionDue) {
+            rebuild();
+        }
+    }
+
+    private CatalogSnapshot snapshot() {
+        return new CatalogSnapshot() {
+            @Override
+            public void forEachProduct(Consumer<ProductResponse> action) {
+                productReadRepository.forEachProduct(action);
+            }
+
+            @Override
+            public void forEachPosition(Sort sort, IntConsumer action) {
+                productReadRepository.forEachPosition(sort, action);
+            }
+        };
+    }
+
+    private boolean startRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                return false;
+            }
+            pending = new ArrayList<>();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Consumer<CatalogIndex> change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<CatalogIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            if (index != null) {
+                change.accept(index);
+                if (index.needsCompaction()) {
+                    compactionDue = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called once the index is swapped out under the write lock, so no search still reads it.
+     */
+    private static void close(CatalogIndex replaced) {
+        if (replaced == null) {
+            return;
+        }
+        try {
+            replaced.close();
+        } catch (RuntimeException e) {
+            log.warn("Could not release the replaced product search index", e);
+        }
+    }
+}
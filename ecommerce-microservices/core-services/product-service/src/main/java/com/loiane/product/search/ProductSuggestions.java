@@ -0,0 +1,103 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves typeahead suggestions from an immutable {@link SuggestionTrie}.
+ * <p>
+ * Lookups never lock: they read whichever trie is current. Product and category writes only
+ * mark the trie stale after they commit; a background task rebuilds it from the database at
+ * most every {@code product.search.suggest.refresh-delay} and swaps it in, so a burst of writes
+ * costs one rebuild. Writes made through other instances never mark this one stale, so a trie
+ * older than {@code product.search.suggest.rebuild-interval} is rebuilt regardless. Until the
+ * first build finishes, suggestions are empty.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class ProductSuggestions {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestions.class);
+
+    private final SuggestionRepository suggestionRepository;
+    private final int topK;
+    private final long maxAgeNanos;
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+    /** {@link System#nanoTime()} of the last successful build; startup counts as one. */
+    private volatile long builtAt = System.nanoTime();
+
+    public ProductSuggestions(SuggestionRepository suggestionRepository,
+                              @Value("${product.search.suggest.top-k:10}") int topK,
+                              @Value("${product.search.suggest.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.suggestionRepository = suggestionRepository;
+        this.topK = topK;
+        this.maxAgeNanos = rebuildInterval.toNanos();
+    }
+
+    /**
+     * @return up to {@code limit} suggestions whose text or one of its words starts with the prefix, best first
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return trie.complete(prefix, Math.min(limit, topK));
+    }
+
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale.set(true);
+                }
+            });
+        } else {
+            stale.set(true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Async
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${product.search.suggest.refresh-delay:2s}")
+    public void refreshIfStale() {
+        if (stale.getAndSet(false) || System.nanoTime() - builtAt >= maxAgeNanos) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a new trie from the database and swaps it in; on failure the current one stays.
+     */
+    public synchronized void rebuild() {
+        try {
+            long start = System.nanoTime();
+            SuggestionTrie rebuilt = SuggestionTrie.build(suggestionRepository.findAll(), topK);
+            trie = rebuilt;
+            builtAt = System.nanoTime();
+            log.info("Suggestion trie built with {} suggestions and {} nodes in {} ms",
+                    rebuilt.suggestionCount(), rebuilt.nodeCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            stale.set(true);
+            log.warn("Suggestion trie rebuild failed, keeping the current one", e);
+        }
+    }
+}
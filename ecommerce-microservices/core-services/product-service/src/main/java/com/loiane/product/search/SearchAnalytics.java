@@ -0,0 +1,202 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductSearchCriteria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Which product searches are run, how many results they return and how long they take.
+ * <p>
+ * Request threads only {@link #record} into a lock-free {@link SearchEventRing}, which costs
+ * a CAS and a few array stores and allocates nothing. A background task drains the ring every
+ * {@code product.search.analytics.aggregate-interval} and rolls the events up per normalized
+ * criteria and into a latency histogram, both kept since startup or the last {@link #reset()}.
+ * At most {@code max-tracked-queries} distinct criteria are tracked; searches for others still
+ * count toward the totals and the latency. If the aggregator falls a full ring behind, further
+ * events are dropped and counted rather than slowing searches down.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+public class SearchAnalytics {
+
+    private final boolean enabled;
+    private final SearchEventRing ring;
+    private final int topQueries;
+    private final int maxTrackedQueries;
+
+    private final Map<ProductSearchCriteria, QueryStats> queries = new HashMap<>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long searches;
+    private long untracked;
+    private long droppedBeforeReset;
+
+    public SearchAnalytics(@Value("${product.search.analytics.enabled:true}") boolean enabled,
+                           @Value("${product.search.analytics.buffer-size:8192}") int bufferSize,
+                           @Value("${product.search.analytics.top-queries:20}") int topQueries,
+                           @Value("${product.search.analytics.max-tracked-queries:10000}") int maxTrackedQueries) {
+        this.enabled = enabled;
+        this.ring = new SearchEventRing(enabled ? bufferSize : 2);
+        this.topQueries = topQueries;
+        this.maxTrackedQueries = maxTrackedQueries;
+    }
+
+    /**
+     * Captures one search on the calling thread without locking or allocating.
+     *
+     * @param resultCount  total matches, or the matches on the page when no total was computed
+     * @param latencyNanos time the search took, from {@link System#nanoTime()}
+     */
+    public void record(ProductSearchCriteria criteria, long resultCount, long latencyNanos) {
+        if (enabled) {
+            ring.offer(criteria, resultCount, latencyNanos);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.search.analytics.aggregate-interval:10s}")
+    public synchronized void aggregate() {
+        ring.drain(this::add);
+    }
+
+    /**
+     * Aggregates the events captured so far and reports the busiest queries, the queries that
+     * found nothing and latency percentiles.
+     */
+    public synchronized SearchAnalyticsReport report() {
+        aggregate();
+        return new SearchAnalyticsReport(enabled, searches, ring.dropped() - droppedBeforeReset, untracked,
+                new SearchAnalyticsReport.Latency(latency.percentileMillis(0.5), latency.percentileMillis(0.9),
+                        latency.percentileMillis(0.99), latency.percentileMillis(1.0)),
+                top(QueryStats::searches), top(QueryStats::zeroResults));
+    }
+
+    /**
+     * Starts over, e.g. after an index or cache change whose effect should be measured alone.
+     */
+    public synchronized void reset() {
+        aggregate();
+        queries.clear();
+        latency.clear();
+        searches = 0;
+        untracked = 0;
+        droppedBeforeReset = ring.dropped();
+    }
+
+    private void add(ProductSearchCriteria criteria, long resultCount, long latencyNanos) {
+        searches++;
+        latency.add(latencyNanos);
+        QueryStats stats = queries.get(criteria);
+        if (stats == null) {
+            if (queries.size() >= maxTrackedQueries) {
+                untracked++;
+                return;
+            }
+            stats = new QueryStats();
+            queries.put(criteria, stats);
+        }
+        stats.searches++;
+        stats.totalNanos += latencyNanos;
+        if (resultCount == 0) {
+            stats.zeroResults++;
+        }
+    }
+
+    private List<SearchAnalyticsReport.QueryCount> top(ToLongFunction<QueryStats> count) {
+        return queries.entrySet().stream()
+                .filter(entry -> count.applyAsLong(entry.getValue()) > 0)
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<ProductSearchCriteria, QueryStats> entry) -> count.applyAsLong(entry.getValue()))
+                        .reversed())
+                .limit(topQueries)
+                .map(entry -> new SearchAnalyticsReport.QueryCount(entry.getKey(), entry.getValue().searches,
+                        entry.getValue().zeroResults,
+                        entry.getValue().totalNanos / 1_000_000.0 / entry.getValue().searches))
+                .toList();
+    }
+
+    private static final class QueryStats {
+
+        private long searches;
+        private long zeroResults;
+        private long totalNanos;
+
+        long searches() {
+            return searches;
+        }
+
+        long zeroResults() {
+            return zeroResults;
+        }
+    }
+
+    /**
+     * Microsecond latencies in log-linear buckets: exact below 16 µs, then eight buckets per
+     * power of two, so a percentile is reported as the upper bound of its bucket, at most
+     * 12.5% above the true value.
+     */
+    static final class LatencyHistogram {
+
+        private static final int LINEAR = 16;
+        private static final int SUB_BUCKETS = 8;
+        private static final int SUB_BITS = 3;
+
+        private final long[] counts = new long[LINEAR + (64 - 4) * SUB_BUCKETS];
+        private long total;
+
+        void add(long nanos) {
+            counts[bucket(Math.max(0, nanos / 1_000))]++;
+            total++;
+        }
+
+        void clear() {
+            Arrays.fill(counts, 0);
+            total = 0;
+        }
+
+        /**
+         * @return the latency in milliseconds below which {@code fraction} of the searches finished, 0 if none
+         */
+        double percentileMillis(double fraction) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i) / 1_000.0;
+                }
+            }
+            return upperBound(counts.length - 1) / 1_000.0;
+        }
+
+        static int bucket(long micros) {
+            if (micros < LINEAR) {
+                return (int) micros;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < LINEAR) {
+                return bucket;
+            }
+            int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+            long sub = (bucket - LINEAR) % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BITS);
+            return (SUB_BUCKETS + sub) * width + width - 1;
+        }
+    }
+}
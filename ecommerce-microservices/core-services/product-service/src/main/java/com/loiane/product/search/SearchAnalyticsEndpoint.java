@@ -0,0 +1,34 @@
+package com.loiane.product.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /actuator/searchanalytics}: top queries, zero-result queries and
+ * latency percentiles of product searches. DELETE starts the analytics over.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Component
+@Endpoint(id = "searchanalytics")
+public class SearchAnalyticsEndpoint {
+
+    private final SearchAnalytics searchAnalytics;
+
+    public SearchAnalyticsEndpoint(SearchAnalytics searchAnalytics) {
+        this.searchAnalytics = searchAnalytics;
+    }
+
+    @ReadOperation
+    public SearchAnalyticsReport report() {
+        return searchAnalytics.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        searchAnalytics.reset();
+    }
+}
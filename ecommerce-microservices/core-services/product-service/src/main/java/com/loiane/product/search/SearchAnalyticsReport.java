@@ -0,0 +1,29 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductSearchCriteria;
+
+import java.util.List;
+
+/**
+ * Product search analytics since startup or the last reset, see {@link SearchAnalytics}.
+ *
+ * @param searches          searches aggregated
+ * @param dropped           searches not captured because the aggregator fell behind
+ * @param untracked         searches whose criteria did not fit into the tracked queries
+ * @param topQueries        most frequent criteria first
+ * @param zeroResultQueries criteria that most often found nothing first
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+public record SearchAnalyticsReport(boolean enabled, long searches, long dropped, long untracked, Latency latency,
+                                    List<QueryCount> topQueries, List<QueryCount> zeroResultQueries) {
+
+    /**
+     * Latency percentiles in milliseconds, each at most 12.5% above the true value.
+     */
+    public record Latency(double p50, double p90, double p99, double max) {
+    }
+
+    public record QueryCount(ProductSearchCriteria criteria, long searches, long zeroResults, double averageMillis) {
+    }
+}
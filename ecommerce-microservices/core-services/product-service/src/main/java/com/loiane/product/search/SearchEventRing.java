@@ -0,0 +1,104 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductSearchCriteria;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer, single-consumer ring of search events, laid out as parallel arrays so
+ * that recording one allocates nothing.
+ * <p>
+ * A producer claims a sequence number with one CAS, writes the slot and publishes it by storing
+ * the sequence number plus one in the slot's flag with release semantics. The consumer reads
+ * slots in sequence order while their flag says they are published, and frees them by advancing
+ * its tail. Producers never wait: when the ring is full the event is dropped and counted.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class SearchEventRing {
+
+    private final int mask;
+    private final ProductSearchCriteria[] criteria;
+    private final long[] results;
+    private final long[] latencies;
+    /** Sequence number plus one of the event a slot holds once it is published. */
+    private final AtomicLongArray published;
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long tail;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    SearchEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.criteria = new ProductSearchCriteria[size];
+        this.results = new long[size];
+        this.latencies = new long[size];
+        this.published = new AtomicLongArray(size);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false if the ring was full and the event was dropped
+     */
+    boolean offer(ProductSearchCriteria searchCriteria, long resultCount, long latencyNanos) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail > mask) {
+                dropped.increment();
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+        int slot = (int) sequence & mask;
+        criteria[slot] = searchCriteria;
+        results[slot] = resultCount;
+        latencies[slot] = latencyNanos;
+        published.setRelease(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Hands every published event to the consumer in sequence order. Stops at the first slot
+     * still being written, which the next drain picks up. One consumer at a time.
+     *
+     * @return number of events drained
+     */
+    int drain(Consumer consumer) {
+        long next = tail;
+        int drained = 0;
+        while (true) {
+            int slot = (int) next & mask;
+            if (published.getAcquire(slot) != next + 1) {
+                break;
+            }
+            consumer.accept(criteria[slot], results[slot], latencies[slot]);
+            criteria[slot] = null;
+            next++;
+            drained++;
+            tail = next;
+        }
+        return drained;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    @FunctionalInterface
+    interface Consumer {
+
+        void accept(ProductSearchCriteria criteria, long resultCount, long latencyNanos);
+    }
+}
@@ -0,0 +1,378 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.ProductResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Writes a {@link MappedSegment} file from a streamed {@link CatalogSnapshot} with a bounded
+ * heap. Documents go to the file as they arrive; their IDs and offsets go to spill files that
+ * are appended once all documents are written. Posting lists are collected for
+ * {@value #RUN_DOCS} documents at a time, spilled per field to a run file in key order, and
+ * merged run by run into the dictionaries at the end, so the heap holds one run's postings at
+ * most. The sort orders are copied from the snapshot as they are read.
+ * <p>
+ * Spill files are created next to the segment and deleted on {@link #close()}.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class SegmentWriter implements Closeable {
+
+    /** Documents whose postings are collected on the heap before they are spilled to run files. */
+    private static final int RUN_DOCS = 50_000;
+
+    private final Path file;
+    private final int runDocs;
+    private final DataOutputStream out;
+    private final List<Path> spills = new ArrayList<>();
+    private final Path idsFile;
+    private final DataOutputStream ids;
+    private final Path docTableFile;
+    private final DataOutputStream docTable;
+    /** Run files of each field, in the order they were spilled. */
+    private final Map<IndexedField, List<Path>> runs = new EnumMap<>(IndexedField.class);
+    private final Map<IndexedField, Map<String, PostingList>> postings = new EnumMap<>(IndexedField.class);
+    private int runStart;
+    private int docCount;
+    private UUID lastId;
+
+    private SegmentWriter(Path file, int runDocs) throws IOException {
+        this.file = file;
+        this.runDocs = runDocs;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        this.idsFile = spill();
+        this.ids = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(idsFile)));
+        this.docTableFile = spill();
+        this.docTable = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(docTableFile)));
+        for (IndexedField field : IndexedField.values()) {
+            runs.put(field, new ArrayList<>());
+            postings.put(field, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Writes the catalog to the file, replacing its contents.
+     *
+     * @throws IOException              if the file cannot be written or would exceed 2 GB
+     * @throws IllegalArgumentException if the snapshot does not list its products in ID order, or
+     *                                  does not list every product once in a sort order
+     */
+    static void write(Path file, CatalogSnapshot catalog) throws IOException {
+        write(file, catalog, RUN_DOCS);
+    }
+
+    /**
+     * @param runDocs documents per run of postings spilled to disk
+     * @see #write(Path, CatalogSnapshot)
+     */
+    static void write(Path file, CatalogSnapshot catalog, int runDocs) throws IOException {
+        try (SegmentWriter writer = new SegmentWriter(file, runDocs)) {
+            writer.writeSegment(catalog);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeSegment(CatalogSnapshot catalog) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MappedSegment.HEADER_BYTES).putInt(MappedSegment.MAGIC);
+        out.write(new byte[MappedSegment.HEADER_BYTES]);
+        catalog.forEachProduct(product -> {
+            try {
+                add(product);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        spillRun();
+        header.putInt(docCount);
+
+        ids.close();
+        header.putInt(out.size());
+        Files.copy(idsFile, out);
+        docTable.close();
+        header.putInt(out.size());
+        Files.copy(docTableFile, out);
+        for (IndexedField field : IndexedField.values()) {
+            header.putInt(writeDictionary(runs.get(field)));
+        }
+        for (int order = 0; order < ProductInvertedIndex.ORDERS.size(); order++) {
+            header.putInt(out.size());
+            writeOrder(catalog, order);
+        }
+        // DataOutputStream stops counting at Integer.MAX_VALUE
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("Product search index segment exceeds 2 GB: " + file);
+        }
+        out.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(header.flip(), 0);
+            channel.force(true);
+        }
+    }
+
+    private void add(ProductResponse product) throws IOException {
+        if (lastId != null && ProductInvertedIndex.compareUuids(lastId, product.id()) >= 0) {
+            throw new IllegalArgumentException("Catalog snapshot is not in ID order at product " + product.id());
+        }
+        lastId = product.id();
+        int docId = docCount++;
+        writeUuid(ids, product.id());
+        docTable.writeInt(out.size());
+        writeProduct(out, product);
+
+        addGrams(postings.get(IndexedField.NAME), product.name(), docId);
+        addGrams(postings.get(IndexedField.BRAND), product.brand(), docId);
+        addGrams(postings.get(IndexedField.SKU), product.sku(), docId);
+        if (product.status() != null) {
+            postings.get(IndexedField.STATUS).computeIfAbsent(product.status(), _ -> new PostingList()).add(docId);
+        }
+        for (ProductResponse.CategorySummary category : ProductInvertedIndex.categoriesOf(product)) {
+            postings.get(IndexedField.CATEGORY)
+                    .computeIfAbsent(category.id().toString(), _ -> new PostingList())
+                    .add(docId);
+        }
+        if (docCount - runStart == runDocs) {
+            spillRun();
+        }
+    }
+
+    /**
+     * Writes each field's postings collected since the last run to a new run file, in key order:
+     * per key its UTF string, its document count, the length of its encoded list and the list.
+     */
+    private void spillRun() throws IOException {
+        if (docCount == runStart) {
+            return;
+        }
+        for (IndexedField field : IndexedField.values()) {
+            Path run = spill();
+            try (DataOutputStream runOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                for (Map.Entry<String, PostingList> entry : postings.get(field).entrySet()) {
+                    runOut.writeUTF(entry.getKey());
+                    runOut.writeInt(entry.getValue().size());
+                    runOut.writeInt(entry.getValue().sizeInBytes());
+                    entry.getValue().writeTo(runOut);
+                }
+            }
+            runs.get(field).add(run);
+            postings.get(field).clear();
+        }
+        runStart = docCount;
+    }
+
+    /**
+     * Merges the runs of a field key by key; every run holds higher document IDs than the ones
+     * before it, so appending a key's lists run by run keeps it ascending. Per key, writes its
+     * bytes, then its posting list, and spills its table entry; then appends the key table.
+     *
+     * @return the offset of the key table
+     */
+    private int writeDictionary(List<Path> fieldRuns) throws IOException {
+        Path tableFile = spill();
+        int keys = 0;
+        List<RunReader> readers = new ArrayList<>();
+        try (DataOutputStream table = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tableFile)))) {
+            PriorityQueue<RunReader> merge = new PriorityQueue<>(RunReader.ORDER);
+            for (int run = 0; run < fieldRuns.size(); run++) {
+                RunReader reader = new RunReader(run, fieldRuns.get(run));
+                readers.add(reader);
+                if (reader.next()) {
+                    merge.add(reader);
+                }
+            }
+            while (!merge.isEmpty()) {
+                String key = merge.peek().key;
+                PostingList merged = new PostingList();
+                while (!merge.isEmpty() && merge.peek().key.equals(key)) {
+                    RunReader reader = merge.poll();
+                    merged.addEncoded(reader.encoded, reader.count);
+                    if (reader.next()) {
+                        merge.add(reader);
+                    }
+                }
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                table.writeInt(out.size());
+                table.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                table.writeInt(out.size());
+                table.writeInt(merged.size());
+                merged.writeTo(out);
+                keys++;
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        int offset = out.size();
+        out.writeInt(keys);
+        Files.copy(tableFile, out);
+        return offset;
+    }
+
+    /**
+     * Copies the document IDs of one sort order, ascending, as read from the snapshot.
+     */
+    private void writeOrder(CatalogSnapshot catalog, int order) throws IOException {
+        int[] count = {0};
+        catalog.forEachPosition(ProductInvertedIndex.sortOf(order), docId -> {
+            if (docId < 0 || docId >= docCount) {
+                throw new IllegalArgumentException("Catalog snapshot lists an unknown product position " + docId);
+            }
+            try {
+                out.writeInt(docId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        if (count[0] != docCount) {
+            throw new IllegalArgumentException("Catalog snapshot lists " + count[0] + " of " + docCount
+                    + " products in order " + ProductInvertedIndex.ORDERS.get(order));
+        }
+    }
+
+    private Path spill() throws IOException {
+        Path spill = Files.createTempFile(file.getParent(), "segment-spill-", ".tmp");
+        spills.add(spill);
+        return spill;
+    }
+
+    /**
+     * Closes the segment file, which is left incomplete if writing failed, and deletes the spill files.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            ids.close();
+            docTable.close();
+            out.close();
+        } finally {
+            for (Path spill : spills) {
+                Files.deleteIfExists(spill);
+            }
+        }
+    }
+
+    private static void addGrams(Map<String, PostingList> postings, String text, int docId) {
+        if (text == null) {
+            return;
+        }
+        for (String gram : ProductInvertedIndex.grams(text.toLowerCase(Locale.ROOT))) {
+            postings.computeIfAbsent(gram, _ -> new PostingList()).add(docId);
+        }
+    }
+
+    /**
+     * Sort keys first, so that {@link MappedSegment#sortKeys(int)} reads a prefix of the document.
+     */
+    private static void writeProduct(DataOutputStream out, ProductResponse product) throws IOException {
+        writeUuid(out, product.id());
+        writeString(out, product.sku());
+        writeString(out, product.name());
+        writeString(out, product.status());
+        writeTime(out, product.createdAt());
+        writeTime(out, product.updatedAt());
+        writeString(out, product.slug());
+        writeString(out, product.brand());
+        writeString(out, product.description());
+        List<ProductResponse.CategorySummary> categories = ProductInvertedIndex.categoriesOf(product);
+        out.writeInt(categories.size());
+        for (ProductResponse.CategorySummary category : categories) {
+            writeUuid(out, category.id());
+            writeString(out, category.name());
+            writeString(out, category.slug());
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeTime(DataOutputStream out, OffsetDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond());
+            out.writeInt(time.getNano());
+            out.writeInt(time.getOffset().getTotalSeconds());
+        }
+    }
+
+    /**
+     * Reads the entries of one run file in key order.
+     */
+    private static final class RunReader implements Closeable {
+
+        /** By key, then by run, so a key's lists are appended in document ID order. */
+        static final Comparator<RunReader> ORDER = comparing((RunReader reader) -> reader.key)
+                .thenComparingInt(reader -> reader.run);
+
+        private final int run;
+        private final DataInputStream in;
+        private String key;
+        private int count;
+        private byte[] encoded;
+
+        RunReader(int run, Path path) throws IOException {
+            this.run = run;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        }
+
+        /**
+         * @return false once the run is exhausted
+         */
+        boolean next() throws IOException {
+            try {
+                key = in.readUTF();
+            } catch (EOFException e) {
+                return false;
+            }
+            count = in.readInt();
+            encoded = new byte[in.readInt()];
+            in.readFully(encoded);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads the texts offered as typeahead suggestions, each weighted by how many active
+ * products it stands for: product names, brands, and the names of categories holding at
+ * least one active product.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+@Repository
+public class SuggestionRepository {
+
+    private static final String SELECT_SUGGESTIONS = """
+            SELECT p.name AS text, 'PRODUCT' AS type, count(*) AS weight
+            FROM products p
+            WHERE p.status = 'ACTIVE'
+            GROUP BY p.name
+            UNION ALL
+            SELECT p.brand, 'BRAND', count(*)
+            FROM products p
+            WHERE p.status = 'ACTIVE' AND p.brand IS NOT NULL
+            GROUP BY p.brand
+            UNION ALL
+            SELECT c.name, 'CATEGORY', count(*)
+            FROM categories c
+            JOIN product_categories pc ON pc.category_id = c.id
+            JOIN products p ON p.id = pc.product_id
+            WHERE p.status = 'ACTIVE'
+            GROUP BY c.name""";
+
+    private static final RowMapper<SuggestionTrie.Entry> ENTRY = (rs, _) -> new SuggestionTrie.Entry(
+            new SuggestionResponse(rs.getString("text"), SuggestionResponse.Type.valueOf(rs.getString("type"))),
+            rs.getLong("weight"));
+
+    private final JdbcClient jdbcClient;
+
+    public SuggestionRepository(JdbcClient jdbcClient) {
+        this.jdbcClient = jdbcClient;
+    }
+
+    List<SuggestionTrie.Entry> findAll() {
+        return jdbcClient.sql(SELECT_SUGGESTIONS).query(ENTRY).list();
+    }
+}
@@ -0,0 +1,272 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.SuggestionResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, path-compressed prefix tree answering typeahead lookups.
+ * <p>
+ * Every suggestion is reachable by its whole text and by each word in it, so "pro" completes
+ * "iPhone 15 Pro" as well as "ProBook". Each node stores the best {@code topK} suggestions
+ * below it, precomputed at build time, so a lookup walks at most {@code prefix.length()}
+ * characters and copies at most {@code topK} entries, whatever the size of the catalog.
+ * <p>
+ * Nodes live in flat arrays: edge labels in one {@code char[]}, the children of a node in a
+ * contiguous ID range sorted by first character, and the top entries of all nodes in one
+ * {@code int[]}. Entry IDs are ranks, i.e. entries are sorted best first before the build.
+ *
+ * @author Loiane Groner
+ * @since 1.0.0
+ */
+final class SuggestionTrie {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** Higher weight first, then alphabetical, then products before brands before categories. */
+    private static final Comparator<Entry> RANK = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(entry -> entry.suggestion().text(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(entry -> entry.suggestion().type());
+
+    static final SuggestionTrie EMPTY = build(List.of(), 1);
+
+    private final SuggestionResponse[] suggestions;
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] top;
+
+    private SuggestionTrie(SuggestionResponse[] suggestions, char[] labels, int[] labelStart, int[] labelEnd,
+                           int[] firstChild, int[] childCount, int[] topStart, int[] top) {
+        this.suggestions = suggestions;
+        this.labels = labels;
+        this.labelStart = labelStart;
+        this.labelEnd = labelEnd;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.top = top;
+    }
+
+    /**
+     * @param prefix as typed; matched case-insensitively with collapsed whitespace
+     * @return up to {@code limit} (at most {@code topK}) suggestions starting with the prefix, best first
+     */
+    List<SuggestionResponse> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int node = 0;
+        int position = 0;
+        while (position < key.length()) {
+            node = child(node, key.charAt(position));
+            if (node < 0) {
+                return List.of();
+            }
+            for (int i = labelStart[node]; i < labelEnd[node] && position < key.length(); i++, position++) {
+                if (labels[i] != key.charAt(position)) {
+                    return List.of();
+                }
+            }
+        }
+        int count = Math.min(limit, topStart[node + 1] - topStart[node]);
+        List<SuggestionResponse> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(suggestions[top[topStart[node] + i]]);
+        }
+        return result;
+    }
+
+    int nodeCount() {
+        return labelStart.length;
+    }
+
+    int suggestionCount() {
+        return suggestions.length;
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = labels[labelStart[middle]];
+            if (first < c) {
+                low = middle + 1;
+            } else if (first > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the tree breadth first from the sorted keys, so children get contiguous IDs,
+     * then fills the top entries from the leaves up.
+     */
+    static SuggestionTrie build(List<Entry> entries, int topK) {
+        SuggestionResponse[] suggestions = entries.stream()
+                .sorted(RANK)
+                .map(Entry::suggestion)
+                .toArray(SuggestionResponse[]::new);
+        List<Key> keys = new ArrayList<>();
+        for (int rank = 0; rank < suggestions.length; rank++) {
+            String text = normalize(suggestions[rank].text());
+            int start = 0;
+            while (!text.isEmpty()) {
+                keys.add(new Key(text.substring(start), rank));
+                int space = text.indexOf(' ', start);
+                if (space < 0) {
+                    break;
+                }
+                start = space + 1;
+            }
+        }
+        keys.sort(Comparator.comparing(Key::text).thenComparingInt(Key::rank));
+
+        Builder builder = new Builder(keys, topK);
+        builder.build();
+        return builder.toTrie(suggestions);
+    }
+
+    /**
+     * @param weight how prominent the suggestion is, e.g. the number of products with a brand
+     */
+    record Entry(SuggestionResponse suggestion, long weight) {}
+
+    private record Key(String text, int rank) {}
+
+    private static final class Builder {
+
+        private final List<Key> keys;
+        private final int topK;
+        private final StringBuilder labels = new StringBuilder();
+        private final List<int[]> nodes = new ArrayList<>();
+        private final List<int[]> terminals = new ArrayList<>();
+
+        Builder(List<Key> keys, int topK) {
+            this.keys = keys;
+            this.topK = topK;
+        }
+
+        /**
+         * Node {@code i} covers {@code keys[from, to)}, which all share their first {@code depth}
+         * characters. Keys exactly {@code depth} long end here, the rest are grouped by their next
+         * character into children whose label runs up to the group's longest common prefix.
+         */
+        void build() {
+            Deque<int[]> queue = new ArrayDeque<>();
+            nodes.add(new int[]{0, 0, 0, 0});
+            queue.add(new int[]{0, 0, keys.size(), 0});
+            while (!queue.isEmpty()) {
+                int[] item = queue.poll();
+                int node = item[0];
+                int from = item[1];
+                int to = item[2];
+                int depth = item[3];
+
+                int end = from;
+                while (end < to && keys.get(end).text().length() == depth) {
+                    end++;
+                }
+                terminals.add(keys.subList(from, end).stream().mapToInt(Key::rank).toArray());
+
+                nodes.get(node)[2] = nodes.size();
+                for (int start = end; start < to; ) {
+                    char c = keys.get(start).text().charAt(depth);
+                    int groupEnd = start + 1;
+                    while (groupEnd < to && keys.get(groupEnd).text().charAt(depth) == c) {
+                        groupEnd++;
+                    }
+                    String first = keys.get(start).text();
+                    int childDepth = depth + commonPrefix(first, keys.get(groupEnd - 1).text(), depth);
+                    int label = labels.length();
+                    labels.append(first, depth, childDepth);
+                    queue.add(new int[]{nodes.size(), start, groupEnd, childDepth});
+                    nodes.add(new int[]{label, labels.length(), 0, 0});
+                    nodes.get(node)[3]++;
+                    start = groupEnd;
+                }
+            }
+        }
+
+        SuggestionTrie toTrie(SuggestionResponse[] suggestions) {
+            int count = nodes.size();
+            int[] labelStart = new int[count];
+            int[] labelEnd = new int[count];
+            int[] firstChild = new int[count];
+            int[] childCount = new int[count];
+            int[][] tops = new int[count][];
+            // Children always have higher IDs than their parent
+            for (int node = count - 1; node >= 0; node--) {
+                int[] fields = nodes.get(node);
+                labelStart[node] = fields[0];
+                labelEnd[node] = fields[1];
+                firstChild[node] = fields[2];
+                childCount[node] = fields[3];
+                int[] merged = merge(terminals.get(node), new int[0]);
+                for (int child = fields[2]; child < fields[2] + fields[3]; child++) {
+                    merged = merge(merged, tops[child]);
+                }
+                tops[node] = merged;
+            }
+
+            int[] topStart = new int[count + 1];
+            for (int node = 0; node < count; node++) {
+                topStart[node + 1] = topStart[node] + tops[node].length;
+            }
+            int[] top = new int[topStart[count]];
+            for (int node = 0; node < count; node++) {
+                System.arraycopy(tops[node], 0, top, topStart[node], tops[node].length);
+            }
+            char[] labelChars = new char[labels.length()];
+            labels.getChars(0, labels.length(), labelChars, 0);
+            return new SuggestionTrie(suggestions, labelChars, labelStart, labelEnd, firstChild, childCount,
+                    topStart, top);
+        }
+
+        /**
+         * Merges two ascending rank lists into the {@code topK} smallest distinct ranks; a
+         * suggestion reachable through several of its words must only be listed once.
+         */
+        private int[] merge(int[] a, int[] b) {
+            int[] result = new int[Math.min(topK, a.length + b.length)];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (n < result.length && (i < a.length || j < b.length)) {
+                int next = j >= b.length || i < a.length && a[i] <= b[j] ? a[i++] : b[j++];
+                if (n == 0 || result[n - 1] != next) {
+                    result[n++] = next;
+                }
+            }
+            return n == result.length ? result : Arrays.copyOf(result, n);
+        }
+
+        private static int commonPrefix(String a, String b, int from) {
+            int length = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < length && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i - from;
+        }
+    }
+}
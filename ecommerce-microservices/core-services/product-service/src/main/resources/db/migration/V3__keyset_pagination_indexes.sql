@@ -0,0 +1,11 @@
+-- Flyway V3: Composite indexes for keyset (seek) pagination on products
+-- Cursor mode orders by (<sort key>, id); each index matches one supported sort key
+-- so a page is an index range scan starting at the cursor instead of an OFFSET skip.
+
+CREATE INDEX idx_products_name_id ON products (name, id);
+CREATE INDEX idx_products_sku_id ON products (sku, id);
+CREATE INDEX idx_products_created_at_id ON products (created_at, id);
+CREATE INDEX idx_products_updated_at_id ON products (updated_at, id);
+
+-- (name, id) serves every query idx_products_name did
+DROP INDEX IF EXISTS idx_products_name;
@@ -0,0 +1,13 @@
+-- Flyway V4: Trigram indexes for case-insensitive "contains" filters
+-- Search filters render lower(column) LIKE '%term%'. A b-tree can never serve a leading
+-- wildcard, but a pg_trgm GIN index on the same lower(column) expression can, as long as
+-- the term has at least three characters.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_products_brand_trgm ON products USING gin (lower(brand) gin_trgm_ops);
+CREATE INDEX idx_products_sku_trgm ON products USING gin (lower(sku) gin_trgm_ops);
+
+CREATE INDEX idx_categories_name_trgm ON categories USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_categories_slug_trgm ON categories USING gin (lower(slug) gin_trgm_ops);
@@ -0,0 +1,76 @@
+-- Flyway V5: Full-text search over products
+-- products.search_vector is a weighted tsvector generated by the database from the product's
+-- own columns and a denormalized list of its category names:
+--   A = name, B = brand and SKU, C = category names, D = description
+-- category_names is kept current by triggers on product_categories and categories, so the
+-- application never writes either column and product writes stay single-row updates.
+
+ALTER TABLE products ADD COLUMN category_names TEXT NOT NULL DEFAULT '';
+
+-- Maintaining category_names is not a change to the product itself
+DROP TRIGGER trg_products_updated ON products;
+
+CREATE TRIGGER trg_products_updated
+BEFORE UPDATE ON products
+FOR EACH ROW
+WHEN (OLD.category_names IS NOT DISTINCT FROM NEW.category_names)
+EXECUTE FUNCTION public.set_timestamp();
+
+CREATE OR REPLACE FUNCTION public.refresh_product_category_names(product_ids UUID[])
+RETURNS void AS $$
+  UPDATE products p
+  SET category_names = coalesce((
+      SELECT string_agg(c.name, ' ' ORDER BY c.name)
+      FROM product_categories pc
+      JOIN categories c ON c.id = pc.category_id
+      WHERE pc.product_id = p.id), '')
+  WHERE p.id = ANY (product_ids);
+$$ LANGUAGE sql;
+
+-- Statement-level, so a batch of join rows refreshes each product once
+CREATE OR REPLACE FUNCTION public.product_categories_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM public.refresh_product_category_names(ARRAY(SELECT DISTINCT product_id FROM changed_rows));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_product_categories_inserted
+AFTER INSERT ON product_categories
+REFERENCING NEW TABLE AS changed_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION public.product_categories_changed();
+
+CREATE TRIGGER trg_product_categories_deleted
+AFTER DELETE ON product_categories
+REFERENCING OLD TABLE AS changed_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION public.product_categories_changed();
+
+CREATE OR REPLACE FUNCTION public.category_renamed()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM public.refresh_product_category_names(
+      ARRAY(SELECT product_id FROM product_categories WHERE category_id = NEW.id));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_categories_renamed
+AFTER UPDATE OF name ON categories
+FOR EACH ROW
+WHEN (OLD.name IS DISTINCT FROM NEW.name)
+EXECUTE FUNCTION public.category_renamed();
+
+-- Backfill existing products
+SELECT public.refresh_product_category_names(ARRAY(SELECT DISTINCT product_id FROM product_categories));
+
+ALTER TABLE products ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', name), 'A') ||
+    setweight(to_tsvector('english', coalesce(brand, '') || ' ' || sku), 'B') ||
+    setweight(to_tsvector('english', category_names), 'C') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'D')
+) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING gin (search_vector);
@@ -0,0 +1,20 @@
+-- Flyway V6: Covering indexes for the whitelisted listing sorts
+-- Paged product reads pick the IDs of a page in a subquery ordered by (sort key, id). When the
+-- index also holds every column the subquery filters on, that subquery, including the rows
+-- OFFSET skips, is an index-only scan and only the rows of the page are read from the table.
+-- Index-only scans rely on the visibility map, i.e. on autovacuum keeping up with writes.
+
+-- Name sort, with any of the name, status, brand and SKU filters
+CREATE INDEX idx_products_name_id_covering ON products (name, id) INCLUDE (status, brand, sku);
+DROP INDEX IF EXISTS idx_products_name_id;
+
+-- Status sort (rerouted to status, name) and status-filtered listings sorted by name
+CREATE INDEX idx_products_status_name_id ON products (status, name, id) INCLUDE (brand, sku);
+
+-- (status, name, id) serves every query idx_products_status did
+DROP INDEX IF EXISTS idx_products_status;
+
+-- Category listing sorts
+CREATE INDEX idx_categories_name_id ON categories (name, id) INCLUDE (slug, parent_id);
+CREATE INDEX idx_categories_created_at_id ON categories (created_at, id);
+CREATE INDEX idx_categories_updated_at_id ON categories (updated_at, id);
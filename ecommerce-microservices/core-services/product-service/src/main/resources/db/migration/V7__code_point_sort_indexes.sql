@@ -0,0 +1,19 @@
+-- Flyway V7: Code point order for the product text sort keys
+-- Pages sorted by name or SKU order them by Unicode code point (COLLATE ucs_basic) instead of
+-- the database's linguistic default collation. That is the order the in-memory search index
+-- compares strings in, so a page is the same whether the index, the JDBC read path or the cursor
+-- endpoint serves it. An index only serves an ORDER BY or range condition in its own collation,
+-- so each (sort key, id) index is rebuilt with it. Status keeps the default collation: its
+-- values sort alike under both, and equality filters on it keep using the index.
+
+-- Name sort, with any of the name, status, brand and SKU filters
+DROP INDEX IF EXISTS idx_products_name_id_covering;
+CREATE INDEX idx_products_name_id_covering ON products (name COLLATE ucs_basic, id) INCLUDE (status, brand, sku);
+
+-- Status sort (rerouted to status, name) and status-filtered listings sorted by name
+DROP INDEX IF EXISTS idx_products_status_name_id;
+CREATE INDEX idx_products_status_name_id ON products (status, name COLLATE ucs_basic, id) INCLUDE (brand, sku);
+
+-- SKU sort and SKU cursor pages
+DROP INDEX IF EXISTS idx_products_sku_id;
+CREATE INDEX idx_products_sku_id ON products (sku COLLATE ucs_basic, id);
@@ -0,0 +1,172 @@
+package com.loiane.product.benchmark;
+
+import com.loiane.product.ProductServiceApplication;
+import com.loiane.product.cache.NotFoundCache;
+import com.loiane.product.cache.ProductListingCache;
+import com.loiane.product.cache.SearchCountCache;
+import com.loiane.product.cache.SearchResultCache;
+import com.loiane.product.category.CategoryRepository;
+import com.loiane.product.datasource.StatementDeadlines;
+import com.loiane.product.product.CategoryMatch;
+import com.loiane.product.product.ProductCategoryRepository;
+import com.loiane.product.product.ProductReadRepository;
+import com.loiane.product.product.ProductRepository;
+import com.loiane.product.product.ProductService;
+import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.search.ProductIndexStorage;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
+import com.loiane.product.search.SearchAnalytics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a product search through the Specification path, which builds and renders a
+ * Criteria tree per request, with the statement precompiled for its filter shape in
+ * {@code ProductQueryShapes}, on the same PostgreSQL database and sample data.
+ * <p>
+ * Each {@code shape} is a filter bitmask as in {@code ProductQueryShapes}: 1 name, 2 status,
+ * 4 brand, 8 SKU, 16 categories. Result caching and the in-memory index are off, so every call
+ * reaches the read path under comparison. With the small sample catalog the database work is
+ * cheap, so the difference is mostly the per-request statement building.
+ * <p>
+ * Needs Docker for the database container. Run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.loiane.product.benchmark.ProductSearchPathBenchmark},
+ * which also reports allocations per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchPathBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("name"));
+
+    @Param({"2", "6", "18", "31"})
+    private int shape;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private ProductService specificationPath;
+    private ProductService precompiledPath;
+    private TransactionTemplate readOnly;
+
+    private String name;
+    private String status;
+    private String brand;
+    private String sku;
+    private Set<UUID> categoryIds;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(ProductServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        "spring.datasource.url", postgres.getJdbcUrl(),
+                        "spring.datasource.username", postgres.getUsername(),
+                        "spring.datasource.password", postgres.getPassword(),
+                        "spring.cache.type", "none",
+                        "product.search.index.enabled", "false",
+                        "logging.level.root", "warn"))
+                .run();
+
+        JdbcClient jdbcClient = context.getBean(JdbcClient.class);
+        DataSource dataSource = context.getBean(DataSource.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        specificationPath = productService(new ProductReadRepository(jdbcClient, dataSource, "entity", 0.3));
+        precompiledPath = productService(new ProductReadRepository(jdbcClient, dataSource, "projection", 0.3));
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ProductResponse sample = readOnly.execute(_ -> precompiledPath.listAll(PAGE).getContent()).stream()
+                .filter(product -> product.brand() != null && !product.categories().isEmpty())
+                .findFirst()
+                .orElseThrow();
+        name = (shape & 1) != 0 ? sample.name().substring(0, 3) : null;
+        status = (shape & 2) != 0 ? sample.status() : null;
+        brand = (shape & 4) != 0 ? sample.brand() : null;
+        sku = (shape & 8) != 0 ? sample.sku().substring(0, 2) : null;
+        categoryIds = (shape & 16) != 0 ? Set.of(sample.categories().getFirst().id()) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Page<ProductResponse> specification() {
+        return search(specificationPath);
+    }
+
+    @Benchmark
+    public Page<ProductResponse> precompiled() {
+        return search(precompiledPath);
+    }
+
+    private Page<ProductResponse> search(ProductService path) {
+        return readOnly.execute(_ -> path.search(name, status, brand, sku, categoryIds, CategoryMatch.ANY,
+                null, false, PAGE));
+    }
+
+    private ProductService productService(ProductReadRepository readRepository) {
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        SearchResultCache uncached = new SearchResultCache(new NoOpCacheManager(), false, Duration.ZERO, 0);
+        return new ProductService(context.getBean(ProductRepository.class), context.getBean(CategoryRepository.class),
+                readRepository, context.getBean(ProductCategoryRepository.class), context.getBean(SearchCountCache.class),
+                new ProductSearchIndex(readRepository, context.getBean(ProductIndexStorage.class), transactionManager, false),
+                context.getBean(ProductSuggestions.class), uncached, new SearchAnalytics(false, 0, 0, 0),
+                new ProductListingCache(new NoOpCacheManager(), uncached, 0), context.getBean(StatementDeadlines.class),
+                new NotFoundCache(new NoOpCacheManager(), context.getBean(JdbcClient.class), transactionManager,
+                        new SimpleMeterRegistry(), false, 0.01, Duration.ofMinutes(1), 1, Duration.ofSeconds(1), 1),
+                transactionManager, Duration.ofSeconds(2), Duration.ofSeconds(3));
+    }
+}
@@ -0,0 +1,252 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.category.api.dto.CategoryResponse;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheConfig")
+class CacheConfigTest {
+
+    private static final CacheReloader NO_RELOAD = (_, _) -> null;
+
+    private MockEnvironment environment;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("product.cache.default.maximum-weight", "1MB")
+                .withProperty("product.cache.default.expire-after-write", "5m")
+                .withProperty("product.cache.policies.productById.maximum-weight", "64KB")
+                .withProperty("product.cache.policies.productById.expire-after-access", "2m")
+                .withProperty("product.cache.policies.categories.expire-after-write", "30m");
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(CacheManager cacheManager,
+                                                                                       String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+
+    private static ProductResponse product(int i) {
+        return new ProductResponse(UUID.randomUUID(), "SKU-" + i, "Product " + i, "product-" + i, "Brand",
+                "A description long enough to weigh more than the fields around it", "ACTIVE",
+                List.of(new ProductResponse.CategorySummary(UUID.randomUUID(), "Electronics", "electronics")),
+                OffsetDateTime.now(), OffsetDateTime.now());
+    }
+
+    @Nested
+    @DisplayName("cacheManager")
+    class CacheManagerPolicies {
+
+        @Test
+        @DisplayName("applies each cache's policy over the defaults")
+        void appliesPerCachePolicies() {
+            // When
+            CacheManager cacheManager = new CacheConfig().cacheManager(environment, new ProductCacheDependencies(), NO_RELOAD);
+
+            // Then
+            var productById = nativeCache(cacheManager, "productById").policy();
+            assertEquals(64 * 1024, productById.eviction().orElseThrow().getMaximum());
+            assertEquals(Duration.ofMinutes(5), productById.expireAfterWrite().orElseThrow().getExpiresAfter());
+            assertEquals(Duration.ofMinutes(2), productById.expireAfterAccess().orElseThrow().getExpiresAfter());
+
+            var categories = nativeCache(cacheManager, "categories").policy();
+            assertEquals(1024 * 1024, categories.eviction().orElseThrow().getMaximum());
+            assertEquals(Duration.ofMinutes(30), categories.expireAfterWrite().orElseThrow().getExpiresAfter());
+            assertTrue(categories.expireAfterAccess().isEmpty());
+        }
+
+        @Test
+        @DisplayName("registers exactly the configured caches")
+        void registersConfiguredCaches() {
+            // When
+            CacheManager cacheManager = new CacheConfig().cacheManager(new MockEnvironment(), new ProductCacheDependencies(),
+                    NO_RELOAD);
+
+            // Then
+            assertTrue(cacheManager.getCacheNames().containsAll(CacheConfig.CACHE_NAMES));
+            assertNull(cacheManager.getCache("unknown"));
+        }
+
+        @Test
+        @DisplayName("evicts by estimated size and reports it through CacheMetricsService")
+        void evictsByWeightAndReportsEstimatedBytes() {
+            // Given
+            CacheManager cacheManager = new CacheConfig().cacheManager(environment, new ProductCacheDependencies(), NO_RELOAD);
+            var productById = nativeCache(cacheManager, "productById");
+
+            // When
+            IntStream.range(0, 1000).forEach(i -> productById.put(UUID.randomUUID(), product(i)));
+            productById.cleanUp();
+
+            // Then
+            CacheMetricsService.CacheStatistics statistics =
+                    new CacheMetricsService(cacheManager).getCacheStatistics("productById");
+            assertTrue(statistics.size() < 1000);
+            assertTrue(statistics.estimatedBytes() <= 64 * 1024);
+            assertEquals(64 * 1024, statistics.maximumBytes());
+        }
+    }
+
+    @Nested
+    @DisplayName("SingleFlightCache")
+    class SingleFlight {
+
+        @Test
+        @DisplayName("coalesces concurrent misses on one key into one load")
+        void coalescesConcurrentMisses() throws Exception {
+            // Given
+            CacheManager cacheManager = new CacheConfig().cacheManager(environment, new ProductCacheDependencies(),
+                    NO_RELOAD);
+            SingleFlightCache categories = (SingleFlightCache) cacheManager.getCache("categories");
+            AtomicInteger loads = new AtomicInteger();
+            CountDownLatch release = new CountDownLatch(1);
+            Callable<List<String>> loader = () -> {
+                loads.incrementAndGet();
+                release.await(5, TimeUnit.SECONDS);
+                return List.of("Electronics");
+            };
+
+            // When
+            CompletableFuture<List<String>> first = CompletableFuture.supplyAsync(() -> categories.get("all", loader));
+            awaitUntil(() -> loads.get() == 1);
+            CompletableFuture<List<String>> second = CompletableFuture.supplyAsync(() -> categories.get("all", loader));
+            awaitUntil(() -> categories.coalescedLoads() == 1);
+            release.countDown();
+
+            // Then
+            assertEquals(List.of("Electronics"), first.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("Electronics"), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+            assertEquals(1, categories.loads());
+        }
+
+        @Test
+        @DisplayName("passes a failed load to the waiting callers and keeps it out of the cache")
+        void propagatesFailedLoad() {
+            // Given
+            CacheManager cacheManager = new CacheConfig().cacheManager(environment, new ProductCacheDependencies(),
+                    NO_RELOAD);
+            var categoryById = cacheManager.getCache("categoryById");
+            IllegalStateException failure = new IllegalStateException("database down");
+
+            // When
+            var thrown = assertThrows(Cache.ValueRetrievalException.class,
+                    () -> categoryById.get("key", () -> { throw failure; }));
+
+            // Then
+            assertSame(failure, thrown.getCause());
+            assertNull(categoryById.get("key"));
+            assertEquals("loaded", categoryById.get("key", () -> "loaded"));
+        }
+
+        @Test
+        @DisplayName("refreshes only the caches it can reload")
+        void refreshesReloadableCaches() {
+            // Given
+            environment.withProperty("product.cache.default.refresh-after-write", "1m");
+
+            // When
+            CacheManager cacheManager = new CacheConfig().cacheManager(environment, new ProductCacheDependencies(),
+                    NO_RELOAD);
+
+            // Then
+            assertTrue(nativeCache(cacheManager, "productById").policy().refreshAfterWrite().isPresent());
+            assertTrue(nativeCache(cacheManager, "categories").policy().refreshAfterWrite().isPresent());
+            assertTrue(nativeCache(cacheManager, "products").policy().refreshAfterWrite().isEmpty());
+            assertTrue(nativeCache(cacheManager, "categoryById").policy().refreshAfterWrite().isEmpty());
+        }
+
+        @Test
+        @DisplayName("serves the cached value while a refresh reloads it in the background")
+        void servesCurrentValueWhileRefreshing() throws Exception {
+            // Given
+            environment.withProperty("product.cache.policies.categories.refresh-after-write", "1ms");
+            CountDownLatch release = new CountDownLatch(1);
+            CacheReloader reloader = (_, _) -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of("Refreshed");
+            };
+            CacheManager cacheManager = new CacheConfig().cacheManager(environment, new ProductCacheDependencies(),
+                    reloader);
+            SingleFlightCache categories = (SingleFlightCache) cacheManager.getCache("categories");
+            categories.put("all", List.of("Cached"));
+            Thread.sleep(5);
+
+            // When
+            Object served = categories.get("all").get();
+            release.countDown();
+
+            // Then
+            assertEquals(List.of("Cached"), served);
+            awaitUntil(() -> List.of("Refreshed").equals(categories.get("all").get()));
+            assertEquals(0, categories.failedRefreshes());
+            assertTrue(new CacheMetricsService(cacheManager).getCacheStatistics("categories").refreshCount() >= 1);
+        }
+
+        private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!condition.getAsBoolean()) {
+                assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("PayloadWeigher")
+    class Weigher {
+
+        @Test
+        @DisplayName("weighs a list by the sum of its elements")
+        void weighsListBySumOfElements() {
+            // Given
+            ProductResponse product = product(1);
+
+            // When
+            long one = PayloadWeigher.estimate(product);
+            long list = PayloadWeigher.estimate(List.of(product, product(2), product(3)));
+
+            // Then
+            assertTrue(one > 500, "a product with strings, UUIDs and timestamps is estimated at " + one);
+            assertTrue(list > 3 * one - 100);
+        }
+
+        @Test
+        @DisplayName("grows with string length")
+        void growsWithStringLength() {
+            // Given
+            CategoryResponse shortName = new CategoryResponse(UUID.randomUUID(), "TV", "tv", null, null, null);
+            CategoryResponse longName = new CategoryResponse(UUID.randomUUID(), "Televisions and home theater",
+                    "televisions-and-home-theater", null, null, null);
+
+            // Then
+            assertTrue(PayloadWeigher.estimate(longName) > PayloadWeigher.estimate(shortName));
+            assertEquals(PayloadWeigher.UNKNOWN_OBJECT, PayloadWeigher.estimate(new Object()));
+        }
+    }
+}
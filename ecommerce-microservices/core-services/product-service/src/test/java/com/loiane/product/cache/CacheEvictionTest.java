@@ -0,0 +1,278 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.category.Category;
+import com.loiane.product.category.CategoryReadRepository;
+import com.loiane.product.category.CategoryRepository;
+import com.loiane.product.category.CategoryService;
+import com.loiane.product.category.api.dto.CategoryRequest;
+import com.loiane.product.category.api.dto.CategoryResponse;
+import com.loiane.product.datasource.StatementDeadlines;
+import com.loiane.product.product.Product;
+import com.loiane.product.product.ProductCategoryRepository;
+import com.loiane.product.product.ProductReadRepository;
+import com.loiane.product.product.ProductRepository;
+import com.loiane.product.product.ProductService;
+import com.loiane.product.product.api.dto.ProductRequest;
+import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
+import com.loiane.product.search.SearchAnalytics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs product and category writes through the real caching advice and checks that only the
+ * written keys change, while other cached entries survive.
+ */
+@SpringBootTest(classes = {CacheConfig.class, ProductCacheDependencies.class, ServiceCacheReloader.class,
+        ProductService.class, CategoryService.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("Key-level cache eviction")
+class CacheEvictionTest {
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private ProductReadRepository productReadRepository;
+
+    @MockitoBean
+    private ProductCategoryRepository productCategoryRepository;
+
+    @MockitoBean
+    private CategoryRepository categoryRepository;
+
+    @MockitoBean
+    private CategoryReadRepository categoryReadRepository;
+
+    @MockitoBean
+    private SearchCountCache searchCountCache;
+
+    @MockitoBean
+    private SearchResultCache searchResultCache;
+
+    @MockitoBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockitoBean
+    private ProductSuggestions productSuggestions;
+
+    @MockitoBean
+    private SearchAnalytics searchAnalytics;
+
+    @MockitoBean
+    private ProductListingCache productListingCache;
+
+    @MockitoBean
+    private StatementDeadlines statementDeadlines;
+
+    @MockitoBean
+    private NotFoundCache notFoundCache;
+
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductCacheDependencies productCacheDependencies;
+
+    private final UUID edited = UUID.randomUUID();
+    private final UUID unrelated = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        CacheConfig.CACHE_NAMES.forEach(name -> cacheManager.getCache(name).clear());
+        when(productReadRepository.isEnabled()).thenReturn(true);
+        when(categoryReadRepository.isEnabled()).thenReturn(true);
+    }
+
+    private static ProductResponse productResponse(UUID id, String name, UUID... categoryIds) {
+        return new ProductResponse(id, "SKU-" + name.length(), name, "slug", "Brand", null, "ACTIVE",
+                Stream.of(categoryIds).map(cid -> new ProductResponse.CategorySummary(cid, "Phones", "phones")).toList(),
+                null, null);
+    }
+
+    private static CategoryResponse categoryResponse(UUID id, String name) {
+        return new CategoryResponse(id, name, name.toLowerCase(), null, null, null);
+    }
+
+    @Nested
+    @DisplayName("productById")
+    class ProductById {
+
+        @BeforeEach
+        void cacheTwoProducts() {
+            when(productReadRepository.findById(edited)).thenReturn(Optional.of(productResponse(edited, "Old")));
+            when(productReadRepository.findById(unrelated))
+                    .thenReturn(Optional.of(productResponse(unrelated, "Unrelated")));
+            productService.getById(edited);
+            productService.getById(unrelated);
+        }
+
+        @Test
+        @DisplayName("update puts the new response and keeps other products")
+        void updatePutsNewResponse() {
+            // Given
+            Product entity = new Product("SKU-1", "Old", "old");
+            when(productRepository.findById(edited)).thenReturn(Optional.of(entity));
+            when(productReadRepository.findById(edited)).thenReturn(Optional.of(productResponse(edited, "New")));
+
+            // When
+            productService.update(edited, new ProductRequest("SKU-1", "New", "new", "Brand", null, "ACTIVE",
+                    Set.of()));
+
+            // Then
+            assertEquals("New", productService.getById(edited).name());
+            assertEquals("Unrelated", productService.getById(unrelated).name());
+            // Once to cache it, once to read the update back
+            verify(productReadRepository, times(2)).findById(edited);
+            verify(productReadRepository, times(1)).findById(unrelated);
+        }
+
+        @Test
+        @DisplayName("delete evicts only the deleted product")
+        void deleteEvictsOnlyDeletedProduct() {
+            // Given
+            when(productRepository.existsById(edited)).thenReturn(true);
+
+            // When
+            productService.delete(edited);
+
+            // Then
+            assertNull(cacheManager.getCache("productById").get(edited));
+            productService.getById(unrelated);
+            verify(productReadRepository, times(1)).findById(unrelated);
+        }
+    }
+
+    @Nested
+    @DisplayName("categoryById")
+    class CategoryById {
+
+        private final UUID subcategory = UUID.randomUUID();
+
+        @BeforeEach
+        void cacheCategories() {
+            when(categoryReadRepository.findById(any())).thenAnswer(invocation ->
+                    Optional.of(categoryResponse(invocation.getArgument(0), "Cached")));
+            categoryService.getById(edited);
+            categoryService.getById(unrelated);
+            categoryService.getById(subcategory);
+        }
+
+        @Test
+        @DisplayName("update puts the new response, evicts subcategories and keeps other categories")
+        void updatePutsNewResponseAndEvictsSubcategories() {
+            // Given
+            when(categoryRepository.findById(edited)).thenReturn(Optional.of(new Category("Old", "old")));
+            when(categoryRepository.findIdsByParentId(edited)).thenReturn(List.of(subcategory));
+            when(categoryReadRepository.findById(edited)).thenReturn(Optional.of(categoryResponse(edited, "New")));
+
+            // When
+            categoryService.update(edited, new CategoryRequest("New", "new", null));
+
+            // Then
+            assertEquals("New", categoryService.getById(edited).name());
+            assertNull(cacheManager.getCache("categoryById").get(subcategory));
+            assertNotNull(cacheManager.getCache("categoryById").get(unrelated));
+        }
+
+        @Test
+        @DisplayName("update keeps subcategories when name and slug are unchanged")
+        void updateKeepsSubcategoriesWhenParentSummaryUnchanged() {
+            // Given
+            when(categoryRepository.findById(edited)).thenReturn(Optional.of(new Category("Same", "same")));
+
+            // When
+            categoryService.update(edited, new CategoryRequest("Same", "same", null));
+
+            // Then
+            assertNotNull(cacheManager.getCache("categoryById").get(subcategory));
+            verify(categoryRepository, never()).findIdsByParentId(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("category to product dependencies")
+    class CategoryProductDependencies {
+
+        private final UUID phones = UUID.randomUUID();
+        private final UUID laptops = UUID.randomUUID();
+
+        @BeforeEach
+        void cacheProductsInTwoCategories() {
+            when(productReadRepository.findById(edited))
+                    .thenReturn(Optional.of(productResponse(edited, "Phone", phones)));
+            when(productReadRepository.findById(unrelated))
+                    .thenReturn(Optional.of(productResponse(unrelated, "Laptop", laptops)));
+            productService.getById(edited);
+            productService.getById(unrelated);
+        }
+
+        @Test
+        @DisplayName("renaming a category evicts exactly the cached products in it")
+        void renameEvictsProductsInCategory() {
+            // Given
+            when(categoryRepository.findById(phones)).thenReturn(Optional.of(new Category("Phones", "phones")));
+            when(categoryReadRepository.findById(phones))
+                    .thenReturn(Optional.of(categoryResponse(phones, "Smartphones")));
+
+            // When
+            categoryService.update(phones, new CategoryRequest("Smartphones", "smartphones", null));
+
+            // Then
+            assertNull(cacheManager.getCache("productById").get(edited));
+            assertNotNull(cacheManager.getCache("productById").get(unrelated));
+            assertEquals(Set.of(), productCacheDependencies.cachedProductsIn(phones));
+            assertEquals(Set.of(unrelated), productCacheDependencies.cachedProductsIn(laptops));
+        }
+
+        @Test
+        @DisplayName("a product put with new categories moves between them")
+        void putMovesProductBetweenCategories() {
+            // When
+            cacheManager.getCache("productById").put(edited, productResponse(edited, "Phone", laptops));
+
+            // Then
+            assertEquals(Set.of(), productCacheDependencies.cachedProductsIn(phones));
+            assertEquals(Set.of(edited, unrelated), productCacheDependencies.cachedProductsIn(laptops));
+        }
+
+        @Test
+        @DisplayName("evicted and cleared products are no longer tracked")
+        void evictedProductsAreUntracked() {
+            // When
+            cacheManager.getCache("productById").evict(edited);
+
+            // Then
+            assertEquals(Set.of(), productCacheDependencies.cachedProductsIn(phones));
+            cacheManager.getCache("productById").clear();
+            assertEquals(0, productCacheDependencies.trackedProducts());
+        }
+    }
+}
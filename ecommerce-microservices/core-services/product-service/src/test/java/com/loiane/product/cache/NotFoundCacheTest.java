@@ -0,0 +1,312 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.cache.NotFoundCache.CreatedId;
+import com.loiane.product.cache.NotFoundCache.Kind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NotFoundCache")
+class NotFoundCacheTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private List<CreatedId> products;
+    private AtomicInteger primaryChecks;
+    private boolean primaryDown;
+    private CaffeineCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private NotFoundCache notFoundCache;
+
+    @BeforeEach
+    void setUp() {
+        products = new CopyOnWriteArrayList<>();
+        primaryChecks = new AtomicInteger();
+        primaryDown = false;
+        cacheManager = new CaffeineCacheManager();
+        meterRegistry = new SimpleMeterRegistry();
+        notFoundCache = create(true, 100);
+    }
+
+    private NotFoundCache create(boolean enabled, int confirmationsPerSecond) {
+        NotFoundCache.IdSource source = new NotFoundCache.IdSource() {
+            @Override
+            public List<CreatedId> createdSince(Kind kind, OffsetDateTime since) {
+                return kind != Kind.PRODUCT ? List.of()
+                        : products.stream()
+                                .filter(created -> since == null || !created.createdAt().isBefore(since))
+                                .toList();
+            }
+
+            @Override
+            public boolean exists(Kind kind, UUID id) {
+                primaryChecks.incrementAndGet();
+                if (primaryDown) {
+                    throw new DataAccessResourceFailureException("primary down");
+                }
+                return kind == Kind.PRODUCT && products.stream().anyMatch(created -> created.id().equals(id));
+            }
+        };
+        return new NotFoundCache(cacheManager, source, meterRegistry, CLOCK, enabled, 0.01, Duration.ofMinutes(1),
+                confirmationsPerSecond, Duration.ofMinutes(1), 1000);
+    }
+
+    private UUID existingProduct() {
+        UUID id = UUID.randomUUID();
+        products.add(new CreatedId(id, OffsetDateTime.now()));
+        return id;
+    }
+
+    private double answeredBy(String answeredBy) {
+        var counter = meterRegistry.find(NotFoundCache.NOT_FOUND_METRIC)
+                .tags("kind", "product", "answered-by", answeredBy)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Nested
+    @DisplayName("IdBloomFilter")
+    class BloomFilter {
+
+        @Test
+        @DisplayName("contains every ID put and few others")
+        void containsEveryIdPutAndFewOthers() {
+            // Given
+            IdBloomFilter filter = new IdBloomFilter(10_000, 0.01);
+            List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                filter.put(id);
+            }
+
+            // When
+            long falsePositives = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (filter.mightContain(UUID.randomUUID())) {
+                    falsePositives++;
+                }
+            }
+
+            // Then
+            assertTrue(ids.stream().allMatch(filter::mightContain));
+            assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        }
+
+        @Test
+        @DisplayName("rejects a false-positive rate outside (0, 1)")
+        void rejectsInvalidFalsePositiveRate() {
+            assertThrows(IllegalArgumentException.class, () -> new IdBloomFilter(100, 0));
+            assertThrows(IllegalArgumentException.class, () -> new IdBloomFilter(100, 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("isKnownMissing")
+    class IsKnownMissing {
+
+        @Test
+        @DisplayName("passes every ID to the database before the first build")
+        void passesEveryIdBeforeFirstBuild() {
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, UUID.randomUUID()));
+            assertEquals(0, primaryChecks.get());
+        }
+
+        @Test
+        @DisplayName("confirms filter misses on the primary and caches them")
+        void confirmsFilterMissesOnPrimary() {
+            // Given
+            UUID existing = existingProduct();
+            notFoundCache.rebuild();
+            UUID missing = UUID.randomUUID();
+
+            // When & Then
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, existing));
+            assertTrue(notFoundCache.isKnownMissing(Kind.PRODUCT, missing));
+            assertTrue(notFoundCache.isKnownMissing(Kind.PRODUCT, missing));
+            assertEquals(1, primaryChecks.get());
+            assertEquals(1, answeredBy("primary"));
+            assertEquals(1, answeredBy("negative-cache"));
+        }
+
+        @Test
+        @DisplayName("finds IDs created through other instances before the next sync")
+        void findsIdsCreatedElsewhereBeforeSync() {
+            // Given
+            notFoundCache.rebuild();
+            UUID createdElsewhere = existingProduct();
+
+            // When & Then
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, createdElsewhere));
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, createdElsewhere));
+            assertEquals(1, primaryChecks.get());
+            assertEquals(0, answeredBy("primary"));
+        }
+
+        @Test
+        @DisplayName("answers from the filter alone once confirmations are used up, without caching")
+        void answersFromFilterOnceConfirmationsAreUsedUp() {
+            // Given
+            NotFoundCache limited = create(true, 1);
+            limited.rebuild();
+            UUID missing = UUID.randomUUID();
+            limited.isKnownMissing(Kind.PRODUCT, UUID.randomUUID());
+
+            // When & Then
+            assertTrue(limited.isKnownMissing(Kind.PRODUCT, missing));
+            assertTrue(limited.isKnownMissing(Kind.PRODUCT, missing));
+            assertEquals(1, primaryChecks.get());
+            assertEquals(2, answeredBy("filter"));
+            assertEquals(0, answeredBy("negative-cache"));
+        }
+
+        @Test
+        @DisplayName("passes filter misses to the database when the primary cannot be asked")
+        void passesFilterMissesWhenPrimaryFails() {
+            // Given
+            notFoundCache.rebuild();
+            primaryDown = true;
+
+            // When & Then
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, UUID.randomUUID()));
+        }
+
+        @Test
+        @DisplayName("never answers when disabled")
+        void neverAnswersWhenDisabled() {
+            // Given
+            NotFoundCache disabled = create(false, 100);
+            UUID missing = UUID.randomUUID();
+            disabled.rebuild();
+            disabled.recordMissing(Kind.PRODUCT, missing);
+
+            // When & Then
+            assertFalse(disabled.isKnownMissing(Kind.PRODUCT, missing));
+            assertFalse(disabled.isKnownMissing(Kind.PRODUCT, UUID.randomUUID()));
+            assertEquals(0, primaryChecks.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("recordMissing")
+    class RecordMissing {
+
+        @Test
+        @DisplayName("caches IDs the primary confirms missing")
+        void cachesIdsConfirmedMissing() {
+            // Given
+            UUID missing = UUID.randomUUID();
+
+            // When
+            notFoundCache.recordMissing(Kind.PRODUCT, missing);
+
+            // Then
+            assertTrue(notFoundCache.isKnownMissing(Kind.PRODUCT, missing));
+            assertEquals(1, answeredBy("database"));
+            assertEquals(1, answeredBy("negative-cache"));
+            assertNotNull(cacheManager.getCache(Kind.PRODUCT.cacheName()));
+        }
+
+        @Test
+        @DisplayName("does not cache IDs a lagging replica missed but the primary has")
+        void doesNotCacheIdsOnPrimary() {
+            // Given
+            UUID notYetReplicated = existingProduct();
+
+            // When
+            notFoundCache.recordMissing(Kind.PRODUCT, notYetReplicated);
+
+            // Then
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, notYetReplicated));
+            assertEquals(0, answeredBy("negative-cache"));
+        }
+
+        @Test
+        @DisplayName("does not cache IDs it could not confirm")
+        void doesNotCacheUnconfirmedIds() {
+            // Given
+            NotFoundCache limited = create(true, 1);
+            UUID confirmed = UUID.randomUUID();
+            UUID unconfirmed = UUID.randomUUID();
+            primaryDown = true;
+            limited.recordMissing(Kind.PRODUCT, confirmed);
+            primaryDown = false;
+
+            // When
+            limited.recordMissing(Kind.PRODUCT, unconfirmed);
+
+            // Then
+            assertFalse(limited.isKnownMissing(Kind.PRODUCT, confirmed));
+            assertFalse(limited.isKnownMissing(Kind.PRODUCT, unconfirmed));
+            assertEquals(1, primaryChecks.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("created IDs")
+    class CreatedIds {
+
+        @Test
+        @DisplayName("IDs created here are found right away, even if recorded missing before")
+        void createdHereAreFoundRightAway() {
+            // Given
+            notFoundCache.rebuild();
+            UUID id = UUID.randomUUID();
+            notFoundCache.recordMissing(Kind.PRODUCT, id);
+
+            // When
+            notFoundCache.recordCreated(Kind.PRODUCT, id);
+
+            // Then
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, id));
+        }
+
+        @Test
+        @DisplayName("IDs created through other instances are in the filter after a sync")
+        void createdElsewhereAreInFilterAfterSync() {
+            // Given
+            existingProduct();
+            notFoundCache.rebuild();
+            UUID createdElsewhere = existingProduct();
+
+            // When
+            notFoundCache.syncCreated();
+
+            // Then
+            assertFalse(notFoundCache.isKnownMissing(Kind.PRODUCT, createdElsewhere));
+            assertEquals(0, primaryChecks.get());
+        }
+
+        @Test
+        @DisplayName("deleted IDs are answered from the negative cache")
+        void deletedIdsAreAnsweredFromNegativeCache() {
+            // Given
+            UUID id = existingProduct();
+            notFoundCache.rebuild();
+
+            // When
+            notFoundCache.recordDeleted(Kind.PRODUCT, id);
+
+            // Then
+            assertTrue(notFoundCache.isKnownMissing(Kind.PRODUCT, id));
+            assertEquals(1, answeredBy("negative-cache"));
+        }
+    }
+}
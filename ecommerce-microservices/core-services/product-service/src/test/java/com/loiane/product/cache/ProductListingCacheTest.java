@@ -0,0 +1,126 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductListingCache")
+class ProductListingCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+    private static final Pageable SECOND_PAGE = PageRequest.of(1, 20, Sort.by("name"));
+
+    private SearchResultCache searchResultCache;
+    private ProductListingCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(ProductListingCache.CACHE_NAME);
+        searchResultCache = new SearchResultCache(cacheManager, true, Duration.ofMinutes(1), 100);
+        cache = new ProductListingCache(cacheManager, searchResultCache, 2);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private LoadedResult<Page<ProductResponse>> load(Pageable pageable) {
+        loads.incrementAndGet();
+        return LoadedResult.completed(new PageImpl<>(List.of(), pageable, 0));
+    }
+
+    @Test
+    @DisplayName("serves a page from the cache until the next catalog generation")
+    void servesPageUntilNextGeneration() {
+        // When
+        cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+        cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+        searchResultCache.nextGenerationAfterCommit();
+        cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("never caches unpaged listings")
+    void bypassesUnpaged() {
+        // When
+        cache.get(Pageable.unpaged(), () -> load(Pageable.unpaged()));
+        cache.get(Pageable.unpaged(), () -> load(Pageable.unpaged()));
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("serves an incomplete page to its loader without caching it")
+    void servesIncompletePageWithoutCaching() {
+        // Given
+        Page<ProductResponse> partial = new PageImpl<>(List.of(), FIRST_PAGE, 40);
+
+        // When
+        Page<ProductResponse> served = cache.get(FIRST_PAGE, () -> {
+            loads.incrementAndGet();
+            return new LoadedResult<>(partial, false);
+        });
+        Page<ProductResponse> reloaded = cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+
+        // Then
+        assertSame(partial, served);
+        assertEquals(0, reloaded.getTotalElements());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("getStale returns the page of an earlier generation")
+    void getStaleReturnsEarlierGeneration() {
+        // Given
+        Page<ProductResponse> cached = cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+        searchResultCache.nextGenerationAfterCommit();
+
+        // When
+        Page<ProductResponse> stale = cache.getStale(FIRST_PAGE);
+
+        // Then
+        assertSame(cached, stale);
+        assertNull(cache.getStale(SECOND_PAGE));
+    }
+
+    @Test
+    @DisplayName("ranks pages by client requests, ignoring loads outside a request")
+    void ranksPagesByClientRequests() {
+        // Given
+        cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // When
+        cache.get(SECOND_PAGE, () -> load(SECOND_PAGE));
+        cache.get(SECOND_PAGE, () -> load(SECOND_PAGE));
+        cache.get(FIRST_PAGE, () -> load(FIRST_PAGE));
+        cache.get(PageRequest.of(2, 20, Sort.by("name")), () -> load(FIRST_PAGE));
+
+        // Then
+        assertEquals(List.of(SECOND_PAGE, FIRST_PAGE), cache.popularPages(5));
+    }
+}
@@ -0,0 +1,232 @@
+package com.loiane.product.cache;
+
+import com.loiane.product.product.CategoryMatch;
+import com.loiane.product.product.ProductSearchCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SearchResultCache")
+class SearchResultCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+
+    private CaffeineCacheManager cacheManager;
+    private SearchResultCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CaffeineCacheManager();
+        cache = new SearchResultCache(cacheManager, true, Duration.ofMinutes(1), 100);
+        loads = new AtomicInteger();
+    }
+
+    private String load(String result) {
+        loads.incrementAndGet();
+        return result;
+    }
+
+    @Nested
+    @DisplayName("get")
+    class Get {
+
+        @Test
+        @DisplayName("equivalent criteria share one entry")
+        void equivalentCriteriaShareEntry() {
+            // Given
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            ProductSearchCriteria criteria = ProductSearchCriteria.of(" Laptop ", "ACTIVE", "Dell", null,
+                    Set.of(first, second), CategoryMatch.ANY);
+            ProductSearchCriteria respelled = ProductSearchCriteria.of("laptop", "ACTIVE", "DELL", null,
+                    Set.of(second, first), CategoryMatch.ANY);
+
+            // When
+            String result = cache.get("page", criteria, FIRST_PAGE, () -> load("page 0"));
+            String cached = cache.get("page", respelled, FIRST_PAGE, () -> load("page 0 again"));
+
+            // Then
+            assertEquals("page 0", result);
+            assertEquals("page 0", cached);
+            assertEquals(1, loads.get());
+        }
+
+        @Test
+        @DisplayName("page, size, sort and kind are part of the key")
+        void pageSizeSortAndKindArePartOfKey() {
+            // Given
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+
+            // When
+            cache.get("page", criteria, FIRST_PAGE, () -> load("a"));
+            cache.get("page", criteria, PageRequest.of(1, 20, Sort.by("name")), () -> load("b"));
+            cache.get("page", criteria, PageRequest.of(0, 50, Sort.by("name")), () -> load("c"));
+            cache.get("page", criteria, PageRequest.of(0, 20, Sort.by("sku")), () -> load("d"));
+            cache.get("slice", criteria, FIRST_PAGE, () -> load("e"));
+
+            // Then
+            assertEquals(5, loads.get());
+        }
+
+        @Test
+        @DisplayName("unpaged requests are never cached")
+        void unpagedRequestsBypassCache() {
+            // Given
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+
+            // When
+            cache.get("page", criteria, Pageable.unpaged(), () -> load("all"));
+            cache.get("page", criteria, Pageable.unpaged(), () -> load("all"));
+
+            // Then
+            assertEquals(2, loads.get());
+        }
+
+        @Test
+        @DisplayName("a disabled cache always loads")
+        void disabledCacheAlwaysLoads() {
+            // Given
+            SearchResultCache disabled = new SearchResultCache(cacheManager, false, Duration.ofMinutes(1), 100);
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+
+            // When
+            disabled.get("page", criteria, FIRST_PAGE, () -> load("a"));
+            disabled.get("page", criteria, FIRST_PAGE, () -> load("a"));
+
+            // Then
+            assertEquals(2, loads.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("nextGenerationAfterCommit")
+    class NextGeneration {
+
+        @AfterEach
+        void clearSynchronization() {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+
+        @Test
+        @DisplayName("outside a transaction makes earlier results unreachable right away")
+        void outsideTransactionInvalidatesImmediately() {
+            // Given
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            cache.get("page", criteria, FIRST_PAGE, () -> load("before"));
+
+            // When
+            cache.nextGenerationAfterCommit();
+            String result = cache.get("page", criteria, FIRST_PAGE, () -> load("after"));
+
+            // Then
+            assertEquals("after", result);
+            assertEquals(2, loads.get());
+        }
+
+        @Test
+        @DisplayName("inside a transaction waits for the commit")
+        void insideTransactionWaitsForCommit() {
+            // Given
+            TransactionSynchronizationManager.initSynchronization();
+
+            // When
+            cache.nextGenerationAfterCommit();
+
+            // Then
+            assertEquals(0, cache.generation());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, cache.generation());
+        }
+    }
+
+    @Nested
+    @DisplayName("getStale and getUnlessPartial")
+    class StaleAndPartial {
+
+        @Test
+        @DisplayName("getStale returns the result of an earlier generation")
+        void getStaleReturnsEarlierGeneration() {
+            // Given
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            cache.get("page", criteria, FIRST_PAGE, () -> load("before"));
+            cache.nextGenerationAfterCommit();
+            cache.nextGenerationAfterCommit();
+
+            // When
+            String stale = cache.getStale("page", criteria, FIRST_PAGE);
+
+            // Then
+            assertEquals("before", stale);
+            assertNull(cache.getStale("slice", criteria, FIRST_PAGE));
+        }
+
+        @Test
+        @DisplayName("getStale does not look back further than the stale generations")
+        void getStaleIsBounded() {
+            // Given
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            cache.get("page", criteria, FIRST_PAGE, () -> load("before"));
+
+            // When
+            for (int i = 0; i <= SearchResultCache.STALE_GENERATIONS; i++) {
+                cache.nextGenerationAfterCommit();
+            }
+
+            // Then
+            assertNull(cache.getStale("page", criteria, FIRST_PAGE));
+        }
+
+        @Test
+        @DisplayName("getUnlessPartial serves a partial result without caching it")
+        void getUnlessPartialDoesNotCachePartialResult() {
+            // Given
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+
+            // When
+            String partial = cache.getUnlessPartial("page", criteria, FIRST_PAGE,
+                    () -> new LoadedResult<>(load("partial"), false));
+            String result = cache.get("page", criteria, FIRST_PAGE, () -> load("complete"));
+
+            // Then
+            assertEquals("partial", partial);
+            assertEquals("complete", result);
+            assertEquals(2, loads.get());
+        }
+    }
+
+    @Test
+    @DisplayName("is registered with the cache manager so its statistics are reported")
+    void registeredWithCacheManager() {
+        // Given
+        CacheMetricsService metrics = new CacheMetricsService(cacheManager);
+        ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+
+        // When
+        cache.get("page", criteria, FIRST_PAGE, () -> load("a"));
+        cache.get("page", criteria, FIRST_PAGE, () -> load("a"));
+
+        // Then
+        assertTrue(metrics.getCacheNames().contains(SearchResultCache.CACHE_NAME));
+        CacheMetricsService.CacheStatistics statistics = metrics.getCacheStatistics(SearchResultCache.CACHE_NAME);
+        assertEquals(1, statistics.hitCount());
+        assertEquals(1, statistics.missCount());
+    }
+}
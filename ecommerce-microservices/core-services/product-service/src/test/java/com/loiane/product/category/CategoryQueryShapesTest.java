@@ -0,0 +1,60 @@
+package com.loiane.product.category;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("CategoryQueryShapes Unit Tests")
+class CategoryQueryShapesTest {
+
+    @Test
+    @DisplayName("Should precompile one statement per valid filter combination")
+    void shouldPrecompileEveryShape() {
+        // When
+        long shapes = IntStream.range(0, 32).mapToObj(CategoryQueryShapes::select).filter(Objects::nonNull).count();
+
+        // Then
+        assertEquals(24, shapes);
+    }
+
+    @Test
+    @DisplayName("Should select child categories for isRoot=false")
+    void shouldSelectChildCategories() {
+        // Given
+        UUID parentId = UUID.randomUUID();
+        CategorySearchCriteria criteria = CategorySearchCriteria.of("Phone", null, parentId, false);
+
+        // When
+        int mask = CategoryQueryShapes.maskOf(criteria);
+        Map<String, Object> params = CategoryQueryShapes.params(criteria);
+
+        // Then
+        assertEquals(CategoryQueryShapes.NAME | CategoryQueryShapes.PARENT | CategoryQueryShapes.CHILD, mask);
+        assertTrue(CategoryQueryShapes.select(mask).endsWith(
+                "WHERE lower(c.name) LIKE :name ESCAPE '\\' AND c.parent_id = :parentId AND c.parent_id IS NOT NULL"));
+        assertEquals(Map.of("name", "%phone%", "parentId", parentId), params);
+    }
+
+    @Test
+    @DisplayName("Should precompute the ORDER BY clause of every indexed sort")
+    void shouldPrecomputeOrderBy() {
+        // When
+        String orderBy = CategoryQueryShapes.orderBy(Sort.by("name"));
+
+        // Then
+        assertEquals(" ORDER BY c.name ASC, c.id", orderBy);
+        assertSame(orderBy, CategoryQueryShapes.orderBy(Sort.by(Sort.Direction.ASC, "name")));
+        assertThrows(InvalidInputException.class, () -> CategoryQueryShapes.orderBy(Sort.by("slug")));
+    }
+}
@@ -1,8 +1,15 @@
 package com.loiane.product.category;
 
+import com.loiane.product.cache.NotFoundCache;
+import com.loiane.product.cache.ProductCacheDependencies;
+import com.loiane.product.cache.SearchCountCache;
+import com.loiane.product.cache.SearchResultCache;
 import com.loiane.product.category.api.dto.CategoryRequest;
 import com.loiane.product.category.api.dto.CategoryResponse;
 import com.loiane.product.common.exception.CategoryNotFoundException;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -10,18 +17,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,9 +52,42 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryReadRepository categoryReadRepository;
+
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductSuggestions productSuggestions;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ProductCacheDependencies productCacheDependencies;
+
+    @Mock
+    private NotFoundCache notFoundCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private CategoryService categoryService;
 
+    @BeforeEach
+    void passSearchesThroughResultCache() {
+        lenient().when(searchResultCache.get(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+    }
+
     private Category createTestCategory() {
         return new Category("Electronics", "electronics");
     }
@@ -149,7 +198,7 @@ class CategoryServiceTest {
             var pageable = PageRequest.of(0, 10);
             var page = new PageImpl<>(List.of(category), pageable, 1);
 
-            when(categoryRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
+            when(categoryRepository.findBy(any(Specification.class), any())).thenReturn(sliceOf(page));
 
             // When
             Page<CategoryResponse> result = categoryService.search("Electronics", null, null, null, pageable);
@@ -158,7 +207,7 @@ class CategoryServiceTest {
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
             assertEquals("Electronics", result.getContent().get(0).name());
-            verify(categoryRepository).findAll(any(Specification.class), eq(pageable));
+            verify(categoryRepository).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -169,7 +218,7 @@ class CategoryServiceTest {
             var pageable = PageRequest.of(0, 10);
             var page = new PageImpl<>(List.of(category), pageable, 1);
 
-            when(categoryRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
+            when(categoryRepository.findBy(any(Specification.class), any())).thenReturn(sliceOf(page));
 
             // When
             Page<CategoryResponse> result = categoryService.search(null, "electronics", null, null, pageable);
@@ -177,7 +226,7 @@ class CategoryServiceTest {
             // Then
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
-            verify(categoryRepository).findAll(any(Specification.class), eq(pageable));
+            verify(categoryRepository).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -189,14 +238,14 @@ class CategoryServiceTest {
             var pageable = PageRequest.of(0, 10);
             var page = new PageImpl<>(List.of(category), pageable, 1);
 
-            when(categoryRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
+            when(categoryRepository.findBy(any(Specification.class), any())).thenReturn(sliceOf(page));
 
             // When
             Page<CategoryResponse> result = categoryService.search(null, null, parentId, null, pageable);
 
             // Then
             assertNotNull(result);
-            verify(categoryRepository).findAll(any(Specification.class), eq(pageable));
+            verify(categoryRepository).findBy(any(Specification.class), any());
         }
 
         @ParameterizedTest
@@ -208,14 +257,14 @@ class CategoryServiceTest {
             var pageable = PageRequest.of(0, 10);
             var page = new PageImpl<>(List.of(category), pageable, 1);
 
-            when(categoryRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
+            when(categoryRepository.findBy(any(Specification.class), any())).thenReturn(sliceOf(page));
 
             // When
             Page<CategoryResponse> result = categoryService.search(name, slug, parentId, rootCategory, pageable);
 
             // Then
             assertNotNull(result);
-            verify(categoryRepository).findAll(any(Specification.class), eq(pageable));
+            verify(categoryRepository).findBy(any(Specification.class), any());
         }
 
         static Stream<Arguments> searchCriteriaProvider() {
@@ -234,15 +283,15 @@ class CategoryServiceTest {
             var pageable = PageRequest.of(0, 10);
             var page = new PageImpl<>(List.of(category), pageable, 1);
 
-            when(categoryRepository.findAll(pageable)).thenReturn(page);
+            when(categoryRepository.findSliceBy(pageable)).thenReturn(sliceOf(page));
 
             // When
             Page<CategoryResponse> result = categoryService.search(null, null, null, null, pageable);
 
             // Then
             assertNotNull(result);
-            verify(categoryRepository).findAll(pageable);
-            verify(categoryRepository, never()).findAll(any(Specification.class), eq(pageable));
+            verify(categoryRepository).findSliceBy(pageable);
+            verify(categoryRepository, never()).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -253,15 +302,15 @@ class CategoryServiceTest {
             var pageable = PageRequest.of(0, 10);
             var page = new PageImpl<>(List.of(category), pageable, 1);
 
-            when(categoryRepository.findAll(pageable)).thenReturn(page);
+            when(categoryRepository.findSliceBy(pageable)).thenReturn(sliceOf(page));
 
             // When
             Page<CategoryResponse> result = categoryService.search("", "   ", null, null, pageable);
 
             // Then
             assertNotNull(result);
-            verify(categoryRepository).findAll(pageable);
-            verify(categoryRepository, never()).findAll(any(Specification.class), eq(pageable));
+            verify(categoryRepository).findSliceBy(pageable);
+            verify(categoryRepository, never()).findBy(any(Specification.class), any());
         }
     }
 
@@ -304,6 +353,66 @@ class CategoryServiceTest {
 
             assertEquals("Category not found with ID: " + categoryId, exception.getMessage());
             verify(categoryRepository).findById(categoryId);
+            verify(notFoundCache).recordMissing(NotFoundCache.Kind.CATEGORY, categoryId);
+        }
+
+        @Test
+        @DisplayName("Should answer IDs known not to exist without a transaction")
+        void shouldAnswerKnownMissingIdsWithoutTransaction() {
+            // Given
+            var categoryId = UUID.randomUUID();
+            when(notFoundCache.isKnownMissing(NotFoundCache.Kind.CATEGORY, categoryId)).thenReturn(true);
+
+            // When & Then
+            assertThrows(CategoryNotFoundException.class, () -> categoryService.getById(categoryId));
+            verifyNoInteractions(transactionManager, categoryRepository, categoryReadRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Projection read path tests")
+    class ProjectionReadPathTests {
+
+        @BeforeEach
+        void enableProjection() {
+            when(categoryReadRepository.isEnabled()).thenReturn(true);
+        }
+
+        @Test
+        @DisplayName("Should read category by ID without loading the entity")
+        void shouldReadCategoryByIdWithoutLoadingEntity() {
+            // Given
+            var categoryId = UUID.randomUUID();
+            var response = new CategoryResponse(categoryId, "Electronics", "electronics", null, null, null);
+            when(categoryReadRepository.findById(categoryId)).thenReturn(Optional.of(response));
+
+            // When
+            CategoryResponse result = categoryService.getById(categoryId);
+
+            // Then
+            assertSame(response, result);
+            verifyNoInteractions(categoryRepository);
+        }
+
+        @Test
+        @DisplayName("Should search through the read repository and count through the cache")
+        void shouldSearchThroughReadRepository() {
+            // Given
+            var pageable = PageRequest.of(0, 1);
+            var criteria = CategorySearchCriteria.of("Elec", null, null, true);
+            var response = new CategoryResponse(UUID.randomUUID(), "Electronics", "electronics", null, null, null);
+            when(categoryReadRepository.findSlice(criteria, pageable))
+                .thenReturn(new SliceImpl<>(List.of(response), pageable, true));
+            when(searchCountCache.get(eq(criteria), any()))
+                .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(1).getAsLong());
+            when(categoryReadRepository.count(criteria)).thenReturn(3L);
+
+            // When
+            Page<CategoryResponse> result = categoryService.search("Elec", null, null, true, pageable);
+
+            // Then
+            assertEquals(3, result.getTotalElements());
+            verifyNoInteractions(categoryRepository);
         }
     }
 
@@ -381,23 +490,73 @@ class CategoryServiceTest {
     class UpdateTests {
 
         @Test
-        @DisplayName("Should update category without parent")
+        @DisplayName("Should update category without parent and read it back on the projection path")
         void shouldUpdateCategoryWithoutParent() {
             // Given
             var categoryId = UUID.randomUUID();
             var category = createTestCategoryWithId(categoryId);
 
             var request = new CategoryRequest("Updated Electronics", "updated-electronics", null);
+            var readBack = new CategoryResponse(categoryId, "Updated Electronics", "updated-electronics", null, null, null);
 
             when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+            when(categoryReadRepository.isEnabled()).thenReturn(true);
+            when(categoryReadRepository.findById(categoryId)).thenReturn(Optional.of(readBack));
 
             // When
             CategoryResponse result = categoryService.update(categoryId, request);
 
             // Then
-            assertNotNull(result);
-            assertEquals("Updated Electronics", result.name());
+            assertSame(readBack, result);
             verify(categoryRepository).findById(categoryId);
+            verify(categoryRepository).saveAndFlush(category);
+            verify(categoryRepository, never()).refresh(any());
+            verify(productSearchIndex).renameCategoryAfterCommit(categoryId, "Updated Electronics", "updated-electronics");
+        }
+
+        @Test
+        @DisplayName("Should refresh the category and read it back on the entity path")
+        void shouldReadBackUpdatedCategoryOnEntityPath() {
+            // Given
+            var categoryId = UUID.randomUUID();
+            var category = createTestCategoryWithId(categoryId);
+            var request = new CategoryRequest("Updated Electronics", "updated-electronics", null);
+
+            when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+
+            // When
+            CategoryResponse result = categoryService.update(categoryId, request);
+
+            // Then
+            assertEquals("Updated Electronics", result.name());
+            InOrder inOrder = inOrder(categoryRepository);
+            inOrder.verify(categoryRepository).saveAndFlush(category);
+            inOrder.verify(categoryRepository).refresh(category);
+            inOrder.verify(categoryRepository).findById(categoryId);
+            verify(categoryReadRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should evict cached subcategories and products when the name changes")
+        void shouldEvictDependentsWhenNameChanges() {
+            // Given
+            var categoryId = UUID.randomUUID();
+            var subcategoryId = UUID.randomUUID();
+            var productId = UUID.randomUUID();
+            var categoryCache = mock(Cache.class);
+            var productCache = mock(Cache.class);
+            when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(createTestCategoryWithId(categoryId)));
+            when(categoryRepository.findIdsByParentId(categoryId)).thenReturn(List.of(subcategoryId));
+            when(cacheManager.getCache("categoryById")).thenReturn(categoryCache);
+            when(cacheManager.getCache("productById")).thenReturn(productCache);
+            when(productCacheDependencies.cachedProductsIn(categoryId)).thenReturn(Set.of(productId));
+
+            // When
+            categoryService.update(categoryId, new CategoryRequest("Consumer Electronics", "electronics", null));
+
+            // Then
+            verify(categoryCache).evict(subcategoryId);
+            verify(productCache).evict(productId);
         }
 
         @Test
@@ -420,7 +579,8 @@ class CategoryServiceTest {
 
             // Then
             assertNotNull(result);
-            verify(categoryRepository).findById(categoryId);
+            // Loaded for the update, then read back on the entity path
+            verify(categoryRepository, times(2)).findById(categoryId);
             verify(categoryRepository).findById(parentId);
         }
 
@@ -486,6 +646,8 @@ class CategoryServiceTest {
             // Then
             verify(categoryRepository).existsById(categoryId);
             verify(categoryRepository).deleteById(categoryId);
+            verify(productSearchIndex).removeCategoryAfterCommit(categoryId);
+            verify(productSuggestions).refreshAfterCommit();
         }
 
         @Test
@@ -507,4 +669,8 @@ class CategoryServiceTest {
             verify(categoryRepository, never()).deleteById(categoryId);
         }
     }
+
+    private <T> Slice<T> sliceOf(Page<T> page) {
+        return new SliceImpl<>(page.getContent(), page.getPageable(), page.hasNext());
+    }
 }
@@ -0,0 +1,87 @@
+package com.loiane.product.common.util;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("IndexedSorts Unit Tests")
+class IndexedSortsTest {
+
+    private final IndexedSorts sorts = new IndexedSorts("Products",
+            List.of(List.of("name"), List.of("status", "name")));
+
+    @Test
+    @DisplayName("Should accept a sort served by an index as is")
+    void shouldAcceptIndexedSort() {
+        // Given
+        Pageable pageable = PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "name"));
+
+        // When / Then
+        assertSame(pageable, sorts.resolve(pageable));
+    }
+
+    @Test
+    @DisplayName("Should reroute a prefix to the full index order")
+    void shouldRerouteIndexPrefix() {
+        // When
+        Pageable resolved = sorts.resolve(PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "status")));
+
+        // Then
+        assertEquals(PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "status", "name")), resolved);
+    }
+
+    @Test
+    @DisplayName("Should keep unsorted and unpaged requests")
+    void shouldKeepUnsortedAndUnpaged() {
+        // When / Then
+        assertTrue(sorts.resolve(Sort.unsorted()).isUnsorted());
+        assertEquals(Pageable.unpaged(Sort.by("status", "name")), sorts.resolve(Pageable.unpaged(Sort.by("status"))));
+    }
+
+    @Test
+    @DisplayName("Should reject sorts no index serves")
+    void shouldRejectUnindexedSorts() {
+        // When / Then
+        assertThrows(InvalidInputException.class, () -> sorts.resolve(Sort.by("description")));
+        assertThrows(InvalidInputException.class, () -> sorts.resolve(Sort.by("name", "status")));
+        assertThrows(InvalidInputException.class, () -> sorts.resolve(Sort.by("status", "name", "id")));
+        assertThrows(InvalidInputException.class, () -> sorts.resolve(Sort.by(Sort.Order.asc("status"), Sort.Order.desc("name"))));
+        assertThrows(InvalidInputException.class, () -> sorts.resolve(Sort.by(Sort.Order.asc("name").ignoreCase())));
+    }
+
+    @Test
+    @DisplayName("Should list the supported sorts in the error message")
+    void shouldListSupportedSorts() {
+        // When
+        InvalidInputException exception = assertThrows(InvalidInputException.class,
+                () -> sorts.resolve(Sort.by("brand")));
+
+        // Then
+        assertEquals("sort", exception.getFieldName());
+        assertEquals("Products can be sorted by: name, status then name, in one direction", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should enumerate every sort it resolves to")
+    void shouldEnumerateResolvedSorts() {
+        // When
+        List<Sort> resolved = sorts.sorts();
+
+        // Then
+        assertEquals(List.of(Sort.unsorted(),
+                Sort.by(Sort.Direction.ASC, "name"), Sort.by(Sort.Direction.DESC, "name"),
+                Sort.by(Sort.Direction.ASC, "status", "name"), Sort.by(Sort.Direction.DESC, "status", "name")),
+                resolved);
+        assertTrue(resolved.contains(sorts.resolve(Sort.by(Sort.Direction.DESC, "status"))));
+    }
+}
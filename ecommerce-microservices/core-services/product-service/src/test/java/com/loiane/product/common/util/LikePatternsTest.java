@@ -0,0 +1,47 @@
+package com.loiane.product.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("LikePatterns Unit Tests")
+class LikePatternsTest {
+
+    @Test
+    @DisplayName("Should wrap lower-cased value in wildcards")
+    void shouldWrapLowerCasedValueInWildcards() {
+        // When
+        String pattern = LikePatterns.contains("MacBook Pro");
+
+        // Then
+        assertEquals("%macbook pro%", pattern);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Should escape LIKE wildcards and the escape character")
+    @CsvSource(delimiter = '|', value = {
+        "100%     | %100\\%%",
+        "usb_c    | %usb\\_c%",
+        "a\\b     | %a\\\\b%"
+    })
+    void shouldEscapeWildcards(String value, String expected) {
+        // When
+        String pattern = LikePatterns.contains(value);
+
+        // Then
+        assertEquals(expected, pattern);
+    }
+
+    @Test
+    @DisplayName("Should lower-case independently of the default locale")
+    void shouldLowerCaseWithRootLocale() {
+        // When
+        String pattern = LikePatterns.contains("TITLE");
+
+        // Then
+        assertEquals("%title%", pattern);
+    }
+}
@@ -0,0 +1,283 @@
+package com.loiane.product.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReplicaRoutingDataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(2);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private ReadReplica replica1;
+    private ReadReplica replica2;
+    private DataSource primary;
+    private ReadYourWritesPinning pinning;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        replica1 = new ReadReplica("replica-1", mock(DataSource.class));
+        replica2 = new ReadReplica("replica-2", mock(DataSource.class));
+        primary = mock(DataSource.class);
+        pinning = new ReadYourWritesPinning(WINDOW, CLOCK);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), pinning);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    /**
+     * Opens a primary connection in the current read-write transaction, whose check for a
+     * transaction ID answers {@code wrote}, and commits the transaction.
+     */
+    private void commitReadWriteTransaction(boolean wrote) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet result = mock(ResultSet.class);
+        when(primary.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(result);
+        when(result.next()).thenReturn(true);
+        when(result.getBoolean(1)).thenReturn(wrote);
+
+        routing.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private void bindRequest() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        RequestContextHolder.resetRequestAttributes();
+        pinning.clear();
+    }
+
+    @Nested
+    @DisplayName("Routing")
+    class RoutingTests {
+
+        @Test
+        @DisplayName("Should send read-only transactions to the replicas in turn")
+        void shouldRoundRobinReadOnlyTransactions() {
+            // Given
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+            // When / Then
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+            assertEquals("replica-2", routing.determineCurrentLookupKey());
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should send read-write transactions to the primary")
+        void shouldSendWritesToPrimary() {
+            // When / Then
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should skip replicas that lag too far behind")
+        void shouldSkipLaggingReplica() {
+            // Given
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            replica1.markLag(Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+            // When / Then
+            assertEquals("replica-2", routing.determineCurrentLookupKey());
+            assertEquals("replica-2", routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should fall back to the primary when no replica is healthy")
+        void shouldFallBackToPrimary() {
+            // Given
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            replica1.markUnreachable();
+            replica2.markLag(Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+            // When / Then
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should return a replica to rotation once it caught up")
+        void shouldReturnReplicaToRotation() {
+            // Given
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            replica1.markUnreachable();
+            replica2.markUnreachable();
+            replica1.markLag(Duration.ZERO, Duration.ofSeconds(5));
+
+            // When / Then
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+    }
+
+    @Nested
+    @DisplayName("Read your writes")
+    class ReadYourWritesTests {
+
+        @Test
+        @DisplayName("Should pin reads to the primary after a write commits")
+        void shouldPinAfterCommit() throws SQLException {
+            // Given
+            bindRequest();
+            commitReadWriteTransaction(true);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+            // When / Then
+            assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should not pin after a read-write transaction that wrote nothing")
+        void shouldNotPinWithoutWrite() throws SQLException {
+            // Given
+            bindRequest();
+            commitReadWriteTransaction(false);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+            // When / Then
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should not pin when the write rolls back")
+        void shouldNotPinOnRollback() throws SQLException {
+            // Given
+            bindRequest();
+            when(primary.getConnection()).thenReturn(mock(Connection.class));
+            routing.getConnection();
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+            // When / Then
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should not pin threads outside a request")
+        void shouldNotPinOutsideRequest() throws SQLException {
+            // Given
+            commitReadWriteTransaction(true);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+            // When / Then
+            assertFalse(pinning.isPinned());
+            assertEquals("replica-1", routing.determineCurrentLookupKey());
+        }
+
+        @Test
+        @DisplayName("Should assume a write when the check fails")
+        void shouldAssumeWriteWhenCheckFails() throws SQLException {
+            // Given
+            Connection connection = mock(Connection.class);
+            when(connection.createStatement()).thenThrow(new SQLException("Connection closed"));
+
+            // When / Then
+            assertTrue(ReplicaRoutingDataSource.wroteInTransaction(connection));
+        }
+
+        @Test
+        @DisplayName("Should hand the pin to the client as a cookie")
+        void shouldSetPinCookie() {
+            // Given
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            RequestContextHolder.setRequestAttributes(
+                    new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+            // When
+            pinning.onWriteCommitted();
+
+            // Then
+            Cookie cookie = response.getCookie(ReadYourWritesPinning.COOKIE_NAME);
+            assertNotNull(cookie);
+            assertEquals(Long.toString(CLOCK.millis() + WINDOW.toMillis()), cookie.getValue());
+            assertTrue(cookie.isHttpOnly());
+        }
+
+        @Test
+        @DisplayName("Should restore an unexpired pin from the cookie")
+        void shouldRestorePinFromCookie() {
+            // Given
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setCookies(new Cookie(ReadYourWritesPinning.COOKIE_NAME, Long.toString(CLOCK.millis() + 500)));
+
+            // When
+            pinning.restore(request);
+
+            // Then
+            assertTrue(pinning.isPinned());
+        }
+
+        @Test
+        @DisplayName("Should ignore expired or malformed pin cookies")
+        void shouldIgnoreExpiredCookie() {
+            // Given
+            MockHttpServletRequest expired = new MockHttpServletRequest();
+            expired.setCookies(new Cookie(ReadYourWritesPinning.COOKIE_NAME, Long.toString(CLOCK.millis() - 1)));
+            MockHttpServletRequest malformed = new MockHttpServletRequest();
+            malformed.setCookies(new Cookie(ReadYourWritesPinning.COOKIE_NAME, "forever"));
+
+            // When / Then
+            pinning.restore(expired);
+            assertFalse(pinning.isPinned());
+            pinning.restore(malformed);
+            assertFalse(pinning.isPinned());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lag monitor")
+    class LagMonitorTests {
+
+        @Test
+        @DisplayName("Should take an unreachable replica out of rotation")
+        void shouldMarkUnreachableReplica() throws SQLException {
+            // Given
+            DataSource unreachable = mock(DataSource.class);
+            when(unreachable.getConnection()).thenThrow(new SQLException("Connection refused"));
+            ReadReplica replica = new ReadReplica("replica-1", unreachable);
+            ReplicaLagMonitor monitor = new ReplicaLagMonitor(List.of(replica), Duration.ofSeconds(5));
+
+            // When
+            monitor.checkLag();
+
+            // Then
+            assertFalse(replica.isHealthy());
+        }
+    }
+}
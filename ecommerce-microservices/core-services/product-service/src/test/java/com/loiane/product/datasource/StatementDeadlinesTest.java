@@ -0,0 +1,152 @@
+package com.loiane.product.datasource;
+
+import com.loiane.product.common.exception.SearchTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("StatementDeadlines Unit Tests")
+class StatementDeadlinesTest {
+
+    private JdbcClient jdbcClient;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private MockHttpServletResponse response;
+    private StatementDeadlines deadlines;
+
+    @BeforeEach
+    void setUp() {
+        jdbcClient = mock(JdbcClient.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        deadlines = new StatementDeadlines(jdbcClient, transactionManager, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        deadlines.takeFallback();
+    }
+
+    private double timeouts(String operation, String fallback) {
+        var counter = meterRegistry.find(StatementDeadlines.TIMEOUTS_METRIC)
+                .tags("operation", operation, "fallback", fallback).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Nested
+    @DisplayName("orFallback")
+    class OrFallback {
+
+        @Test
+        @DisplayName("returns the read result under a savepoint when it finishes in time")
+        void returnsReadResult() {
+            // When
+            String result = deadlines.orFallback("search", () -> "fresh", "stale", () -> "cached");
+
+            // Then
+            assertEquals("fresh", result);
+            verify(transactionManager).commit(any());
+            assertNull(deadlines.takeFallback());
+            assertNull(response.getHeader(StatementDeadlines.FALLBACK_HEADER));
+        }
+
+        @Test
+        @DisplayName("rolls back to the savepoint and serves the fallback on a timeout")
+        void servesFallbackOnTimeout() {
+            // When
+            String result = deadlines.orFallback("search", () -> {
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+            }, "stale", () -> "cached");
+
+            // Then
+            assertEquals("cached", result);
+            verify(transactionManager).rollback(any());
+            assertEquals("stale", response.getHeader(StatementDeadlines.FALLBACK_HEADER));
+            assertEquals(1, timeouts("search", "stale"));
+            assertEquals("stale", deadlines.takeFallback());
+            assertNull(deadlines.takeFallback());
+        }
+
+        @Test
+        @DisplayName("throws SearchTimeoutException when there is no fallback")
+        void throwsWithoutFallback() {
+            // When & Then
+            SearchTimeoutException exception = assertThrows(SearchTimeoutException.class,
+                    () -> deadlines.orFallback("search", () -> {
+                        throw new QueryTimeoutException("canceling statement due to statement timeout");
+                    }, "stale", () -> null));
+            assertEquals("search", exception.getOperation());
+            assertEquals(503, exception.getHttpStatus());
+            assertEquals(1, timeouts("search", "none"));
+            assertNull(deadlines.takeFallback());
+        }
+
+        @Test
+        @DisplayName("rethrows failures other than timeouts")
+        void rethrowsOtherFailures() {
+            // Given
+            DataAccessResourceFailureException failure = new DataAccessResourceFailureException("connection lost");
+
+            // When & Then
+            assertSame(failure, assertThrows(DataAccessResourceFailureException.class,
+                    () -> deadlines.orFallback("count", () -> {
+                        throw failure;
+                    }, "partial", () -> 0L)));
+            assertEquals(0, timeouts("count", "partial"));
+        }
+    }
+
+    @Test
+    @DisplayName("recognizes a cancelled statement anywhere in the cause chain")
+    void recognizesCancelledStatement() {
+        // Given
+        SQLException cancelled = new SQLException("canceling statement due to statement timeout", "57014");
+        SQLException deadlock = new SQLException("deadlock detected", "40P01");
+
+        // Then
+        assertTrue(StatementDeadlines.isTimeout(new JpaSystemException(new RuntimeException(cancelled))));
+        assertFalse(StatementDeadlines.isTimeout(new JpaSystemException(new RuntimeException(deadlock))));
+    }
+
+    @Test
+    @DisplayName("a zero deadline keeps the server default")
+    void zeroDeadlineKeepsDefault() {
+        // When
+        deadlines.limit(Duration.ZERO);
+
+        // Then
+        verifyNoInteractions(jdbcClient);
+    }
+}
@@ -1,20 +1,30 @@
 package com.loiane.product.integration;
 
 import com.loiane.product.category.api.dto.CategoryResponse;
+import com.loiane.product.common.api.dto.CursorPage;
+import com.loiane.product.product.ProductReadRepository;
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.ProductFacets;
 import com.loiane.product.product.api.dto.ProductRequest;
 import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -27,6 +37,15 @@ class ProductIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private ProductSuggestions productSuggestions;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductReadRepository productReadRepository;
+
     @Nested
     @DisplayName("GET /api/products")
     class ListProductsTests {
@@ -100,6 +119,57 @@ class ProductIntegrationTest extends BaseIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/products?after= (cursor mode)")
+    class CursorPaginationTests {
+
+        @Test
+        @DisplayName("Should walk every product exactly once in sort order")
+        void shouldWalkEveryProductExactlyOnce() {
+            // Given
+            ResponseEntity<RestPageImpl<ProductResponse>> all = restTemplate.exchange(
+                    getProductsUrl() + "?size=1000",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+            assertThat(all.getBody()).isNotNull();
+
+            // When
+            var seen = new ArrayList<ProductResponse>();
+            String after = "";
+            do {
+                ResponseEntity<CursorPage<ProductResponse>> response = restTemplate.exchange(
+                        getProductsUrl() + "?size=3&sort=name,asc&after=" + after,
+                        HttpMethod.GET,
+                        null,
+                        new ParameterizedTypeReference<CursorPage<ProductResponse>>() {}
+                );
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                assertThat(response.getBody()).isNotNull();
+                seen.addAll(response.getBody().content());
+                after = response.getBody().nextCursor();
+            } while (after != null);
+
+            // Then
+            assertThat(seen).extracting(ProductResponse::id)
+                    .doesNotHaveDuplicates()
+                    .hasSize((int) all.getBody().getTotalElements());
+            for (int i = 1; i < seen.size(); i++) {
+                assertThat(seen.get(i).name()).isGreaterThanOrEqualTo(seen.get(i - 1).name());
+            }
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unsupported cursor sort")
+        void shouldRejectUnsupportedCursorSort() {
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    getProductsUrl() + "?after=&sort=description", String.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/products/search")
     class SearchProductsTests {
@@ -226,6 +296,133 @@ class ProductIntegrationTest extends BaseIntegrationTest {
             );
         }
 
+        @Test
+        @DisplayName("Should only return products in every category with categoryMatch=all")
+        void shouldSearchProductsInAllCategories() {
+            // Given
+            UUID electronicsId = findCategoryId("Electronics");
+            UUID smartphonesId = findCategoryId("Smartphones");
+            String categories = "categoryIds=" + electronicsId + "&categoryIds=" + smartphonesId;
+
+            // When
+            ResponseEntity<RestPageImpl<ProductResponse>> any = restTemplate.exchange(
+                    getProductsUrl() + "/search?size=100&" + categories,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+            ResponseEntity<RestPageImpl<ProductResponse>> all = restTemplate.exchange(
+                    getProductsUrl() + "/search?size=100&categoryMatch=all&" + categories,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+
+            // Then
+            assertThat(all.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(all.getBody()).isNotNull();
+            assertThat(any.getBody()).isNotNull();
+            assertThat(all.getBody().getTotalElements()).isLessThanOrEqualTo(any.getBody().getTotalElements());
+            all.getBody().getContent().forEach(product ->
+                assertThat(product.categories())
+                    .extracting(ProductResponse.CategorySummary::id)
+                    .contains(electronicsId, smartphonesId)
+            );
+            // Products matching several IDs are not duplicated by the semi-join
+            assertThat(any.getBody().getContent())
+                .extracting(ProductResponse::id)
+                .doesNotHaveDuplicates();
+        }
+
+        @Test
+        @DisplayName("Should rank full-text matches in the name above other fields")
+        void shouldRankFullTextMatches() {
+            // When
+            ResponseEntity<RestPageImpl<ProductResponse>> response = restTemplate.exchange(
+                    getProductsUrl() + "/search?q=wireless headphones",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isNotNull();
+            assertThat(response.getBody().getContent())
+                .extracting(ProductResponse::sku)
+                .startsWith("SONY-WH1000XM5")
+                .contains("AIRPODS-PRO2");
+        }
+
+        @Test
+        @DisplayName("Should find products by the names of their categories")
+        void shouldFullTextSearchCategoryNames() {
+            // Given
+            ProductRequest request = new ProductRequest(
+                    "FTS-WIDGET-1",
+                    "Quantum Widget",
+                    "quantum-widget",
+                    "Test Brand",
+                    null,
+                    "ACTIVE",
+                    Set.of(findCategoryId("Gaming"))
+            );
+            restTemplate.postForEntity(getProductsUrl(), request, ProductResponse.class);
+
+            // When
+            ResponseEntity<RestPageImpl<ProductResponse>> response = restTemplate.exchange(
+                    getProductsUrl() + "/search?q=gaming widget",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isNotNull();
+            assertThat(response.getBody().getContent())
+                .extracting(ProductResponse::sku)
+                .containsExactly("FTS-WIDGET-1");
+        }
+
+        @Test
+        @DisplayName("Should find misspelled names with fuzzy=true")
+        void shouldFindMisspelledNamesWhenFuzzy() {
+            // When
+            ResponseEntity<RestPageImpl<ProductResponse>> exact = restTemplate.exchange(
+                    getProductsUrl() + "/search?name=iphnoe",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+            ResponseEntity<RestPageImpl<ProductResponse>> fuzzy = restTemplate.exchange(
+                    getProductsUrl() + "/search?name=iphnoe&fuzzy=true",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+            );
+
+            // Then
+            assertThat(exact.getBody()).isNotNull();
+            assertThat(exact.getBody().getContent()).isEmpty();
+            assertThat(fuzzy.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(fuzzy.getBody()).isNotNull();
+            assertThat(fuzzy.getBody().getContent())
+                .extracting(ProductResponse::sku)
+                .contains("IP15-128GB-BK");
+        }
+
+        @Test
+        @DisplayName("Should return 400 for fuzzy=true without a name")
+        void shouldRejectFuzzyWithoutName() {
+            // When
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    getProductsUrl() + "/search?brand=Apple&fuzzy=true", String.class);
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+
         @Test
         @DisplayName("Should combine multiple search criteria")
         void shouldCombineMultipleSearchCriteria() {
@@ -268,6 +465,88 @@ class ProductIntegrationTest extends BaseIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/products/search?facets=true")
+    class FacetTests {
+
+        @Test
+        @DisplayName("Should return facet counts over all matches")
+        void shouldReturnFacetCounts() {
+            // When
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    getProductsUrl() + "/search?brand=samsung&facets=true&size=1", String.class);
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody())
+                .contains("\"facets\"")
+                .contains("\"value\":\"Samsung\"");
+        }
+
+        @Test
+        @DisplayName("Should count the same facets in memory as in the database")
+        void shouldMatchDatabaseFacets() {
+            // Given
+            productSearchIndex.rebuild();
+            ProductSearchCriteria criteria = ProductSearchCriteria.of(null, "ACTIVE", null, null, null);
+
+            // When
+            ProductFacets inMemory = productSearchIndex.searchWithFacets(criteria, PageRequest.of(0, 1)).getFacets();
+            ProductFacets database = productReadRepository.findFacets(criteria);
+
+            // Then
+            assertThat(inMemory.brands()).isNotEmpty();
+            assertThat(inMemory).isEqualTo(database);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/suggest")
+    class SuggestTests {
+
+        @Test
+        @DisplayName("Should suggest brands and product names by prefix")
+        void shouldSuggestByPrefix() {
+            // Given
+            productSuggestions.rebuild();
+
+            // When
+            ResponseEntity<List<SuggestionResponse>> response = restTemplate.exchange(
+                    getProductsUrl() + "/suggest?prefix=Sam",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<SuggestionResponse>>() {}
+            );
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody())
+                .first()
+                .isEqualTo(new SuggestionResponse("Samsung", SuggestionResponse.Type.BRAND));
+        }
+
+        @Test
+        @DisplayName("Should complete words inside product names")
+        void shouldSuggestByWordPrefix() {
+            // Given
+            productSuggestions.rebuild();
+
+            // When
+            ResponseEntity<List<SuggestionResponse>> response = restTemplate.exchange(
+                    getProductsUrl() + "/suggest?prefix=tab s",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<SuggestionResponse>>() {}
+            );
+
+            // Then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody())
+                .extracting(SuggestionResponse::text)
+                .contains("Galaxy Tab S9 128GB");
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/products/{id}")
     class GetProductTests {
@@ -642,4 +921,14 @@ class ProductIntegrationTest extends BaseIntegrationTest {
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         }
     }
+
+    private UUID findCategoryId(String name) {
+        ResponseEntity<RestPageImpl<CategoryResponse>> response = restTemplate.exchange(
+                getCategoriesUrl() + "/search?name=" + name,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<RestPageImpl<CategoryResponse>>() {}
+        );
+        return response.getBody().getContent().get(0).id();
+    }
 }
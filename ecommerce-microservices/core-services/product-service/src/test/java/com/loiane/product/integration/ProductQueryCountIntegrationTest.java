@@ -0,0 +1,98 @@
+package com.loiane.product.integration;
+
+import com.loiane.product.product.api.dto.ProductResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the entity read path fetch plans: every read endpoint must run a small, fixed
+ * number of SQL statements regardless of how many products are on the page.
+ */
+@DisplayName("Product read path statement count")
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "product.read-path=entity"
+})
+class ProductQueryCountIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("GET /api/products runs page, count and one category fetch")
+    void listRunsFixedNumberOfStatements() {
+        ResponseEntity<RestPageImpl<ProductResponse>> response = restTemplate.exchange(
+                getProductsUrl() + "?size=20",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSizeGreaterThan(1);
+        assertThat(response.getBody().getContent())
+                .anyMatch(product -> !product.categories().isEmpty());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("GET /api/products/search runs page, count and one category fetch")
+    void searchRunsFixedNumberOfStatements() {
+        ResponseEntity<RestPageImpl<ProductResponse>> response = restTemplate.exchange(
+                getProductsUrl() + "/search?status=ACTIVE&size=20",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getContent()).hasSizeGreaterThan(1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("GET /api/products/{id} runs a single statement")
+    void getByIdRunsSingleStatement() {
+        ResponseEntity<RestPageImpl<ProductResponse>> page = restTemplate.exchange(
+                getProductsUrl() + "?size=1",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<RestPageImpl<ProductResponse>>() {}
+        );
+        assertThat(page.getBody()).isNotNull();
+        var id = page.getBody().getContent().getFirst().id();
+        statistics.clear();
+
+        ResponseEntity<ProductResponse> response = restTemplate.getForEntity(
+                getProductsUrl() + "/" + id, ProductResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
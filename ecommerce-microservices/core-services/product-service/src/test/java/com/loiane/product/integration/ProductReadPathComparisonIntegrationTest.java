@@ -0,0 +1,252 @@
+package com.loiane.product.integration;
+
+import com.loiane.product.cache.NotFoundCache;
+import com.loiane.product.cache.ProductListingCache;
+import com.loiane.product.cache.SearchCountCache;
+import com.loiane.product.cache.SearchResultCache;
+import com.loiane.product.category.CategoryRepository;
+import com.loiane.product.datasource.StatementDeadlines;
+import com.loiane.product.product.CategoryMatch;
+import com.loiane.product.product.ProductCategoryRepository;
+import com.loiane.product.product.ProductReadRepository;
+import com.loiane.product.product.ProductRepository;
+import com.loiane.product.product.ProductService;
+import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.search.ProductIndexStorage;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
+import com.loiane.product.search.SearchAnalytics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same reads through the entity path and the projection path side by side.
+ * Both must return the same responses; heap allocated and latency per call are logged
+ * for each path so the two can be compared on a real database. For searches this compares
+ * a Criteria tree built from Specifications per request against the precompiled statement
+ * of the same filter shape.
+ */
+@DisplayName("Product read path: entity vs projection")
+class ProductReadPathComparisonIntegrationTest extends BaseIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductReadPathComparisonIntegrationTest.class);
+
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Autowired
+    private SearchCountCache searchCountCache;
+
+    @Autowired
+    private ProductSuggestions productSuggestions;
+
+    @Autowired
+    private ProductIndexStorage productIndexStorage;
+
+    @Autowired
+    private StatementDeadlines statementDeadlines;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProductService entityPath;
+    private ProductService projectionPath;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        ProductReadRepository entityReads = new ProductReadRepository(jdbcClient, dataSource, "entity", 0.3);
+        ProductReadRepository projectionReads = new ProductReadRepository(jdbcClient, dataSource, "projection", 0.3);
+        // Result caching off, so every measured call reaches the read path under comparison
+        SearchResultCache uncached = new SearchResultCache(new NoOpCacheManager(), false, Duration.ZERO, 0);
+        SearchAnalytics noAnalytics = new SearchAnalytics(false, 0, 0, 0);
+        ProductListingCache uncachedListings = new ProductListingCache(new NoOpCacheManager(), uncached, 0);
+        NotFoundCache noNotFoundCache = new NotFoundCache(new NoOpCacheManager(), jdbcClient, transactionManager,
+                new SimpleMeterRegistry(), false, 0.01, Duration.ofMinutes(1), 1, Duration.ofSeconds(1), 1);
+        entityPath = new ProductService(productRepository, categoryRepository, entityReads,
+                productCategoryRepository, searchCountCache,
+                new ProductSearchIndex(entityReads, productIndexStorage, transactionManager, false),
+                productSuggestions, uncached, noAnalytics, uncachedListings, statementDeadlines, noNotFoundCache,
+                transactionManager, Duration.ofSeconds(2), Duration.ofSeconds(3));
+        projectionPath = new ProductService(productRepository, categoryRepository, projectionReads,
+                productCategoryRepository, searchCountCache,
+                new ProductSearchIndex(projectionReads, productIndexStorage, transactionManager, false),
+                productSuggestions, uncached, noAnalytics, uncachedListings, statementDeadlines, noNotFoundCache,
+                transactionManager, Duration.ofSeconds(2), Duration.ofSeconds(3));
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("list returns the same page on both paths")
+    void listMatches() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("name"));
+
+        List<ProductResponse> entity = read(() -> entityPath.listAll(pageable).getContent());
+        List<ProductResponse> projection = read(() -> projectionPath.listAll(pageable).getContent());
+
+        assertThat(projection).isNotEmpty();
+        assertSameResponses(projection, entity);
+        compare("list", () -> entityPath.listAll(pageable), () -> projectionPath.listAll(pageable));
+    }
+
+    @Test
+    @DisplayName("search returns the same page on both paths")
+    void searchMatches() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("name"));
+        UUID categoryId = read(() -> entityPath.listAll(pageable).getContent()).stream()
+                .flatMap(product -> product.categories().stream())
+                .map(ProductResponse.CategorySummary::id)
+                .findFirst()
+                .orElseThrow();
+
+        List<ProductResponse> entity = read(() ->
+                entityPath.search(null, "ACTIVE", null, null, Set.of(categoryId), CategoryMatch.ANY, null, false, pageable).getContent());
+        List<ProductResponse> projection = read(() ->
+                projectionPath.search(null, "ACTIVE", null, null, Set.of(categoryId), CategoryMatch.ANY, null, false, pageable).getContent());
+
+        assertThat(projection).isNotEmpty();
+        assertSameResponses(projection, entity);
+        compare("search",
+                () -> entityPath.search(null, "ACTIVE", null, null, Set.of(categoryId), CategoryMatch.ANY, null, false, pageable),
+                () -> projectionPath.search(null, "ACTIVE", null, null, Set.of(categoryId), CategoryMatch.ANY, null, false, pageable));
+    }
+
+    @Test
+    @DisplayName("every filter combination returns the same page on both paths")
+    void everyFilterShapeMatches() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("name"));
+        ProductResponse sample = read(() -> projectionPath.listAll(pageable).getContent()).stream()
+                .filter(product -> product.brand() != null && !product.categories().isEmpty())
+                .findFirst()
+                .orElseThrow();
+        String name = sample.name().substring(0, 3);
+        String brand = sample.brand();
+        String sku = sample.sku().substring(0, 2);
+        Set<UUID> categoryIds = Set.of(sample.categories().getFirst().id());
+
+        List<Supplier<?>> entitySearches = new ArrayList<>();
+        List<Supplier<?>> projectionSearches = new ArrayList<>();
+        for (int mask = 0; mask < 32; mask++) {
+            String nameFilter = (mask & 1) != 0 ? name : null;
+            String statusFilter = (mask & 2) != 0 ? sample.status() : null;
+            String brandFilter = (mask & 4) != 0 ? brand : null;
+            String skuFilter = (mask & 8) != 0 ? sku : null;
+            Set<UUID> categoryFilter = (mask & 16) != 0 ? categoryIds : null;
+            Supplier<List<ProductResponse>> entity = () -> entityPath.search(nameFilter, statusFilter, brandFilter,
+                    skuFilter, categoryFilter, CategoryMatch.ANY, null, false, pageable).getContent();
+            Supplier<List<ProductResponse>> projection = () -> projectionPath.search(nameFilter, statusFilter,
+                    brandFilter, skuFilter, categoryFilter, CategoryMatch.ANY, null, false, pageable).getContent();
+
+            List<ProductResponse> projectionResult = read(projection);
+            assertThat(projectionResult).contains(sample);
+            assertSameResponses(projectionResult, read(entity));
+            entitySearches.add(entity);
+            projectionSearches.add(projection);
+        }
+        compare("search, all 32 filter shapes",
+                () -> entitySearches.stream().map(Supplier::get).toList(),
+                () -> projectionSearches.stream().map(Supplier::get).toList());
+    }
+
+    @Test
+    @DisplayName("getById returns the same product on both paths")
+    void getByIdMatches() {
+        UUID id = read(() -> projectionPath.listAll(PageRequest.of(0, 1)).getContent()).getFirst().id();
+
+        ProductResponse entity = read(() -> entityPath.getById(id));
+        ProductResponse projection = read(() -> projectionPath.getById(id));
+
+        assertSameResponses(List.of(projection), List.of(entity));
+        compare("getById", () -> entityPath.getById(id), () -> projectionPath.getById(id));
+    }
+
+    private void compare(String operation, Supplier<?> entity, Supplier<?> projection) {
+        Measurement entityResult = measure(entity);
+        Measurement projectionResult = measure(projection);
+        log.info("{}: entity path {} bytes/call {} us/call, projection path {} bytes/call {} us/call",
+                operation,
+                entityResult.bytesPerCall(), entityResult.microsPerCall(),
+                projectionResult.bytesPerCall(), projectionResult.microsPerCall());
+    }
+
+    private Measurement measure(Supplier<?> call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            read(call);
+        }
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            read(call);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new Measurement(bytes / MEASURED_ITERATIONS, elapsed / 1_000 / MEASURED_ITERATIONS);
+    }
+
+    private <T> T read(Supplier<T> call) {
+        return readOnly.execute(_ -> call.get());
+    }
+
+    private void assertSameResponses(List<ProductResponse> actual, List<ProductResponse> expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i))
+                    .usingRecursiveComparison()
+                    .ignoringFields("categories")
+                    .isEqualTo(expected.get(i));
+            assertThat(sortedCategories(actual.get(i)))
+                    .isEqualTo(sortedCategories(expected.get(i)));
+        }
+    }
+
+    private List<ProductResponse.CategorySummary> sortedCategories(ProductResponse product) {
+        return product.categories().stream()
+                .sorted(Comparator.comparing(ProductResponse.CategorySummary::id))
+                .toList();
+    }
+
+    private record Measurement(long bytesPerCall, long microsPerCall) {}
+}
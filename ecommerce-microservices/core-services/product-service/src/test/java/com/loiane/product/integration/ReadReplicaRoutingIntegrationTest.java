@@ -0,0 +1,138 @@
+package com.loiane.product.integration;
+
+import com.loiane.product.datasource.ReplicaLagMonitor;
+import com.loiane.product.product.api.dto.ProductRequest;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the service against a primary and a separate replica database. The two containers do
+ * not replicate, which makes every routing decision observable: a row that exists only in the
+ * replica is visible exactly when a read was routed there, and a freshly created product is
+ * invisible on the replica until the read-your-writes pin sends the read to the primary.
+ */
+@DisplayName("Read replica routing")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingIntegrationTest extends BaseIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("catalog_test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureReplica(DynamicPropertyRegistry registry) {
+        registry.add("product.datasource.replicas.urls", () -> {
+            Flyway.configure()
+                    .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+            return replica.getJdbcUrl();
+        });
+        // Lag checks are triggered by the tests
+        registry.add("product.datasource.replicas.lag-check-interval", () -> "1h");
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Test
+    @Order(1)
+    @DisplayName("Should serve reads from the replica")
+    void shouldServeReadsFromReplica() {
+        // Given
+        UUID id = insertOnReplicaOnly("REPLICA-ONLY-1");
+
+        // When
+        ResponseEntity<ProductResponse> response = restTemplate.getForEntity(
+                getProductsUrl() + "/" + id, ProductResponse.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().sku()).isEqualTo("REPLICA-ONLY-1");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Should read the client's own write from the primary while pinned")
+    void shouldReadOwnWriteFromPrimary() {
+        // Given
+        ResponseEntity<ProductResponse> created = restTemplate.postForEntity(getProductsUrl(),
+                productRequest("PINNED-1", "pinned-1"), ProductResponse.class);
+        String pinCookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        String productUrl = getProductsUrl() + "/" + created.getBody().id();
+
+        // When
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, pinCookie.split(";")[0]);
+        ResponseEntity<ProductResponse> pinned = restTemplate.exchange(
+                productUrl, HttpMethod.GET, new HttpEntity<>(headers), ProductResponse.class);
+        ResponseEntity<String> unpinned = restTemplate.getForEntity(productUrl, String.class);
+
+        // Then
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(pinCookie).startsWith("primary-pin-until=");
+        assertThat(pinned.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(unpinned.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Should fall back to the primary when the replica is unavailable")
+    void shouldFallBackToPrimary() {
+        // Given
+        ResponseEntity<ProductResponse> created = restTemplate.postForEntity(getProductsUrl(),
+                productRequest("FALLBACK-1", "fallback-1"), ProductResponse.class);
+        replica.stop();
+        replicaLagMonitor.checkLag();
+
+        // When
+        ResponseEntity<ProductResponse> response = restTemplate.getForEntity(
+                getProductsUrl() + "/" + created.getBody().id(), ProductResponse.class);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().sku()).isEqualTo("FALLBACK-1");
+    }
+
+    private UUID insertOnReplicaOnly(String sku) {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+        return replicaJdbc.queryForObject("""
+                INSERT INTO products (sku, name, slug, brand, status)
+                VALUES (?, 'Replica only', lower(?), 'Test Brand', 'ACTIVE')
+                RETURNING id""", UUID.class, sku, sku);
+    }
+
+    private static ProductRequest productRequest(String sku, String slug) {
+        return new ProductRequest(sku, "Routing " + sku, slug, "Test Brand", null, "ACTIVE", Set.of());
+    }
+}
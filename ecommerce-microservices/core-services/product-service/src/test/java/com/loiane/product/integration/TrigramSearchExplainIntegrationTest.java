@@ -0,0 +1,147 @@
+package com.loiane.product.integration;
+
+import com.loiane.product.category.Category;
+import com.loiane.product.category.CategoryRepository;
+import com.loiane.product.category.CategorySpecification;
+import com.loiane.product.common.util.LikePatterns;
+import com.loiane.product.product.Product;
+import com.loiane.product.product.ProductRepository;
+import com.loiane.product.product.ProductSpecification;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a large catalog and EXPLAINs the SQL the search Specifications actually render,
+ * to prove the contains filters are served by the pg_trgm indexes from V4 rather than a
+ * sequential scan.
+ */
+@DisplayName("Trigram indexes back contains search")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.loiane.product.integration.SqlCapturingStatementInspector"
+})
+class TrigramSearchExplainIntegrationTest extends BaseIntegrationTest {
+
+    private static final int SEEDED_PRODUCTS = 50_000;
+    private static final int SEEDED_CATEGORIES = 20_000;
+
+    /** Six hex characters of one seeded md5, so only a handful of rows match. */
+    private static final String RARE_TERM = "c4ca42";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeAll
+    void seedCatalog() {
+        jdbcTemplate.update("""
+                INSERT INTO products (sku, name, slug, brand, status)
+                SELECT 'TRGM-' || g, 'Seeded ' || md5(g::text), 'trgm-seeded-' || g, 'Brand ' || md5((g % 997)::text), 'ACTIVE'
+                FROM generate_series(1, ?) g""", SEEDED_PRODUCTS);
+        jdbcTemplate.update("""
+                INSERT INTO categories (name, slug)
+                SELECT 'Seeded ' || md5(g::text), 'trgm-' || md5(g::text)
+                FROM generate_series(1, ?) g""", SEEDED_CATEGORIES);
+        jdbcTemplate.execute("ANALYZE products");
+        jdbcTemplate.execute("ANALYZE categories");
+    }
+
+    @AfterAll
+    void removeSeededCatalog() {
+        jdbcTemplate.update("DELETE FROM products WHERE sku LIKE 'TRGM-%'");
+        jdbcTemplate.update("DELETE FROM categories WHERE slug LIKE 'trgm-%'");
+    }
+
+    @BeforeEach
+    void clearCapturedSql() {
+        SqlCapturingStatementInspector.clear();
+    }
+
+    @Test
+    @DisplayName("product name filter uses idx_products_name_trgm")
+    void productNameUsesTrigramIndex() {
+        assertThat(explainProducts(RARE_TERM, ProductSpecification.hasName(RARE_TERM))).contains("idx_products_name_trgm");
+    }
+
+    @Test
+    @DisplayName("fuzzy product name filter uses idx_products_name_trgm")
+    void fuzzyProductNameUsesTrigramIndex() {
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT p.id FROM products p WHERE ? <% lower(p.name)"
+                        + " ORDER BY word_similarity(?, lower(p.name)) DESC, p.id",
+                String.class, RARE_TERM, RARE_TERM));
+
+        assertThat(plan).contains("idx_products_name_trgm");
+    }
+
+    @Test
+    @DisplayName("product brand filter uses idx_products_brand_trgm")
+    void productBrandUsesTrigramIndex() {
+        assertThat(explainProducts(RARE_TERM, ProductSpecification.hasBrand(RARE_TERM))).contains("idx_products_brand_trgm");
+    }
+
+    @Test
+    @DisplayName("product SKU filter uses idx_products_sku_trgm")
+    void productSkuUsesTrigramIndex() {
+        assertThat(explainProducts("trgm-4242", ProductSpecification.hasSku("trgm-4242"))).contains("idx_products_sku_trgm");
+    }
+
+    @Test
+    @DisplayName("category name filter uses idx_categories_name_trgm")
+    void categoryNameUsesTrigramIndex() {
+        assertThat(explainCategories(RARE_TERM, CategorySpecification.hasName(RARE_TERM))).contains("idx_categories_name_trgm");
+    }
+
+    @Test
+    @DisplayName("category slug filter uses idx_categories_slug_trgm")
+    void categorySlugUsesTrigramIndex() {
+        assertThat(explainCategories(RARE_TERM, CategorySpecification.hasSlug(RARE_TERM))).contains("idx_categories_slug_trgm");
+    }
+
+    @Test
+    @DisplayName("wildcards in the search term are matched literally")
+    void wildcardsAreMatchedLiterally() {
+        List<Product> matches = productRepository.findAll(ProductSpecification.hasSku("trgm-%"));
+
+        assertThat(matches).isEmpty();
+    }
+
+    private String explainProducts(String term, Specification<Product> spec) {
+        productRepository.findAll(spec);
+        return explain(SqlCapturingStatementInspector.last(), term);
+    }
+
+    private String explainCategories(String term, Specification<Category> spec) {
+        categoryRepository.findAll(spec);
+        return explain(SqlCapturingStatementInspector.last(), term);
+    }
+
+    /**
+     * EXPLAINs a captured statement. Every bind parameter of the rendered filters is the
+     * contains pattern, so it is bound the same way the repository bound it.
+     */
+    private String explain(String sql, String term) {
+        Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        Arrays.fill(args, LikePatterns.contains(term));
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+}
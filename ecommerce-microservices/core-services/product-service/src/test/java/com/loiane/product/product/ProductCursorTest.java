@@ -0,0 +1,90 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductCursor Tests")
+class ProductCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip a name cursor")
+    void shouldRoundTripNameCursor() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Product product = productWithId(id);
+        Sort.Order order = Sort.Order.asc("name");
+
+        // When
+        String token = ProductCursor.after(product, order).encode();
+        ProductCursor decoded = ProductCursor.decode(token, order);
+
+        // Then
+        assertEquals("name", decoded.property());
+        assertEquals(Sort.Direction.ASC, decoded.direction());
+        assertEquals("iPhone 15", decoded.value());
+        assertEquals(id, decoded.id());
+    }
+
+    @Test
+    @DisplayName("Should round-trip a timestamp cursor")
+    void shouldRoundTripTimestampCursor() {
+        // Given
+        Product product = productWithId(UUID.randomUUID());
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 8, 9, 10, 30, 0, 123_456_000, ZoneOffset.UTC);
+        ReflectionTestUtils.setField(product, "createdAt", createdAt);
+        Sort.Order order = Sort.Order.desc("createdAt");
+
+        // When
+        ProductCursor decoded = ProductCursor.decode(ProductCursor.after(product, order).encode(), order);
+
+        // Then
+        assertEquals(createdAt, decoded.value());
+        assertEquals(Sort.Direction.DESC, decoded.direction());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for another sort")
+    void shouldRejectCursorForAnotherSort() {
+        // Given
+        String token = ProductCursor.after(productWithId(UUID.randomUUID()), Sort.Order.asc("name")).encode();
+
+        // When & Then
+        assertThrows(InvalidInputException.class,
+            () -> ProductCursor.decode(token, Sort.Order.asc("sku")));
+        assertThrows(InvalidInputException.class,
+            () -> ProductCursor.decode(token, Sort.Order.desc("name")));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void shouldRejectMalformedCursors() {
+        Sort.Order order = Sort.Order.asc("name");
+
+        assertThrows(InvalidInputException.class, () -> ProductCursor.decode("not base64!", order));
+        assertThrows(InvalidInputException.class, () -> ProductCursor.decode("bmFtZQ", order));
+    }
+
+    @Test
+    @DisplayName("Should only accept a single supported sort property")
+    void shouldOnlyAcceptSingleSupportedSortProperty() {
+        assertEquals("sku", ProductCursor.keysetOrder(Sort.by("sku")).getProperty());
+        assertThrows(InvalidInputException.class, () -> ProductCursor.keysetOrder(Sort.by("description")));
+        assertThrows(InvalidInputException.class, () -> ProductCursor.keysetOrder(Sort.by("name", "sku")));
+        assertThrows(InvalidInputException.class, () -> ProductCursor.keysetOrder(Sort.unsorted()));
+    }
+
+    private Product productWithId(UUID id) {
+        Product product = new Product("IP15-128GB", "iPhone 15", "iphone-15");
+        ReflectionTestUtils.setField(product, "id", id);
+        return product;
+    }
+}
@@ -0,0 +1,202 @@
+package com.loiane.product.product;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.support.SqlArrayValue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ProductQueryShapes Unit Tests")
+class ProductQueryShapesTest {
+
+    private static final UUID CATEGORY_1 = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID CATEGORY_2 = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Test
+    @DisplayName("Should precompile one distinct statement per valid filter combination")
+    void shouldPrecompileEveryShape() {
+        // When
+        List<String> selects = IntStream.range(0, 256).mapToObj(ProductQueryShapes::select).toList();
+
+        // Then
+        assertEquals(144, selects.stream().filter(sql -> sql != null).count());
+        assertEquals(144, new HashSet<>(selects.stream().filter(sql -> sql != null).toList()).size());
+        assertNull(ProductQueryShapes.select(ProductQueryShapes.ANY_CATEGORY | ProductQueryShapes.ALL_CATEGORIES));
+        assertNull(ProductQueryShapes.select(ProductQueryShapes.FUZZY));
+    }
+
+    @Test
+    @DisplayName("Should dispatch unfiltered searches to the statement without WHERE clause")
+    void shouldDispatchEmptyCriteria() {
+        // Given
+        ProductSearchCriteria criteria = ProductSearchCriteria.of(null, null, null, null, null);
+
+        // When
+        int mask = ProductQueryShapes.maskOf(criteria);
+
+        // Then
+        assertEquals(0, mask);
+        assertFalse(ProductQueryShapes.select(mask).contains("WHERE"));
+        assertTrue(ProductQueryShapes.params(criteria).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should select only IDs with the same filters for paging")
+    void shouldSelectIdsWithSameFilters() {
+        // Given
+        int mask = ProductQueryShapes.maskOf(ProductSearchCriteria.of("iphone", "ACTIVE", "apple", null, null));
+
+        // When
+        String ids = ProductQueryShapes.selectIds(mask);
+
+        // Then
+        assertTrue(ids.startsWith("SELECT p.id FROM products p WHERE "));
+        assertEquals(ProductQueryShapes.select(mask).substring(ProductQueryShapes.select(mask).indexOf(" WHERE ")),
+                ids.substring(ids.indexOf(" WHERE ")));
+    }
+
+    @Test
+    @DisplayName("Should dispatch to the same statement instance for the same filters")
+    void shouldReuseStatementForSameShape() {
+        // Given
+        ProductSearchCriteria first = ProductSearchCriteria.of("iphone", "ACTIVE", null, null, null);
+        ProductSearchCriteria second = ProductSearchCriteria.of("galaxy", "DRAFT", null, null, null);
+
+        // When / Then
+        assertSame(ProductQueryShapes.select(ProductQueryShapes.maskOf(first)),
+                ProductQueryShapes.select(ProductQueryShapes.maskOf(second)));
+    }
+
+    @Test
+    @DisplayName("Should bind exactly the parameters of the statement")
+    void shouldBindParametersOfShape() {
+        // Given
+        ProductSearchCriteria criteria = ProductSearchCriteria.of("Pro", null, "Apple", null,
+                Set.of(CATEGORY_1, CATEGORY_2), CategoryMatch.ALL);
+
+        // When
+        int mask = ProductQueryShapes.maskOf(criteria);
+        Map<String, Object> params = ProductQueryShapes.params(criteria);
+
+        // Then
+        assertEquals(ProductQueryShapes.NAME | ProductQueryShapes.BRAND | ProductQueryShapes.ALL_CATEGORIES, mask);
+        assertEquals(Set.of("name", "brand", "categoryIds", "categoryCount"), params.keySet());
+        assertEquals("%pro%", params.get("name"));
+        assertEquals(2, params.get("categoryCount"));
+        params.keySet().forEach(name -> assertTrue(ProductQueryShapes.select(mask).contains(":" + name)));
+        assertTrue(ProductQueryShapes.count(mask).startsWith("SELECT count(*)"));
+    }
+
+    @Test
+    @DisplayName("Should match full-text queries against the search vector")
+    void shouldMatchFullTextAgainstSearchVector() {
+        // Given
+        ProductSearchCriteria criteria = ProductSearchCriteria.of(null, "ACTIVE", null, null, null,
+                CategoryMatch.ANY, "wireless headphones");
+
+        // When
+        int mask = ProductQueryShapes.maskOf(criteria);
+
+        // Then
+        assertEquals(ProductQueryShapes.STATUS | ProductQueryShapes.FULL_TEXT, mask);
+        assertTrue(ProductQueryShapes.select(mask).contains("p.search_vector @@ websearch_to_tsquery('english', :query)"));
+        assertEquals("wireless headphones", ProductQueryShapes.params(criteria).get("query"));
+    }
+
+    @Test
+    @DisplayName("Should match fuzzy names by trigram word similarity, most similar first")
+    void shouldMatchFuzzyNameBySimilarity() {
+        // Given
+        ProductSearchCriteria criteria = ProductSearchCriteria.of(" iPhnoe ", null, null, null, null,
+                CategoryMatch.ANY, null, true);
+
+        // When
+        int mask = ProductQueryShapes.maskOf(criteria);
+        String sql = ProductQueryShapes.select(mask);
+
+        // Then
+        assertEquals(ProductQueryShapes.NAME | ProductQueryShapes.FUZZY, mask);
+        assertTrue(sql.contains(":name <% lower(p.name)"));
+        assertFalse(sql.contains("LIKE"));
+        assertEquals("iphnoe", ProductQueryShapes.params(criteria).get("name"));
+        assertTrue(ProductQueryShapes.relevance(mask).startsWith("word_similarity(:name, lower(p.name)) DESC"));
+        assertTrue(ProductQueryShapes.count(mask).contains(":name <% lower(p.name)"));
+    }
+
+    @Test
+    @DisplayName("Should ignore fuzzy matching without a name")
+    void shouldIgnoreFuzzyWithoutName() {
+        // Given
+        ProductSearchCriteria criteria = ProductSearchCriteria.of(null, null, "apple", null, null,
+                CategoryMatch.ANY, null, true);
+
+        // When / Then
+        assertFalse(criteria.isFuzzy());
+        assertEquals(ProductQueryShapes.BRAND, ProductQueryShapes.maskOf(criteria));
+        assertEquals("", ProductQueryShapes.relevance(ProductQueryShapes.BRAND));
+    }
+
+    @Test
+    @DisplayName("Should use a semi-join for any-category searches")
+    void shouldUseSemiJoinForAnyCategory() {
+        // Given
+        ProductSearchCriteria criteria = ProductSearchCriteria.of(null, null, null, null, Set.of(CATEGORY_1));
+
+        // When
+        String sql = ProductQueryShapes.select(ProductQueryShapes.maskOf(criteria));
+
+        // Then
+        assertTrue(sql.contains("EXISTS (SELECT 1 FROM product_categories"));
+        assertFalse(ProductQueryShapes.params(criteria).containsKey("categoryCount"));
+    }
+
+    @Test
+    @DisplayName("Should bind category IDs as one array, so the statement does not depend on their number")
+    void shouldBindCategoryIdsAsArray() {
+        // Given
+        ProductSearchCriteria one = ProductSearchCriteria.of(null, null, null, null, Set.of(CATEGORY_1));
+        ProductSearchCriteria two = ProductSearchCriteria.of(null, null, null, null, Set.of(CATEGORY_1, CATEGORY_2));
+
+        // When
+        String sql = ProductQueryShapes.select(ProductQueryShapes.maskOf(two));
+
+        // Then
+        assertSame(ProductQueryShapes.select(ProductQueryShapes.maskOf(one)), sql);
+        assertTrue(sql.contains("pc.category_id = ANY(:categoryIds)"));
+        assertInstanceOf(SqlArrayValue.class, ProductQueryShapes.params(two).get("categoryIds"));
+    }
+
+    @Test
+    @DisplayName("Should precompute the ORDER BY clause of every indexed sort")
+    void shouldPrecomputeOrderBy() {
+        // Given
+        Sort byName = Sort.by(Sort.Direction.DESC, "name");
+        int fullText = ProductQueryShapes.FULL_TEXT;
+
+        // When
+        String orderBy = ProductQueryShapes.orderBy(0, byName);
+
+        // Then
+        assertEquals(" ORDER BY p.name COLLATE ucs_basic DESC, p.id DESC", orderBy);
+        assertSame(orderBy, ProductQueryShapes.orderBy(ProductQueryShapes.STATUS, Sort.by(Sort.Direction.DESC, "name")));
+        assertEquals(" ORDER BY p.id", ProductQueryShapes.orderBy(0, Sort.unsorted()));
+        assertEquals(" ORDER BY p.status ASC, p.name COLLATE ucs_basic ASC, p.id", ProductQueryShapes.orderBy(0, Sort.by("status")));
+        assertTrue(ProductQueryShapes.orderBy(fullText, byName).startsWith(" ORDER BY " + ProductQueryShapes.RANK + " DESC, "));
+        assertThrows(InvalidInputException.class, () -> ProductQueryShapes.orderBy(0, Sort.by("description")));
+    }
+}
@@ -1,32 +1,56 @@
 package com.loiane.product.product;
 
+import com.loiane.product.cache.LoadedResult;
+import com.loiane.product.cache.NotFoundCache;
+import com.loiane.product.cache.ProductListingCache;
+import com.loiane.product.cache.SearchCountCache;
+import com.loiane.product.cache.SearchResultCache;
 import com.loiane.product.category.Category;
 import com.loiane.product.category.CategoryRepository;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductFacets;
 import com.loiane.product.product.api.dto.ProductRequest;
 import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import com.loiane.product.common.api.dto.CursorPage;
+import com.loiane.product.common.exception.InvalidInputException;
 import com.loiane.product.common.exception.ProductNotFoundException;
 import com.loiane.product.common.exception.CategoryNotFoundException;
+import com.loiane.product.datasource.StatementDeadlines;
+import com.loiane.product.search.ProductSearchIndex;
+import com.loiane.product.search.ProductSuggestions;
+import com.loiane.product.search.SearchAnalytics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +65,39 @@ class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductReadRepository productReadRepository;
+
+    @Mock
+    private ProductCategoryRepository productCategoryRepository;
+
+    @Mock
+    private SearchCountCache searchCountCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductSuggestions productSuggestions;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private SearchAnalytics searchAnalytics;
+
+    @Mock
+    private ProductListingCache productListingCache;
+
+    @Mock
+    private StatementDeadlines statementDeadlines;
+
+    @Mock
+    private NotFoundCache notFoundCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductService productService;
 
@@ -50,6 +107,12 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(searchResultCache.getUnlessPartial(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<LoadedResult<?>>>getArgument(3).get().value());
+        lenient().when(productListingCache.get(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<LoadedResult<?>>>getArgument(1).get().value());
+        lenient().when(statementDeadlines.orFallback(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
         testProductId = UUID.randomUUID();
         testCategoryId = UUID.randomUUID();
 
@@ -80,16 +143,86 @@ class ProductServiceTest {
 
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search(name, status, brand, sku, categoryIds, pageable);
+            Page<ProductResponse> result = productService.search(name, status, brand, sku, categoryIds, CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
-            verify(productRepository).findAll(any(Specification.class), eq(pageable));
+            verify(productRepository).findBy(any(Specification.class), any());
+        }
+
+        @Test
+        @DisplayName("Should record normalized criteria and total in search analytics")
+        void shouldRecordSearchAnalytics() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+            // When
+            productService.search(" Laptop ", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            verify(searchAnalytics).record(eq(ProductSearchCriteria.of("laptop", null, null, null, null)), eq(0L),
+                anyLong());
+        }
+
+        @Test
+        @DisplayName("Should resolve the total through the count cache when the page is full")
+        void shouldResolveTotalThroughCountCacheWhenPageIsFull() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 1);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), pageable, true));
+            when(searchCountCache.get(any(), any()))
+                .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(1).getAsLong());
+            when(productRepository.count(any(Specification.class))).thenReturn(42L);
+
+            // When
+            Page<ProductResponse> result = productService.search(" Laptop ", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(42, result.getTotalElements());
+            verify(searchCountCache).get(eq(ProductSearchCriteria.of("laptop", null, null, null, null)), any());
+        }
+
+        @Test
+        @DisplayName("Should skip the count when the slice ends the result set")
+        void shouldSkipCountWhenSliceEndsResultSet() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), pageable, false));
+
+            // When
+            Page<ProductResponse> result = productService.search("laptop", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(1, result.getTotalElements());
+            verifyNoInteractions(searchCountCache);
+            verify(productRepository, never()).count(any(Specification.class));
+        }
+
+        @Test
+        @DisplayName("Should return a slice without counting when totals are not requested")
+        void shouldReturnSliceWithoutCounting() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 1);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), pageable, true));
+
+            // When
+            Slice<ProductResponse> result = productService.searchSlice("laptop", "ACTIVE", null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(1, result.getNumberOfElements());
+            assertTrue(result.hasNext());
+            verifyNoInteractions(searchCountCache);
+            verify(productRepository, never()).count(any(Specification.class));
         }
 
         @Test
@@ -99,16 +232,16 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(pageable))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search(null, null, null, null, null, pageable);
+            Page<ProductResponse> result = productService.search(null, null, null, null, null, CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
-            verify(productRepository).findAll(pageable);
+            verify(productRepository).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -118,15 +251,15 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(pageable))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search("", "", "", "", Set.of(), pageable);
+            Page<ProductResponse> result = productService.search("", "", "", "", Set.of(), CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
-            verify(productRepository).findAll(pageable);
+            verify(productRepository).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -140,15 +273,15 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search(null, null, null, null, largeCategorySet, pageable);
+            Page<ProductResponse> result = productService.search(null, null, null, null, largeCategorySet, CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
-            verify(productRepository).findAll(any(Specification.class), eq(pageable));
+            verify(productRepository).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -164,15 +297,69 @@ class ProductServiceTest {
 
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search(name, status, brand, sku, categoryIds, pageable);
+            Page<ProductResponse> result = productService.search(name, status, brand, sku, categoryIds, CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
-            verify(productRepository).findAll(any(Specification.class), eq(pageable));
+            verify(productRepository).findBy(any(Specification.class), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("scroll() method tests")
+    class ScrollTests {
+
+        @Test
+        @DisplayName("Should return next cursor when more rows than the page size exist")
+        void shouldReturnNextCursorWhenMoreRowsExist() {
+            // Given
+            Product first = productWithId(UUID.randomUUID(), "AAA-001");
+            Product second = productWithId(UUID.randomUUID(), "BBB-001");
+            Product third = productWithId(UUID.randomUUID(), "CCC-001");
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(first, second, third));
+
+            // When
+            CursorPage<ProductResponse> result = productService.scroll(
+                null, "ACTIVE", null, null, null, CategoryMatch.ANY, null, 2, Sort.by("sku"));
+
+            // Then
+            assertEquals(2, result.content().size());
+            assertTrue(result.hasNext());
+            ProductCursor cursor = ProductCursor.decode(result.nextCursor(), Sort.Order.asc("sku"));
+            assertEquals("BBB-001", cursor.value());
+            assertEquals(second.getId(), cursor.id());
+        }
+
+        @Test
+        @DisplayName("Should return no cursor on the last page")
+        void shouldReturnNoCursorOnLastPage() {
+            // Given
+            String after = ProductCursor.after(productWithId(UUID.randomUUID(), "AAA-001"), Sort.Order.asc("name")).encode();
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(productWithId(UUID.randomUUID(), "BBB-001")));
+
+            // When
+            CursorPage<ProductResponse> result = productService.scroll(
+                null, null, null, null, null, CategoryMatch.ANY, after, 20, Sort.by("name"));
+
+            // Then
+            assertEquals(1, result.content().size());
+            assertFalse(result.hasNext());
+            assertNull(result.nextCursor());
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported sort properties")
+        void shouldRejectUnsupportedSort() {
+            Sort sort = Sort.by("description");
+            assertThrows(InvalidInputException.class,
+                () -> productService.scroll(null, null, null, null, null, CategoryMatch.ANY, null, 20, sort));
+            verify(productRepository, never()).findBy(any(Specification.class), any());
         }
     }
 
@@ -187,8 +374,8 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(pageable))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
             Page<ProductResponse> result = productService.listAll(pageable);
@@ -196,14 +383,64 @@ class ProductServiceTest {
             // Then
             assertNotNull(result);
             assertEquals(1, result.getTotalElements());
-            verify(productRepository).findAll(pageable);
+            verify(productRepository).findBy(any(Specification.class), any());
+        }
+
+        @Test
+        @DisplayName("Should read a status sort in (status, name) index order")
+        void shouldRerouteStatusSortToIndexOrder() {
+            // Given
+            Pageable indexed = PageRequest.of(0, 10, Sort.by("status", "name"));
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(new PageImpl<>(List.of(testProduct), indexed, 1)));
+
+            // When
+            productService.listAll(PageRequest.of(0, 10, Sort.by("status")));
+
+            // Then
+            verify(productListingCache).get(eq(indexed), any());
+        }
+
+        @Test
+        @DisplayName("Should reject sorts without a supporting index")
+        void shouldRejectUnindexedSort() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10, Sort.by("description"));
+
+            // When & Then
+            assertThrows(InvalidInputException.class, () -> productService.listAll(pageable));
+            verify(productRepository, never()).findBy(any(Specification.class), any());
+        }
+
+        @Test
+        @DisplayName("Should load categories for the whole page with one batched query")
+        void shouldLoadCategoriesForPageWithOneBatchedQuery() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            Product first = productWithId(UUID.randomUUID(), "FIRST-001");
+            Product second = productWithId(UUID.randomUUID(), "SECOND-001");
+            Page<Product> productPage = new PageImpl<>(List.of(first, second), pageable, 2);
+
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
+            when(productRepository.findWithCategoriesByIdIn(List.of(first.getId(), second.getId())))
+                .thenReturn(List.of(second, first));
+
+            // When
+            Page<ProductResponse> result = productService.listAll(pageable);
+
+            // Then
+            assertEquals(List.of("FIRST-001", "SECOND-001"),
+                result.getContent().stream().map(ProductResponse::sku).toList());
+            verify(productRepository, times(1)).findWithCategoriesByIdIn(any());
+            verify(productRepository, never()).findById(any(UUID.class));
         }
 
         @Test
         @DisplayName("Should return all products as list")
         void shouldReturnAllProductsAsList() {
             // Given
-            when(productRepository.findAll())
+            when(productRepository.findAllWithCategories())
                 .thenReturn(List.of(testProduct));
 
             // When
@@ -212,7 +449,7 @@ class ProductServiceTest {
             // Then
             assertNotNull(result);
             assertEquals(1, result.size());
-            verify(productRepository).findAll();
+            verify(productRepository).findAllWithCategories();
         }
 
         @Test
@@ -222,8 +459,8 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> emptyPage = new PageImpl<>(List.of(), pageable, 0);
 
-            when(productRepository.findAll(pageable))
-                .thenReturn(emptyPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(emptyPage));
 
             // When
             Page<ProductResponse> result = productService.listAll(pageable);
@@ -232,7 +469,7 @@ class ProductServiceTest {
             assertNotNull(result);
             assertEquals(0, result.getTotalElements());
             assertTrue(result.getContent().isEmpty());
-            verify(productRepository).findAll(pageable);
+            verify(productRepository).findBy(any(Specification.class), any());
         }
     }
 
@@ -244,7 +481,7 @@ class ProductServiceTest {
         @DisplayName("Should return product when found")
         void shouldReturnProductWhenFound() {
             // Given
-            when(productRepository.findById(testProductId))
+            when(productRepository.findWithCategoriesById(testProductId))
                 .thenReturn(Optional.of(testProduct));
 
             // When
@@ -252,7 +489,7 @@ class ProductServiceTest {
 
             // Then
             assertNotNull(result);
-            verify(productRepository).findById(testProductId);
+            verify(productRepository).findWithCategoriesById(testProductId);
         }
 
         @Test
@@ -260,14 +497,437 @@ class ProductServiceTest {
         void shouldThrowExceptionWhenProductNotFound() {
             // Given
             UUID nonExistentId = UUID.randomUUID();
-            when(productRepository.findById(nonExistentId))
+            when(productRepository.findWithCategoriesById(nonExistentId))
                 .thenReturn(Optional.empty());
 
             // When & Then
             assertThrows(ProductNotFoundException.class, () -> {
                 productService.getById(nonExistentId);
             });
-            verify(productRepository).findById(nonExistentId);
+            verify(productRepository).findWithCategoriesById(nonExistentId);
+            verify(notFoundCache).recordMissing(NotFoundCache.Kind.PRODUCT, nonExistentId);
+        }
+
+        @Test
+        @DisplayName("Should answer IDs known not to exist without a transaction or a stack trace")
+        void shouldAnswerKnownMissingIdsWithoutTransaction() {
+            // Given
+            UUID unknownId = UUID.randomUUID();
+            when(notFoundCache.isKnownMissing(NotFoundCache.Kind.PRODUCT, unknownId)).thenReturn(true);
+
+            // When
+            ProductNotFoundException exception = assertThrows(ProductNotFoundException.class,
+                () -> productService.getById(unknownId));
+
+            // Then
+            assertEquals(unknownId, exception.getProductId());
+            assertEquals(0, exception.getStackTrace().length);
+            verifyNoInteractions(transactionManager, productRepository, productReadRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Projection read path tests")
+    class ProjectionReadPathTests {
+
+        @BeforeEach
+        void enableProjection() {
+            when(productReadRepository.isEnabled()).thenReturn(true);
+        }
+
+        @Test
+        @DisplayName("Should read product by ID without loading the entity")
+        void shouldReadProductByIdWithoutLoadingEntity() {
+            // Given
+            ProductResponse response = responseWithId(testProductId);
+            when(productReadRepository.findById(testProductId)).thenReturn(Optional.of(response));
+
+            // When
+            ProductResponse result = productService.getById(testProductId);
+
+            // Then
+            assertSame(response, result);
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when projected product is not found")
+        void shouldThrowWhenProjectedProductNotFound() {
+            // Given
+            when(productReadRepository.findById(testProductId)).thenReturn(Optional.empty());
+
+            // When & Then
+            assertThrows(ProductNotFoundException.class, () -> productService.getById(testProductId));
+        }
+
+        @Test
+        @DisplayName("Should search through the read repository with normalized criteria")
+        void shouldSearchThroughReadRepository() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 1);
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            when(productReadRepository.findSlice(criteria, pageable))
+                .thenReturn(new SliceImpl<>(List.of(responseWithId(testProductId)), pageable, true));
+            when(searchCountCache.get(eq(criteria), any()))
+                .thenAnswer(invocation -> invocation.<LongSupplier>getArgument(1).getAsLong());
+            when(productReadRepository.count(criteria)).thenReturn(7L);
+
+            // When
+            Page<ProductResponse> result = productService.search(" Laptop ", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(7, result.getTotalElements());
+            assertEquals(1, result.getContent().size());
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Should list products as a slice without counting")
+        void shouldListSliceWithoutCounting() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(productReadRepository.findSlice(any(ProductSearchCriteria.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(responseWithId(testProductId)), pageable, false));
+
+            // When
+            Slice<ProductResponse> result = productService.searchSlice(null, "ACTIVE", null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertFalse(result.hasNext());
+            verify(productReadRepository, never()).count(any());
+            verifyNoInteractions(productRepository, searchCountCache);
+        }
+    }
+
+    @Nested
+    @DisplayName("Category match tests")
+    class CategoryMatchTests {
+
+        @Test
+        @DisplayName("Should key the count by the match mode when several categories are given")
+        void shouldKeyCountByMatchMode() {
+            // Given
+            Set<UUID> categoryIds = Set.of(testCategoryId, UUID.randomUUID());
+            Pageable pageable = PageRequest.of(0, 1);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), pageable, true));
+            when(searchCountCache.get(any(), any())).thenReturn(5L);
+
+            // When
+            productService.search(null, null, null, null, categoryIds, CategoryMatch.ALL, null, false, pageable);
+
+            // Then
+            verify(searchCountCache).get(
+                eq(ProductSearchCriteria.of(null, null, null, null, categoryIds, CategoryMatch.ALL)), any());
+        }
+
+        @Test
+        @DisplayName("Should treat all with a single category as any")
+        void shouldFoldSingleCategoryAllIntoAny() {
+            // When
+            ProductSearchCriteria criteria =
+                ProductSearchCriteria.of(null, null, null, null, Set.of(testCategoryId), CategoryMatch.ALL);
+
+            // Then
+            assertEquals(CategoryMatch.ANY, criteria.categoryMatch());
+        }
+    }
+
+    @Nested
+    @DisplayName("Search index tests")
+    class SearchIndexTests {
+
+        @Test
+        @DisplayName("Should serve searches from the index once it is built")
+        void shouldSearchIndexWhenReady() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.search(criteria, pageable))
+                .thenReturn(new PageImpl<>(List.of(responseWithId(testProductId)), pageable, 1));
+
+            // When
+            Page<ProductResponse> result = productService.search("laptop", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(1, result.getTotalElements());
+            verifyNoInteractions(productRepository, productReadRepository, searchCountCache);
+        }
+
+        @Test
+        @DisplayName("Should return a slice without total from the index")
+        void shouldReturnSliceFromIndex() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 1);
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.search(any(ProductSearchCriteria.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(responseWithId(testProductId)), pageable, 5));
+
+            // When
+            Slice<ProductResponse> result = productService.searchSlice(null, "ACTIVE", null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertFalse(result instanceof Page);
+            assertTrue(result.hasNext());
+        }
+
+        @Test
+        @DisplayName("Should keep full-text searches on the database")
+        void shouldNotSearchIndexForFullText() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(productReadRepository.findSlice(any(ProductSearchCriteria.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+            // When
+            productService.search(null, null, null, null, null, CategoryMatch.ANY, "laptop", false, pageable);
+
+            // Then
+            verify(productSearchIndex, never()).search(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should hand created products to the index")
+        void shouldIndexCreatedProduct() {
+            // Given
+            ProductRequest request = new ProductRequest("TEST-001", "Test Product", "test-product",
+                "Test Brand", null, "ACTIVE", Set.of());
+            when(productRepository.saveAndFlush(any(Product.class))).thenReturn(testProduct);
+
+            // When
+            ProductResponse result = productService.create(request);
+
+            // Then
+            verify(productSearchIndex).indexAfterCommit(result);
+            verify(productSuggestions).refreshAfterCommit();
+        }
+
+        @Test
+        @DisplayName("Should serve facets from the index once it is built")
+        void shouldSearchFacetsInIndex() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            FacetedProductPage facetedPage = new FacetedProductPage(List.of(), pageable, 0,
+                new ProductFacets(List.of(), List.of(), List.of()));
+            when(productSearchIndex.isReady()).thenReturn(true);
+            when(productSearchIndex.searchWithFacets(any(ProductSearchCriteria.class), eq(pageable))).thenReturn(facetedPage);
+
+            // When
+            FacetedProductPage result = productService.searchWithFacets(null, null, "apple", null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertSame(facetedPage, result);
+            verifyNoInteractions(productRepository, productReadRepository);
+        }
+
+        @Test
+        @DisplayName("Should group facets in the database when the index cannot answer")
+        void shouldGroupFacetsInDatabaseForFullText() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            ProductFacets facets = new ProductFacets(List.of(new ProductFacets.ValueCount("Apple", 1)), List.of(), List.of());
+            when(productReadRepository.findSlice(any(ProductSearchCriteria.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(responseWithId(testProductId)), pageable, false));
+            when(productReadRepository.findFacets(any(ProductSearchCriteria.class))).thenReturn(facets);
+
+            // When
+            FacetedProductPage result = productService.searchWithFacets(null, null, null, null, null, CategoryMatch.ANY, "laptop", false, pageable);
+
+            // Then
+            assertEquals(1, result.getTotalElements());
+            assertEquals(facets, result.getFacets());
+            verify(productSearchIndex, never()).searchWithFacets(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should serve suggestions from the suggestion trie")
+        void shouldDelegateSuggestions() {
+            // Given
+            List<SuggestionResponse> suggestions =
+                List.of(new SuggestionResponse("Apple", SuggestionResponse.Type.BRAND));
+            when(productSuggestions.suggest("app", 5)).thenReturn(suggestions);
+
+            // When
+            List<SuggestionResponse> result = productService.suggest("app", 5);
+
+            // Then
+            assertEquals(suggestions, result);
+            verifyNoInteractions(productRepository, productReadRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject suggestion limits out of range")
+        void shouldRejectInvalidSuggestionLimit() {
+            // When & Then
+            assertThrows(InvalidInputException.class, () -> productService.suggest("app", 0));
+            assertThrows(InvalidInputException.class, () -> productService.suggest("app", 51));
+            verifyNoInteractions(productSuggestions);
+        }
+    }
+
+    @Nested
+    @DisplayName("Full-text search tests")
+    class FullTextSearchTests {
+
+        @Test
+        @DisplayName("Should serve full-text searches from the read repository on the entity read path")
+        void shouldUseReadRepositoryForFullText() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            ProductSearchCriteria criteria =
+                ProductSearchCriteria.of(null, null, null, null, null, CategoryMatch.ANY, "apple  laptop");
+            when(productReadRepository.findSlice(criteria, pageable))
+                .thenReturn(new SliceImpl<>(List.of(responseWithId(testProductId)), pageable, false));
+
+            // When
+            Page<ProductResponse> result =
+                productService.search(null, null, null, null, null, CategoryMatch.ANY, " apple\tlaptop ", false, pageable);
+
+            // Then
+            assertEquals(1, result.getTotalElements());
+            assertEquals("apple laptop", criteria.query());
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Should treat a blank query as no full-text filter")
+        void shouldIgnoreBlankQuery() {
+            // When
+            ProductSearchCriteria criteria =
+                ProductSearchCriteria.of(null, null, null, null, null, CategoryMatch.ANY, "   ");
+
+            // Then
+            assertFalse(criteria.isFullText());
+            assertTrue(criteria.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Fuzzy search tests")
+    class FuzzySearchTests {
+
+        @Test
+        @DisplayName("Should serve fuzzy searches from the read repository even when the index is built")
+        void shouldUseReadRepositoryForFuzzy() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            ProductSearchCriteria criteria =
+                ProductSearchCriteria.of("iphnoe", null, null, null, null, CategoryMatch.ANY, null, true);
+            lenient().when(productSearchIndex.isReady()).thenReturn(true);
+            when(productReadRepository.findSlice(criteria, pageable))
+                .thenReturn(new SliceImpl<>(List.of(responseWithId(testProductId)), pageable, false));
+
+            // When
+            Page<ProductResponse> result =
+                productService.search(" iPhnoe ", null, null, null, null, CategoryMatch.ANY, null, true, pageable);
+
+            // Then
+            assertEquals(1, result.getTotalElements());
+            verify(productSearchIndex, never()).search(any(), any());
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject fuzzy searches without a name")
+        void shouldRejectFuzzyWithoutName() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+
+            // When / Then
+            assertThrows(InvalidInputException.class, () ->
+                productService.search(" ", null, "apple", null, null, CategoryMatch.ANY, null, true, pageable));
+            verifyNoInteractions(productReadRepository, productRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Statement deadline tests")
+    class StatementDeadlineTests {
+
+        @Test
+        @DisplayName("Should serve a lower bound total and not cache the page when counting times out")
+        void shouldServeLowerBoundTotalWhenCountTimesOut() {
+            // Given
+            Pageable pageable = PageRequest.of(2, 1);
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(new SliceImpl<>(List.of(testProduct), pageable, true));
+            doAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get())
+                .when(statementDeadlines).orFallback(eq("count"), any(), eq("partial"), any());
+            when(statementDeadlines.takeFallback()).thenReturn("partial", (String) null);
+            List<LoadedResult<?>> loaded = new ArrayList<>();
+            when(searchResultCache.getUnlessPartial(eq("page"), eq(criteria), eq(pageable), any()))
+                .thenAnswer(invocation -> {
+                    loaded.add(invocation.<Supplier<LoadedResult<?>>>getArgument(3).get());
+                    return loaded.getFirst().value();
+                });
+
+            // When
+            Page<ProductResponse> result = productService.search("laptop", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(4, result.getTotalElements());
+            assertFalse(loaded.getFirst().complete());
+            verify(statementDeadlines).limit(any());
+        }
+
+        @Test
+        @DisplayName("Should serve the last cached page when the search times out")
+        void shouldServeStalePageWhenSearchTimesOut() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            ProductSearchCriteria criteria = ProductSearchCriteria.of("laptop", null, null, null, null);
+            Page<ProductResponse> stale = new PageImpl<>(List.of(), pageable, 0);
+            doAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get())
+                .when(statementDeadlines).orFallback(eq("search"), any(), eq("stale"), any());
+            when(searchResultCache.getStale("page", criteria, pageable)).thenReturn(stale);
+            when(statementDeadlines.takeFallback()).thenReturn("stale");
+
+            // When
+            Page<ProductResponse> result = productService.search("laptop", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertSame(stale, result);
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Should serve the last cached listing page when listing times out")
+        void shouldServeStaleListingWhenListingTimesOut() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10, Sort.by("name"));
+            Page<ProductResponse> stale = new PageImpl<>(List.of(), pageable, 0);
+            doAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get())
+                .when(statementDeadlines).orFallback(eq("search"), any(), eq("stale"), any());
+            when(productListingCache.getStale(pageable)).thenReturn(stale);
+
+            // When
+            Page<ProductResponse> result = productService.listAll(pageable);
+
+            // Then
+            assertSame(stale, result);
+            verify(productListingCache, never()).get(any(), any());
+            verifyNoInteractions(productRepository);
+        }
+
+        @Test
+        @DisplayName("Should serve empty facets when the facet counts time out")
+        void shouldServeEmptyFacetsWhenFacetsTimeOut() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(productReadRepository.isEnabled()).thenReturn(true);
+            when(productReadRepository.findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+            doAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get())
+                .when(statementDeadlines).orFallback(eq("facets"), any(), eq("partial"), any());
+
+            // When
+            FacetedProductPage result = productService.searchWithFacets("laptop", null, null, null, null, CategoryMatch.ANY, null, false, pageable);
+
+            // Then
+            assertEquals(new ProductFacets(List.of(), List.of(), List.of()), result.getFacets());
+            verify(productReadRepository, never()).findFacets(any());
         }
     }
 
@@ -288,7 +948,7 @@ class ProductServiceTest {
                 "ACTIVE",
                 Set.of()
             );
-            when(productRepository.save(any(Product.class)))
+            when(productRepository.saveAndFlush(any(Product.class)))
                 .thenReturn(testProduct);
 
             // When
@@ -296,15 +956,15 @@ class ProductServiceTest {
 
             // Then
             assertNotNull(result);
-            verify(productRepository).save(any(Product.class));
-            verify(categoryRepository, never()).findById(any(UUID.class));
+            verify(productRepository).saveAndFlush(any(Product.class));
+            verifyNoInteractions(categoryRepository);
         }
 
         @Test
         @DisplayName("Should create product with categories")
         void shouldCreateProductWithCategories() {
             // Given
-            Category category = mock(Category.class);
+            Category category = categoryWithId(testCategoryId, "Laptops");
             ProductRequest request = new ProductRequest(
                 "TEST-001",
                 "Test Product",
@@ -314,9 +974,10 @@ class ProductServiceTest {
                 "ACTIVE",
                 Set.of(testCategoryId)
             );
-            when(categoryRepository.findById(testCategoryId))
-                .thenReturn(Optional.of(category));
-            when(productRepository.save(any(Product.class)))
+            ReflectionTestUtils.setField(testProduct, "id", testProductId);
+            when(categoryRepository.findAllById(Set.of(testCategoryId)))
+                .thenReturn(List.of(category));
+            when(productRepository.saveAndFlush(any(Product.class)))
                 .thenReturn(testProduct);
 
             // When
@@ -324,8 +985,9 @@ class ProductServiceTest {
 
             // Then
             assertNotNull(result);
-            verify(categoryRepository).findById(testCategoryId);
-            verify(productRepository).save(any(Product.class));
+            assertEquals(List.of(testCategoryId), result.categories().stream().map(ProductResponse.CategorySummary::id).toList());
+            verify(categoryRepository).findAllById(Set.of(testCategoryId));
+            verify(productCategoryRepository).link(testProductId, Set.of(testCategoryId));
         }
 
         @Test
@@ -341,15 +1003,138 @@ class ProductServiceTest {
                 "ACTIVE",
                 Set.of(testCategoryId)
             );
-            when(categoryRepository.findById(testCategoryId))
-                .thenReturn(Optional.empty());
+            when(categoryRepository.findAllById(Set.of(testCategoryId)))
+                .thenReturn(List.of());
 
             // When & Then
             assertThrows(CategoryNotFoundException.class, () -> {
                 productService.create(request);
             });
-            verify(categoryRepository).findById(testCategoryId);
-            verify(productRepository, never()).save(any(Product.class));
+            verify(categoryRepository).findAllById(Set.of(testCategoryId));
+            verify(productRepository, never()).saveAndFlush(any(Product.class));
+            verifyNoInteractions(productCategoryRepository);
+        }
+
+        @Test
+        @DisplayName("Should report every missing category ID")
+        void shouldReportEveryMissingCategoryId() {
+            // Given
+            UUID missingId = UUID.randomUUID();
+            ProductRequest request = requestWithCategories(Set.of(testCategoryId, missingId));
+            when(categoryRepository.findAllById(Set.of(testCategoryId, missingId)))
+                .thenReturn(List.of(categoryWithId(testCategoryId, "Laptops")));
+
+            // When
+            CategoryNotFoundException exception = assertThrows(CategoryNotFoundException.class,
+                () -> productService.create(request));
+
+            // Then
+            assertEquals("Categories not found with IDs: " + missingId, exception.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("update() method tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should only insert and delete the join rows that changed")
+        void shouldOnlyWriteChangedJoinRows() {
+            // Given
+            UUID keptId = UUID.randomUUID();
+            UUID removedId = UUID.randomUUID();
+            ReflectionTestUtils.setField(testProduct, "id", testProductId);
+            ProductRequest request = requestWithCategories(Set.of(keptId, testCategoryId));
+            when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
+            when(categoryRepository.findAllById(Set.of(keptId, testCategoryId)))
+                .thenReturn(List.of(categoryWithId(keptId, "Kept"), categoryWithId(testCategoryId, "Added")));
+            when(productCategoryRepository.findCategoryIds(testProductId))
+                .thenReturn(Set.of(keptId, removedId));
+            when(productReadRepository.isEnabled()).thenReturn(true);
+            when(productReadRepository.findById(testProductId)).thenReturn(Optional.of(responseWithId(testProductId)));
+
+            // When
+            productService.update(testProductId, request);
+
+            // Then
+            verify(productCategoryRepository).unlink(testProductId, List.of(removedId));
+            verify(productCategoryRepository).link(testProductId, List.of(testCategoryId));
+        }
+
+        @Test
+        @DisplayName("Should not write join rows when categories are unchanged")
+        void shouldNotWriteJoinRowsWhenCategoriesUnchanged() {
+            // Given
+            ReflectionTestUtils.setField(testProduct, "id", testProductId);
+            ProductRequest request = requestWithCategories(Set.of(testCategoryId));
+            when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
+            when(categoryRepository.findAllById(Set.of(testCategoryId)))
+                .thenReturn(List.of(categoryWithId(testCategoryId, "Laptops")));
+            when(productCategoryRepository.findCategoryIds(testProductId)).thenReturn(Set.of(testCategoryId));
+            when(productReadRepository.isEnabled()).thenReturn(true);
+            when(productReadRepository.findById(testProductId)).thenReturn(Optional.of(responseWithId(testProductId)));
+
+            // When
+            productService.update(testProductId, request);
+
+            // Then
+            verify(productCategoryRepository).unlink(testProductId, List.of());
+            verify(productCategoryRepository).link(testProductId, List.of());
+        }
+
+        @Test
+        @DisplayName("Should return the product as read back on the projection path after the flush")
+        void shouldReturnProductReadBackOnProjectionPath() {
+            // Given
+            ReflectionTestUtils.setField(testProduct, "id", testProductId);
+            ProductRequest request = requestWithCategories(Set.of(testCategoryId));
+            ProductResponse readBack = responseWithId(testProductId);
+            when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
+            when(categoryRepository.findAllById(Set.of(testCategoryId)))
+                .thenReturn(List.of(categoryWithId(testCategoryId, "Laptops")));
+            when(productCategoryRepository.findCategoryIds(testProductId)).thenReturn(Set.of());
+            when(productReadRepository.isEnabled()).thenReturn(true);
+            when(productReadRepository.findById(testProductId)).thenReturn(Optional.of(readBack));
+
+            // When
+            ProductResponse result = productService.update(testProductId, request);
+
+            // Then
+            assertSame(readBack, result);
+            InOrder inOrder = inOrder(productRepository, productCategoryRepository, productReadRepository);
+            inOrder.verify(productRepository).saveAndFlush(testProduct);
+            inOrder.verify(productCategoryRepository).link(testProductId, List.of(testCategoryId));
+            inOrder.verify(productReadRepository).findById(testProductId);
+            verify(productRepository, never()).refresh(any());
+            verify(productSearchIndex).indexAfterCommit(readBack);
+        }
+
+        @Test
+        @DisplayName("Should refresh and return the product as read back on the entity path after the flush")
+        void shouldReturnProductReadBackOnEntityPath() {
+            // Given
+            ReflectionTestUtils.setField(testProduct, "id", testProductId);
+            ProductRequest request = requestWithCategories(Set.of(testCategoryId));
+            Product readBack = productWithId(testProductId, "TEST-001");
+            readBack.getCategories().add(categoryWithId(testCategoryId, "Laptops"));
+            when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
+            when(categoryRepository.findAllById(Set.of(testCategoryId)))
+                .thenReturn(List.of(categoryWithId(testCategoryId, "Laptops")));
+            when(productCategoryRepository.findCategoryIds(testProductId)).thenReturn(Set.of());
+            when(productRepository.findWithCategoriesById(testProductId)).thenReturn(Optional.of(readBack));
+
+            // When
+            ProductResponse result = productService.update(testProductId, request);
+
+            // Then
+            assertEquals(List.of("Laptops"),
+                result.categories().stream().map(ProductResponse.CategorySummary::name).toList());
+            InOrder inOrder = inOrder(productRepository, productCategoryRepository);
+            inOrder.verify(productRepository).saveAndFlush(testProduct);
+            inOrder.verify(productCategoryRepository).link(testProductId, List.of(testCategoryId));
+            inOrder.verify(productRepository).refresh(testProduct);
+            inOrder.verify(productRepository).findWithCategoriesById(testProductId);
+            verify(productReadRepository, never()).findById(any());
         }
     }
 
@@ -371,6 +1156,8 @@ class ProductServiceTest {
             // Then
             verify(productRepository).existsById(testProductId);
             verify(productRepository).deleteById(testProductId);
+            verify(productSearchIndex).removeAfterCommit(testProductId);
+            verify(productSuggestions).refreshAfterCommit();
         }
 
         @Test
@@ -403,15 +1190,15 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search("laptop", "ACTIVE", null, null, null, pageable);
+            Page<ProductResponse> result = productService.search("laptop", "ACTIVE", null, null, null, CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
-            verify(productRepository).findAll(any(Specification.class), eq(pageable));
+            verify(productRepository).findBy(any(Specification.class), any());
         }
 
         @Test
@@ -423,15 +1210,41 @@ class ProductServiceTest {
             Pageable pageable = PageRequest.of(0, 10);
             Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageable, 1);
 
-            when(productRepository.findAll(any(Specification.class), eq(pageable)))
-                .thenReturn(productPage);
+            when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(sliceOf(productPage));
 
             // When
-            Page<ProductResponse> result = productService.search("laptop", "ACTIVE", "Apple", "MBP-001", Set.of(testCategoryId), pageable);
+            Page<ProductResponse> result = productService.search("laptop", "ACTIVE", "Apple", "MBP-001", Set.of(testCategoryId), CategoryMatch.ANY, null, false, pageable);
 
             // Then
             assertNotNull(result);
-            verify(productRepository).findAll(any(Specification.class), eq(pageable));
+            verify(productRepository).findBy(any(Specification.class), any());
         }
     }
+
+    private Product productWithId(UUID id, String sku) {
+        Product product = new Product(sku, "Product " + sku, sku.toLowerCase());
+        ReflectionTestUtils.setField(product, "id", id);
+        return product;
+    }
+
+    private ProductRequest requestWithCategories(Set<UUID> categoryIds) {
+        return new ProductRequest("TEST-001", "Test Product", "test-product", "Test Brand",
+                "Test Description", "ACTIVE", categoryIds);
+    }
+
+    private Category categoryWithId(UUID id, String name) {
+        Category category = new Category(name, name.toLowerCase());
+        ReflectionTestUtils.setField(category, "id", id);
+        return category;
+    }
+
+    private ProductResponse responseWithId(UUID id) {
+        return new ProductResponse(id, "TEST-001", "Test Product", "test-product", "Test Brand",
+                "Test Description", "ACTIVE", List.of(), null, null);
+    }
+
+    private <T> Slice<T> sliceOf(Page<T> page) {
+        return new SliceImpl<>(page.getContent(), page.getPageable(), page.hasNext());
+    }
 }
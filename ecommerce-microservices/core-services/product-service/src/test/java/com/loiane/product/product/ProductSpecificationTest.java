@@ -100,6 +100,19 @@ class ProductSpecificationTest {
         assertNotNull(spec);
     }
 
+    @Test
+    @DisplayName("Should return non-null specification for all-categories match")
+    void shouldReturnNonNullSpecificationForAllCategories() {
+        // Given
+        Set<UUID> categoryIds = Set.of(UUID.randomUUID(), UUID.randomUUID());
+
+        // When
+        Specification<Product> spec = ProductSpecification.hasAllCategories(categoryIds);
+
+        // Then
+        assertNotNull(spec);
+    }
+
     @Test
     @DisplayName("Should return non-null specification for valid category IDs set")
     void shouldReturnNonNullSpecificationForValidCategoryIds() {
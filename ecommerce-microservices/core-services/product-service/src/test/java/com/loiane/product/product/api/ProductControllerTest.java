@@ -1,9 +1,15 @@
 package com.loiane.product.product.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loiane.product.common.api.dto.CursorPage;
+import com.loiane.product.product.CategoryMatch;
 import com.loiane.product.product.ProductService;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductFacets;
 import com.loiane.product.product.api.dto.ProductRequest;
 import com.loiane.product.product.api.dto.ProductResponse;
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import com.loiane.product.common.exception.InvalidInputException;
 import com.loiane.product.common.exception.ProductNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -13,6 +19,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -25,6 +32,7 @@ import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
@@ -136,6 +144,53 @@ class ProductControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/products?after=")
+    class ListProductsByCursorTests {
+
+        @Test
+        @DisplayName("Should switch to cursor mode when after parameter is present")
+        void shouldSwitchToCursorModeWhenAfterIsPresent() throws Exception {
+            // Given
+            var product = createTestProductResponse();
+            var cursorPage = CursorPage.of(List.of(product), 20, "next-token");
+
+            when(productService.scroll(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(""), eq(20), eq(Sort.by("name"))))
+                .thenReturn(cursorPage);
+
+            // When & Then
+            mockMvc.perform(get("/api/products").param("after", ""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next-token")))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+            verify(productService, never()).listAll(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should pass cursor and filters to the keyset search")
+        void shouldPassCursorAndFiltersToKeysetSearch() throws Exception {
+            // Given
+            var cursorPage = CursorPage.<ProductResponse>of(List.of(), 5, null);
+
+            when(productService.scroll(eq("iPhone"), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), eq("abc"), eq(5), eq(Sort.by(Sort.Direction.DESC, "createdAt"))))
+                .thenReturn(cursorPage);
+
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("name", "iPhone")
+                    .param("after", "abc")
+                    .param("size", "5")
+                    .param("sort", "createdAt,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/products/search")
     class SearchProductsTests {
@@ -147,7 +202,7 @@ class ProductControllerTest {
             var product = createTestProductResponse();
             var page = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
 
-            when(productService.search(eq("iPhone"), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+            when(productService.search(eq("iPhone"), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class)))
                 .thenReturn(page);
 
             // When & Then
@@ -158,7 +213,7 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].name", is("iPhone 15")));
 
-            verify(productService).search(eq("iPhone"), isNull(), isNull(), isNull(), isNull(), any(Pageable.class));
+            verify(productService).search(eq("iPhone"), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class));
         }
 
         @Test
@@ -169,7 +224,7 @@ class ProductControllerTest {
             var page = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
             var categoryIds = Set.of(UUID.randomUUID());
 
-            when(productService.search(eq("iPhone"), eq("ACTIVE"), eq("Apple"), isNull(), eq(categoryIds), any(Pageable.class)))
+            when(productService.search(eq("iPhone"), eq("ACTIVE"), eq("Apple"), isNull(), eq(categoryIds), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class)))
                 .thenReturn(page);
 
             // When & Then
@@ -182,7 +237,121 @@ class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.content", hasSize(1)));
 
-            verify(productService).search(eq("iPhone"), eq("ACTIVE"), eq("Apple"), isNull(), eq(categoryIds), any(Pageable.class));
+            verify(productService).search(eq("iPhone"), eq("ACTIVE"), eq("Apple"), isNull(), eq(categoryIds), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should return a slice without totals when withTotal is false")
+        void shouldReturnSliceWithoutTotals() throws Exception {
+            // Given
+            var product = createTestProductResponse();
+            var slice = new SliceImpl<>(List.of(product), PageRequest.of(0, 20), true);
+
+            when(productService.searchSlice(eq("iPhone"), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class)))
+                .thenReturn(slice);
+
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("name", "iPhone")
+                    .param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+            verify(productService, never()).search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should pass the full-text query to the service")
+        void shouldPassFullTextQuery() throws Exception {
+            // Given
+            var page = new PageImpl<>(List.of(createTestProductResponse()), PageRequest.of(0, 20), 1);
+
+            when(productService.search(isNull(), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), eq("apple phone"), eq(false), any(Pageable.class)))
+                .thenReturn(page);
+
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("q", "apple phone"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+            verify(productService).search(isNull(), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), eq("apple phone"), eq(false), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should pass fuzzy=true to the service")
+        void shouldPassFuzzy() throws Exception {
+            // Given
+            var page = new PageImpl<>(List.of(createTestProductResponse()), PageRequest.of(0, 20), 1);
+
+            when(productService.search(eq("iphnoe"), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(true), any(Pageable.class)))
+                .thenReturn(page);
+
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("name", "iphnoe")
+                    .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+            verify(productService).search(eq("iphnoe"), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(true), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should pass categoryMatch=all to the service")
+        void shouldPassAllCategoryMatch() throws Exception {
+            // Given
+            var product = createTestProductResponse();
+            var page = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
+
+            when(productService.search(isNull(), isNull(), isNull(), isNull(), any(), eq(CategoryMatch.ALL), isNull(), eq(false), any(Pageable.class)))
+                .thenReturn(page);
+
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("categoryIds", UUID.randomUUID().toString(), UUID.randomUUID().toString())
+                    .param("categoryMatch", "all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+            verify(productService).search(isNull(), isNull(), isNull(), isNull(), any(), eq(CategoryMatch.ALL), isNull(), eq(false), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should include facet counts when requested")
+        void shouldIncludeFacets() throws Exception {
+            // Given
+            var facets = new ProductFacets(List.of(new ProductFacets.ValueCount("Apple", 1)),
+                List.of(new ProductFacets.ValueCount("ACTIVE", 1)), List.of());
+            when(productService.searchWithFacets(isNull(), isNull(), eq("apple"), isNull(), isNull(), eq(CategoryMatch.ANY),
+                    isNull(), eq(false), any(Pageable.class)))
+                .thenReturn(new FacetedProductPage(List.of(createTestProductResponse()), PageRequest.of(0, 20), 1, facets));
+
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("brand", "apple")
+                    .param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.facets.brands[0].value", is("Apple")))
+                .andExpect(jsonPath("$.facets.brands[0].count", is(1)))
+                .andExpect(jsonPath("$.facets.statuses[0].value", is("ACTIVE")));
+
+            verify(productService, never()).search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown categoryMatch")
+        void shouldRejectUnknownCategoryMatch() throws Exception {
+            // When & Then
+            mockMvc.perform(get("/api/products/search")
+                    .param("categoryMatch", "some"))
+                .andExpect(status().isBadRequest());
+
+            verify(productService, never()).search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(Pageable.class));
         }
 
         @Test
@@ -192,7 +361,7 @@ class ProductControllerTest {
             var product = createTestProductResponse();
             var page = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
 
-            when(productService.search(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+            when(productService.search(isNull(), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class)))
                 .thenReturn(page);
 
             // When & Then
@@ -201,7 +370,41 @@ class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.content", hasSize(1)));
 
-            verify(productService).search(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class));
+            verify(productService).search(isNull(), isNull(), isNull(), isNull(), isNull(), eq(CategoryMatch.ANY), isNull(), eq(false), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/products/suggest")
+    class SuggestTests {
+
+        @Test
+        @DisplayName("Should return suggestions for the prefix")
+        void shouldReturnSuggestions() throws Exception {
+            // Given
+            when(productService.suggest("iph", 10)).thenReturn(List.of(
+                new SuggestionResponse("iPhone 15", SuggestionResponse.Type.PRODUCT)));
+
+            // When & Then
+            mockMvc.perform(get("/api/products/suggest").param("prefix", "iph"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].text", is("iPhone 15")))
+                .andExpect(jsonPath("$[0].type", is("PRODUCT")));
+
+            verify(productService).suggest("iph", 10);
+        }
+
+        @Test
+        @DisplayName("Should reject a limit out of range")
+        void shouldRejectInvalidLimit() throws Exception {
+            // Given
+            when(productService.suggest("iph", 0))
+                .thenThrow(new InvalidInputException("limit", 0, "Suggestion limit must be between 1 and 50"));
+
+            // When & Then
+            mockMvc.perform(get("/api/products/suggest").param("prefix", "iph").param("limit", "0"))
+                .andExpect(status().isBadRequest());
         }
     }
 
@@ -0,0 +1,51 @@
+package com.loiane.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("DocIdBitmap Unit Tests")
+class DocIdBitmapTest {
+
+    @Test
+    @DisplayName("Should grow and track its cardinality")
+    void shouldGrowAndCount() {
+        // Given
+        DocIdBitmap bitmap = new DocIdBitmap();
+
+        // When
+        bitmap.set(3);
+        bitmap.set(3);
+        bitmap.set(10_000);
+        bitmap.clear(3);
+        bitmap.clear(50_000);
+
+        // Then
+        assertEquals(1, bitmap.cardinality());
+        List<Integer> ids = new ArrayList<>();
+        bitmap.forEach(ids::add);
+        assertEquals(List.of(10_000), ids);
+    }
+
+    @Test
+    @DisplayName("Should count the intersection of bitmaps of different lengths")
+    void shouldCountIntersection() {
+        // Given
+        DocIdBitmap a = new DocIdBitmap();
+        DocIdBitmap b = new DocIdBitmap();
+        for (int i = 0; i < 1_000; i += 2) {
+            a.set(i);
+        }
+        for (int i = 0; i < 200; i += 3) {
+            b.set(i);
+        }
+
+        // When & Then
+        assertEquals(34, a.andCardinality(b));
+        assertEquals(34, b.andCardinality(a));
+    }
+}
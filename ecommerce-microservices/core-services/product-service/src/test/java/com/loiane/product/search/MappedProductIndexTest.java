@@ -0,0 +1,338 @@
+package com.loiane.product.search;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.product.CategoryMatch;
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("MappedProductIndex Unit Tests")
+class MappedProductIndexTest {
+
+    private static final ProductResponse.CategorySummary PHONES =
+            new ProductResponse.CategorySummary(UUID.randomUUID(), "Phones", "phones");
+    private static final ProductResponse.CategorySummary APPLE_STORE =
+            new ProductResponse.CategorySummary(UUID.randomUUID(), "Apple Store", "apple-store");
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+
+    @TempDir
+    Path directory;
+
+    private List<ProductResponse> catalog;
+    private MappedProductIndex index;
+    private ProductInvertedIndex heap;
+
+    @BeforeEach
+    void setUp() {
+        catalog = List.of(
+                product("IPH-15", "iPhone 15", "Apple", "ACTIVE", PHONES, APPLE_STORE),
+                product("GS-24", "Galaxy S24", "Samsung", "ACTIVE", PHONES),
+                product("MBP-16", "MacBook Pro", "Apple", "DRAFT", APPLE_STORE),
+                product("CABLE-1", "USB_C 100% Cable", null, "ACTIVE"));
+        index = MappedProductIndex.build(directory, CatalogSnapshot.of(catalog), 100);
+        heap = new ProductInvertedIndex();
+        catalog.forEach(heap::upsert);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Nested
+    @DisplayName("Segment file")
+    class SegmentTests {
+
+        @Test
+        @DisplayName("Should read back every document exactly as written")
+        void shouldRoundTripDocuments() throws Exception {
+            // Given
+            ProductResponse withOffset = new ProductResponse(UUID.randomUUID(), "TZ-1", "Zoned", "zoned", null,
+                    "Ünïcode description", "ACTIVE", List.of(),
+                    OffsetDateTime.of(2024, 5, 1, 10, 30, 0, 123_456_000, ZoneOffset.ofHours(2)), null);
+            MappedSegment segment = MappedSegment.write(directory.resolve("segment-roundtrip.psi"),
+                    CatalogSnapshot.of(List.of(catalog.get(0), withOffset)));
+
+            // When / Then
+            assertEquals(catalog.get(0), segment.document(segment.docId(catalog.get(0).id())));
+            assertEquals(withOffset, segment.document(segment.docId(withOffset.id())));
+            assertEquals(-1, segment.docId(UUID.randomUUID()));
+            assertNull(segment.postings(IndexedField.NAME, "zzz"));
+            ProductResponse keys = segment.sortKeys(segment.docId(withOffset.id()));
+            assertEquals(List.of(withOffset.id(), "TZ-1", "Zoned", "ACTIVE", withOffset.createdAt()),
+                    List.of(keys.id(), keys.sku(), keys.name(), keys.status(), keys.createdAt()));
+            assertNull(keys.description());
+        }
+
+        @Test
+        @DisplayName("Should store document IDs presorted in every index order")
+        void shouldStoreSortOrders() throws Exception {
+            // Given
+            MappedSegment segment = MappedSegment.write(directory.resolve("segment-orders.psi"),
+                    CatalogSnapshot.of(catalog));
+            int bySku = ProductInvertedIndex.orderOf(Sort.by(Sort.Direction.ASC, "sku"));
+
+            // When
+            List<String> skus = new ArrayList<>();
+            for (int position = 0; position < segment.size(); position++) {
+                skus.add(segment.document(segment.docIdAt(bySku, position)).sku());
+            }
+
+            // Then
+            assertEquals(List.of("CABLE-1", "GS-24", "IPH-15", "MBP-16"), skus);
+        }
+
+        @Test
+        @DisplayName("Should merge postings spilled in runs into the same segment as one run")
+        void shouldMergeSpilledRuns() throws Exception {
+            // Given
+            List<ProductResponse> products = new ArrayList<>(catalog);
+            for (int i = 0; i < 50; i++) {
+                products.add(product("PH-" + i, "Phone " + i, i % 2 == 0 ? "Apple" : "Samsung", "ACTIVE", PHONES));
+            }
+            Path single = directory.resolve("segment-single.psi");
+            Path spilled = directory.resolve("segment-spilled.psi");
+
+            // When
+            SegmentWriter.write(single, CatalogSnapshot.of(products), 1_000);
+            SegmentWriter.write(spilled, CatalogSnapshot.of(products), 7);
+
+            // Then
+            assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(spilled));
+            MappedSegment segment = MappedSegment.open(spilled);
+            assertEquals(51, segment.postings(IndexedField.CATEGORY, PHONES.id().toString()).length);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject a snapshot that is not in ID order")
+        void shouldRejectUnorderedSnapshot() throws Exception {
+            // Given
+            CatalogSnapshot unordered = new CatalogSnapshot() {
+                @Override
+                public void forEachProduct(Consumer<ProductResponse> action) {
+                    catalog.stream()
+                            .sorted(comparing(ProductResponse::id, ProductInvertedIndex::compareUuids).reversed())
+                            .forEach(action);
+                }
+
+                @Override
+                public void forEachPosition(Sort sort, IntConsumer action) {
+                }
+            };
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class,
+                    () -> MappedProductIndex.build(directory, unordered, 100));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(List.of(index.file()), files.toList());
+            }
+        }
+
+        @Test
+        @DisplayName("Should delete the segment file on close")
+        void shouldDeleteSegmentOnClose() {
+            // Given
+            MappedProductIndex other = MappedProductIndex.build(directory, CatalogSnapshot.of(catalog), 100);
+            assertTrue(Files.exists(other.file()));
+
+            // When
+            other.close();
+
+            // Then
+            assertFalse(Files.exists(other.file()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Search")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Should return the same pages as the heap index")
+        void shouldMatchHeapIndex() {
+            List<ProductSearchCriteria> searches = List.of(
+                    criteria("phone", null, null, null),
+                    criteria("%", null, null, null),
+                    criteria(null, "ACTIVE", "apple", null),
+                    criteria(null, null, null, "1"),
+                    ProductSearchCriteria.of(null, null, null, null, Set.of(PHONES.id(), APPLE_STORE.id()), CategoryMatch.ALL),
+                    ProductSearchCriteria.of(null, null, null, null, Set.of(PHONES.id(), APPLE_STORE.id()), CategoryMatch.ANY),
+                    criteria(null, null, null, null));
+
+            for (ProductSearchCriteria criteria : searches) {
+                assertEquals(heap.search(criteria, FIRST_PAGE), index.search(criteria, FIRST_PAGE), criteria.toString());
+            }
+        }
+
+        @Test
+        @DisplayName("Should page through the merged matches with an exact total")
+        void shouldPageMergedMatches() {
+            // Given
+            index.upsert(product("GP-9", "Google Pixel 9", "Google", "ACTIVE", PHONES));
+
+            // When
+            Page<ProductResponse> second = index.search(criteria(null, null, null, null), PageRequest.of(1, 2, Sort.by("sku")));
+
+            // Then
+            assertEquals(5, second.getTotalElements());
+            assertEquals(List.of("GS-24", "IPH-15"), skus(second));
+        }
+
+        @Test
+        @DisplayName("Should cut unfiltered pages in every order like the heap index")
+        void shouldPageEveryOrderLikeHeapIndex() {
+            // Given
+            ProductResponse pixel = product("GP-9", "Google Pixel 9", "Google", "ACTIVE", PHONES);
+            index.upsert(pixel);
+            heap.upsert(pixel);
+            index.remove(catalog.get(1).id());
+            heap.remove(catalog.get(1).id());
+
+            // When / Then
+            for (Sort sort : ProductSearchCriteria.SORTS.sorts()) {
+                for (int page = 0; page < 3; page++) {
+                    Pageable pageable = PageRequest.of(page, 2, sort);
+                    assertEquals(heap.search(criteria(null, null, null, null), pageable),
+                            index.search(criteria(null, null, null, null), pageable), pageable.toString());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should count the same facets as the heap index")
+        void shouldMatchHeapFacets() {
+            // Given
+            index.upsert(product("GP-9", "Google Pixel 9", "Google", "ACTIVE", PHONES));
+            heap.upsert(product("GP-9", "Google Pixel 9", "Google", "ACTIVE", PHONES));
+            ProductSearchCriteria active = criteria(null, "ACTIVE", null, null);
+
+            // When / Then
+            assertEquals(heap.searchWithFacets(active, FIRST_PAGE).getFacets(),
+                    index.searchWithFacets(active, FIRST_PAGE).getFacets());
+        }
+
+        @Test
+        @DisplayName("Should reject sorting by unknown properties")
+        void shouldRejectUnknownSort() {
+            assertThrows(InvalidInputException.class, () ->
+                    index.search(criteria(null, null, null, null), PageRequest.of(0, 20, Sort.by("price"))));
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should serve an updated product under its new values only")
+        void shouldShadowUpdatedSegmentDocument() {
+            // Given
+            ProductResponse iphone = catalog.getFirst();
+
+            // When
+            index.upsert(new ProductResponse(iphone.id(), iphone.sku(), "iPhone 16", iphone.slug(), iphone.brand(),
+                    null, iphone.status(), iphone.categories(), iphone.createdAt(), iphone.updatedAt()));
+
+            // Then
+            assertEquals(List.of(), skus(index.search(criteria("iphone 15", null, null, null), FIRST_PAGE)));
+            assertEquals(List.of("IPH-15"), skus(index.search(criteria("iphone 16", null, null, null), FIRST_PAGE)));
+            assertEquals(4, index.size());
+        }
+
+        @Test
+        @DisplayName("Should drop removed products")
+        void shouldDropRemovedProducts() {
+            // When
+            index.remove(catalog.get(1).id());
+
+            // Then
+            assertEquals(List.of(), skus(index.search(criteria("galaxy", null, null, null), FIRST_PAGE)));
+            assertEquals(3, index.size());
+        }
+
+        @Test
+        @DisplayName("Should rename and remove categories on segment documents")
+        void shouldApplyCategoryChanges() {
+            // When
+            index.renameCategory(PHONES.id(), "Mobile", "mobile");
+            index.removeCategory(APPLE_STORE.id());
+
+            // Then
+            ProductResponse iphone = index.search(criteria("iphone", null, null, null), FIRST_PAGE).getContent().getFirst();
+            assertEquals(List.of(new ProductResponse.CategorySummary(PHONES.id(), "Mobile", "mobile")), iphone.categories());
+            assertEquals(0, index.search(ProductSearchCriteria.of(null, null, null, null, Set.of(APPLE_STORE.id())),
+                    FIRST_PAGE).getTotalElements());
+        }
+
+        @Test
+        @DisplayName("Should need compaction after the merge threshold, and search alike when rebuilt")
+        void shouldKeepResultsAfterMerge() {
+            // Given
+            MappedProductIndex small = MappedProductIndex.build(directory, CatalogSnapshot.of(catalog), 2);
+            ProductResponse pixel = product("GP-9", "Google Pixel 9", "Google", "ACTIVE", PHONES);
+            small.upsert(pixel);
+            small.remove(catalog.get(2).id());
+
+            // When
+            MappedProductIndex merged = MappedProductIndex.build(directory,
+                    CatalogSnapshot.of(List.of(catalog.get(0), catalog.get(1), catalog.get(3), pixel)), 2);
+
+            // Then
+            assertTrue(small.needsCompaction());
+            assertFalse(merged.needsCompaction());
+            assertEquals(4, merged.size());
+            assertEquals(small.search(criteria(null, null, null, null), FIRST_PAGE),
+                    merged.search(criteria(null, null, null, null), FIRST_PAGE));
+            small.close();
+            merged.close();
+        }
+    }
+
+    private static ProductSearchCriteria criteria(String name, String status, String brand, String sku) {
+        return ProductSearchCriteria.of(name, status, brand, sku, null);
+    }
+
+    private static List<String> skus(Page<ProductResponse> page) {
+        return page.getContent().stream().map(ProductResponse::sku).toList();
+    }
+
+    private static ProductResponse product(String sku, String name, String brand, String status,
+                                           ProductResponse.CategorySummary... categories) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new ProductResponse(UUID.randomUUID(), sku, name, sku.toLowerCase(), brand, null, status,
+                List.of(categories), now, now);
+    }
+}
@@ -0,0 +1,55 @@
+package com.loiane.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("PostingList Unit Tests")
+class PostingListTest {
+
+    @Test
+    @DisplayName("Should decode the document IDs it was given")
+    void shouldRoundTripDocumentIds() {
+        // Given
+        int[] ids = {0, 1, 2, 127, 128, 16_384, 2_000_000, Integer.MAX_VALUE - 1};
+        PostingList postings = new PostingList();
+
+        // When
+        for (int id : ids) {
+            postings.add(id);
+        }
+
+        // Then
+        assertArrayEquals(ids, postings.toArray());
+        assertEquals(ids.length, postings.size());
+    }
+
+    @Test
+    @DisplayName("Should store dense lists in about one byte per document")
+    void shouldCompressDenseLists() {
+        // Given
+        PostingList postings = new PostingList();
+
+        // When
+        for (int id = 0; id < 10_000; id++) {
+            postings.add(id);
+        }
+
+        // Then
+        assertEquals(10_000, postings.sizeInBytes());
+    }
+
+    @Test
+    @DisplayName("Should reject IDs that are not ascending")
+    void shouldRejectUnorderedIds() {
+        // Given
+        PostingList postings = new PostingList();
+        postings.add(5);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> postings.add(5));
+    }
+}
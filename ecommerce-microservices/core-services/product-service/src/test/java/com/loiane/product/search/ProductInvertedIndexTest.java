@@ -0,0 +1,393 @@
+package com.loiane.product.search;
+
+import com.loiane.product.common.exception.InvalidInputException;
+import com.loiane.product.product.CategoryMatch;
+import com.loiane.product.product.ProductSearchCriteria;
+import com.loiane.product.product.api.dto.FacetedProductPage;
+import com.loiane.product.product.api.dto.ProductFacets;
+import com.loiane.product.product.api.dto.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("ProductInvertedIndex Unit Tests")
+class ProductInvertedIndexTest {
+
+    private static final ProductResponse.CategorySummary PHONES =
+            new ProductResponse.CategorySummary(UUID.randomUUID(), "Phones", "phones");
+    private static final ProductResponse.CategorySummary APPLE_STORE =
+            new ProductResponse.CategorySummary(UUID.randomUUID(), "Apple Store", "apple-store");
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("name"));
+
+    private ProductInvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductInvertedIndex();
+        index.upsert(product("IPH-15", "iPhone 15", "Apple", "ACTIVE", PHONES, APPLE_STORE));
+        index.upsert(product("GS-24", "Galaxy S24", "Samsung", "ACTIVE", PHONES));
+        index.upsert(product("MBP-16", "MacBook Pro", "Apple", "DRAFT", APPLE_STORE));
+        index.upsert(product("CABLE-1", "USB_C 100% Cable", null, "ACTIVE"));
+    }
+
+    @Nested
+    @DisplayName("Filters")
+    class FilterTests {
+
+        @Test
+        @DisplayName("Should match names containing the term")
+        void shouldMatchContainedName() {
+            // When
+            Page<ProductResponse> result = index.search(criteria("phone", null, null, null), FIRST_PAGE);
+
+            // Then
+            assertEquals(List.of("IPH-15"), skus(result));
+        }
+
+        @Test
+        @DisplayName("Should verify trigram candidates against the text")
+        void shouldVerifyTrigramCandidates() {
+            // Given: holds every trigram of "tablets" without containing it
+            index.upsert(product("TAB-1", "Tablet Lets", null, "ACTIVE"));
+            index.upsert(product("TAB-2", "Tablets Bundle", null, "ACTIVE"));
+
+            // When
+            Page<ProductResponse> result = index.search(criteria("tablets", null, null, null), FIRST_PAGE);
+
+            // Then
+            assertEquals(List.of("TAB-2"), skus(result));
+        }
+
+        @Test
+        @DisplayName("Should match terms shorter than a trigram by scanning")
+        void shouldMatchShortTerms() {
+            // When
+            Page<ProductResponse> result = index.search(criteria("s2", null, null, null), FIRST_PAGE);
+
+            // Then
+            assertEquals(List.of("GS-24"), skus(result));
+        }
+
+        @Test
+        @DisplayName("Should match LIKE wildcards literally")
+        void shouldMatchWildcardsLiterally() {
+            // When
+            Page<ProductResponse> result = index.search(criteria("_c 100%", null, null, null), FIRST_PAGE);
+
+            // Then
+            assertEquals(List.of("CABLE-1"), skus(result));
+        }
+
+        @Test
+        @DisplayName("Should combine brand, status and category filters")
+        void shouldCombineFilters() {
+            // When
+            Page<ProductResponse> result = index.search(
+                    ProductSearchCriteria.of(null, "ACTIVE", "apple", null, Set.of(APPLE_STORE.id())), FIRST_PAGE);
+
+            // Then
+            assertEquals(List.of("IPH-15"), skus(result));
+        }
+
+        @Test
+        @DisplayName("Should require every category with categoryMatch=all")
+        void shouldMatchAllCategories() {
+            // Given
+            Set<UUID> categoryIds = Set.of(PHONES.id(), APPLE_STORE.id());
+            Pageable bySku = PageRequest.of(0, 20, Sort.by("sku"));
+
+            // When
+            Page<ProductResponse> any = index.search(
+                    ProductSearchCriteria.of(null, null, null, null, categoryIds, CategoryMatch.ANY), bySku);
+            Page<ProductResponse> all = index.search(
+                    ProductSearchCriteria.of(null, null, null, null, categoryIds, CategoryMatch.ALL), bySku);
+
+            // Then
+            assertEquals(List.of("GS-24", "IPH-15", "MBP-16"), skus(any));
+            assertEquals(List.of("IPH-15"), skus(all));
+        }
+
+        @Test
+        @DisplayName("Should return nothing for a term with an unknown trigram")
+        void shouldReturnNothingForUnknownTrigram() {
+            // When
+            Page<ProductResponse> result = index.search(criteria("zzz", null, null, null), FIRST_PAGE);
+
+            // Then
+            assertTrue(result.isEmpty());
+            assertEquals(0, result.getTotalElements());
+        }
+    }
+
+    @Nested
+    @DisplayName("Paging and sorting")
+    class PagingTests {
+
+        @Test
+        @DisplayName("Should page through the sorted matches with an exact total")
+        void shouldPageWithExactTotal() {
+            // When
+            Page<ProductResponse> second = index.search(criteria(null, null, null, null), PageRequest.of(1, 2, Sort.by("sku")));
+
+            // Then
+            assertEquals(List.of("IPH-15", "MBP-16"), skus(second));
+            assertEquals(4, second.getTotalElements());
+        }
+
+        @Test
+        @DisplayName("Should sort names by code point like the ucs_basic collation")
+        void shouldSortNamesByCodePoint() {
+            // Given
+            index.upsert(product("E-1", "\u00c9clair", null, "ACTIVE"));
+            index.upsert(product("A-1", "apple", null, "ACTIVE"));
+            index.upsert(product("Z-1", "Zebra", null, "ACTIVE"));
+
+            // When
+            Page<ProductResponse> ascending = index.search(criteria(null, null, null, null), FIRST_PAGE);
+            Page<ProductResponse> descending = index.search(criteria(null, null, null, null),
+                    PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "name")));
+
+            // Then
+            assertEquals(List.of("GS-24", "MBP-16", "CABLE-1", "Z-1", "A-1", "IPH-15", "E-1"), skus(ascending));
+            assertEquals(skus(ascending).reversed(), skus(descending));
+        }
+
+        @Test
+        @DisplayName("Should compare characters beyond U+FFFF after the rest of the BMP")
+        void shouldCompareSupplementaryCharactersByCodePoint() {
+            // Given: U+1F600 is encoded as a surrogate pair, which String#compareTo puts before U+FFFD
+            String emoji = "\uD83D\uDE00";
+            String replacement = "\uFFFD";
+
+            // When & Then
+            assertTrue(emoji.compareTo(replacement) < 0);
+            assertTrue(ProductInvertedIndex.compareCodePoints(replacement, emoji) < 0);
+            assertTrue(ProductInvertedIndex.compareCodePoints("Z", "a") < 0);
+            assertEquals(0, ProductInvertedIndex.compareCodePoints(emoji, emoji));
+        }
+
+        @Test
+        @DisplayName("Should keep the sort orders current on writes")
+        void shouldKeepSortOrdersOnWrites() {
+            // Given
+            ProductResponse cable = index.search(criteria("cable", null, null, null), FIRST_PAGE).getContent().getFirst();
+            ProductResponse galaxy = index.search(criteria("galaxy", null, null, null), FIRST_PAGE).getContent().getFirst();
+
+            // When
+            index.upsert(new ProductResponse(cable.id(), "AAA-1", "Adapter", cable.slug(), cable.brand(),
+                    null, "DRAFT", cable.categories(), cable.createdAt(), cable.updatedAt()));
+            index.remove(galaxy.id());
+
+            // Then
+            Page<ProductResponse> byName = index.search(criteria(null, null, null, null), FIRST_PAGE);
+            Page<ProductResponse> byStatus = index.search(criteria(null, null, null, null),
+                    PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "status")));
+            assertEquals(List.of("AAA-1", "MBP-16", "IPH-15"), skus(byName));
+            assertEquals(3, byName.getTotalElements());
+            assertEquals(List.of("MBP-16", "AAA-1", "IPH-15"), skus(byStatus));
+        }
+
+        @Test
+        @DisplayName("Should give the same pages whether matches are walked in order or sorted")
+        void shouldWalkAndSortAlike() {
+            // Given: many drafts, so a draft search walks the sort order and an active one sorts its few matches
+            for (int i = 0; i < 200; i++) {
+                index.upsert(product(String.format("DR-%03d", i), String.format("Draft %03d", 199 - i), null, "DRAFT"));
+            }
+            ProductInvertedIndex bulk = ProductInvertedIndex.of(CatalogSnapshot.of(index.products()));
+            Pageable page = PageRequest.of(2, 5, Sort.by(Sort.Direction.DESC, "name"));
+
+            // When
+            Page<ProductResponse> drafts = index.search(criteria(null, "DRAFT", null, null), page);
+            Page<ProductResponse> active = index.search(criteria(null, "ACTIVE", null, null),
+                    PageRequest.of(0, 2, Sort.by("name")));
+
+            // Then
+            assertEquals(List.of("DR-009", "DR-010", "DR-011", "DR-012", "DR-013"), skus(drafts));
+            assertEquals(201, drafts.getTotalElements());
+            assertEquals(List.of("GS-24", "CABLE-1"), skus(active));
+            assertEquals(3, active.getTotalElements());
+            assertEquals(drafts, bulk.search(criteria(null, "DRAFT", null, null), page));
+            assertEquals(active, bulk.search(criteria(null, "ACTIVE", null, null), PageRequest.of(0, 2, Sort.by("name"))));
+        }
+
+        @Test
+        @DisplayName("Should reject sorts no index serves")
+        void shouldRejectUnindexedSort() {
+            // When & Then
+            assertThrows(InvalidInputException.class, () -> index.search(criteria(null, null, null, null),
+                    PageRequest.of(0, 20, Sort.by("price"))));
+            assertThrows(InvalidInputException.class, () -> index.search(criteria(null, null, null, null),
+                    PageRequest.of(0, 20, Sort.by("brand", "sku"))));
+        }
+
+        @Test
+        @DisplayName("Should order UUIDs as unsigned bytes like PostgreSQL")
+        void shouldCompareUuidsUnsigned() {
+            // Given
+            UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+            UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+            // When & Then
+            assertTrue(ProductInvertedIndex.compareUuids(low, high) < 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Facets")
+    class FacetTests {
+
+        @Test
+        @DisplayName("Should count brands, statuses and categories over all matches")
+        void shouldCountFacetsOverAllMatches() {
+            // When
+            FacetedProductPage page = index.searchWithFacets(criteria(null, null, null, null), PageRequest.of(0, 1));
+
+            // Then
+            assertEquals(1, page.getContent().size());
+            assertEquals(List.of(new ProductFacets.ValueCount("Apple", 2), new ProductFacets.ValueCount("Samsung", 1)),
+                    page.getFacets().brands());
+            assertEquals(List.of(new ProductFacets.ValueCount("ACTIVE", 3), new ProductFacets.ValueCount("DRAFT", 1)),
+                    page.getFacets().statuses());
+            assertEquals(List.of(new ProductFacets.CategoryCount(APPLE_STORE.id(), "Apple Store", 2),
+                            new ProductFacets.CategoryCount(PHONES.id(), "Phones", 2)),
+                    page.getFacets().categories());
+        }
+
+        @Test
+        @DisplayName("Should count a small result the same way as the bitmaps")
+        void shouldTallySmallResults() {
+            // When: a single match is tallied document by document
+            FacetedProductPage page = index.searchWithFacets(criteria("iphone", null, null, null), FIRST_PAGE);
+
+            // Then
+            assertEquals(List.of(new ProductFacets.ValueCount("Apple", 1)), page.getFacets().brands());
+            assertEquals(List.of(new ProductFacets.ValueCount("ACTIVE", 1)), page.getFacets().statuses());
+            assertEquals(List.of(new ProductFacets.CategoryCount(APPLE_STORE.id(), "Apple Store", 1),
+                            new ProductFacets.CategoryCount(PHONES.id(), "Phones", 1)),
+                    page.getFacets().categories());
+        }
+
+        @Test
+        @DisplayName("Should keep facet bitmaps current on writes")
+        void shouldMaintainFacetsOnWrites() {
+            // Given
+            ProductResponse macbook = index.search(criteria("macbook", null, null, null), FIRST_PAGE).getContent().getFirst();
+
+            // When
+            index.remove(macbook.id());
+            index.renameCategory(PHONES.id(), "Smartphones", "smartphones");
+
+            // Then
+            ProductFacets facets = index.searchWithFacets(criteria(null, null, null, null), FIRST_PAGE).getFacets();
+            assertEquals(List.of(new ProductFacets.ValueCount("Apple", 1), new ProductFacets.ValueCount("Samsung", 1)),
+                    facets.brands());
+            assertEquals(List.of(new ProductFacets.ValueCount("ACTIVE", 3)), facets.statuses());
+            assertEquals(List.of(new ProductFacets.CategoryCount(PHONES.id(), "Smartphones", 2),
+                            new ProductFacets.CategoryCount(APPLE_STORE.id(), "Apple Store", 1)),
+                    facets.categories());
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should reindex an updated product under its new values only")
+        void shouldReindexUpdatedProduct() {
+            // Given
+            ProductResponse galaxy = index.search(criteria("galaxy", null, null, null), FIRST_PAGE).getContent().getFirst();
+
+            // When
+            index.upsert(new ProductResponse(galaxy.id(), "GS-25", "Galaxy S25", galaxy.slug(), galaxy.brand(),
+                    null, "ACTIVE", galaxy.categories(), galaxy.createdAt(), galaxy.updatedAt()));
+
+            // Then
+            assertTrue(index.search(criteria("s24", null, null, null), FIRST_PAGE).isEmpty());
+            assertEquals(List.of("GS-25"), skus(index.search(criteria("s25", null, null, null), FIRST_PAGE)));
+            assertEquals(4, index.size());
+        }
+
+        @Test
+        @DisplayName("Should drop removed products")
+        void shouldDropRemovedProducts() {
+            // Given
+            ProductResponse cable = index.search(criteria("cable", null, null, null), FIRST_PAGE).getContent().getFirst();
+
+            // When
+            index.remove(cable.id());
+
+            // Then
+            assertTrue(index.search(criteria("cable", null, null, null), FIRST_PAGE).isEmpty());
+            assertEquals(3, index.size());
+        }
+
+        @Test
+        @DisplayName("Should rename and remove categories on indexed products")
+        void shouldApplyCategoryChanges() {
+            // When
+            index.renameCategory(PHONES.id(), "Smartphones", "smartphones");
+            index.removeCategory(APPLE_STORE.id());
+
+            // Then
+            ProductResponse iphone = index.search(criteria("iphone", null, null, null), FIRST_PAGE).getContent().getFirst();
+            assertEquals(List.of(new ProductResponse.CategorySummary(PHONES.id(), "Smartphones", "smartphones")),
+                    iphone.categories());
+            assertTrue(index.search(ProductSearchCriteria.of(null, null, null, null, Set.of(APPLE_STORE.id())),
+                    FIRST_PAGE).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should need compaction once dead documents pile up, and search alike when rebuilt")
+        void shouldKeepResultsAfterCompaction() {
+            // Given
+            for (int i = 0; i < 2_000; i++) {
+                index.upsert(product("TMP-" + i, "Temporary " + i, null, "DRAFT"));
+            }
+            index.search(criteria("temporary", null, null, null), PageRequest.of(0, 2_000)).getContent()
+                    .forEach(product -> index.remove(product.id()));
+
+            // When
+            ProductInvertedIndex compacted = ProductInvertedIndex.of(CatalogSnapshot.of(index.products()));
+
+            // Then
+            assertTrue(index.needsCompaction());
+            assertFalse(compacted.needsCompaction());
+            assertEquals(4, compacted.size());
+            assertEquals(skus(index.search(criteria(null, null, null, null), FIRST_PAGE)),
+                    skus(compacted.search(criteria(null, null, null, null), FIRST_PAGE)));
+        }
+    }
+
+    private static ProductSearchCriteria criteria(String name, String status, String brand, String sku) {
+        return ProductSearchCriteria.of(name, status, brand, sku, null);
+    }
+
+    private static List<String> skus(Page<ProductResponse> page) {
+        return page.getContent().stream().map(ProductResponse::sku).toList();
+    }
+
+    private static ProductResponse product(String sku, String name, String brand, String status,
+                                           ProductResponse.CategorySummary... categories) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new ProductResponse(UUID.randomUUID(), sku, name, sku.toLowerCase(), brand, null, status,
+                List.of(categories), now, now);
+    }
+}
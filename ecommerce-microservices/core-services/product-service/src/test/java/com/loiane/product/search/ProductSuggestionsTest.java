@@ -0,0 +1,115 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductSuggestions Unit Tests")
+class ProductSuggestionsTest {
+
+    private static final SuggestionResponse APPLE = new SuggestionResponse("Apple", SuggestionResponse.Type.BRAND);
+
+    @Mock
+    private SuggestionRepository suggestionRepository;
+
+    private ProductSuggestions suggestions;
+
+    @BeforeEach
+    void setUp() {
+        suggestions = new ProductSuggestions(suggestionRepository, 5, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Should suggest nothing before the first build")
+    void shouldBeEmptyBeforeBuild() {
+        // When & Then
+        assertTrue(suggestions.suggest("app", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should serve the built trie")
+    void shouldServeBuiltTrie() {
+        // Given
+        when(suggestionRepository.findAll()).thenReturn(List.of(new SuggestionTrie.Entry(APPLE, 3)));
+
+        // When
+        suggestions.rebuild();
+
+        // Then
+        assertEquals(List.of(APPLE), suggestions.suggest("app", 10));
+    }
+
+    @Test
+    @DisplayName("Should rebuild once for a burst of writes")
+    void shouldCoalesceRefreshes() {
+        // Given
+        when(suggestionRepository.findAll()).thenReturn(List.of());
+        suggestions.refreshAfterCommit();
+        suggestions.refreshAfterCommit();
+
+        // When
+        suggestions.refreshIfStale();
+        suggestions.refreshIfStale();
+
+        // Then
+        verify(suggestionRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should not rebuild when nothing changed")
+    void shouldSkipRefreshWhenFresh() {
+        // When
+        suggestions.refreshIfStale();
+
+        // Then
+        verify(suggestionRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should keep the current trie and retry when a rebuild fails")
+    void shouldKeepTrieWhenRebuildFails() {
+        // Given
+        when(suggestionRepository.findAll())
+                .thenReturn(List.of(new SuggestionTrie.Entry(APPLE, 3)))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of());
+        suggestions.rebuild();
+
+        // When
+        suggestions.rebuild();
+
+        // Then
+        assertEquals(List.of(APPLE), suggestions.suggest("app", 10));
+        suggestions.refreshIfStale();
+        assertTrue(suggestions.suggest("app", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rebuild a trie older than the rebuild interval without local writes")
+    void shouldRebuildAfterMaxAge() {
+        // Given: writes through other instances never mark this trie stale
+        ProductSuggestions expiring = new ProductSuggestions(suggestionRepository, 5, Duration.ZERO);
+        when(suggestionRepository.findAll()).thenReturn(List.of(new SuggestionTrie.Entry(APPLE, 3)));
+
+        // When
+        expiring.refreshIfStale();
+
+        // Then
+        assertEquals(List.of(APPLE), expiring.suggest("app", 10));
+    }
+}
@@ -0,0 +1,109 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductSearchCriteria;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("SearchAnalytics Unit Tests")
+class SearchAnalyticsTest {
+
+    private static final ProductSearchCriteria LAPTOP = ProductSearchCriteria.of("laptop", null, null, null, null);
+    private static final ProductSearchCriteria PHONE = ProductSearchCriteria.of("phone", null, null, null, null);
+    private static final ProductSearchCriteria TYPO = ProductSearchCriteria.of("lpatop", null, null, null, null);
+
+    @Test
+    @DisplayName("Should report the most frequent and the zero-result queries")
+    void shouldReportTopAndZeroResultQueries() {
+        // Given
+        SearchAnalytics analytics = new SearchAnalytics(true, 64, 2, 100);
+        for (int i = 0; i < 3; i++) {
+            analytics.record(LAPTOP, 10, 1_000_000);
+        }
+        analytics.record(PHONE, 4, 1_000_000);
+        analytics.record(PHONE, 4, 1_000_000);
+        analytics.record(TYPO, 0, 1_000_000);
+
+        // When
+        SearchAnalyticsReport report = analytics.report();
+
+        // Then
+        assertEquals(6, report.searches());
+        assertEquals(List.of(LAPTOP, PHONE), report.topQueries().stream().map(SearchAnalyticsReport.QueryCount::criteria).toList());
+        assertEquals(3, report.topQueries().getFirst().searches());
+        assertEquals(List.of(TYPO), report.zeroResultQueries().stream().map(SearchAnalyticsReport.QueryCount::criteria).toList());
+    }
+
+    @Test
+    @DisplayName("Should report latency percentiles within the histogram precision")
+    void shouldReportLatencyPercentiles() {
+        // Given
+        SearchAnalytics analytics = new SearchAnalytics(true, 256, 10, 100);
+        for (int millis = 1; millis <= 100; millis++) {
+            analytics.record(LAPTOP, 1, millis * 1_000_000L);
+        }
+
+        // When
+        SearchAnalyticsReport.Latency latency = analytics.report().latency();
+
+        // Then
+        assertBetween(50, 50 * 1.125, latency.p50());
+        assertBetween(99, 99 * 1.125, latency.p99());
+        assertBetween(100, 100 * 1.125, latency.max());
+    }
+
+    @Test
+    @DisplayName("Should count searches beyond the tracked queries without tracking them")
+    void shouldCountUntrackedQueries() {
+        // Given
+        SearchAnalytics analytics = new SearchAnalytics(true, 64, 10, 1);
+        analytics.record(LAPTOP, 1, 1_000);
+        analytics.record(PHONE, 1, 1_000);
+
+        // When
+        SearchAnalyticsReport report = analytics.report();
+
+        // Then
+        assertEquals(2, report.searches());
+        assertEquals(1, report.untracked());
+        assertEquals(1, report.topQueries().size());
+    }
+
+    @Test
+    @DisplayName("Should start over after a reset")
+    void shouldStartOverAfterReset() {
+        // Given
+        SearchAnalytics analytics = new SearchAnalytics(true, 64, 10, 100);
+        analytics.record(LAPTOP, 1, 1_000);
+
+        // When
+        analytics.reset();
+
+        // Then
+        SearchAnalyticsReport report = analytics.report();
+        assertEquals(0, report.searches());
+        assertTrue(report.topQueries().isEmpty());
+        assertEquals(0, report.latency().max());
+    }
+
+    @Test
+    @DisplayName("Should capture nothing when disabled")
+    void shouldCaptureNothingWhenDisabled() {
+        // Given
+        SearchAnalytics analytics = new SearchAnalytics(false, 64, 10, 100);
+
+        // When
+        analytics.record(LAPTOP, 1, 1_000);
+
+        // Then
+        assertEquals(0, analytics.report().searches());
+    }
+
+    private static void assertBetween(double low, double high, double actual) {
+        assertTrue(actual >= low && actual <= high, () -> actual + " not in [" + low + ", " + high + "]");
+    }
+}
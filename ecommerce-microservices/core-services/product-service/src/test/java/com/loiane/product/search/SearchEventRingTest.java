@@ -0,0 +1,95 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.ProductSearchCriteria;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("SearchEventRing Unit Tests")
+class SearchEventRingTest {
+
+    private static final ProductSearchCriteria LAPTOP = ProductSearchCriteria.of("laptop", null, null, null, null);
+
+    @Test
+    @DisplayName("Should round the capacity up to a power of two")
+    void shouldRoundCapacityUp() {
+        assertEquals(8, new SearchEventRing(5).capacity());
+        assertEquals(8, new SearchEventRing(8).capacity());
+    }
+
+    @Test
+    @DisplayName("Should drain events in the order they were offered")
+    void shouldDrainInOrder() {
+        // Given
+        SearchEventRing ring = new SearchEventRing(4);
+        ring.offer(LAPTOP, 3, 100);
+        ring.offer(LAPTOP, 0, 200);
+        List<Long> latencies = new ArrayList<>();
+
+        // When
+        int drained = ring.drain((_, _, latencyNanos) -> latencies.add(latencyNanos));
+
+        // Then
+        assertEquals(2, drained);
+        assertEquals(List.of(100L, 200L), latencies);
+        assertEquals(0, ring.drain((_, _, _) -> { }));
+    }
+
+    @Test
+    @DisplayName("Should drop and count events while the ring is full")
+    void shouldDropWhenFull() {
+        // Given
+        SearchEventRing ring = new SearchEventRing(2);
+        ring.offer(LAPTOP, 1, 1);
+        ring.offer(LAPTOP, 1, 2);
+
+        // When
+        boolean accepted = ring.offer(LAPTOP, 1, 3);
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(1, ring.dropped());
+        assertEquals(2, ring.drain((_, _, _) -> { }));
+        assertTrue(ring.offer(LAPTOP, 1, 4));
+    }
+
+    @Test
+    @DisplayName("Should hand over every event offered concurrently exactly once")
+    void shouldHandOverConcurrentEvents() throws InterruptedException {
+        // Given
+        SearchEventRing ring = new SearchEventRing(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ring.offer(LAPTOP, 1, 1);
+                }
+                done.countDown();
+            });
+        }
+
+        // When
+        long[] sum = {0};
+        while (!done.await(0, TimeUnit.MILLISECONDS)) {
+            ring.drain((criteria, resultCount, latencyNanos) -> sum[0] += latencyNanos);
+        }
+        ring.drain((criteria, resultCount, latencyNanos) -> sum[0] += latencyNanos);
+        executor.shutdown();
+
+        // Then
+        assertEquals((long) producers * perProducer, sum[0] + ring.dropped());
+    }
+}
@@ -0,0 +1,125 @@
+package com.loiane.product.search;
+
+import com.loiane.product.product.api.dto.SuggestionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.loiane.product.product.api.dto.SuggestionResponse.Type.BRAND;
+import static com.loiane.product.product.api.dto.SuggestionResponse.Type.CATEGORY;
+import static com.loiane.product.product.api.dto.SuggestionResponse.Type.PRODUCT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("SuggestionTrie Unit Tests")
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = SuggestionTrie.build(List.of(
+                entry("iPhone 15", PRODUCT, 1),
+                entry("iPhone 15 Pro", PRODUCT, 1),
+                entry("iPad Air", PRODUCT, 1),
+                entry("Apple", BRAND, 3),
+                entry("Apple", CATEGORY, 2),
+                entry("Smartphones", CATEGORY, 2),
+                entry("ProBook", PRODUCT, 1)
+        ), 3);
+    }
+
+    @Test
+    @DisplayName("Should complete prefixes case-insensitively, best first")
+    void shouldCompletePrefix() {
+        // When
+        List<SuggestionResponse> result = trie.complete("IP", 10);
+
+        // Then
+        assertEquals(List.of(suggestion("iPad Air", PRODUCT), suggestion("iPhone 15", PRODUCT),
+                suggestion("iPhone 15 Pro", PRODUCT)), result);
+    }
+
+    @Test
+    @DisplayName("Should complete any word of a suggestion, listing it once")
+    void shouldCompleteWords() {
+        // When
+        List<SuggestionResponse> result = trie.complete("pro", 10);
+
+        // Then
+        assertEquals(List.of(suggestion("iPhone 15 Pro", PRODUCT), suggestion("ProBook", PRODUCT)), result);
+    }
+
+    @Test
+    @DisplayName("Should rank heavier suggestions first")
+    void shouldRankByWeight() {
+        // When
+        List<SuggestionResponse> result = trie.complete("a", 10);
+
+        // Then
+        assertEquals(List.of(suggestion("Apple", BRAND), suggestion("Apple", CATEGORY),
+                suggestion("iPad Air", PRODUCT)), result);
+    }
+
+    @Test
+    @DisplayName("Should match a prefix ending inside a compressed edge")
+    void shouldMatchInsideEdge() {
+        // When
+        List<SuggestionResponse> result = trie.complete("smartph", 10);
+
+        // Then
+        assertEquals(List.of(suggestion("Smartphones", CATEGORY)), result);
+    }
+
+    @Test
+    @DisplayName("Should collapse whitespace in the prefix")
+    void shouldCollapseWhitespace() {
+        // When
+        List<SuggestionResponse> result = trie.complete("  iphone   15 p", 10);
+
+        // Then
+        assertEquals(List.of(suggestion("iPhone 15 Pro", PRODUCT)), result);
+    }
+
+    @Test
+    @DisplayName("Should return nothing for blank or unknown prefixes")
+    void shouldReturnNothingForBlankOrUnknown() {
+        // When & Then
+        assertTrue(trie.complete(" ", 10).isEmpty());
+        assertTrue(trie.complete(null, 10).isEmpty());
+        assertTrue(trie.complete("xyz", 10).isEmpty());
+        assertTrue(trie.complete("iphx", 10).isEmpty());
+        assertTrue(SuggestionTrie.EMPTY.complete("a", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep at most top-k suggestions per prefix")
+    void shouldKeepTopK() {
+        // Given
+        List<SuggestionTrie.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(entry("Case " + i, PRODUCT, i));
+        }
+        SuggestionTrie large = SuggestionTrie.build(entries, 3);
+
+        // When
+        List<SuggestionResponse> result = large.complete("case", 10);
+        List<SuggestionResponse> limited = large.complete("case", 2);
+
+        // Then
+        assertEquals(List.of(suggestion("Case 99", PRODUCT), suggestion("Case 98", PRODUCT),
+                suggestion("Case 97", PRODUCT)), result);
+        assertEquals(result.subList(0, 2), limited);
+    }
+
+    private static SuggestionTrie.Entry entry(String text, SuggestionResponse.Type type, long weight) {
+        return new SuggestionTrie.Entry(suggestion(text, type), weight);
+    }
+
+    private static SuggestionResponse suggestion(String text, SuggestionResponse.Type type) {
+        return new SuggestionResponse(text, type);
+    }
+}